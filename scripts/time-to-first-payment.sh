@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Measures wall-clock time from launching the gateway to the first authorized payment.
+#
+#   scripts/time-to-first-payment.sh java -jar build/libs/payment-gateway-challenge-java-0.0.1-SNAPSHOT.jar
+#   scripts/time-to-first-payment.sh ./gradlew bootRunFast -Paot
+#
+# Needs a bank that authorizes (docker-compose up, or the bank-simulator profile).
+# The gateway also logs "First payment authorized N ms after JVM start" and exposes it as
+# payment_startup_first_authorized_seconds, which excludes process and launcher overhead.
+set -u
+
+URL=${GATEWAY_URL:-http://localhost:8090}
+PAYMENT='{"card_number":"2222405343248877","expiry_month":4,"expiry_year":2030,"currency":"GBP","amount":100,"cvv":"123"}'
+
+start=$(date +%s%N)
+"$@" > "${LOG_FILE:-/tmp/time-to-first-payment.log}" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null; wait $pid 2>/dev/null' EXIT
+
+while kill -0 $pid 2>/dev/null; do
+  body=$(curl -s -m 2 -X POST "$URL/payment" -H 'Content-Type: application/json' \
+      -H "Idempotency-Key: ttfp-$start-$RANDOM" -d "$PAYMENT")
+  if [[ "$body" == *'"status":"Authorized"'* ]]; then
+    echo "first authorized payment after $(( ($(date +%s%N) - start) / 1000000 )) ms"
+    exit 0
+  fi
+  sleep 0.01
+done
+echo "gateway exited before authorizing a payment" >&2
+exit 1
@@ -0,0 +1,28 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.model.CreatePaymentRequest;
+
+final class BenchmarkRequests {
+
+  private BenchmarkRequests() {
+  }
+
+  static CreatePaymentRequest validRequest() {
+    CreatePaymentRequest request = new CreatePaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2030);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+    return request;
+  }
+
+  static CreatePaymentRequest invalidRequest() {
+    CreatePaymentRequest request = validRequest();
+    request.setCardNumber("12345678901234a");
+    request.setCurrency("BRL");
+    request.setCvv("12");
+    return request;
+  }
+}
@@ -0,0 +1,68 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.bin.BinInfo;
+import com.checkout.payment.gateway.bin.BinRange;
+import com.checkout.payment.gateway.bin.BinTable;
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.FundingType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Synthetic tables of evenly spread, half-covered ranges; lookups hit and miss about equally.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinTableBenchmark {
+
+  private static final int LOOKUPS = 1 << 16;
+  private static final String[] COUNTRIES = {"GB", "US", "FR", "DE", "JP", "BR", "IN", "CN"};
+
+  @Param({"1000000", "4000000"})
+  private int ranges;
+
+  private BinTable table;
+  private int[] bins;
+  private String[] cardNumbers;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    int step = 100_000_000 / ranges;
+    List<BinRange> source = new ArrayList<>(ranges);
+    for (int i = 0; i < ranges; i++) {
+      BinInfo info = new BinInfo(CardScheme.values()[random.nextInt(CardScheme.values().length)],
+          COUNTRIES[random.nextInt(COUNTRIES.length)],
+          FundingType.values()[random.nextInt(FundingType.values().length)]);
+      source.add(new BinRange(i * step, i * step + step / 2, info));
+    }
+    table = BinTable.of(source);
+
+    bins = new int[LOOKUPS];
+    cardNumbers = new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      bins[i] = random.nextInt(100_000_000);
+      cardNumbers[i] = String.format("%08d%08d", bins[i], random.nextInt(100_000_000));
+    }
+  }
+
+  @Benchmark
+  public BinInfo lookupBin() {
+    return table.lookup(bins[next++ & (LOOKUPS - 1)]);
+  }
+
+  @Benchmark
+  public BinInfo lookupCardNumber() {
+    return table.lookup(cardNumbers[next++ & (LOOKUPS - 1)]);
+  }
+}
@@ -0,0 +1,125 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentLookupResponseDto;
+import com.checkout.payment.gateway.api.PaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentStatusDto;
+import com.checkout.payment.gateway.model.CreatePaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// The request and response DTOs in each encoding the controller negotiates. The lookup response
+// holds 100 payments, the size of a typical batch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+  @Param({"JSON", "SMILE", "CBOR"})
+  public String encoding;
+
+  private ObjectReader requestReader;
+  private ObjectReader lookupResponseReader;
+  private ObjectWriter createResponseWriter;
+  private ObjectWriter paymentResponseWriter;
+  private ObjectWriter lookupResponseWriter;
+  private byte[] requestJson;
+  private byte[] lookupResponseBytes;
+  private CreatePaymentResponseDto createResponse;
+  private PaymentResponseDto paymentResponse;
+  private PaymentLookupResponseDto lookupResponse;
+
+  @Setup
+  public void setUp() throws IOException {
+    // Built the way the app's message converters are, which ignore unknown properties such as
+    // the request's derived expiry_date.
+    ObjectMapper objectMapper = switch (encoding) {
+      case "SMILE" -> Jackson2ObjectMapperBuilder.smile().build();
+      case "CBOR" -> Jackson2ObjectMapperBuilder.cbor().build();
+      default -> Jackson2ObjectMapperBuilder.json().build();
+    };
+    requestReader = objectMapper.readerFor(CreatePaymentRequest.class);
+    createResponseWriter = objectMapper.writerFor(CreatePaymentResponseDto.class);
+    paymentResponseWriter = objectMapper.writerFor(PaymentResponseDto.class);
+    requestJson = objectMapper.writeValueAsBytes(BenchmarkRequests.validRequest());
+
+    UUID id = UUID.randomUUID();
+    createResponse = new CreatePaymentResponseDto();
+    createResponse.setId(id);
+    createResponse.setStatus(PaymentStatusDto.AUTHORIZED);
+    createResponse.setCardNumberLastFour(8877);
+    createResponse.setExpiryMonth(4);
+    createResponse.setExpiryYear(2030);
+    createResponse.setCurrency("GBP");
+    createResponse.setAmount(100);
+
+    paymentResponse = new PaymentResponseDto();
+    paymentResponse.setId(id);
+    paymentResponse.setStatus(PaymentStatusDto.AUTHORIZED);
+    paymentResponse.setCardNumberLastFour(8877);
+    paymentResponse.setExpiryMonth(4);
+    paymentResponse.setExpiryYear(2030);
+    paymentResponse.setCurrency("GBP");
+    paymentResponse.setAmount(100);
+
+    List<PaymentResponseDto> payments = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      PaymentResponseDto payment = new PaymentResponseDto();
+      payment.setId(UUID.randomUUID());
+      payment.setStatus(i % 3 == 0 ? PaymentStatusDto.DECLINED : PaymentStatusDto.AUTHORIZED);
+      payment.setCardNumberLastFour(1000 + i);
+      payment.setExpiryMonth(1 + i % 12);
+      payment.setExpiryYear(2030);
+      payment.setCurrency("GBP");
+      payment.setAmount(100 * i);
+      payments.add(payment);
+    }
+    lookupResponse = new PaymentLookupResponseDto();
+    lookupResponse.setPayments(payments);
+    lookupResponse.setMissing(List.of(UUID.randomUUID()));
+    lookupResponseReader = objectMapper.readerFor(PaymentLookupResponseDto.class);
+    lookupResponseWriter = objectMapper.writerFor(PaymentLookupResponseDto.class);
+    lookupResponseBytes = lookupResponseWriter.writeValueAsBytes(lookupResponse);
+  }
+
+  @Benchmark
+  public CreatePaymentRequest deserializeCreatePaymentRequest() throws IOException {
+    return requestReader.readValue(requestJson);
+  }
+
+  @Benchmark
+  public byte[] serializeCreatePaymentResponse() throws IOException {
+    return createResponseWriter.writeValueAsBytes(createResponse);
+  }
+
+  @Benchmark
+  public byte[] serializePaymentResponse() throws IOException {
+    return paymentResponseWriter.writeValueAsBytes(paymentResponse);
+  }
+
+  @Benchmark
+  public byte[] serializeLookupResponse() throws IOException {
+    return lookupResponseWriter.writeValueAsBytes(lookupResponse);
+  }
+
+  // What a merchant's client does with the answer.
+  @Benchmark
+  public PaymentLookupResponseDto deserializeLookupResponse() throws IOException {
+    return lookupResponseReader.readValue(lookupResponseBytes);
+  }
+}
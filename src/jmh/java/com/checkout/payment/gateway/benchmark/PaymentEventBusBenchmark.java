@@ -0,0 +1,65 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.events.FullPolicy;
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.events.WaitStrategy;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Cost of publish() on the request thread, with one subscriber that does no work. Under BLOCK
+// the score includes waiting for the subscriber whenever the ring fills up.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentEventBusBenchmark {
+
+  @Param({"BLOCK", "DROP"})
+  private FullPolicy fullPolicy;
+
+  private PaymentEventBus paymentEventBus;
+  private PaymentRecord payment;
+
+  @Setup
+  public void setUp() {
+    PaymentEventSubscriber noOp = new PaymentEventSubscriber() {
+      @Override
+      public String name() {
+        return "no-op";
+      }
+
+      @Override
+      public void onEvent(PaymentEvent event, boolean endOfBatch) {
+      }
+    };
+    paymentEventBus = new PaymentEventBus(new PaymentEventBusProperties(4096, fullPolicy,
+        WaitStrategy.YIELDING, Map.of()), List.of(noOp));
+    payment = PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4, 2030, null);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    paymentEventBus.shutdown();
+  }
+
+  @Benchmark
+  public boolean publish() {
+    return paymentEventBus.publish(PaymentEventType.CREATED, payment, "bench", null);
+  }
+}
@@ -0,0 +1,32 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+// Many threads share one generator, as request threads share the service's.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class PaymentIdBenchmark {
+
+  private final PaymentIdGenerator paymentIdGenerator = new PaymentIdGenerator();
+
+  @Benchmark
+  public UUID randomUuid() {
+    return UUID.randomUUID();
+  }
+
+  @Benchmark
+  public UUID timeOrderedId() {
+    return paymentIdGenerator.next();
+  }
+}
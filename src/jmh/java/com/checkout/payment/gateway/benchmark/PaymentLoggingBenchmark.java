@@ -0,0 +1,64 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.logging.PaymentLogEventType;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// One "payment processed" line per operation, all three through the same file appender: the
+// parameterized LOG.info the service used before PaymentEventLogger, and the logger in sync and
+// async mode.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class PaymentLoggingBenchmark {
+
+  private static final Logger ORIGINAL = LoggerFactory.getLogger("payment.original");
+
+  private final UUID paymentId = UUID.randomUUID();
+  private PaymentEventLogger sync;
+  private PaymentEventLogger async;
+
+  @Setup
+  public void setUp() {
+    sync = new PaymentEventLogger("sync", 8192, 1.0);
+    async = new PaymentEventLogger("async", 8192, 1.0);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    async.shutdown();
+  }
+
+  @Benchmark
+  public void originalLogInfo() {
+    ORIGINAL.info("Payment processed, paymentId={}, status={}, amount={}, currency={}, "
+            + "cardLastFour={}, idempotencyKey={}", paymentId, PaymentStatus.AUTHORIZED, 1050,
+        "GBP", 8877, "bench-key");
+  }
+
+  @Benchmark
+  public void eventLoggerSync() {
+    sync.log(PaymentLogEventType.PROCESSED, paymentId, PaymentStatus.AUTHORIZED, 1050, "GBP",
+        "bench-key");
+  }
+
+  @Benchmark
+  public void eventLoggerAsync() {
+    async.log(PaymentLogEventType.PROCESSED, paymentId, PaymentStatus.AUTHORIZED, 1050, "GBP",
+        "bench-key");
+  }
+}
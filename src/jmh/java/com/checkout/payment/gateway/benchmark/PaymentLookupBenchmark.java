@@ -0,0 +1,94 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// A dashboard fetching `batch` payments from a running gateway over HTTP: one
+// POST /payment/lookup against the same number of GET /payment/{id} on one keep-alive
+// connection. A tenth of the ids are unknown, as they would be after a typo or a purge.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentLookupBenchmark {
+
+  @Param({"10", "100", "500"})
+  public int batch;
+
+  private ConfigurableApplicationContext gateway;
+  private HttpClient client;
+  private HttpRequest lookup;
+  private HttpRequest[] singles;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    gateway = SpringApplication.run(PaymentGatewayApplication.class, "--server.port=" + port,
+        "--warm-up.enabled=false", "--audit.enabled=false");
+    PaymentsRepository paymentsRepository = gateway.getBean(PaymentsRepository.class);
+    String base = "http://localhost:" + port;
+    StringJoiner ids = new StringJoiner("\",\"", "{\"ids\":[\"", "\"]}");
+    singles = new HttpRequest[batch];
+    for (int i = 0; i < batch; i++) {
+      UUID id = UUID.randomUUID();
+      if (i % 10 != 9) {
+        PaymentRecord pending = PaymentRecord.pending(id, Currency.GBP, 100 + i, 8877, 4, 2030,
+            null);
+        paymentsRepository.add(pending);
+        paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-code");
+      }
+      ids.add(id.toString());
+      singles[i] = HttpRequest.newBuilder(URI.create(base + "/payment/" + id)).build();
+    }
+    lookup = HttpRequest.newBuilder(URI.create(base + "/payment/lookup"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(ids.toString()))
+        .build();
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    gateway.close();
+  }
+
+  @Benchmark
+  public int batchLookup() throws Exception {
+    return client.send(lookup, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+  }
+
+  @Benchmark
+  public int singleGets() throws Exception {
+    int bytes = 0;
+    for (HttpRequest single : singles) {
+      bytes += client.send(single, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.bin.BinIndex;
+import com.checkout.payment.gateway.cluster.ClusterProperties;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.events.FullPolicy;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.WaitStrategy;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.CreatePaymentRequest;
+import com.checkout.payment.gateway.reconciliation.BankReconciler;
+import com.checkout.payment.gateway.reconciliation.ReconciliationProperties;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.service.IdempotencyProperties;
+import com.checkout.payment.gateway.service.IdempotencyStore;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.sweeper.PendingPaymentSweeper;
+import com.checkout.payment.gateway.sweeper.SweeperProperties;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import com.checkout.payment.gateway.tracing.SlowPaymentRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// The logging mode param compares the original synchronous logging with the async ring.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentServiceBenchmark {
+
+  @Param({"sync", "async"})
+  public String loggingMode;
+
+  private PaymentEventLogger paymentEventLogger;
+  private PaymentGatewayService paymentGatewayService;
+  private CreatePaymentRequest request;
+  private PendingPaymentSweeper pendingPaymentSweeper;
+  // The stub bank always answers, so nothing is ever handed to the reconciler.
+  private final BankReconciler bankReconciler = new BankReconciler(
+      new ReconciliationProperties(false, false, 1, 1, Duration.ofSeconds(1),
+          Duration.ofSeconds(1), 1, Duration.ofSeconds(1), Duration.ofMillis(100), 512),
+      null, null, null, null, null, null);
+  private long sequence;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    pendingPaymentSweeper = new PendingPaymentSweeper(new SweeperProperties(true,
+        Duration.ofSeconds(30), Duration.ofMillis(100), 512, 10_000, 256), null, null, null,
+        null);
+    paymentEventLogger = new PaymentEventLogger(loggingMode, 8192, 1.0);
+    request = BenchmarkRequests.validRequest();
+  }
+
+  // A fresh repository per iteration keeps the map size comparable across iterations.
+  @Setup(Level.Iteration)
+  public void setUpIteration() {
+    PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry());
+    paymentGatewayService = new PaymentGatewayService(new InMemoryPaymentsRepository(),
+        new StubAcquiringBankClient(), paymentEventLogger, paymentMetrics,
+        new PaymentTracer(paymentMetrics, new SlowPaymentRecorder(10, 15, 250)),
+        new PaymentIdGenerator(), new BinIndex(new ClassPathResource("bins.csv")),
+        new PaymentEventBus(new PaymentEventBusProperties(1024, FullPolicy.DROP,
+            WaitStrategy.SLEEPING, Map.of()), List.of()),
+        new ClusterRouter(new ClusterProperties(false, "local", null, 128,
+            Duration.ofSeconds(1), Duration.ofSeconds(10)), new ObjectMapper()),
+        pendingPaymentSweeper, new PaymentAggregates(), bankReconciler,
+        new IdempotencyStore(new IdempotencyProperties(Duration.ofHours(24), 1_000_000)));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws InterruptedException {
+    pendingPaymentSweeper.shutdown();
+    paymentEventLogger.shutdown();
+  }
+
+  @Benchmark
+  public CreatePaymentResponseDto processPayment() {
+    return paymentGatewayService.processPayment("bench-" + sequence++, request);
+  }
+}
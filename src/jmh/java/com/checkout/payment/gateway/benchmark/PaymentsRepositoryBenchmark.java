@@ -0,0 +1,91 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Readers and writers share one repository to show the cost of contention on get/add. The store
+// must be thread-safe for these numbers to mean anything, so each iteration checks that no
+// concurrent add was lost. contendedGet has the same reader threads without writers.
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentsRepositoryBenchmark {
+
+  private static final int PRELOADED = 100_000;
+
+  private PaymentsRepository paymentsRepository;
+  private UUID[] knownIds;
+  private final LongAdder added = new LongAdder();
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    paymentsRepository = new InMemoryPaymentsRepository();
+    knownIds = new UUID[PRELOADED];
+    for (int i = 0; i < PRELOADED; i++) {
+      PaymentRecord payment = payment();
+      knownIds[i] = payment.getId();
+      paymentsRepository.add(payment);
+    }
+    added.reset();
+  }
+
+  @TearDown(Level.Iteration)
+  public void checkNoAddWasLost() {
+    long expected = PRELOADED + added.sum();
+    if (paymentsRepository.size() != expected) {
+      throw new IllegalStateException("Store lost concurrent adds: " + paymentsRepository.size()
+          + " of " + expected);
+    }
+  }
+
+  @Benchmark
+  @Group("readHeavy")
+  @GroupThreads(6)
+  public Optional<PaymentRecord> readHeavyGet() {
+    return paymentsRepository.get(knownIds[ThreadLocalRandom.current().nextInt(PRELOADED)]);
+  }
+
+  @Benchmark
+  @Group("readHeavy")
+  @GroupThreads(2)
+  public void readHeavyAdd() {
+    paymentsRepository.add(payment());
+    added.increment();
+  }
+
+  @Benchmark
+  @Group("contendedGet")
+  @GroupThreads(6)
+  public Optional<PaymentRecord> contendedGet() {
+    return paymentsRepository.get(knownIds[ThreadLocalRandom.current().nextInt(PRELOADED)]);
+  }
+
+  @Benchmark
+  @Group("uncontendedGet")
+  @GroupThreads(1)
+  public Optional<PaymentRecord> uncontendedGet() {
+    return paymentsRepository.get(knownIds[ThreadLocalRandom.current().nextInt(PRELOADED)]);
+  }
+
+  private static PaymentRecord payment() {
+    return PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4, 2030, null);
+  }
+}
@@ -0,0 +1,94 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.JdbcPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.RepositoryBackend;
+import com.checkout.payment.gateway.repository.RepositoryProperties;
+import com.checkout.payment.gateway.repository.TieredPaymentsRepository;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+// The write path of one payment (insert PENDING, then settle it) and a lookup, per backend. 16
+// threads stand in for the write lane, so the JDBC write stage has concurrent writes to batch.
+// With TIERED the looked-up payments have all been moved to cold segments.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class RepositoryBackendBenchmark {
+
+  private static final int PRELOADED = 10_000;
+
+  @Param({"MEMORY", "JDBC", "TIERED"})
+  public RepositoryBackend backend;
+
+  private PaymentsRepository paymentsRepository;
+  private UUID[] knownIds;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    paymentsRepository = switch (backend) {
+      case MEMORY -> new InMemoryPaymentsRepository();
+      case JDBC -> new JdbcPaymentsRepository(new RepositoryProperties.Jdbc(
+          "jdbc:h2:mem:benchmark-" + UUID.randomUUID(), "sa", "", 16, 256, 4096));
+      // Settled payments go cold straight away, so get() below reads the mapped segments.
+      case TIERED -> new TieredPaymentsRepository(new RepositoryProperties.Tiered(
+          Files.createTempDirectory("cold-benchmark"), Duration.ZERO, Duration.ofMillis(100),
+          1_000_000, 8, 64, 10));
+    };
+    knownIds = new UUID[PRELOADED];
+    for (int i = 0; i < PRELOADED; i++) {
+      PaymentRecord payment = payment();
+      knownIds[i] = payment.getId();
+      paymentsRepository.add(payment);
+      paymentsRepository.transition(payment, PaymentStatus.AUTHORIZED, "auth-code");
+    }
+    if (paymentsRepository instanceof TieredPaymentsRepository tiered) {
+      while (tiered.getHotSize() > 0) {
+        Thread.sleep(50);
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (paymentsRepository instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  @Benchmark
+  public PaymentRecord createAndSettle() {
+    PaymentRecord pending = payment();
+    paymentsRepository.add(pending);
+    return paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-code");
+  }
+
+  @Benchmark
+  public Optional<PaymentRecord> get() {
+    return paymentsRepository.get(knownIds[ThreadLocalRandom.current().nextInt(PRELOADED)]);
+  }
+
+  private static PaymentRecord payment() {
+    return PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4, 2030, null);
+  }
+}
@@ -0,0 +1,100 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.RepositoryBackend;
+import com.checkout.payment.gateway.repository.RepositoryProperties;
+import com.checkout.payment.gateway.repository.TieredPaymentsRepository;
+import com.checkout.payment.gateway.settlement.SettlementProperties;
+import com.checkout.payment.gateway.settlement.SettlementReportJob;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+// One end-of-day report over a day of 1M payments, three quarters of them authorized, with the
+// settlement pool capped at 1 and 4 threads. Payments per second is 1M / the time per report. With
+// TIERED every payment of the day has been moved to cold segments.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SettlementReportBenchmark {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+  private static final int PAYMENTS = 1_000_000;
+
+  @Param({"MEMORY", "TIERED"})
+  public RepositoryBackend backend;
+
+  @Param({"1", "4"})
+  public int parallelism;
+
+  private PaymentsRepository paymentsRepository;
+  private SettlementReportJob job;
+  private Path directory;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("settlement-benchmark");
+    paymentsRepository = backend == RepositoryBackend.TIERED
+        ? new TieredPaymentsRepository(new RepositoryProperties.Tiered(directory.resolve("cold"),
+            Duration.ZERO, Duration.ofMillis(100), 1_000_000, 8, 64, 10))
+        : new InMemoryPaymentsRepository();
+    long dayStart = TimeUnit.DAYS.toMillis(DAY.toEpochDay());
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Currency[] currencies = Currency.values();
+    for (int i = 0; i < PAYMENTS; i++) {
+      UUID lowest = PaymentIdGenerator.lowerBound(dayStart + i * 86L);
+      PaymentRecord pending = PaymentRecord.pending(
+          new UUID(lowest.getMostSignificantBits(), random.nextLong() | Long.MIN_VALUE),
+          currencies[i % currencies.length], random.nextInt(1, 100_000), 1234, 1, 2030, null);
+      paymentsRepository.add(pending);
+      if (i % 4 == 3) {
+        paymentsRepository.transition(pending, PaymentStatus.DECLINED, null);
+      } else {
+        paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-" + i);
+      }
+    }
+    if (paymentsRepository instanceof TieredPaymentsRepository tiered) {
+      while (tiered.getHotSize() > 0) {
+        Thread.sleep(50);
+      }
+    }
+    job = new SettlementReportJob(paymentsRepository, new SettlementProperties(false,
+        Duration.ofMinutes(30), directory.resolve("reports"), parallelism, 8192,
+        DataSize.ofKilobytes(64)));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    job.shutdown();
+    if (paymentsRepository instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public Path report() throws Exception {
+    return job.start(DAY).orElseThrow().getReport().get();
+  }
+}
@@ -0,0 +1,31 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
+import com.checkout.payment.gateway.model.AcquiringBankResponse;
+
+// Answers like the bank simulator (odd last digit authorizes) without any I/O.
+class StubAcquiringBankClient extends AcquiringBankClient {
+
+  private static final AcquiringBankResponse AUTHORIZED =
+      response(true, "0bb07405-6d44-4b50-a14f-7ae0beff13ad");
+  private static final AcquiringBankResponse DECLINED = response(false, "");
+
+  StubAcquiringBankClient() {
+    super(null, "http://localhost/stub", null);
+  }
+
+  @Override
+  public AcquiringBankResponse requestPayment(AcquiringBankRequest request) {
+    String cardNumber = request.getCardNumber();
+    int lastDigit = cardNumber.charAt(cardNumber.length() - 1) - '0';
+    return lastDigit % 2 == 1 ? AUTHORIZED : DECLINED;
+  }
+
+  private static AcquiringBankResponse response(boolean authorized, String authorizationCode) {
+    AcquiringBankResponse response = new AcquiringBankResponse();
+    response.setAuthorized(authorized);
+    response.setAuthorizationCode(authorizationCode);
+    return response;
+  }
+}
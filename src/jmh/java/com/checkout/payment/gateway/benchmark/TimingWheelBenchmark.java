@@ -0,0 +1,72 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.sweeper.HashedTimingWheel;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+// Arming and cancelling one payment deadline while millions of others are outstanding, as
+// processPayment does for every payment. The wheel is compared with a ScheduledThreadPoolExecutor,
+// whose delay queue is a binary heap. The outstanding deadlines are spread over the next hour, so
+// none fires during the run and the wheel's thread visits about outstanding / 512 of them per tick.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class TimingWheelBenchmark {
+
+  private static final Duration DEADLINE = Duration.ofSeconds(30);
+
+  @Param({"1000000", "4000000"})
+  public int outstanding;
+
+  private HashedTimingWheel<UUID> wheel;
+  private ScheduledThreadPoolExecutor executor;
+  private final UUID paymentId = UUID.randomUUID();
+  private final Runnable sweep = () -> { };
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    wheel = new HashedTimingWheel<>("benchmark-wheel", Duration.ofMillis(100), 512, id -> { });
+    executor = new ScheduledThreadPoolExecutor(1);
+    executor.setRemoveOnCancelPolicy(true);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < outstanding; i++) {
+      long delayMillis = TimeUnit.MINUTES.toMillis(5) + random.nextLong(TimeUnit.HOURS.toMillis(1));
+      wheel.schedule(paymentId, Duration.ofMillis(delayMillis));
+      executor.schedule(sweep, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws InterruptedException {
+    wheel.close();
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public boolean wheelArmAndCancel() {
+    return wheel.schedule(paymentId, DEADLINE).cancel();
+  }
+
+  @Benchmark
+  public boolean scheduledExecutorArmAndCancel() {
+    ScheduledFuture<?> future = executor.schedule(sweep, DEADLINE.toMillis(),
+        TimeUnit.MILLISECONDS);
+    return future.cancel(false);
+  }
+}
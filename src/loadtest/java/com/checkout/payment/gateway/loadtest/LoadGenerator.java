@@ -0,0 +1,248 @@
+package com.checkout.payment.gateway.loadtest;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Drives the gateway over HTTP at a fixed request rate and reports latency percentiles.
+ *
+ * <p>Every request has an intended start time on a fixed schedule. Latency is measured from that
+ * time, not from when the request was actually sent, so a stalled server (or a full in-flight
+ * window) shows up as queueing delay for every request that should have been sent meanwhile.
+ * This corrects for coordinated omission. The uncorrected service time is reported as well.
+ *
+ * <p>Usage: {@code ./gradlew loadTest -PloadTestArgs="--rate=500 --duration=60 --read-ratio=0.8"}
+ */
+public class LoadGenerator {
+
+  private static final Pattern PAYMENT_ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+  private static final String[] CARD_NUMBERS = {
+      "2222405343248877", "2222405343248871", "2222405343248112", "2222405343248114"};
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+  private final Options options;
+  private final HttpClient httpClient;
+  private final Recorder writeLatency = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+  private final Recorder readLatency = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+  private final Recorder writeServiceTime = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+  private final Recorder readServiceTime = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+  private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<String> knownIds = new AtomicReferenceArray<>(4096);
+  private final AtomicLong nextIdSlot = new AtomicLong();
+  private final LongAdder knownIdCount = new LongAdder();
+  private final Semaphore inFlight;
+
+  LoadGenerator(Options options) {
+    this.options = options;
+    this.inFlight = new Semaphore(options.maxInFlight);
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newFixedThreadPool(Math.max(4, options.threads)))
+        .build();
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = Options.parse(args);
+    System.out.printf("Target %s at %d req/s for %ds (warm-up %ds), read ratio %.2f%n",
+        options.url, options.rate, options.durationSeconds, options.warmupSeconds,
+        options.readRatio);
+    new LoadGenerator(options).run();
+    System.exit(0);
+  }
+
+  void run() throws IOException, InterruptedException {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+    long start = System.nanoTime();
+    long warmupEnd = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+    long end = warmupEnd + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+    boolean resetAfterWarmup = options.warmupSeconds > 0;
+
+    for (long i = 0; ; i++) {
+      long intended = start + i * intervalNanos;
+      if (intended >= end) {
+        break;
+      }
+      if (resetAfterWarmup && intended >= warmupEnd) {
+        resetRecorders();
+        resetAfterWarmup = false;
+      }
+      long wait;
+      while ((wait = intended - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      // Blocking here delays the send, never the intended time, so the wait is still measured.
+      inFlight.acquire();
+      boolean read = knownIdCount.sum() > 0
+          && ThreadLocalRandom.current().nextDouble() < options.readRatio;
+      send(read ? readRequest() : writeRequest(), read, intended);
+    }
+    inFlight.acquire(options.maxInFlight);
+    report();
+  }
+
+  private void send(HttpRequest request, boolean read, long intended) {
+    long sent = System.nanoTime();
+    httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .whenComplete((response, failure) -> {
+          long now = System.nanoTime();
+          try {
+            (read ? readLatency : writeLatency).recordValue(clamp(now - intended));
+            (read ? readServiceTime : writeServiceTime).recordValue(clamp(now - sent));
+            String outcome = (read ? "GET " : "POST ")
+                + (failure != null ? failure.getClass().getSimpleName() : response.statusCode());
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+            if (!read && response != null && response.statusCode() == 200) {
+              rememberId(response.body());
+            }
+          } finally {
+            inFlight.release();
+          }
+        });
+  }
+
+  private HttpRequest writeRequest() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String body = "{\"card_number\":\"" + CARD_NUMBERS[random.nextInt(CARD_NUMBERS.length)]
+        + "\",\"expiry_month\":4,\"expiry_year\":2030,\"currency\":\"GBP\","
+        + "\"amount\":" + (1 + random.nextInt(10_000)) + ",\"cvv\":\"123\"}";
+    return HttpRequest.newBuilder(URI.create(options.url + "/payment"))
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .header("Idempotency-Key", UUID.randomUUID().toString())
+        .header("Merchant-Id", "loadtest-" + random.nextInt(options.merchants))
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private HttpRequest readRequest() {
+    int known = (int) Math.min(knownIdCount.sum(), knownIds.length());
+    String id = null;
+    while (id == null) {
+      // A slot can be claimed but not yet written; just pick another one.
+      id = knownIds.get(ThreadLocalRandom.current().nextInt(known));
+    }
+    return HttpRequest.newBuilder(URI.create(options.url + "/payment/" + id))
+        .timeout(Duration.ofSeconds(30))
+        .GET()
+        .build();
+  }
+
+  private void rememberId(String body) {
+    Matcher matcher = PAYMENT_ID.matcher(body);
+    if (matcher.find()) {
+      long slot = nextIdSlot.getAndIncrement();
+      knownIds.set((int) (slot % knownIds.length()), matcher.group(1));
+      knownIdCount.increment();
+    }
+  }
+
+  private void resetRecorders() {
+    writeLatency.reset();
+    readLatency.reset();
+    writeServiceTime.reset();
+    readServiceTime.reset();
+    outcomes.clear();
+  }
+
+  private void report() throws IOException {
+    Histogram writes = writeLatency.getIntervalHistogram();
+    Histogram reads = readLatency.getIntervalHistogram();
+    System.out.println();
+    printSummary("POST /payment (corrected)", writes);
+    printSummary("POST /payment (service time)", writeServiceTime.getIntervalHistogram());
+    printSummary("GET /payment/{id} (corrected)", reads);
+    printSummary("GET /payment/{id} (service time)", readServiceTime.getIntervalHistogram());
+    System.out.println("Outcomes: " + new TreeMap<>(outcomes));
+
+    if (options.histogramFile != null) {
+      try (PrintStream out = new PrintStream(new FileOutputStream(options.histogramFile))) {
+        out.println("# POST /payment, corrected for coordinated omission, ms");
+        writes.outputPercentileDistribution(out, 1_000_000.0);
+        out.println("# GET /payment/{id}, corrected for coordinated omission, ms");
+        reads.outputPercentileDistribution(out, 1_000_000.0);
+      }
+      System.out.println("Percentile distributions written to " + options.histogramFile);
+    }
+  }
+
+  private static void printSummary(String label, Histogram histogram) {
+    if (histogram.getTotalCount() == 0) {
+      System.out.printf("%-34s no samples%n", label);
+      return;
+    }
+    System.out.printf("%-34s n=%-8d p50=%8.2fms p90=%8.2fms p99=%8.2fms p99.9=%8.2fms "
+            + "p99.99=%8.2fms max=%8.2fms%n",
+        label, histogram.getTotalCount(),
+        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+        millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+        millis(histogram.getValueAtPercentile(99.99)), millis(histogram.getMaxValue()));
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static long clamp(long nanos) {
+    return Math.min(Math.max(nanos, 0L), HIGHEST_TRACKABLE_NANOS);
+  }
+
+  static final class Options {
+
+    String url = "http://localhost:8090";
+    int rate = 200;
+    int durationSeconds = 60;
+    int warmupSeconds = 10;
+    double readRatio = 0.0;
+    int maxInFlight = 1_000;
+    int threads = 8;
+    int merchants = 10;
+    String histogramFile;
+
+    static Options parse(String[] args) {
+      Map<String, String> values = new TreeMap<>();
+      for (String arg : args) {
+        String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+        values.put(parts[0], parts.length > 1 ? parts[1] : "true");
+      }
+      Options options = new Options();
+      options.url = values.getOrDefault("url", options.url);
+      options.rate = Integer.parseInt(values.getOrDefault("rate", "" + options.rate));
+      options.durationSeconds = Integer.parseInt(
+          values.getOrDefault("duration", "" + options.durationSeconds));
+      options.warmupSeconds = Integer.parseInt(
+          values.getOrDefault("warmup", "" + options.warmupSeconds));
+      options.readRatio = Double.parseDouble(
+          values.getOrDefault("read-ratio", "" + options.readRatio));
+      options.maxInFlight = Integer.parseInt(
+          values.getOrDefault("max-in-flight", "" + options.maxInFlight));
+      options.threads = Integer.parseInt(values.getOrDefault("threads", "" + options.threads));
+      options.merchants = Integer.parseInt(
+          values.getOrDefault("merchants", "" + options.merchants));
+      options.histogramFile = values.get("histogram-file");
+      return options;
+    }
+  }
+}
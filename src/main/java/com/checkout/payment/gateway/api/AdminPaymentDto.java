@@ -0,0 +1,61 @@
+package com.checkout.payment.gateway.api;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class AdminPaymentDto {
+  private UUID paymentId;
+  private String status;
+  private String currency;
+  private int amount;
+  private int cardNumberLastFour;
+  private Instant createdAt;
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public void setPaymentId(UUID paymentId) {
+    this.paymentId = paymentId;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  public int getAmount() {
+    return amount;
+  }
+
+  public void setAmount(int amount) {
+    this.amount = amount;
+  }
+
+  public int getCardNumberLastFour() {
+    return cardNumberLastFour;
+  }
+
+  public void setCardNumberLastFour(int cardNumberLastFour) {
+    this.cardNumberLastFour = cardNumberLastFour;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
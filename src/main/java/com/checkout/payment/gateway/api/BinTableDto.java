@@ -0,0 +1,33 @@
+package com.checkout.payment.gateway.api;
+
+import java.time.Instant;
+
+public class BinTableDto {
+  private String source;
+  private int intervals;
+  private Instant loadedAt;
+
+  public String getSource() {
+    return source;
+  }
+
+  public void setSource(String source) {
+    this.source = source;
+  }
+
+  public int getIntervals() {
+    return intervals;
+  }
+
+  public void setIntervals(int intervals) {
+    this.intervals = intervals;
+  }
+
+  public Instant getLoadedAt() {
+    return loadedAt;
+  }
+
+  public void setLoadedAt(Instant loadedAt) {
+    this.loadedAt = loadedAt;
+  }
+}
@@ -0,0 +1,58 @@
+package com.checkout.payment.gateway.api;
+
+public class CircuitBreakerDto {
+  private String name;
+  private String state;
+  private float failureRate;
+  private int bufferedCalls;
+  private int failedCalls;
+  private long notPermittedCalls;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public void setState(String state) {
+    this.state = state;
+  }
+
+  public float getFailureRate() {
+    return failureRate;
+  }
+
+  public void setFailureRate(float failureRate) {
+    this.failureRate = failureRate;
+  }
+
+  public int getBufferedCalls() {
+    return bufferedCalls;
+  }
+
+  public void setBufferedCalls(int bufferedCalls) {
+    this.bufferedCalls = bufferedCalls;
+  }
+
+  public int getFailedCalls() {
+    return failedCalls;
+  }
+
+  public void setFailedCalls(int failedCalls) {
+    this.failedCalls = failedCalls;
+  }
+
+  public long getNotPermittedCalls() {
+    return notPermittedCalls;
+  }
+
+  public void setNotPermittedCalls(long notPermittedCalls) {
+    this.notPermittedCalls = notPermittedCalls;
+  }
+}
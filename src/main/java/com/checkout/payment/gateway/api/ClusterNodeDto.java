@@ -0,0 +1,49 @@
+package com.checkout.payment.gateway.api;
+
+public class ClusterNodeDto {
+  private String node;
+  private String baseUrl;
+  private boolean self;
+  private long forwarded;
+  private long forwardFailures;
+
+  public String getNode() {
+    return node;
+  }
+
+  public void setNode(String node) {
+    this.node = node;
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public void setBaseUrl(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  public boolean isSelf() {
+    return self;
+  }
+
+  public void setSelf(boolean self) {
+    this.self = self;
+  }
+
+  public long getForwarded() {
+    return forwarded;
+  }
+
+  public void setForwarded(long forwarded) {
+    this.forwarded = forwarded;
+  }
+
+  public long getForwardFailures() {
+    return forwardFailures;
+  }
+
+  public void setForwardFailures(long forwardFailures) {
+    this.forwardFailures = forwardFailures;
+  }
+}
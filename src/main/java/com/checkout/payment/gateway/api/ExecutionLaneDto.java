@@ -0,0 +1,103 @@
+package com.checkout.payment.gateway.api;
+
+public class ExecutionLaneDto {
+  private String name;
+  private String saturationPolicy;
+  private int threads;
+  private int active;
+  private int queued;
+  private int queueCapacity;
+  private long submitted;
+  private long completed;
+  private long rejected;
+  private long callerRuns;
+  private double averageQueueWaitMicros;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getSaturationPolicy() {
+    return saturationPolicy;
+  }
+
+  public void setSaturationPolicy(String saturationPolicy) {
+    this.saturationPolicy = saturationPolicy;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getActive() {
+    return active;
+  }
+
+  public void setActive(int active) {
+    this.active = active;
+  }
+
+  public int getQueued() {
+    return queued;
+  }
+
+  public void setQueued(int queued) {
+    this.queued = queued;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public long getSubmitted() {
+    return submitted;
+  }
+
+  public void setSubmitted(long submitted) {
+    this.submitted = submitted;
+  }
+
+  public long getCompleted() {
+    return completed;
+  }
+
+  public void setCompleted(long completed) {
+    this.completed = completed;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  public void setRejected(long rejected) {
+    this.rejected = rejected;
+  }
+
+  public long getCallerRuns() {
+    return callerRuns;
+  }
+
+  public void setCallerRuns(long callerRuns) {
+    this.callerRuns = callerRuns;
+  }
+
+  public double getAverageQueueWaitMicros() {
+    return averageQueueWaitMicros;
+  }
+
+  public void setAverageQueueWaitMicros(double averageQueueWaitMicros) {
+    this.averageQueueWaitMicros = averageQueueWaitMicros;
+  }
+}
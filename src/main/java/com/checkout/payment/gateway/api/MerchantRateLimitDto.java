@@ -0,0 +1,49 @@
+package com.checkout.payment.gateway.api;
+
+public class MerchantRateLimitDto {
+  private String merchantId;
+  private double permitsPerSecond;
+  private int burst;
+  private long admitted;
+  private long rejected;
+
+  public String getMerchantId() {
+    return merchantId;
+  }
+
+  public void setMerchantId(String merchantId) {
+    this.merchantId = merchantId;
+  }
+
+  public double getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  public void setPermitsPerSecond(double permitsPerSecond) {
+    this.permitsPerSecond = permitsPerSecond;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  public void setBurst(int burst) {
+    this.burst = burst;
+  }
+
+  public long getAdmitted() {
+    return admitted;
+  }
+
+  public void setAdmitted(long admitted) {
+    this.admitted = admitted;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  public void setRejected(long rejected) {
+    this.rejected = rejected;
+  }
+}
@@ -0,0 +1,25 @@
+package com.checkout.payment.gateway.api;
+
+import java.util.List;
+import java.util.UUID;
+
+public class PaymentLookupResponseDto {
+  private List<PaymentResponseDto> payments;
+  private List<UUID> missing;
+
+  public List<PaymentResponseDto> getPayments() {
+    return payments;
+  }
+
+  public void setPayments(List<PaymentResponseDto> payments) {
+    this.payments = payments;
+  }
+
+  public List<UUID> getMissing() {
+    return missing;
+  }
+
+  public void setMissing(List<UUID> missing) {
+    this.missing = missing;
+  }
+}
@@ -0,0 +1,67 @@
+package com.checkout.payment.gateway.api;
+
+public class PaymentStatsDto {
+  private String currency;
+  private String status;
+  private long count;
+  private long amount;
+  private int windowMinutes;
+  private long recentCount;
+  private long recentAmount;
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(long amount) {
+    this.amount = amount;
+  }
+
+  public int getWindowMinutes() {
+    return windowMinutes;
+  }
+
+  public void setWindowMinutes(int windowMinutes) {
+    this.windowMinutes = windowMinutes;
+  }
+
+  public long getRecentCount() {
+    return recentCount;
+  }
+
+  public void setRecentCount(long recentCount) {
+    this.recentCount = recentCount;
+  }
+
+  public long getRecentAmount() {
+    return recentAmount;
+  }
+
+  public void setRecentAmount(long recentAmount) {
+    this.recentAmount = recentAmount;
+  }
+}
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.annotation.JsonValue;
 public enum PaymentStatusDto {
   AUTHORIZED("Authorized"),
   DECLINED("Declined"),
-  REJECTED("Rejected");
+  REJECTED("Rejected"),
+  /** The bank's answer is not known yet; the payment is settled once it is. */
+  PENDING("Pending");
 
   private final String name;
 
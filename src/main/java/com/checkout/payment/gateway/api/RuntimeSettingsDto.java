@@ -0,0 +1,114 @@
+package com.checkout.payment.gateway.api;
+
+// Read in full from GET /admin/settings; in a PATCH, fields left out keep their current value.
+public class RuntimeSettingsDto {
+  private Integer readLaneThreads;
+  private Integer writeLaneThreads;
+  private Long bankConnectTimeoutMillis;
+  private Long bankReadTimeoutMillis;
+  private Float breakerFailureRateThreshold;
+  private Integer breakerMinimumNumberOfCalls;
+  private Integer breakerSlidingWindowSize;
+  private Long breakerWaitDurationInOpenStateMillis;
+  private Integer breakerPermittedCallsInHalfOpenState;
+  private Integer rateLimitMaxMerchants;
+  private Integer breakerMaxPartitions;
+  private Double logSampleRate;
+
+  public Integer getReadLaneThreads() {
+    return readLaneThreads;
+  }
+
+  public void setReadLaneThreads(Integer readLaneThreads) {
+    this.readLaneThreads = readLaneThreads;
+  }
+
+  public Integer getWriteLaneThreads() {
+    return writeLaneThreads;
+  }
+
+  public void setWriteLaneThreads(Integer writeLaneThreads) {
+    this.writeLaneThreads = writeLaneThreads;
+  }
+
+  public Long getBankConnectTimeoutMillis() {
+    return bankConnectTimeoutMillis;
+  }
+
+  public void setBankConnectTimeoutMillis(Long bankConnectTimeoutMillis) {
+    this.bankConnectTimeoutMillis = bankConnectTimeoutMillis;
+  }
+
+  public Long getBankReadTimeoutMillis() {
+    return bankReadTimeoutMillis;
+  }
+
+  public void setBankReadTimeoutMillis(Long bankReadTimeoutMillis) {
+    this.bankReadTimeoutMillis = bankReadTimeoutMillis;
+  }
+
+  public Float getBreakerFailureRateThreshold() {
+    return breakerFailureRateThreshold;
+  }
+
+  public void setBreakerFailureRateThreshold(Float breakerFailureRateThreshold) {
+    this.breakerFailureRateThreshold = breakerFailureRateThreshold;
+  }
+
+  public Integer getBreakerMinimumNumberOfCalls() {
+    return breakerMinimumNumberOfCalls;
+  }
+
+  public void setBreakerMinimumNumberOfCalls(Integer breakerMinimumNumberOfCalls) {
+    this.breakerMinimumNumberOfCalls = breakerMinimumNumberOfCalls;
+  }
+
+  public Integer getBreakerSlidingWindowSize() {
+    return breakerSlidingWindowSize;
+  }
+
+  public void setBreakerSlidingWindowSize(Integer breakerSlidingWindowSize) {
+    this.breakerSlidingWindowSize = breakerSlidingWindowSize;
+  }
+
+  public Long getBreakerWaitDurationInOpenStateMillis() {
+    return breakerWaitDurationInOpenStateMillis;
+  }
+
+  public void setBreakerWaitDurationInOpenStateMillis(Long breakerWaitDurationInOpenStateMillis) {
+    this.breakerWaitDurationInOpenStateMillis = breakerWaitDurationInOpenStateMillis;
+  }
+
+  public Integer getBreakerPermittedCallsInHalfOpenState() {
+    return breakerPermittedCallsInHalfOpenState;
+  }
+
+  public void setBreakerPermittedCallsInHalfOpenState(
+      Integer breakerPermittedCallsInHalfOpenState) {
+    this.breakerPermittedCallsInHalfOpenState = breakerPermittedCallsInHalfOpenState;
+  }
+
+  public Integer getRateLimitMaxMerchants() {
+    return rateLimitMaxMerchants;
+  }
+
+  public void setRateLimitMaxMerchants(Integer rateLimitMaxMerchants) {
+    this.rateLimitMaxMerchants = rateLimitMaxMerchants;
+  }
+
+  public Integer getBreakerMaxPartitions() {
+    return breakerMaxPartitions;
+  }
+
+  public void setBreakerMaxPartitions(Integer breakerMaxPartitions) {
+    this.breakerMaxPartitions = breakerMaxPartitions;
+  }
+
+  public Double getLogSampleRate() {
+    return logSampleRate;
+  }
+
+  public void setLogSampleRate(Double logSampleRate) {
+    this.logSampleRate = logSampleRate;
+  }
+}
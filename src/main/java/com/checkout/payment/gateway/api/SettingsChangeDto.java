@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway.api;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class SettingsChangeDto {
+  private long sequence;
+  private Instant at;
+  private String actor;
+  private Map<String, List<Object>> changed;
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  public Instant getAt() {
+    return at;
+  }
+
+  public void setAt(Instant at) {
+    this.at = at;
+  }
+
+  public String getActor() {
+    return actor;
+  }
+
+  public void setActor(String actor) {
+    this.actor = actor;
+  }
+
+  public Map<String, List<Object>> getChanged() {
+    return changed;
+  }
+
+  public void setChanged(Map<String, List<Object>> changed) {
+    this.changed = changed;
+  }
+}
@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.api;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public class SettlementRunDto {
+  private LocalDate day;
+  private String state;
+  private Instant startedAt;
+  private Instant finishedAt;
+  private int parallelism;
+  private int partitions;
+  private int partitionsDone;
+  private long scanned;
+  private long authorized;
+  private double paymentsPerSecond;
+  private String file;
+  private String error;
+
+  public LocalDate getDay() {
+    return day;
+  }
+
+  public void setDay(LocalDate day) {
+    this.day = day;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public void setState(String state) {
+    this.state = state;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(Instant startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public void setFinishedAt(Instant finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  public int getPartitions() {
+    return partitions;
+  }
+
+  public void setPartitions(int partitions) {
+    this.partitions = partitions;
+  }
+
+  public int getPartitionsDone() {
+    return partitionsDone;
+  }
+
+  public void setPartitionsDone(int partitionsDone) {
+    this.partitionsDone = partitionsDone;
+  }
+
+  public long getScanned() {
+    return scanned;
+  }
+
+  public void setScanned(long scanned) {
+    this.scanned = scanned;
+  }
+
+  public long getAuthorized() {
+    return authorized;
+  }
+
+  public void setAuthorized(long authorized) {
+    this.authorized = authorized;
+  }
+
+  public double getPaymentsPerSecond() {
+    return paymentsPerSecond;
+  }
+
+  public void setPaymentsPerSecond(double paymentsPerSecond) {
+    this.paymentsPerSecond = paymentsPerSecond;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+}
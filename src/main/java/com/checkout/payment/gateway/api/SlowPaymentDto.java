@@ -0,0 +1,71 @@
+package com.checkout.payment.gateway.api;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+public class SlowPaymentDto {
+  private UUID paymentId;
+  private String request;
+  private String idempotencyKey;
+  private String outcome;
+  private Instant startedAt;
+  private double totalMillis;
+  private Map<String, Double> phaseMillis;
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public void setPaymentId(UUID paymentId) {
+    this.paymentId = paymentId;
+  }
+
+  public String getRequest() {
+    return request;
+  }
+
+  public void setRequest(String request) {
+    this.request = request;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+  public void setOutcome(String outcome) {
+    this.outcome = outcome;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(Instant startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public double getTotalMillis() {
+    return totalMillis;
+  }
+
+  public void setTotalMillis(double totalMillis) {
+    this.totalMillis = totalMillis;
+  }
+
+  public Map<String, Double> getPhaseMillis() {
+    return phaseMillis;
+  }
+
+  public void setPhaseMillis(Map<String, Double> phaseMillis) {
+    this.phaseMillis = phaseMillis;
+  }
+}
@@ -0,0 +1,198 @@
+package com.checkout.payment.gateway.audit;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * On-disk layout of the audit trail. A segment is named {@code audit-<yyyyMMdd>-<NNNNNN>.log}
+ * ({@code .log.gz} once closed and compressed) and starts with a header:
+ * <pre>
+ *   int magic, byte format version, long first sequence, byte[32] hash of the previous record
+ * </pre>
+ * followed by records:
+ * <pre>
+ *   u16 payload length, payload, byte[32] SHA-256(previous hash || payload)
+ * </pre>
+ * The payload is the event in fixed-width big-endian fields with the two strings last, each a
+ * u16 length ({@code 0xFFFF} for null) and UTF-8 bytes. Records that are not about a payment
+ * have the same shape, with the nil UUID and currency {@code 0xFF}: a runtime settings change
+ * carries the change's sequence as version, the actor as idempotency key and the changed settings
+ * as reason; a gap left by events the bus dropped carries how many as amount. Because each header
+ * repeats the last hash of the segment before it, the chain runs unbroken across segments and
+ * restarts.
+ */
+final class AuditFormat {
+
+  static final int MAGIC = 0x50474154;
+  static final byte FORMAT_VERSION = 1;
+  static final int HASH_BYTES = 32;
+  static final int HEADER_BYTES = 4 + 1 + 8 + HASH_BYTES;
+  static final int MAX_STRING_BYTES = 16 * 1024;
+  static final int MAX_PAYLOAD_BYTES = 44 + 2 * (2 + MAX_STRING_BYTES);
+  static final int MAX_RECORD_BYTES = 2 + MAX_PAYLOAD_BYTES + HASH_BYTES;
+  static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private static final Pattern SEGMENT = Pattern.compile("audit-(\\d{8})-(\\d{6})\\.log(\\.gz)?");
+  private static final int NULL_STRING = 0xFFFF;
+  private static final byte NO_CURRENCY = (byte) 0xFF;
+
+  private AuditFormat() {
+  }
+
+  static void encode(ByteBuffer out, long sequence, PaymentEvent event) {
+    out.putLong(sequence);
+    out.put(event.getType().code());
+    out.putLong(event.getTimestampMillis());
+    out.putLong(event.getPaymentId().getMostSignificantBits());
+    out.putLong(event.getPaymentId().getLeastSignificantBits());
+    out.putInt(event.getVersion());
+    out.put(event.getCurrency().code());
+    out.putInt(event.getAmount());
+    out.putShort((short) event.getCardNumberLastFour());
+    putString(out, event.getIdempotencyKey());
+    putString(out, event.getReason());
+  }
+
+  static void encodeSettingsChange(ByteBuffer out, long sequence, long timestampMillis,
+      long changeSequence, String actor, String changed) {
+    encodeWithoutPayment(out, sequence, PaymentEventType.SETTINGS_CHANGED, timestampMillis,
+        (int) changeSequence, 0, actor, changed);
+  }
+
+  static void encodeDropped(ByteBuffer out, long sequence, long timestampMillis, long count) {
+    encodeWithoutPayment(out, sequence, PaymentEventType.EVENTS_DROPPED, timestampMillis, 0,
+        (int) Math.min(count, Integer.MAX_VALUE), null, null);
+  }
+
+  static AuditRecord decode(ByteBuffer in) {
+    return new AuditRecord(in.getLong(), PaymentEventType.fromCode(in.get()), in.getLong(),
+        new UUID(in.getLong(), in.getLong()), in.getInt(), currency(in.get()), in.getInt(),
+        in.getShort(), getString(in), getString(in));
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  static String segmentName(LocalDate day, int index) {
+    return String.format("audit-%s-%06d.log", DAY.format(day), index);
+  }
+
+  static String compressedName(Path segment) {
+    return segment.getFileName() + ".gz";
+  }
+
+  static boolean isCompressed(Path segment) {
+    return segment.getFileName().toString().endsWith(".gz");
+  }
+
+  /** Highest segment index used for {@code day}, or 0. */
+  static int lastIndex(Path directory, LocalDate day) throws IOException {
+    List<Path> segments = segments(directory, day);
+    if (segments.isEmpty()) {
+      return 0;
+    }
+    Matcher matcher = SEGMENT.matcher(segments.get(segments.size() - 1).getFileName().toString());
+    matcher.matches();
+    return Integer.parseInt(matcher.group(2));
+  }
+
+  /**
+   * Segments of {@code day} (all days if null) in write order. When compression was interrupted
+   * both files can exist; the {@code .gz} is only renamed into place once complete, so it wins.
+   */
+  static List<Path> segments(Path directory, LocalDate day) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    String prefix = day == null ? null : DAY.format(day);
+    TreeMap<String, Path> byName = new TreeMap<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.forEach(file -> {
+        Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+        if (matcher.matches() && (prefix == null || prefix.equals(matcher.group(1)))) {
+          String base = "audit-" + matcher.group(1) + "-" + matcher.group(2);
+          if (matcher.group(3) != null || !byName.containsKey(base)) {
+            byName.put(base, file);
+          }
+        }
+      });
+    }
+    return new ArrayList<>(byName.values());
+  }
+
+  /** {@code .log} segments still waiting for compression, including ones already superseded. */
+  static List<Path> uncompressedSegments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> {
+        Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+        return matcher.matches() && matcher.group(3) == null;
+      }).sorted().toList();
+    }
+  }
+
+  private static void encodeWithoutPayment(ByteBuffer out, long sequence, PaymentEventType type,
+      long timestampMillis, int version, int amount, String idempotencyKey, String reason) {
+    out.putLong(sequence);
+    out.put(type.code());
+    out.putLong(timestampMillis);
+    out.putLong(0);
+    out.putLong(0);
+    out.putInt(version);
+    out.put(NO_CURRENCY);
+    out.putInt(amount);
+    out.putShort((short) 0);
+    putString(out, idempotencyKey);
+    putString(out, reason);
+  }
+
+  private static Currency currency(byte code) {
+    return code == NO_CURRENCY ? null : Currency.fromCode(code);
+  }
+
+  private static void putString(ByteBuffer out, String value) {
+    if (value == null) {
+      out.putShort((short) NULL_STRING);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_STRING_BYTES) {
+      throw new IllegalArgumentException("Audit field of " + bytes.length + " bytes exceeds "
+          + MAX_STRING_BYTES);
+    }
+    out.putShort((short) bytes.length);
+    out.put(bytes);
+  }
+
+  private static String getString(ByteBuffer in) {
+    int length = Short.toUnsignedInt(in.getShort());
+    if (length == NULL_STRING) {
+      return null;
+    }
+    String value = new String(in.array(), in.arrayOffset() + in.position(), length,
+        StandardCharsets.UTF_8);
+    in.position(in.position() + length);
+    return value;
+  }
+}
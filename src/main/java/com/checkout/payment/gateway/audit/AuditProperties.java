@@ -0,0 +1,22 @@
+package com.checkout.payment.gateway.audit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * {@code audit.*}: where the trail is written, when a segment is closed and how much written data
+ * may sit in the page cache before an fsync, whichever of {@code fsyncBytes} and
+ * {@code fsyncInterval} comes first.
+ */
+@ConfigurationProperties(prefix = "audit")
+public record AuditProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("audit") Path directory,
+    @DefaultValue("64MB") DataSize segmentSize,
+    @DefaultValue("64KB") DataSize batchSize,
+    @DefaultValue("1MB") DataSize fsyncBytes,
+    @DefaultValue("1s") Duration fsyncInterval) {
+}
@@ -0,0 +1,25 @@
+package com.checkout.payment.gateway.audit;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import java.util.UUID;
+
+/**
+ * One decoded audit trail entry. {@code sequence} runs across segments and restarts. A
+ * {@link PaymentEventType#SETTINGS_CHANGED} entry has no payment or currency; its version is the
+ * settings change's sequence, {@code idempotencyKey} the actor and {@code reason} what changed. An
+ * {@link PaymentEventType#EVENTS_DROPPED} entry has neither, and its amount is how many events the
+ * bus dropped just before the next record.
+ */
+public record AuditRecord(
+    long sequence,
+    PaymentEventType type,
+    long timestampMillis,
+    UUID paymentId,
+    int version,
+    Currency currency,
+    int amount,
+    int cardNumberLastFour,
+    String idempotencyKey,
+    String reason) {
+}
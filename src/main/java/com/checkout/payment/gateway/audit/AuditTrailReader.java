@@ -0,0 +1,233 @@
+package com.checkout.payment.gateway.audit;
+
+import static com.checkout.payment.gateway.audit.AuditFormat.FORMAT_VERSION;
+import static com.checkout.payment.gateway.audit.AuditFormat.HASH_BYTES;
+import static com.checkout.payment.gateway.audit.AuditFormat.HEADER_BYTES;
+import static com.checkout.payment.gateway.audit.AuditFormat.MAGIC;
+import static com.checkout.payment.gateway.audit.AuditFormat.MAX_PAYLOAD_BYTES;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Verifies and scans the audit trail one day at a time. Every record's hash is recomputed from
+ * the previous one, so an edited, removed or reordered record breaks the chain at that point.
+ * Segments are streamed (gunzipped on the fly when compressed) with one reused payload buffer;
+ * records are only decoded when a visitor asks for them.
+ *
+ * <p>Command line: {@code ./gradlew auditVerify -PauditArgs="--day=2026-10-18"}, with optional
+ * {@code --dir=<audit.directory>}, {@code --payment=<id>} to print one payment's records and
+ * {@code --print} to print every record. Exits with status 1 if verification fails.
+ */
+public final class AuditTrailReader {
+
+  private static final int READ_BUFFER_BYTES = 64 * 1024;
+  private static final int MAX_PROBLEMS = 100;
+
+  private AuditTrailReader() {
+  }
+
+  /**
+   * Result of verifying a day. {@code anchorHash} is the previous-record hash in the day's first
+   * header, i.e. where the day hooks onto the day before.
+   */
+  public record Verification(int segments, long records, long firstSequence, long lastSequence,
+      String anchorHash, String lastHash, List<String> problems) {
+
+    public boolean ok() {
+      return problems.isEmpty();
+    }
+  }
+
+  /** Verifies every segment of {@code day}, passing each record to {@code visitor} if non-null. */
+  public static Verification verify(Path directory, LocalDate day, Consumer<AuditRecord> visitor)
+      throws IOException {
+    List<Path> segments = AuditFormat.segments(directory, day);
+    Chain chain = new Chain(visitor);
+    for (Path segment : segments) {
+      scan(segment, chain);
+    }
+    return new Verification(segments.size(), chain.records, chain.firstSequence,
+        chain.next - 1, chain.anchor == null ? null : HexFormat.of().formatHex(chain.anchor),
+        chain.hash == null ? null : HexFormat.of().formatHex(chain.hash),
+        List.copyOf(chain.problems));
+  }
+
+  /** Where the chain stands at the end of {@code segment}, or null if it has no usable header. */
+  static Tail tail(Path segment) throws IOException {
+    Chain chain = new Chain(null);
+    scan(segment, chain);
+    return chain.hash == null ? null : new Tail(chain.next, chain.hash);
+  }
+
+  record Tail(long nextSequence, byte[] lastHash) {
+  }
+
+  public static void main(String[] args) throws IOException {
+    Path directory = Path.of("audit");
+    LocalDate day = LocalDate.now(ZoneOffset.UTC);
+    UUID payment = null;
+    boolean print = false;
+    for (String arg : args) {
+      if (arg.startsWith("--dir=")) {
+        directory = Path.of(arg.substring("--dir=".length()));
+      } else if (arg.startsWith("--day=")) {
+        day = LocalDate.parse(arg.substring("--day=".length()));
+      } else if (arg.startsWith("--payment=")) {
+        payment = UUID.fromString(arg.substring("--payment=".length()));
+      } else if (arg.equals("--print")) {
+        print = true;
+      } else {
+        throw new IllegalArgumentException("Unknown argument " + arg);
+      }
+    }
+    UUID selected = payment;
+    Consumer<AuditRecord> visitor = print || selected != null
+        ? record -> {
+          if (selected == null || selected.equals(record.paymentId())) {
+            System.out.println(record);
+          }
+        }
+        : null;
+
+    long start = System.nanoTime();
+    Verification verification = verify(directory, day, visitor);
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("%s: %d segments, %d records (sequence %d..%d) in %d ms%n", day,
+        verification.segments(), verification.records(), verification.firstSequence(),
+        verification.lastSequence(), millis);
+    System.out.printf("anchor %s%nlast   %s%n", verification.anchorHash(),
+        verification.lastHash());
+    verification.problems().forEach(problem -> System.out.println("PROBLEM " + problem));
+    System.out.println(verification.ok() ? "OK" : "FAILED");
+    if (!verification.ok()) {
+      System.exit(1);
+    }
+  }
+
+  private static void scan(Path segment, Chain chain) throws IOException {
+    String name = segment.getFileName().toString();
+    try (InputStream in = open(segment)) {
+      byte[] header = new byte[HEADER_BYTES];
+      if (in.readNBytes(header, 0, HEADER_BYTES) < HEADER_BYTES) {
+        chain.problem(name + ": truncated header");
+        return;
+      }
+      ByteBuffer fields = ByteBuffer.wrap(header);
+      if (fields.getInt() != MAGIC || fields.get() != FORMAT_VERSION) {
+        chain.problem(name + ": not an audit segment");
+        return;
+      }
+      chain.link(name, fields.getLong(), Arrays.copyOfRange(header, fields.position(),
+          HEADER_BYTES));
+      while (true) {
+        int high = in.read();
+        if (high < 0) {
+          return;
+        }
+        int low = in.read();
+        int length = (high << 8) | low;
+        if (low < 0 || length > MAX_PAYLOAD_BYTES
+            || in.readNBytes(chain.payload, 0, length) < length
+            || in.readNBytes(chain.stored, 0, HASH_BYTES) < HASH_BYTES) {
+          chain.problem(name + ": torn record after sequence " + (chain.next - 1));
+          return;
+        }
+        chain.record(name, length);
+      }
+    }
+  }
+
+  private static InputStream open(Path segment) throws IOException {
+    InputStream in = Files.newInputStream(segment);
+    if (AuditFormat.isCompressed(segment)) {
+      in = new GZIPInputStream(in, READ_BUFFER_BYTES);
+    }
+    return new BufferedInputStream(in, READ_BUFFER_BYTES);
+  }
+
+  private static final class Chain {
+
+    private final Consumer<AuditRecord> visitor;
+    private final MessageDigest digest = AuditFormat.sha256();
+    private final byte[] payload = new byte[MAX_PAYLOAD_BYTES];
+    private final byte[] stored = new byte[HASH_BYTES];
+    private final byte[] computed = new byte[HASH_BYTES];
+    private final List<String> problems = new ArrayList<>();
+    private byte[] anchor;
+    private byte[] hash;
+    private long next = -1;
+    private long firstSequence = -1;
+    private long records;
+    private int hiddenProblems;
+
+    private Chain(Consumer<AuditRecord> visitor) {
+      this.visitor = visitor;
+    }
+
+    private void link(String segment, long firstSequence, byte[] previous) {
+      if (hash == null) {
+        anchor = previous;
+        hash = previous.clone();
+      } else if (!Arrays.equals(hash, previous)) {
+        problem(segment + ": header does not chain onto the previous segment");
+        System.arraycopy(previous, 0, hash, 0, HASH_BYTES);
+      }
+      if (next >= 0 && firstSequence != next) {
+        problem(segment + ": starts at sequence " + firstSequence + ", expected " + next);
+      }
+      next = firstSequence;
+    }
+
+    private void record(String segment, int length) {
+      long sequence = ByteBuffer.wrap(payload, 0, length).getLong();
+      if (sequence != next) {
+        problem(segment + ": sequence " + sequence + " found where " + next + " was expected");
+      }
+      digest.update(hash);
+      digest.update(payload, 0, length);
+      try {
+        digest.digest(computed, 0, HASH_BYTES);
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+      if (!Arrays.equals(computed, stored)) {
+        problem(segment + ": hash mismatch at sequence " + sequence);
+      }
+      // Carry on from the stored hash, so one bad record is reported once rather than breaking
+      // every record after it.
+      System.arraycopy(stored, 0, hash, 0, HASH_BYTES);
+      if (firstSequence < 0) {
+        firstSequence = sequence;
+      }
+      next = sequence + 1;
+      records++;
+      if (visitor != null) {
+        visitor.accept(AuditFormat.decode(ByteBuffer.wrap(payload, 0, length)));
+      }
+    }
+
+    private void problem(String problem) {
+      if (problems.size() < MAX_PROBLEMS) {
+        problems.add(problem);
+      } else if (hiddenProblems++ == 0) {
+        problems.add("further problems omitted");
+      }
+    }
+  }
+}
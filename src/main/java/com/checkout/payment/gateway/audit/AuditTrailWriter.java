@@ -0,0 +1,342 @@
+package com.checkout.payment.gateway.audit;
+
+import static com.checkout.payment.gateway.audit.AuditFormat.FORMAT_VERSION;
+import static com.checkout.payment.gateway.audit.AuditFormat.HASH_BYTES;
+import static com.checkout.payment.gateway.audit.AuditFormat.HEADER_BYTES;
+import static com.checkout.payment.gateway.audit.AuditFormat.MAGIC;
+import static com.checkout.payment.gateway.audit.AuditFormat.MAX_PAYLOAD_BYTES;
+import static com.checkout.payment.gateway.audit.AuditFormat.MAX_RECORD_BYTES;
+
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import jakarta.annotation.PreDestroy;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends every payment lifecycle event to a hash-chained audit trail (see {@link AuditFormat}).
+ * It runs as an event bus subscriber, so request threads never touch the file. Records are
+ * encoded into a batch buffer and written when the bus reports the end of a batch, then fsynced
+ * once {@code audit.fsync-bytes} are unsynced or {@code audit.fsync-interval} has passed; a
+ * background task covers the interval when traffic stops. A segment is closed at
+ * {@code audit.segment-size} or at midnight UTC and gzipped in the background. Runtime settings
+ * changes are rare and are chained into the same trail by the thread making them, which waits
+ * for the fsync. Events the bus dropped never reach the writer, so when an event shows that more
+ * were dropped than it has accounted for, an {@code EVENTS_DROPPED} record with the difference is
+ * chained in before it: a gap cannot go unnoticed.
+ *
+ * <p>On startup the chain is picked up from the last record on disk, and segments left
+ * uncompressed by the previous run are compressed. Each run starts a new segment. Two writers
+ * sharing a directory would fork the chain, so the writer holds an exclusive lock on
+ * {@value #LOCK_FILE} in the directory for as long as it runs, and fails to start if another
+ * process (or another writer in this one) holds it.
+ */
+@Component
+public class AuditTrailWriter implements PaymentEventSubscriber {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AuditTrailWriter.class);
+  private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+  static final String LOCK_FILE = "audit.lock";
+
+  private final boolean enabled;
+  private final Path directory;
+  private final long segmentSize;
+  private final long fsyncBytes;
+  private final long fsyncIntervalNanos;
+  private final MessageDigest digest = AuditFormat.sha256();
+  private final ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD_BYTES);
+  private final ByteBuffer batch;
+  private final ExecutorService compressor;
+  private final ScheduledExecutorService syncer;
+  private final FileChannel lockChannel;
+  private byte[] lastHash = new byte[HASH_BYTES];
+  private long nextSequence;
+  private long droppedSeen;
+  private LocalDate day;
+  private long dayEndMillis;
+  private Path segment;
+  private FileChannel channel;
+  private long segmentBytes;
+  private long segmentRecords;
+  private long unsyncedBytes;
+  private long lastSyncNanos;
+  private volatile long recordsWritten;
+  private volatile long syncs;
+
+  public AuditTrailWriter(AuditProperties properties) throws IOException {
+    this.enabled = properties.enabled();
+    this.directory = properties.directory();
+    this.segmentSize = properties.segmentSize().toBytes();
+    this.fsyncBytes = properties.fsyncBytes().toBytes();
+    this.fsyncIntervalNanos = properties.fsyncInterval().toNanos();
+    if (!enabled) {
+      this.batch = null;
+      this.compressor = null;
+      this.syncer = null;
+      this.lockChannel = null;
+      return;
+    }
+    this.batch = ByteBuffer.allocateDirect(
+        (int) Math.max(properties.batchSize().toBytes(), MAX_RECORD_BYTES));
+    Files.createDirectories(directory);
+    this.lockChannel = lock(directory);
+    recover();
+    this.compressor = Executors.newSingleThreadExecutor(daemon("audit-compress"));
+    for (Path leftover : AuditFormat.uncompressedSegments(directory)) {
+      compressor.execute(() -> compress(leftover));
+    }
+    if (fsyncIntervalNanos > 0) {
+      this.syncer = Executors.newSingleThreadScheduledExecutor(daemon("audit-sync"));
+      syncer.scheduleWithFixedDelay(this::syncIfDue, fsyncIntervalNanos, fsyncIntervalNanos,
+          TimeUnit.NANOSECONDS);
+    } else {
+      this.syncer = null;
+    }
+  }
+
+  @Override
+  public String name() {
+    return "audit";
+  }
+
+  @Override
+  public void onEvent(PaymentEvent event, boolean endOfBatch) throws IOException {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      if (event.getDroppedBefore() > droppedSeen) {
+        payload.clear();
+        AuditFormat.encodeDropped(payload, nextSequence, event.getTimestampMillis(),
+            event.getDroppedBefore() - droppedSeen);
+        append(event.getTimestampMillis());
+        droppedSeen = event.getDroppedBefore();
+      }
+      payload.clear();
+      AuditFormat.encode(payload, nextSequence, event);
+      append(event.getTimestampMillis());
+      if (endOfBatch) {
+        writeBatch();
+        if (unsyncedBytes >= fsyncBytes
+            || System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos) {
+          sync();
+        }
+      }
+    }
+  }
+
+  /**
+   * Appends a runtime settings change to the trail and returns once it is fsynced, together with
+   * any payment events batched before it.
+   */
+  public synchronized void recordSettingsChange(long timestampMillis, long changeSequence,
+      String actor, String changed) throws IOException {
+    if (!enabled) {
+      return;
+    }
+    payload.clear();
+    AuditFormat.encodeSettingsChange(payload, nextSequence, timestampMillis, changeSequence, actor,
+        changed);
+    append(timestampMillis);
+    writeBatch();
+    sync();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long getRecordsWritten() {
+    return recordsWritten;
+  }
+
+  public long getSyncs() {
+    return syncs;
+  }
+
+  /**
+   * Flushes and fsyncs the open segment. It is left uncompressed; the next start compresses it.
+   * The event bus is shut down first, so every published event has been handed over by then.
+   */
+  @PreDestroy
+  public void shutdown() throws IOException, InterruptedException {
+    if (!enabled) {
+      return;
+    }
+    if (syncer != null) {
+      syncer.shutdownNow();
+    }
+    synchronized (this) {
+      if (channel != null) {
+        writeBatch();
+        sync();
+        channel.close();
+        channel = null;
+      }
+    }
+    compressor.shutdown();
+    compressor.awaitTermination(30, TimeUnit.SECONDS);
+    // Closing the channel releases the lock.
+    lockChannel.close();
+  }
+
+  private static FileChannel lock(Path directory) throws IOException {
+    FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IllegalStateException("Audit directory " + directory.toAbsolutePath()
+          + " is in use by another writer");
+    }
+    return channel;
+  }
+
+  private void recover() throws IOException {
+    List<Path> segments = AuditFormat.segments(directory, null);
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      AuditTrailReader.Tail tail = AuditTrailReader.tail(segments.get(i));
+      if (tail != null) {
+        nextSequence = tail.nextSequence();
+        lastHash = tail.lastHash();
+        LOG.info("Audit trail continues from {} at sequence {}", segments.get(i).getFileName(),
+            nextSequence);
+        return;
+      }
+    }
+  }
+
+  private void roll(long timestampMillis) throws IOException {
+    if (channel != null) {
+      writeBatch();
+      sync();
+      channel.close();
+      channel = null;
+      Path closed = segment;
+      compressor.execute(() -> compress(closed));
+    }
+    LocalDate eventDay = LocalDate.ofEpochDay(Math.floorDiv(timestampMillis, DAY_MILLIS));
+    if (day == null || eventDay.isAfter(day)) {
+      day = eventDay;
+      dayEndMillis = (day.toEpochDay() + 1) * DAY_MILLIS;
+    }
+    segment = directory.resolve(
+        AuditFormat.segmentName(day, AuditFormat.lastIndex(directory, day) + 1));
+    channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    batch.putInt(MAGIC).put(FORMAT_VERSION).putLong(nextSequence).put(lastHash);
+    segmentBytes = HEADER_BYTES;
+    segmentRecords = 0;
+    lastSyncNanos = System.nanoTime();
+  }
+
+  // Chains the record encoded in payload and adds it to the batch.
+  private void append(long timestampMillis) throws IOException {
+    int length = payload.position();
+    int recordBytes = 2 + length + HASH_BYTES;
+    if (channel == null || timestampMillis >= dayEndMillis
+        || (segmentRecords > 0 && segmentBytes + recordBytes > segmentSize)) {
+      roll(timestampMillis);
+    }
+    if (batch.remaining() < recordBytes) {
+      writeBatch();
+    }
+    // Nothing below can fail, so the chain only moves on once the record is in the batch.
+    digest.update(lastHash);
+    digest.update(payload.array(), 0, length);
+    try {
+      digest.digest(lastHash, 0, HASH_BYTES);
+    } catch (DigestException e) {
+      throw new IllegalStateException(e);
+    }
+    batch.putShort((short) length).put(payload.array(), 0, length).put(lastHash);
+    nextSequence++;
+    segmentBytes += recordBytes;
+    segmentRecords++;
+    recordsWritten++;
+  }
+
+  private void writeBatch() throws IOException {
+    batch.flip();
+    try {
+      while (batch.hasRemaining()) {
+        unsyncedBytes += channel.write(batch);
+      }
+    } finally {
+      batch.compact();
+    }
+  }
+
+  private void sync() throws IOException {
+    channel.force(false);
+    unsyncedBytes = 0;
+    lastSyncNanos = System.nanoTime();
+    syncs++;
+  }
+
+  private synchronized void syncIfDue() {
+    if (channel == null || unsyncedBytes == 0
+        || System.nanoTime() - lastSyncNanos < fsyncIntervalNanos) {
+      return;
+    }
+    try {
+      sync();
+    } catch (IOException e) {
+      LOG.warn("Could not fsync audit segment {}", segment, e);
+    }
+  }
+
+  // The .gz is synced and renamed into place before the original goes, so a crash at any point
+  // leaves at least one complete copy.
+  private static void compress(Path segment) {
+    Path compressed = segment.resolveSibling(AuditFormat.compressedName(segment));
+    Path partial = segment.resolveSibling(compressed.getFileName() + ".tmp");
+    try {
+      if (!Files.exists(compressed)) {
+        try (FileOutputStream file = new FileOutputStream(partial.toFile())) {
+          GZIPOutputStream gzip = new GZIPOutputStream(file, 64 * 1024);
+          Files.copy(segment, gzip);
+          gzip.finish();
+          file.getFD().sync();
+        }
+        Files.move(partial, compressed, StandardCopyOption.ATOMIC_MOVE);
+      }
+      Files.delete(segment);
+    } catch (IOException e) {
+      LOG.warn("Could not compress audit segment {}", segment, e);
+    }
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.bin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Card BIN lookups for the payment path. The table is read from {@code bin.table} (a Spring
+ * resource location, e.g. {@code file:/etc/gateway/bins.csv}) at startup; a broken table fails
+ * startup. {@link #reload()} builds a new {@link BinTable} next to the live one and publishes it
+ * with a single volatile write, so lookups never block and never see a half-built table. If the
+ * new file is broken the live table stays in place.
+ */
+@Component
+public class BinIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BinIndex.class);
+
+  private final Resource source;
+  private volatile Snapshot snapshot;
+
+  public BinIndex(@Value("${bin.table:classpath:bins.csv}") Resource source) {
+    this.source = source;
+    this.snapshot = load();
+  }
+
+  /** The entry for the card's BIN, or {@code null} if the table has no range for it. */
+  public BinInfo lookup(CharSequence cardNumber) {
+    return snapshot.table().lookup(cardNumber);
+  }
+
+  /** Re-reads the table and swaps it in. Returns the number of intervals now live. */
+  public synchronized int reload() {
+    Snapshot loaded = load();
+    snapshot = loaded;
+    return loaded.table().size();
+  }
+
+  public int size() {
+    return snapshot.table().size();
+  }
+
+  public Instant getLoadedAt() {
+    return snapshot.loadedAt();
+  }
+
+  public String getSource() {
+    return source.getDescription();
+  }
+
+  private Snapshot load() {
+    long start = System.nanoTime();
+    BinTable table;
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(source.getInputStream(), StandardCharsets.US_ASCII))) {
+      table = BinTable.read(reader);
+    } catch (IOException e) {
+      throw new BinTableException("Cannot read BIN table from " + source.getDescription(), e);
+    }
+    LOG.info("Loaded {} BIN intervals from {} in {} ms", table.size(), source.getDescription(),
+        (System.nanoTime() - start) / 1_000_000);
+    return new Snapshot(table, Instant.now());
+  }
+
+  private record Snapshot(BinTable table, Instant loadedAt) {
+  }
+}
@@ -0,0 +1,13 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.FundingType;
+
+/**
+ * What a card's BIN says about it. A {@link BinTable} keeps one instance per distinct value and
+ * shares it between ranges, so lookups return it without allocating.
+ *
+ * @param issuerCountry ISO 3166-1 alpha-2 code of the issuing country
+ */
+public record BinInfo(CardScheme scheme, String issuerCountry, FundingType fundingType) {
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.bin;
+
+/**
+ * One line of the BIN table: every card whose first {@link BinTable#DIGITS} digits fall in
+ * {@code [low, high]} has {@code info}.
+ */
+public record BinRange(int low, int high, BinInfo info) {
+}
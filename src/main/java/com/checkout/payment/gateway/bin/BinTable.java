@@ -0,0 +1,189 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.FundingType;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, sorted set of disjoint BIN intervals held in primitive arrays: {@code lows[i]} to
+ * {@code highs[i]} map to {@code infos[infoIds[i]]}. A lookup is one binary search over
+ * {@code lows}, with no boxing and no allocation. BINs are compared as their first
+ * {@link #DIGITS} digits, so 6-digit and 8-digit ranges can be mixed.
+ *
+ * <p>Source ranges may nest (an 8-digit range inside a 6-digit one): the narrower range wins,
+ * and the table is flattened into disjoint intervals when it is built. Ranges that partially
+ * overlap are rejected.
+ */
+public final class BinTable {
+
+  public static final int DIGITS = 8;
+
+  private static final Comparator<BinRange> WIDEST_FIRST = Comparator
+      .comparingInt(BinRange::low)
+      .thenComparing(Comparator.comparingInt(BinRange::high).reversed());
+
+  private final int[] lows;
+  private final int[] highs;
+  private final short[] infoIds;
+  private final BinInfo[] infos;
+
+  private BinTable(int[] lows, int[] highs, short[] infoIds, BinInfo[] infos) {
+    this.lows = lows;
+    this.highs = highs;
+    this.infoIds = infoIds;
+    this.infos = infos;
+  }
+
+  public static BinTable of(List<BinRange> ranges) {
+    List<BinRange> sorted = new ArrayList<>(ranges);
+    sorted.sort(WIDEST_FIRST);
+
+    Map<BinInfo, Short> ids = new HashMap<>();
+    List<BinInfo> infos = new ArrayList<>();
+    int[] lows = new int[2 * sorted.size()];
+    int[] highs = new int[lows.length];
+    short[] infoIds = new short[lows.length];
+    int size = 0;
+
+    // Sweep in order of low bound with a stack of the ranges that enclose the cursor. Each range
+    // emits the parts of itself not covered by a nested range.
+    BinRange[] open = new BinRange[sorted.size()];
+    int depth = 0;
+    long cursor = Long.MIN_VALUE;
+    for (BinRange range : sorted) {
+      if (range.low() > range.high()) {
+        throw new BinTableException("Empty BIN range " + range);
+      }
+      while (depth > 0 && open[depth - 1].high() < range.low()) {
+        BinRange closed = open[--depth];
+        if (cursor <= closed.high()) {
+          size = emit(lows, highs, infoIds, size, (int) cursor, closed.high(),
+              id(closed.info(), ids, infos));
+        }
+        cursor = (long) closed.high() + 1;
+      }
+      if (depth > 0) {
+        BinRange enclosing = open[depth - 1];
+        if (range.high() > enclosing.high()) {
+          throw new BinTableException("BIN ranges " + enclosing + " and " + range
+              + " partially overlap");
+        }
+        if (cursor < range.low()) {
+          size = emit(lows, highs, infoIds, size, (int) cursor, range.low() - 1,
+              id(enclosing.info(), ids, infos));
+        }
+      }
+      open[depth++] = range;
+      cursor = range.low();
+    }
+    while (depth > 0) {
+      BinRange closed = open[--depth];
+      if (cursor <= closed.high()) {
+        size = emit(lows, highs, infoIds, size, (int) cursor, closed.high(),
+            id(closed.info(), ids, infos));
+      }
+      cursor = (long) closed.high() + 1;
+    }
+    return new BinTable(Arrays.copyOf(lows, size), Arrays.copyOf(highs, size),
+        Arrays.copyOf(infoIds, size), infos.toArray(new BinInfo[0]));
+  }
+
+  /**
+   * Reads {@code low,high,scheme,country,funding} lines, e.g.
+   * {@code 222240,222249,MASTERCARD,GB,DEBIT}. Bounds have 1 to {@link #DIGITS} digits: a short
+   * low bound is padded with zeros and a short high bound with nines. Blank lines and lines
+   * starting with {@code #} are skipped.
+   */
+  public static BinTable read(BufferedReader reader) throws IOException {
+    List<BinRange> ranges = new ArrayList<>();
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 5) {
+        throw new BinTableException("Line " + lineNumber + ": expected 5 fields, got "
+            + fields.length);
+      }
+      try {
+        ranges.add(new BinRange(bound(fields[0].trim(), '0'), bound(fields[1].trim(), '9'),
+            new BinInfo(CardScheme.valueOf(fields[2].trim()), fields[3].trim().intern(),
+                FundingType.valueOf(fields[4].trim()))));
+      } catch (IllegalArgumentException e) {
+        throw new BinTableException("Line " + lineNumber + ": " + e.getMessage(), e);
+      }
+    }
+    return of(ranges);
+  }
+
+  /** The entry for the card's BIN, or {@code null} if no range covers it. */
+  public BinInfo lookup(CharSequence cardNumber) {
+    int bin = 0;
+    for (int i = 0; i < DIGITS; i++) {
+      int digit = i < cardNumber.length() ? cardNumber.charAt(i) - '0' : 0;
+      if (digit < 0 || digit > 9) {
+        return null;
+      }
+      bin = bin * 10 + digit;
+    }
+    return lookup(bin);
+  }
+
+  /** The entry for a {@link #DIGITS}-digit BIN, or {@code null} if no range covers it. */
+  public BinInfo lookup(int bin) {
+    int index = Arrays.binarySearch(lows, bin);
+    if (index < 0) {
+      index = -index - 2;
+      if (index < 0 || bin > highs[index]) {
+        return null;
+      }
+    }
+    return infos[infoIds[index]];
+  }
+
+  /** Number of disjoint intervals after flattening. */
+  public int size() {
+    return lows.length;
+  }
+
+  private static int emit(int[] lows, int[] highs, short[] infoIds, int size, int low, int high,
+      short infoId) {
+    lows[size] = low;
+    highs[size] = high;
+    infoIds[size] = infoId;
+    return size + 1;
+  }
+
+  private static short id(BinInfo info, Map<BinInfo, Short> ids, List<BinInfo> infos) {
+    return ids.computeIfAbsent(info, key -> {
+      if (infos.size() > Short.MAX_VALUE) {
+        throw new BinTableException("More than " + Short.MAX_VALUE + " distinct BIN entries");
+      }
+      infos.add(key);
+      return (short) (infos.size() - 1);
+    });
+  }
+
+  private static int bound(String digits, char padding) {
+    if (digits.isEmpty() || digits.length() > DIGITS
+        || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+      throw new IllegalArgumentException("invalid BIN bound '" + digits + "'");
+    }
+    StringBuilder padded = new StringBuilder(digits);
+    while (padded.length() < DIGITS) {
+      padded.append(padding);
+    }
+    return Integer.parseInt(padded.toString());
+  }
+}
@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.bin;
+
+public class BinTableException extends RuntimeException {
+
+  public BinTableException(String message) {
+    super(message);
+  }
+
+  public BinTableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
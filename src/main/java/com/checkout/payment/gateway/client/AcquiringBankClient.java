@@ -2,24 +2,125 @@ package com.checkout.payment.gateway.client;
 
 import com.checkout.payment.gateway.model.AcquiringBankRequest;
 import com.checkout.payment.gateway.model.AcquiringBankResponse;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import jakarta.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 @Component
 public class AcquiringBankClient {
 
+  public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+  private static final Logger LOG = LoggerFactory.getLogger(AcquiringBankClient.class);
+
   private final RestTemplate restTemplate;
   private final String bankUrl;
+  private final BankCircuitBreakers bankCircuitBreakers;
+  // Threads are only started by preconnect, and die after a minute idle.
+  private final ExecutorService preconnects = Executors.newCachedThreadPool();
 
-  public AcquiringBankClient(RestTemplate restTemplate, @Value("${bank.url}") String bankUrl) {
+  public AcquiringBankClient(RestTemplate restTemplate, @Value("${bank.url}") String bankUrl,
+      BankCircuitBreakers bankCircuitBreakers) {
     this.restTemplate = restTemplate;
     this.bankUrl = bankUrl;
+    this.bankCircuitBreakers = bankCircuitBreakers;
   }
 
-  @CircuitBreaker(name = "bank")
+  /**
+   * Sends the payment through the circuit breaker for its route. Throws
+   * {@code CallNotPermittedException} without calling the bank while that route's breaker is
+   * open. The request's payment id goes out as the {@value #IDEMPOTENCY_HEADER} header, so
+   * sending the same request again asks for the outcome of the first authorization rather than a
+   * second one.
+   */
   public AcquiringBankResponse requestPayment(AcquiringBankRequest request) {
-    return restTemplate.postForObject(bankUrl, request, AcquiringBankResponse.class);
+    return bankCircuitBreakers.forRequest(request).executeSupplier(() -> send(request));
+  }
+
+  private AcquiringBankResponse send(AcquiringBankRequest request) {
+    BankRequestEvent event = new BankRequestEvent();
+    event.begin();
+    String outcome = "error";
+    try {
+      AcquiringBankResponse response =
+          restTemplate.postForObject(bankUrl, body(request), AcquiringBankResponse.class);
+      outcome = response != null && response.isAuthorized() ? "authorized" : "declined";
+      return response;
+    } catch (RuntimeException e) {
+      outcome = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        UUID paymentId = request.getPaymentId() != null ? request.getPaymentId()
+            : PaymentTracer.currentPaymentId();
+        event.paymentId = paymentId == null ? null : paymentId.toString();
+        event.currency = request.getCurrency();
+        event.amount = request.getAmount();
+        event.outcome = outcome;
+        event.commit();
+      }
+    }
+  }
+
+  private static Object body(AcquiringBankRequest request) {
+    if (request.getPaymentId() == null) {
+      return request;
+    }
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(IDEMPOTENCY_HEADER, request.getPaymentId().toString());
+    return new HttpEntity<>(request, headers);
+  }
+
+  /**
+   * Opens up to {@code connections} keep-alive connections to the bank by sending that many
+   * concurrent HEAD requests, so the first real payments don't pay for TCP and TLS setup. Any
+   * HTTP answer, error statuses included, leaves its connection in the pool.
+   */
+  public int preconnect(int connections) {
+    try {
+      CompletableFuture<?>[] heads = new CompletableFuture<?>[connections];
+      for (int i = 0; i < connections; i++) {
+        heads[i] = CompletableFuture.supplyAsync(this::head, preconnects);
+      }
+      int opened = 0;
+      for (CompletableFuture<?> head : heads) {
+        opened += head.get(5, TimeUnit.SECONDS) == Boolean.TRUE ? 1 : 0;
+      }
+      return opened;
+    } catch (Exception e) {
+      LOG.warn("Could not pre-open bank connections: {}", e.toString());
+      return 0;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    preconnects.shutdownNow();
+  }
+
+  private Boolean head() {
+    try {
+      restTemplate.execute(bankUrl, HttpMethod.HEAD, null, null);
+      return true;
+    } catch (RestClientResponseException e) {
+      return true;
+    } catch (RestClientException e) {
+      return false;
+    }
   }
 }
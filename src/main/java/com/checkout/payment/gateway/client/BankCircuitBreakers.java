@@ -0,0 +1,138 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breakers for the acquiring bank, one per route, so a failing currency or issuer range
+ * only sheds its own traffic. The route comes from {@code bank.circuit-breaker.partition-by}.
+ * Breakers are created on first use in the shared {@link CircuitBreakerRegistry} with the
+ * {@code bank} instance's configuration, named {@code bank:<route>}, so they show up in the
+ * registry's metrics and in {@code /admin/circuit-breakers}. Their number is bounded: once
+ * {@code bank.circuit-breaker.max-partitions} routes exist, new routes share
+ * {@code bank:overflow}, which does not count towards the bound. Both the configuration and the bound can be changed at runtime.
+ */
+@Component
+public class BankCircuitBreakers {
+
+  static final String NAME = "bank";
+  static final String OVERFLOW_ROUTE = "overflow";
+
+  private final CircuitBreakerRegistry circuitBreakerRegistry;
+  private final BankPartitioning partitioning;
+  private final int binPrefixDigits;
+  private volatile int maxPartitions;
+  private volatile CircuitBreakerConfig config;
+  private final ConcurrentHashMap<String, CircuitBreaker> partitions = new ConcurrentHashMap<>();
+  private final AtomicInteger routes = new AtomicInteger();
+
+  public BankCircuitBreakers(CircuitBreakerRegistry circuitBreakerRegistry,
+      @Value("${bank.circuit-breaker.partition-by:CURRENCY}") BankPartitioning partitioning,
+      @Value("${bank.circuit-breaker.bin-prefix-digits:6}") int binPrefixDigits,
+      @Value("${bank.circuit-breaker.max-partitions:256}") int maxPartitions) {
+    this.circuitBreakerRegistry = circuitBreakerRegistry;
+    this.partitioning = partitioning;
+    this.binPrefixDigits = binPrefixDigits;
+    this.maxPartitions = maxPartitions;
+    this.config = circuitBreakerRegistry.circuitBreaker(NAME).getCircuitBreakerConfig();
+  }
+
+  public CircuitBreaker forRequest(AcquiringBankRequest request) {
+    if (partitioning == BankPartitioning.NONE) {
+      return circuitBreakerRegistry.circuitBreaker(NAME);
+    }
+    String route = route(request);
+    CircuitBreaker circuitBreaker = partitions.get(route);
+    if (circuitBreaker != null) {
+      return circuitBreaker;
+    }
+    // A route takes a slot before its breaker is created, so racing first calls for different
+    // routes cannot together go past the bound. Without a slot nothing is mapped.
+    circuitBreaker = partitions.computeIfAbsent(route, key -> {
+      if (routes.incrementAndGet() > maxPartitions) {
+        routes.decrementAndGet();
+        return null;
+      }
+      return circuitBreakerRegistry.circuitBreaker(NAME + ":" + key, config);
+    });
+    if (circuitBreaker != null) {
+      return circuitBreaker;
+    }
+    return partitions.computeIfAbsent(OVERFLOW_ROUTE,
+        key -> circuitBreakerRegistry.circuitBreaker(NAME + ":" + key, config));
+  }
+
+  public CircuitBreakerConfig getConfig() {
+    return config;
+  }
+
+  public int getMaxPartitions() {
+    return maxPartitions;
+  }
+
+  // Lowering the bound keeps the breakers already created; only new routes overflow sooner.
+  public void setMaxPartitions(int maxPartitions) {
+    this.maxPartitions = maxPartitions;
+  }
+
+  /**
+   * Swaps every breaker for one built with {@code config}. A call already running keeps the
+   * breaker it was admitted by and reports to it, so nothing in flight is lost. The new breakers
+   * start with empty windows; one replacing an open breaker is opened straight away, so a failing
+   * route is not flooded while its new window fills.
+   */
+  public void reconfigure(CircuitBreakerConfig config) {
+    this.config = config;
+    if (partitioning == BankPartitioning.NONE) {
+      replace(circuitBreakerRegistry.circuitBreaker(NAME));
+      return;
+    }
+    partitions.forEach((route, current) -> partitions.replace(route, current, replace(current)));
+  }
+
+  /** The partition breakers created so far, or the single {@code bank} breaker. */
+  public List<CircuitBreaker> all() {
+    if (partitioning == BankPartitioning.NONE) {
+      return List.of(circuitBreakerRegistry.circuitBreaker(NAME));
+    }
+    return partitions.values().stream()
+        .sorted(Comparator.comparing(CircuitBreaker::getName))
+        .toList();
+  }
+
+  private CircuitBreaker replace(CircuitBreaker current) {
+    CircuitBreaker fresh = CircuitBreaker.of(current.getName(), config);
+    switch (current.getState()) {
+      case OPEN, HALF_OPEN -> fresh.transitionToOpenState();
+      case FORCED_OPEN -> fresh.transitionToForcedOpenState();
+      default -> {
+      }
+    }
+    circuitBreakerRegistry.replace(current.getName(), fresh);
+    return fresh;
+  }
+
+  private String route(AcquiringBankRequest request) {
+    return switch (partitioning) {
+      case CURRENCY -> request.getCurrency();
+      case BIN_PREFIX -> binPrefix(request.getCardNumber());
+      case CURRENCY_AND_BIN_PREFIX ->
+          request.getCurrency() + ":" + binPrefix(request.getCardNumber());
+      case NONE -> throw new IllegalStateException();
+    };
+  }
+
+  private String binPrefix(String cardNumber) {
+    return cardNumber.length() <= binPrefixDigits
+        ? cardNumber
+        : cardNumber.substring(0, binPrefixDigits);
+  }
+}
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.client;
+
+/** How bank calls are split between circuit breakers (see {@link BankCircuitBreakers}). */
+public enum BankPartitioning {
+  /** One breaker for every bank call. */
+  NONE,
+  CURRENCY,
+  /** The first {@code bank.circuit-breaker.bin-prefix-digits} digits of the card number. */
+  BIN_PREFIX,
+  CURRENCY_AND_BIN_PREFIX
+}
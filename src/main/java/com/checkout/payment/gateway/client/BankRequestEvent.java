@@ -0,0 +1,28 @@
+package com.checkout.payment.gateway.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.checkout.payment.BankRequest")
+@Label("Acquiring Bank Request")
+@Category({"Payment Gateway"})
+@Description("HTTP round trip to the acquiring bank, inside the circuit breaker")
+@StackTrace(false)
+class BankRequestEvent extends Event {
+
+  @Label("Payment Id")
+  String paymentId;
+
+  @Label("Currency")
+  String currency;
+
+  @Label("Amount")
+  int amount;
+
+  @Label("Outcome")
+  String outcome;
+}
@@ -0,0 +1,43 @@
+package com.checkout.payment.gateway.client;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * Opens the connections to the bank with timeouts that can be changed while the gateway runs.
+ * They are read as each request is prepared, so a change applies to the next bank call while the
+ * calls already waiting on the bank keep the timeouts they started with.
+ */
+public class BankRequestFactory extends SimpleClientHttpRequestFactory {
+
+  private volatile Duration connectTimeout;
+  private volatile Duration readTimeout;
+
+  public BankRequestFactory(Duration connectTimeout, Duration readTimeout) {
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public Duration getReadTimeout() {
+    return readTimeout;
+  }
+
+  public void setTimeouts(Duration connectTimeout, Duration readTimeout) {
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+  }
+
+  @Override
+  protected void prepareConnection(HttpURLConnection connection, String httpMethod)
+      throws IOException {
+    super.prepareConnection(connection, httpMethod);
+    connection.setConnectTimeout((int) connectTimeout.toMillis());
+    connection.setReadTimeout((int) readTimeout.toMillis());
+  }
+}
@@ -0,0 +1,58 @@
+package com.checkout.payment.gateway.cluster;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Sends payment requests that this instance does not own to the instance that does: a
+ * {@code POST /payment} by its {@code Idempotency-Key}, a {@code GET /payment/{id}} by its id.
+ * Requests without a key or with a malformed id are served locally, where validation rejects them.
+ */
+public class ClusterForwardingInterceptor implements HandlerInterceptor {
+
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+  private final ClusterRouter router;
+
+  public ClusterForwardingInterceptor(ClusterRouter router) {
+    this.router = router;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) throws IOException {
+    if (!router.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC
+        || router.isForwardedByPeer(request)) {
+      return true;
+    }
+    String owner = ownerOf(request);
+    if (owner == null || owner.equals(router.getSelf())) {
+      return true;
+    }
+    router.forward(owner, request, response);
+    return false;
+  }
+
+  private String ownerOf(HttpServletRequest request) {
+    if ("POST".equals(request.getMethod())) {
+      String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+      return key == null || key.isBlank() ? null : router.ownerOfKey(key);
+    }
+    if ("GET".equals(request.getMethod())
+        && request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE)
+        instanceof Map<?, ?> variables && variables.get("id") instanceof String id) {
+      try {
+        return router.ownerOfPayment(UUID.fromString(id));
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,25 @@
+package com.checkout.payment.gateway.cluster;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Static ring membership: {@code nodes} maps every instance's id to the base URL the others reach
+ * it on, and {@code self} says which of them this instance is. Each node gets
+ * {@code virtualNodes} tokens on the ring.
+ */
+@ConfigurationProperties(prefix = "cluster")
+public record ClusterProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("local") String self,
+    Map<String, String> nodes,
+    @DefaultValue("128") int virtualNodes,
+    @DefaultValue("1s") Duration connectTimeout,
+    @DefaultValue("10s") Duration requestTimeout) {
+
+  public ClusterProperties {
+    nodes = nodes == null ? Map.of() : Map.copyOf(nodes);
+  }
+}
@@ -0,0 +1,237 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.api.PaymentLookupResponseDto;
+import com.checkout.payment.gateway.model.PaymentLookupRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which gateway instance owns a payment id or an idempotency key, and relays requests to
+ * the owner. Idempotency keys and payments only exist on the instance that created them, so a
+ * {@code POST} is served by the owner of its key, and that owner only hands out payment ids that
+ * hash back to itself ({@link #ownsPayment}); a later {@code GET} by id then lands on the same
+ * instance.
+ *
+ * <p>Forwarding uses one {@link HttpClient} for the life of the instance. It speaks HTTP/1.1 and
+ * keeps idle connections to each peer open, so a forwarded request normally reuses a warm
+ * connection instead of paying for a new handshake. With {@code cluster.enabled=false} the ring
+ * holds only this instance and nothing is forwarded.
+ *
+ * <p>{@value #FORWARDED_HEADER} is only honoured from a peer: the header must name another
+ * configured node, and the request must come from one of the addresses that node's host name
+ * resolves to. A client that sets it itself is routed like any other client.
+ */
+@Component
+public class ClusterRouter {
+
+  /** Set on forwarded requests; an instance receiving one from a peer serves it itself. */
+  public static final String FORWARDED_HEADER = "Gateway-Forwarded-By";
+
+  // Headers the JDK client manages itself or refuses, and hop-by-hop headers.
+  private static final Set<String> SKIPPED_HEADERS = Set.of("connection", "content-length",
+      "date", "expect", "host", "keep-alive", "te", "trailer", "transfer-encoding", "upgrade");
+
+  private final boolean enabled;
+  private final String self;
+  private final HashRing ring;
+  private final Map<String, String> baseUrls;
+  private final Duration requestTimeout;
+  private final HttpClient client;
+  private final ObjectMapper objectMapper;
+  private final Map<String, LongAdder> forwarded = new HashMap<>();
+  private final Map<String, LongAdder> failures = new HashMap<>();
+
+  public ClusterRouter(ClusterProperties properties, ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    this.enabled = properties.enabled();
+    this.self = properties.self();
+    this.requestTimeout = properties.requestTimeout();
+    if (!enabled) {
+      this.ring = new HashRing(List.of(self), 1);
+      this.baseUrls = Map.of();
+      this.client = null;
+      return;
+    }
+    if (!properties.nodes().containsKey(self)) {
+      throw new IllegalStateException("cluster.self=" + self + " is not one of cluster.nodes "
+          + properties.nodes().keySet());
+    }
+    this.ring = new HashRing(properties.nodes().keySet(), properties.virtualNodes());
+    Map<String, String> urls = new HashMap<>();
+    properties.nodes().forEach((node, url) -> {
+      urls.put(node, url.endsWith("/") ? url.substring(0, url.length() - 1) : url);
+      forwarded.put(node, new LongAdder());
+      failures.put(node, new LongAdder());
+    });
+    this.baseUrls = Collections.unmodifiableMap(urls);
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(properties.connectTimeout())
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String getSelf() {
+    return self;
+  }
+
+  public List<String> getNodes() {
+    return ring.nodes();
+  }
+
+  public String getBaseUrl(String node) {
+    return baseUrls.get(node);
+  }
+
+  public String ownerOfPayment(UUID id) {
+    return ring.owner(id);
+  }
+
+  public String ownerOfKey(String idempotencyKey) {
+    return ring.owner(idempotencyKey);
+  }
+
+  public boolean ownsPayment(UUID id) {
+    return !enabled || self.equals(ring.owner(id));
+  }
+
+  /**
+   * Whether {@code request} was relayed by another instance, rather than sent by a client that
+   * set {@value #FORWARDED_HEADER} itself.
+   */
+  public boolean isForwardedByPeer(HttpServletRequest request) {
+    String node = request.getHeader(FORWARDED_HEADER);
+    if (!enabled || node == null || node.equals(self) || !baseUrls.containsKey(node)) {
+      return false;
+    }
+    try {
+      // An IP literal is parsed, not looked up; the peer's name is resolved through the JVM cache.
+      InetAddress remote = InetAddress.getByName(request.getRemoteAddr());
+      for (InetAddress address
+          : InetAddress.getAllByName(URI.create(baseUrls.get(node)).getHost())) {
+        if (address.equals(remote)) {
+          return true;
+        }
+      }
+    } catch (UnknownHostException e) {
+      return false;
+    }
+    return false;
+  }
+
+  /** Requests this instance relayed to {@code node}, and those that failed to reach it. */
+  public long getForwarded(String node) {
+    LongAdder count = forwarded.get(node);
+    return count == null ? 0 : count.sum();
+  }
+
+  public long getFailures(String node) {
+    LongAdder count = failures.get(node);
+    return count == null ? 0 : count.sum();
+  }
+
+  /**
+   * Replays {@code request} against {@code node} and copies its status, headers and body into
+   * {@code response}. Throws {@link OwnerUnavailableException} if the node cannot be reached or
+   * does not answer within {@code cluster.request-timeout}.
+   */
+  void forward(String node, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    String query = request.getQueryString();
+    URI uri = URI.create(baseUrls.get(node) + request.getRequestURI()
+        + (query == null ? "" : "?" + query));
+    byte[] body = request.getInputStream().readAllBytes();
+    HttpRequest.Builder outbound = HttpRequest.newBuilder(uri)
+        .timeout(requestTimeout)
+        .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(body))
+        .header(FORWARDED_HEADER, self);
+    for (String name : Collections.list(request.getHeaderNames())) {
+      if (!SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+        for (String value : Collections.list(request.getHeaders(name))) {
+          outbound.header(name, value);
+        }
+      }
+    }
+    HttpResponse<byte[]> answer;
+    try {
+      answer = client.send(outbound.build(), HttpResponse.BodyHandlers.ofByteArray());
+    } catch (IOException e) {
+      failures.get(node).increment();
+      throw new OwnerUnavailableException(node, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failures.get(node).increment();
+      throw new OwnerUnavailableException(node, e);
+    }
+    forwarded.get(node).increment();
+    response.setStatus(answer.statusCode());
+    answer.headers().map().forEach((name, values) -> {
+      if (!name.startsWith(":") && !SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+        values.forEach(value -> response.addHeader(name, value));
+      }
+    });
+    response.getOutputStream().write(answer.body());
+  }
+
+  /**
+   * Asks {@code node} for the payments in {@code ids}, which it owns, with one
+   * {@code POST /payment/lookup}. Completes with {@link OwnerUnavailableException} if the node
+   * cannot be reached or does not answer {@code 200}.
+   */
+  public CompletableFuture<PaymentLookupResponseDto> lookup(String node, List<UUID> ids) {
+    byte[] body;
+    try {
+      body = objectMapper.writeValueAsBytes(new PaymentLookupRequest(ids));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrls.get(node) + "/payment/lookup"))
+        .timeout(requestTimeout)
+        .header("Content-Type", "application/json")
+        .header(FORWARDED_HEADER, self)
+        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+        .build();
+    return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .handle((answer, error) -> {
+          try {
+            if (error != null) {
+              throw new IOException(error);
+            }
+            if (answer.statusCode() != 200) {
+              throw new IOException("Lookup answered " + answer.statusCode());
+            }
+            PaymentLookupResponseDto found = objectMapper.readValue(answer.body(),
+                PaymentLookupResponseDto.class);
+            forwarded.get(node).increment();
+            return found;
+          } catch (IOException e) {
+            failures.get(node).increment();
+            throw new OwnerUnavailableException(node, e);
+          }
+        });
+  }
+}
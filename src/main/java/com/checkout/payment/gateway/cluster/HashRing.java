@@ -0,0 +1,90 @@
+package com.checkout.payment.gateway.cluster;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A consistent-hash ring. Every node owns {@code virtualNodes} tokens spread around a 64-bit
+ * circle, and a key belongs to the node holding the first token at or after the key's hash. Adding
+ * or removing a node only moves the keys next to its own tokens, about {@code 1/n} of them.
+ *
+ * <p>Tokens and owners sit in two parallel arrays sorted by token, so a lookup is one binary search
+ * with no allocation. Hashes are FNV-1a followed by a murmur3 finalizer: the finalizer spreads
+ * UUIDv7 ids, whose high bits are a timestamp, and short similar keys evenly. Both are defined
+ * here rather than taken from {@code hashCode()}, so every instance computes the same owner.
+ */
+public final class HashRing {
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final List<String> nodes;
+  private final long[] tokens;
+  private final String[] owners;
+
+  public HashRing(Collection<String> nodes, int virtualNodes) {
+    if (nodes.isEmpty() || virtualNodes < 1) {
+      throw new IllegalArgumentException("A ring needs at least one node and one virtual node");
+    }
+    this.nodes = nodes.stream().sorted().toList();
+    int size = this.nodes.size() * virtualNodes;
+    long[] packed = new long[size];
+    Token[] all = new Token[size];
+    int i = 0;
+    for (String node : this.nodes) {
+      for (int v = 0; v < virtualNodes; v++) {
+        all[i++] = new Token(hash(node + "#" + v), node);
+      }
+    }
+    Arrays.sort(all, (a, b) -> Long.compare(a.hash, b.hash));
+    this.owners = new String[size];
+    for (i = 0; i < size; i++) {
+      packed[i] = all[i].hash;
+      owners[i] = all[i].node;
+    }
+    this.tokens = packed;
+  }
+
+  public List<String> nodes() {
+    return nodes;
+  }
+
+  public String owner(UUID id) {
+    return ownerOfHash(mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits())));
+  }
+
+  public String owner(CharSequence key) {
+    return ownerOfHash(hash(key));
+  }
+
+  private String ownerOfHash(long hash) {
+    int index = Arrays.binarySearch(tokens, hash);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return owners[index == tokens.length ? 0 : index];
+  }
+
+  static long hash(CharSequence key) {
+    long hash = FNV_OFFSET;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+    }
+    return mix(hash);
+  }
+
+  // murmur3's fmix64.
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  private record Token(long hash, String node) {
+  }
+}
@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.cluster;
+
+public class OwnerUnavailableException extends RuntimeException {
+
+  private final String node;
+
+  public OwnerUnavailableException(String node, Throwable cause) {
+    super("Owning gateway instance " + node + " is unavailable", cause);
+    this.node = node;
+  }
+
+  public String getNode() {
+    return node;
+  }
+}
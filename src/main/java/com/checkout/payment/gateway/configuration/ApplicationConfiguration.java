@@ -1,6 +1,8 @@
 package com.checkout.payment.gateway.configuration;
 
+import com.checkout.payment.gateway.client.BankRequestFactory;
 import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,10 +12,18 @@ import org.springframework.web.client.RestTemplate;
 public class ApplicationConfiguration {
 
   @Bean
-  public RestTemplate restTemplate(RestTemplateBuilder builder) {
+  public BankRequestFactory bankRequestFactory(
+      @Value("${bank.connect-timeout:5s}") Duration connectTimeout,
+      @Value("${bank.read-timeout:5s}") Duration readTimeout) {
+    return new BankRequestFactory(connectTimeout, readTimeout);
+  }
+
+  // The timeouts live in the request factory, where /admin/settings can change them.
+  @Bean
+  public RestTemplate restTemplate(RestTemplateBuilder builder,
+      BankRequestFactory bankRequestFactory) {
     return builder
-        .setConnectTimeout(Duration.ofMillis(5000))
-        .setReadTimeout(Duration.ofMillis(5000))
+        .requestFactory(() -> bankRequestFactory)
         .build();
   }
 }
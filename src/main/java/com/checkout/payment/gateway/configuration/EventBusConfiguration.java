@@ -0,0 +1,23 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.audit.AuditProperties;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import java.util.List;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({PaymentEventBusProperties.class, AuditProperties.class})
+public class EventBusConfiguration {
+
+  // Subscribers are fixed at startup; shutdown lets them drain what was already published.
+  // Injecting them as a list makes them dependencies of the bus, so they are destroyed after it.
+  @Bean(destroyMethod = "shutdown")
+  public PaymentEventBus paymentEventBus(PaymentEventBusProperties properties,
+      List<PaymentEventSubscriber> subscribers) {
+    return new PaymentEventBus(properties, subscribers);
+  }
+}
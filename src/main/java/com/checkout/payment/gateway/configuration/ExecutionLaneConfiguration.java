@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.execution.SaturationPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExecutionLaneConfiguration {
+
+  @Bean
+  public ExecutionLane readLane(
+      @Value("${lanes.read.threads:4}") int threads,
+      @Value("${lanes.read.queue-capacity:1000}") int queueCapacity,
+      @Value("${lanes.read.saturation-policy:CALLER_RUNS}") SaturationPolicy saturationPolicy) {
+    return new ExecutionLane("read", threads, queueCapacity, saturationPolicy);
+  }
+
+  @Bean
+  public ExecutionLane writeLane(
+      @Value("${lanes.write.threads:64}") int threads,
+      @Value("${lanes.write.queue-capacity:256}") int queueCapacity,
+      @Value("${lanes.write.saturation-policy:REJECT}") SaturationPolicy saturationPolicy) {
+    return new ExecutionLane("write", threads, queueCapacity, saturationPolicy);
+  }
+}
@@ -0,0 +1,222 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.audit.AuditTrailWriter;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.reconciliation.BankReconciler;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.TieredPaymentsRepository;
+import com.checkout.payment.gateway.sweeper.PendingPaymentSweeper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+  @Bean
+  public MeterBinder paymentsRepositoryMetrics(PaymentsRepository paymentsRepository) {
+    return registry -> {
+      Gauge.builder("payment.repository.size", paymentsRepository, PaymentsRepository::size)
+          .description("Payments currently held by the repository")
+          .register(registry);
+      Gauge.builder("payment.repository.memory.estimate", paymentsRepository,
+              PaymentsRepository::estimatedMemoryBytes)
+          .description("Heap used by stored payments, estimated from a fixed size per payment")
+          .baseUnit("bytes")
+          .register(registry);
+      if (paymentsRepository instanceof TieredPaymentsRepository tiered) {
+        Gauge.builder("payment.repository.hot.size", tiered,
+                TieredPaymentsRepository::getHotSize)
+            .description("Payments held on heap by the tiered repository")
+            .register(registry);
+        Gauge.builder("payment.repository.cold.segments", tiered,
+                TieredPaymentsRepository::getColdSegments)
+            .description("Memory-mapped segments of settled payments")
+            .register(registry);
+        Gauge.builder("payment.repository.cold.size", tiered,
+                TieredPaymentsRepository::getColdBytes)
+            .description("Size of the mapped cold segments")
+            .baseUnit("bytes")
+            .register(registry);
+      }
+    };
+  }
+
+  @Bean
+  public MeterBinder executionLaneMetrics(@Qualifier("readLane") ExecutionLane readLane,
+      @Qualifier("writeLane") ExecutionLane writeLane) {
+    return registry -> {
+      for (ExecutionLane lane : List.of(readLane, writeLane)) {
+        Gauge.builder("payment.lane.active", lane, ExecutionLane::getActive)
+            .tag("lane", lane.getName())
+            .register(registry);
+        Gauge.builder("payment.lane.queued", lane, ExecutionLane::getQueued)
+            .tag("lane", lane.getName())
+            .register(registry);
+        FunctionCounter.builder("payment.lane.rejected", lane, ExecutionLane::getRejected)
+            .tag("lane", lane.getName())
+            .register(registry);
+        FunctionCounter.builder("payment.lane.completed", lane, ExecutionLane::getCompleted)
+            .tag("lane", lane.getName())
+            .register(registry);
+      }
+    };
+  }
+
+  @Bean
+  public MeterBinder paymentEventLoggerMetrics(PaymentEventLogger paymentEventLogger) {
+    return registry -> FunctionCounter.builder("payment.log.dropped", paymentEventLogger,
+            PaymentEventLogger::getDroppedEvents)
+        .description("Structured log events dropped because the ring buffer was full")
+        .register(registry);
+  }
+
+  @Bean
+  public MeterBinder paymentEventBusMetrics(PaymentEventBus paymentEventBus) {
+    return registry -> {
+      FunctionCounter.builder("payment.events.published", paymentEventBus,
+              PaymentEventBus::getPublished)
+          .description("Payment lifecycle events published on the event bus")
+          .register(registry);
+      FunctionCounter.builder("payment.events.dropped", paymentEventBus,
+              PaymentEventBus::getDropped)
+          .description("Payment lifecycle events dropped because the ring was full or closed")
+          .register(registry);
+      for (String subscriber : paymentEventBus.getSubscribers()) {
+        Gauge.builder("payment.events.lag", paymentEventBus, bus -> bus.getLag(subscriber))
+            .description("Events published but not yet handled by the subscriber")
+            .tag("subscriber", subscriber)
+            .register(registry);
+        FunctionCounter.builder("payment.events.failures", paymentEventBus,
+                bus -> bus.getFailures(subscriber))
+            .tag("subscriber", subscriber)
+            .register(registry);
+      }
+    };
+  }
+
+  @Bean
+  public MeterBinder auditTrailMetrics(AuditTrailWriter auditTrailWriter) {
+    return registry -> {
+      FunctionCounter.builder("payment.audit.records", auditTrailWriter,
+              AuditTrailWriter::getRecordsWritten)
+          .description("Records appended to the audit trail")
+          .register(registry);
+      FunctionCounter.builder("payment.audit.fsyncs", auditTrailWriter,
+              AuditTrailWriter::getSyncs)
+          .description("fsyncs of the audit trail")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder pendingPaymentSweeperMetrics(PendingPaymentSweeper pendingPaymentSweeper) {
+    return registry -> {
+      Gauge.builder("payment.sweeper.outstanding", pendingPaymentSweeper,
+              PendingPaymentSweeper::getOutstanding)
+          .description("PENDING payments with an armed deadline")
+          .register(registry);
+      FunctionCounter.builder("payment.sweeper.expired", pendingPaymentSweeper,
+              PendingPaymentSweeper::getMarked)
+          .description("Payments moved to UNKNOWN after their deadline passed")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder bankReconcilerMetrics(BankReconciler bankReconciler) {
+    return registry -> {
+      Gauge.builder("payment.reconciliation.outstanding", bankReconciler,
+              BankReconciler::getOutstanding)
+          .description("UNKNOWN payments queued or backing off for a bank replay")
+          .register(registry);
+      FunctionCounter.builder("payment.reconciliation.replays", bankReconciler,
+              BankReconciler::getReplays)
+          .description("Bank requests replayed to learn an ambiguous outcome")
+          .register(registry);
+      FunctionCounter.builder("payment.reconciliation.resolved", bankReconciler,
+              BankReconciler::getResolved)
+          .description("UNKNOWN payments settled from a replay's answer")
+          .register(registry);
+      FunctionCounter.builder("payment.reconciliation.abandoned", bankReconciler,
+              BankReconciler::getAbandoned)
+          .description("UNKNOWN payments left for review after their last replay")
+          .register(registry);
+      FunctionCounter.builder("payment.reconciliation.skipped", bankReconciler,
+              BankReconciler::getSkipped)
+          .description("UNKNOWN payments left for review without a replay")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder clusterMetrics(ClusterRouter clusterRouter) {
+    return registry -> {
+      for (String node : clusterRouter.getNodes()) {
+        if (!node.equals(clusterRouter.getSelf())) {
+          FunctionCounter.builder("payment.cluster.forwarded", clusterRouter,
+                  router -> router.getForwarded(node))
+              .description("Requests relayed to the instance owning their payment")
+              .tag("node", node)
+              .register(registry);
+          FunctionCounter.builder("payment.cluster.forward.failures", clusterRouter,
+                  router -> router.getFailures(node))
+              .description("Requests that could not reach the owning instance")
+              .tag("node", node)
+              .register(registry);
+        }
+      }
+    };
+  }
+
+  // Totals only: tagging by merchant would make the series count unbounded.
+  @Bean
+  public MeterBinder rateLimiterMetrics(MerchantRateLimiter merchantRateLimiter) {
+    return registry -> {
+      FunctionCounter.builder("payment.ratelimit.requests", merchantRateLimiter,
+              MerchantRateLimiter::getAdmitted)
+          .tag("result", "admitted")
+          .register(registry);
+      FunctionCounter.builder("payment.ratelimit.requests", merchantRateLimiter,
+              MerchantRateLimiter::getRejected)
+          .tag("result", "rejected")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder circuitBreakerTransitionMetrics(
+      CircuitBreakerRegistry circuitBreakerRegistry) {
+    return registry -> {
+      circuitBreakerRegistry.getAllCircuitBreakers()
+          .forEach(circuitBreaker -> bindTransitions(registry, circuitBreaker));
+      circuitBreakerRegistry.getEventPublisher()
+          .onEntryAdded(event -> bindTransitions(registry, event.getAddedEntry()))
+          .onEntryReplaced(event -> bindTransitions(registry, event.getNewEntry()));
+    };
+  }
+
+  private static void bindTransitions(MeterRegistry registry, CircuitBreaker circuitBreaker) {
+    circuitBreaker.getEventPublisher().onStateTransition(event -> Counter
+        .builder("payment.circuitbreaker.transitions")
+        .description("Circuit breaker state transitions")
+        .tag("name", event.getCircuitBreakerName())
+        .tag("from", event.getStateTransition().getFromState().name().toLowerCase(Locale.ROOT))
+        .tag("to", event.getStateTransition().getToState().name().toLowerCase(Locale.ROOT))
+        .register(registry)
+        .increment());
+  }
+}
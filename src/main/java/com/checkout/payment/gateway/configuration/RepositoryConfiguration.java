@@ -0,0 +1,32 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.reconciliation.ReconciliationProperties;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.JdbcPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.RepositoryProperties;
+import com.checkout.payment.gateway.repository.TieredPaymentsRepository;
+import com.checkout.payment.gateway.service.IdempotencyProperties;
+import com.checkout.payment.gateway.settlement.SettlementProperties;
+import com.checkout.payment.gateway.sweeper.SweeperProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({RepositoryProperties.class, SweeperProperties.class,
+    SettlementProperties.class, ReconciliationProperties.class, IdempotencyProperties.class})
+public class RepositoryConfiguration {
+
+  // Chosen at runtime rather than with @Conditional, so an AOT build still honours the property.
+  // The JDBC and tiered repositories are AutoCloseable, so Spring closes their pool or migration
+  // thread on shutdown.
+  @Bean
+  public PaymentsRepository paymentsRepository(RepositoryProperties properties) {
+    return switch (properties.backend()) {
+      case MEMORY -> new InMemoryPaymentsRepository();
+      case JDBC -> new JdbcPaymentsRepository(properties.jdbc());
+      case TIERED -> new TieredPaymentsRepository(properties.tiered());
+    };
+  }
+}
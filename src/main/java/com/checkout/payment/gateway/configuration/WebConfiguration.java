@@ -0,0 +1,69 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.cluster.ClusterForwardingInterceptor;
+import com.checkout.payment.gateway.cluster.ClusterProperties;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.ratelimit.RateLimitInterceptor;
+import com.checkout.payment.gateway.ratelimit.RateLimitProperties;
+import com.checkout.payment.gateway.security.AdminProperties;
+import com.checkout.payment.gateway.startup.WarmUpEndpoint;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, ClusterProperties.class,
+    AdminProperties.class})
+public class WebConfiguration implements WebMvcConfigurer {
+
+  private final MerchantRateLimiter merchantRateLimiter;
+  private final ClusterRouter clusterRouter;
+  private final WarmUpEndpoint warmUpEndpoint;
+
+  public WebConfiguration(MerchantRateLimiter merchantRateLimiter, ClusterRouter clusterRouter,
+      WarmUpEndpoint warmUpEndpoint) {
+    this.merchantRateLimiter = merchantRateLimiter;
+    this.clusterRouter = clusterRouter;
+    this.warmUpEndpoint = warmUpEndpoint;
+  }
+
+  // Binary encodings for clients that send Content-Type or Accept application/x-jackson-smile or
+  // application/cbor. Both mappers come from Boot's builder, so they carry the same modules and
+  // spring.jackson.* settings as the JSON one and a DTO reads and writes the same in all three.
+  // These beans replace Spring's default Smile and CBOR converters in place, after JSON, so a
+  // request without a preference still gets JSON.
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.factory(new SmileFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  // Forwarding runs first, so a request is rate limited once, on the instance that serves it.
+  // A batch lookup can span owners, so the service splits it by owner instead, and the controller
+  // charges it by its number of ids.
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ClusterForwardingInterceptor(clusterRouter))
+        .addPathPatterns("/payment", "/payment/*")
+        .excludePathPatterns("/payment/lookup");
+    registry.addInterceptor(new RateLimitInterceptor(merchantRateLimiter))
+        .addPathPatterns("/payment");
+    registry.addInterceptor(warmUpEndpoint.guard())
+        .addPathPatterns("/internal/warm-up/**");
+  }
+}
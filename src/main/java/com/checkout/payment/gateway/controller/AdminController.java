@@ -0,0 +1,408 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.api.AdminPaymentDto;
+import com.checkout.payment.gateway.api.BinTableDto;
+import com.checkout.payment.gateway.api.CircuitBreakerDto;
+import com.checkout.payment.gateway.api.ClusterNodeDto;
+import com.checkout.payment.gateway.api.ExecutionLaneDto;
+import com.checkout.payment.gateway.api.MerchantRateLimitDto;
+import com.checkout.payment.gateway.api.PaymentStatsDto;
+import com.checkout.payment.gateway.api.RuntimeSettingsDto;
+import com.checkout.payment.gateway.api.SettingsChangeDto;
+import com.checkout.payment.gateway.api.SettlementRunDto;
+import com.checkout.payment.gateway.api.SlowPaymentDto;
+import com.checkout.payment.gateway.bin.BinIndex;
+import com.checkout.payment.gateway.client.BankCircuitBreakers;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.AdminAuthenticationException;
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.ratelimit.TokenBucket;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.settlement.SettlementReportJob;
+import com.checkout.payment.gateway.settlement.SettlementRun;
+import com.checkout.payment.gateway.tracing.SlowPayment;
+import com.checkout.payment.gateway.tracing.SlowPaymentRecorder;
+import com.checkout.payment.gateway.tuning.RuntimeSettings;
+import com.checkout.payment.gateway.tuning.RuntimeTuner;
+import com.checkout.payment.gateway.tuning.SettingsChange;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operator views of the gateway. Reads are open; calls that change something need an operator
+ * authenticated by {@link com.checkout.payment.gateway.security.AdminAuthenticationFilter}.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+  private final MerchantRateLimiter merchantRateLimiter;
+  private final List<ExecutionLane> executionLanes;
+  private final SlowPaymentRecorder slowPaymentRecorder;
+  private final BinIndex binIndex;
+  private final BankCircuitBreakers bankCircuitBreakers;
+  private final ClusterRouter clusterRouter;
+  private final PaymentAggregates paymentAggregates;
+  private final SettlementReportJob settlementReportJob;
+  private final RuntimeTuner runtimeTuner;
+  private final PaymentsRepository paymentsRepository;
+
+  public AdminController(MerchantRateLimiter merchantRateLimiter,
+      @Qualifier("readLane") ExecutionLane readLane,
+      @Qualifier("writeLane") ExecutionLane writeLane,
+      SlowPaymentRecorder slowPaymentRecorder, BinIndex binIndex,
+      BankCircuitBreakers bankCircuitBreakers, ClusterRouter clusterRouter,
+      PaymentAggregates paymentAggregates, SettlementReportJob settlementReportJob,
+      RuntimeTuner runtimeTuner, PaymentsRepository paymentsRepository) {
+    this.merchantRateLimiter = merchantRateLimiter;
+    this.executionLanes = List.of(readLane, writeLane);
+    this.slowPaymentRecorder = slowPaymentRecorder;
+    this.binIndex = binIndex;
+    this.bankCircuitBreakers = bankCircuitBreakers;
+    this.clusterRouter = clusterRouter;
+    this.paymentAggregates = paymentAggregates;
+    this.settlementReportJob = settlementReportJob;
+    this.runtimeTuner = runtimeTuner;
+    this.paymentsRepository = paymentsRepository;
+  }
+
+  @GetMapping("/rate-limits")
+  public ResponseEntity<List<MerchantRateLimitDto>> getRateLimits() {
+    List<MerchantRateLimitDto> limits = new ArrayList<>();
+    for (Map.Entry<String, TokenBucket> entry : merchantRateLimiter.snapshot().entrySet()) {
+      TokenBucket bucket = entry.getValue();
+      MerchantRateLimitDto dto = new MerchantRateLimitDto();
+      dto.setMerchantId(entry.getKey());
+      dto.setPermitsPerSecond(bucket.getLimit().permitsPerSecond());
+      dto.setBurst(bucket.getLimit().burst());
+      dto.setAdmitted(bucket.getAdmitted());
+      dto.setRejected(bucket.getRejected());
+      limits.add(dto);
+    }
+    return new ResponseEntity<>(limits, HttpStatus.OK);
+  }
+
+  @GetMapping("/lanes")
+  public ResponseEntity<List<ExecutionLaneDto>> getExecutionLanes() {
+    List<ExecutionLaneDto> lanes = new ArrayList<>();
+    for (ExecutionLane lane : executionLanes) {
+      ExecutionLaneDto dto = new ExecutionLaneDto();
+      dto.setName(lane.getName());
+      dto.setSaturationPolicy(lane.getSaturationPolicy().name());
+      dto.setThreads(lane.getThreads());
+      dto.setActive(lane.getActive());
+      dto.setQueued(lane.getQueued());
+      dto.setQueueCapacity(lane.getQueueCapacity());
+      dto.setSubmitted(lane.getSubmitted());
+      dto.setCompleted(lane.getCompleted());
+      dto.setRejected(lane.getRejected());
+      dto.setCallerRuns(lane.getCallerRuns());
+      long completed = lane.getCompleted();
+      dto.setAverageQueueWaitMicros(
+          completed == 0 ? 0 : lane.getTotalQueueWaitNanos() / 1_000.0 / completed);
+      lanes.add(dto);
+    }
+    return new ResponseEntity<>(lanes, HttpStatus.OK);
+  }
+
+  @GetMapping("/circuit-breakers")
+  public ResponseEntity<List<CircuitBreakerDto>> getCircuitBreakers() {
+    List<CircuitBreakerDto> breakers = new ArrayList<>();
+    for (CircuitBreaker circuitBreaker : bankCircuitBreakers.all()) {
+      CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+      CircuitBreakerDto dto = new CircuitBreakerDto();
+      dto.setName(circuitBreaker.getName());
+      dto.setState(circuitBreaker.getState().name());
+      dto.setFailureRate(metrics.getFailureRate());
+      dto.setBufferedCalls(metrics.getNumberOfBufferedCalls());
+      dto.setFailedCalls(metrics.getNumberOfFailedCalls());
+      dto.setNotPermittedCalls(metrics.getNumberOfNotPermittedCalls());
+      breakers.add(dto);
+    }
+    return new ResponseEntity<>(breakers, HttpStatus.OK);
+  }
+
+  // Forward counts are as seen from this instance.
+  @GetMapping("/cluster")
+  public ResponseEntity<List<ClusterNodeDto>> getCluster() {
+    List<ClusterNodeDto> nodes = new ArrayList<>();
+    for (String node : clusterRouter.getNodes()) {
+      ClusterNodeDto dto = new ClusterNodeDto();
+      dto.setNode(node);
+      dto.setBaseUrl(clusterRouter.getBaseUrl(node));
+      dto.setSelf(node.equals(clusterRouter.getSelf()));
+      dto.setForwarded(clusterRouter.getForwarded(node));
+      dto.setForwardFailures(clusterRouter.getFailures(node));
+      nodes.add(dto);
+    }
+    return new ResponseEntity<>(nodes, HttpStatus.OK);
+  }
+
+  // Served from counters the service keeps as payments change state; the store is not read.
+  @GetMapping("/stats")
+  public ResponseEntity<List<PaymentStatsDto>> getStats(
+      @RequestParam(defaultValue = "15") int minutes) {
+    int window = Math.max(1, Math.min(minutes, PaymentAggregates.WINDOW_MINUTES));
+    List<PaymentStatsDto> stats = new ArrayList<>();
+    for (Currency currency : Currency.values()) {
+      for (PaymentStatus status : PaymentStatus.values()) {
+        PaymentAggregates.Totals recent = paymentAggregates.getRecent(currency, status, window);
+        PaymentStatsDto dto = new PaymentStatsDto();
+        dto.setCurrency(currency.name());
+        dto.setStatus(status.getName());
+        dto.setCount(paymentAggregates.getCount(currency, status));
+        dto.setAmount(paymentAggregates.getAmount(currency, status));
+        dto.setWindowMinutes(window);
+        dto.setRecentCount(recent.count());
+        dto.setRecentAmount(recent.amount());
+        stats.add(dto);
+      }
+    }
+    return new ResponseEntity<>(stats, HttpStatus.OK);
+  }
+
+  // Reads the store rather than counters: payments created in the last hours that are in the
+  // given status, oldest first. Past limit matches the scan stops, so which ones are returned is
+  // then arbitrary. status=UNKNOWN lists the payments awaiting review.
+  // Lists card details, so it needs an operator. The scan comes back in no particular order, so
+  // the oldest matches are kept in a bounded heap as it runs and only those are sorted.
+  @GetMapping("/payments")
+  public ResponseEntity<List<AdminPaymentDto>> getPayments(@RequestParam PaymentStatus status,
+      @RequestParam(defaultValue = "24") int hours,
+      @RequestParam(defaultValue = "100") int limit, Principal operator) {
+    operator(operator);
+    long now = System.currentTimeMillis();
+    long since = now - Duration.ofHours(Math.max(1, hours)).toMillis();
+    int max = Math.max(1, Math.min(limit, 1_000));
+    Comparator<PaymentRecord> byId = Comparator.comparing(PaymentRecord::getId);
+    PriorityQueue<PaymentRecord> oldest = new PriorityQueue<>(max + 1, byId.reversed());
+    paymentsRepository.scan(PaymentIdGenerator.lowerBound(since),
+        PaymentIdGenerator.lowerBound(now + 1)).forEachRemaining(payment -> {
+          if (payment.getStatus() == status) {
+            oldest.add(payment);
+            if (oldest.size() > max) {
+              oldest.poll();
+            }
+          }
+        });
+    List<PaymentRecord> found = new ArrayList<>(oldest);
+    found.sort(byId);
+    List<AdminPaymentDto> payments = new ArrayList<>();
+    for (PaymentRecord payment : found) {
+      AdminPaymentDto dto = new AdminPaymentDto();
+      dto.setPaymentId(payment.getId());
+      dto.setStatus(payment.getStatus().getName());
+      dto.setCurrency(payment.getCurrency().name());
+      dto.setAmount(payment.getAmount());
+      dto.setCardNumberLastFour(payment.getCardNumberLastFour());
+      dto.setCreatedAt(
+          Instant.ofEpochMilli(PaymentIdGenerator.timestampMillis(payment.getId())));
+      payments.add(dto);
+    }
+    return new ResponseEntity<>(payments, HttpStatus.OK);
+  }
+
+  // Starts the report for a UTC day, the previous one by default, and returns at once; poll GET
+  // for progress. While another report runs, answers 409 with that report's progress.
+  @PostMapping("/settlement")
+  public ResponseEntity<SettlementRunDto> startSettlement(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+      LocalDate day, Principal operator) {
+    operator(operator);
+    LocalDate reported = day != null ? day : LocalDate.now(ZoneOffset.UTC).minusDays(1);
+    Optional<SettlementRun> started = settlementReportJob.start(reported);
+    if (started.isPresent()) {
+      return new ResponseEntity<>(settlementRun(started.get()), HttpStatus.ACCEPTED);
+    }
+    return new ResponseEntity<>(settlementRun(settlementReportJob.getLatest().orElseThrow()),
+        HttpStatus.CONFLICT);
+  }
+
+  @GetMapping("/settlement")
+  public ResponseEntity<SettlementRunDto> getSettlement() {
+    return settlementReportJob.getLatest()
+        .map(run -> new ResponseEntity<>(settlementRun(run), HttpStatus.OK))
+        .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+  }
+
+  // Carries idempotency keys, so it needs an operator.
+  @GetMapping("/slow-payments")
+  public ResponseEntity<List<SlowPaymentDto>> getSlowPayments(
+      @RequestParam(defaultValue = "5") int minutes, Principal operator) {
+    operator(operator);
+    List<SlowPaymentDto> payments = new ArrayList<>();
+    for (SlowPayment payment : slowPaymentRecorder.slowest(minutes)) {
+      SlowPaymentDto dto = new SlowPaymentDto();
+      dto.setPaymentId(payment.paymentId());
+      dto.setRequest(payment.request());
+      dto.setIdempotencyKey(payment.idempotencyKey());
+      dto.setOutcome(payment.outcome());
+      dto.setStartedAt(Instant.ofEpochMilli(payment.startedAtMillis()));
+      dto.setTotalMillis(payment.totalNanos() / 1_000_000.0);
+      Map<String, Double> phases = new LinkedHashMap<>();
+      payment.phaseNanos().forEach((phase, nanos) -> phases.put(phase, nanos / 1_000_000.0));
+      dto.setPhaseMillis(phases);
+      payments.add(dto);
+    }
+    return new ResponseEntity<>(payments, HttpStatus.OK);
+  }
+
+  @GetMapping("/bins")
+  public ResponseEntity<BinTableDto> getBinTable() {
+    return new ResponseEntity<>(binTable(), HttpStatus.OK);
+  }
+
+  // Re-reads bin.table and swaps it in; a broken file leaves the live table in place.
+  @PostMapping("/bins/reload")
+  public ResponseEntity<BinTableDto> reloadBinTable(Principal operator) {
+    operator(operator);
+    binIndex.reload();
+    return new ResponseEntity<>(binTable(), HttpStatus.OK);
+  }
+
+  @GetMapping("/settings")
+  public ResponseEntity<RuntimeSettingsDto> getSettings() {
+    return new ResponseEntity<>(runtimeSettings(runtimeTuner.get()), HttpStatus.OK);
+  }
+
+  // Applies every given setting or none; an invalid value answers 400 and changes nothing. The
+  // patch is merged into the settings current under the tuner's lock, so concurrent patches of
+  // different settings all take effect. The change is audited under the authenticated operator.
+  @PatchMapping("/settings")
+  public ResponseEntity<RuntimeSettingsDto> changeSettings(@RequestBody RuntimeSettingsDto patch,
+      Principal operator) {
+    RuntimeSettings applied = runtimeTuner.apply(current -> merge(current, patch),
+        operator(operator));
+    return new ResponseEntity<>(runtimeSettings(applied), HttpStatus.OK);
+  }
+
+  @GetMapping("/settings/changes")
+  public ResponseEntity<List<SettingsChangeDto>> getSettingsChanges() {
+    List<SettingsChangeDto> changes = new ArrayList<>();
+    for (SettingsChange change : runtimeTuner.getChanges()) {
+      SettingsChangeDto dto = new SettingsChangeDto();
+      dto.setSequence(change.sequence());
+      dto.setAt(Instant.ofEpochMilli(change.atMillis()));
+      dto.setActor(change.actor());
+      Map<String, List<Object>> changed = new LinkedHashMap<>();
+      change.changed().forEach((name, values) -> {
+        if (values.get(0) instanceof Duration) {
+          changed.put(name + "Millis", List.of(((Duration) values.get(0)).toMillis(),
+              ((Duration) values.get(1)).toMillis()));
+        } else {
+          changed.put(name, values);
+        }
+      });
+      dto.setChanged(changed);
+      changes.add(dto);
+    }
+    return new ResponseEntity<>(changes, HttpStatus.OK);
+  }
+
+  private static String operator(Principal operator) {
+    if (operator == null) {
+      throw new AdminAuthenticationException();
+    }
+    return operator.getName();
+  }
+
+  private SettlementRunDto settlementRun(SettlementRun run) {
+    SettlementRunDto dto = new SettlementRunDto();
+    dto.setDay(run.getDay());
+    dto.setState(run.getState().name());
+    dto.setStartedAt(Instant.ofEpochMilli(run.getStartedAtMillis()));
+    long finishedAt = run.getFinishedAtMillis();
+    dto.setFinishedAt(finishedAt == 0 ? null : Instant.ofEpochMilli(finishedAt));
+    dto.setParallelism(settlementReportJob.getParallelism());
+    dto.setPartitions(run.getPartitions());
+    dto.setPartitionsDone(run.getPartitionsDone());
+    dto.setScanned(run.getScanned());
+    dto.setAuthorized(run.getAuthorized());
+    long elapsed = (finishedAt == 0 ? System.currentTimeMillis() : finishedAt)
+        - run.getStartedAtMillis();
+    dto.setPaymentsPerSecond(elapsed <= 0 ? 0 : run.getScanned() * 1_000.0 / elapsed);
+    dto.setFile(run.getFile() == null ? null : run.getFile().toString());
+    dto.setError(run.getError());
+    return dto;
+  }
+
+  private BinTableDto binTable() {
+    BinTableDto dto = new BinTableDto();
+    dto.setSource(binIndex.getSource());
+    dto.setIntervals(binIndex.size());
+    dto.setLoadedAt(binIndex.getLoadedAt());
+    return dto;
+  }
+
+  private static RuntimeSettings merge(RuntimeSettings current, RuntimeSettingsDto patch) {
+    return new RuntimeSettings(
+        or(patch.getReadLaneThreads(), current.readLaneThreads()),
+        or(patch.getWriteLaneThreads(), current.writeLaneThreads()),
+        millis(patch.getBankConnectTimeoutMillis(), current.bankConnectTimeout()),
+        millis(patch.getBankReadTimeoutMillis(), current.bankReadTimeout()),
+        or(patch.getBreakerFailureRateThreshold(), current.breakerFailureRateThreshold()),
+        or(patch.getBreakerMinimumNumberOfCalls(), current.breakerMinimumNumberOfCalls()),
+        or(patch.getBreakerSlidingWindowSize(), current.breakerSlidingWindowSize()),
+        millis(patch.getBreakerWaitDurationInOpenStateMillis(),
+            current.breakerWaitDurationInOpenState()),
+        or(patch.getBreakerPermittedCallsInHalfOpenState(),
+            current.breakerPermittedCallsInHalfOpenState()),
+        or(patch.getRateLimitMaxMerchants(), current.rateLimitMaxMerchants()),
+        or(patch.getBreakerMaxPartitions(), current.breakerMaxPartitions()),
+        or(patch.getLogSampleRate(), current.logSampleRate()));
+  }
+
+  private static <T> T or(T value, T current) {
+    return value != null ? value : current;
+  }
+
+  private static Duration millis(Long value, Duration current) {
+    return value != null ? Duration.ofMillis(value) : current;
+  }
+
+  private static RuntimeSettingsDto runtimeSettings(RuntimeSettings settings) {
+    RuntimeSettingsDto dto = new RuntimeSettingsDto();
+    dto.setReadLaneThreads(settings.readLaneThreads());
+    dto.setWriteLaneThreads(settings.writeLaneThreads());
+    dto.setBankConnectTimeoutMillis(settings.bankConnectTimeout().toMillis());
+    dto.setBankReadTimeoutMillis(settings.bankReadTimeout().toMillis());
+    dto.setBreakerFailureRateThreshold(settings.breakerFailureRateThreshold());
+    dto.setBreakerMinimumNumberOfCalls(settings.breakerMinimumNumberOfCalls());
+    dto.setBreakerSlidingWindowSize(settings.breakerSlidingWindowSize());
+    dto.setBreakerWaitDurationInOpenStateMillis(
+        settings.breakerWaitDurationInOpenState().toMillis());
+    dto.setBreakerPermittedCallsInHalfOpenState(settings.breakerPermittedCallsInHalfOpenState());
+    dto.setRateLimitMaxMerchants(settings.rateLimitMaxMerchants());
+    dto.setBreakerMaxPartitions(settings.breakerMaxPartitions());
+    dto.setLogSampleRate(settings.logSampleRate());
+    return dto;
+  }
+}
@@ -1,16 +1,27 @@
 package com.checkout.payment.gateway.controller;
 
 import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentLookupResponseDto;
 import com.checkout.payment.gateway.api.PaymentResponseDto;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.execution.ExecutionLane;
 import com.checkout.payment.gateway.model.CreatePaymentRequest;
+import com.checkout.payment.gateway.model.PaymentLookupRequest;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.tracing.PaymentTrace;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,20 +30,56 @@ import org.springframework.web.bind.annotation.RestController;
 public class PaymentGatewayController {
 
   private final PaymentGatewayService paymentGatewayService;
+  private final ExecutionLane readLane;
+  private final ExecutionLane writeLane;
+  private final PaymentTracer paymentTracer;
+  private final ClusterRouter clusterRouter;
+  private final MerchantRateLimiter merchantRateLimiter;
 
-  public PaymentGatewayController(PaymentGatewayService paymentGatewayService) {
+  public PaymentGatewayController(PaymentGatewayService paymentGatewayService,
+      @Qualifier("readLane") ExecutionLane readLane,
+      @Qualifier("writeLane") ExecutionLane writeLane, PaymentTracer paymentTracer,
+      ClusterRouter clusterRouter, MerchantRateLimiter merchantRateLimiter) {
     this.paymentGatewayService = paymentGatewayService;
+    this.readLane = readLane;
+    this.writeLane = writeLane;
+    this.paymentTracer = paymentTracer;
+    this.clusterRouter = clusterRouter;
+    this.merchantRateLimiter = merchantRateLimiter;
   }
 
+  // Handlers return futures so the Tomcat thread is released while the lane does the work.
   @PostMapping("/payment")
-  public ResponseEntity<CreatePaymentResponseDto> createPostPayment(
+  public CompletableFuture<ResponseEntity<CreatePaymentResponseDto>> createPostPayment(
       @RequestHeader("Idempotency-Key") String idempotencyKey,
-      @Valid @RequestBody CreatePaymentRequest createPaymentRequest) {
-    return new ResponseEntity<>(paymentGatewayService.processPayment(idempotencyKey, createPaymentRequest), HttpStatus.OK);
+      @Valid @RequestBody CreatePaymentRequest createPaymentRequest,
+      @RequestAttribute(name = PaymentTrace.ATTRIBUTE, required = false) PaymentTrace trace) {
+    return writeLane.supply(paymentTracer.traced(trace, () -> new ResponseEntity<>(
+        paymentGatewayService.processPayment(idempotencyKey, createPaymentRequest), HttpStatus.OK)));
   }
 
   @GetMapping("/payment/{id}")
-  public ResponseEntity<PaymentResponseDto> getPaymentEventById(@PathVariable UUID id) {
-    return new ResponseEntity<>(paymentGatewayService.getPaymentById(id), HttpStatus.OK);
+  public CompletableFuture<ResponseEntity<PaymentResponseDto>> getPaymentEventById(
+      @PathVariable UUID id,
+      @RequestAttribute(name = PaymentTrace.ATTRIBUTE, required = false) PaymentTrace trace) {
+    return readLane.supply(paymentTracer.traced(trace, () -> new ResponseEntity<>(
+        paymentGatewayService.getPaymentById(id), HttpStatus.OK)));
+  }
+
+  // Ids that are not found are listed in the answer rather than failing it with a 404. A lookup
+  // costs the merchant one rate-limit token per id, up to the burst, on the instance the client
+  // called; the sub-batches that instance relays to its peers are not charged again.
+  @PostMapping("/payment/lookup")
+  public CompletableFuture<ResponseEntity<PaymentLookupResponseDto>> lookupPayments(
+      @Valid @RequestBody PaymentLookupRequest lookupRequest, HttpServletRequest request,
+      @RequestAttribute(name = PaymentTrace.ATTRIBUTE, required = false) PaymentTrace trace) {
+    boolean forwarded = clusterRouter.isForwardedByPeer(request);
+    if (!forwarded) {
+      merchantRateLimiter.admit(request.getHeader(merchantRateLimiter.getHeader()),
+          lookupRequest.getIds().size());
+    }
+    return readLane.supply(paymentTracer.traced(trace, () -> new ResponseEntity<>(
+        paymentGatewayService.lookupPayments(lookupRequest.getIds(), forwarded),
+        HttpStatus.OK)));
   }
 }
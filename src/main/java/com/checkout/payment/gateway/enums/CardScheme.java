@@ -0,0 +1,13 @@
+package com.checkout.payment.gateway.enums;
+
+/** Card schemes that a BIN range can belong to (see {@code BinIndex}). */
+public enum CardScheme {
+  VISA,
+  MASTERCARD,
+  AMEX,
+  DISCOVER,
+  DINERS,
+  JCB,
+  UNIONPAY,
+  MAESTRO
+}
@@ -0,0 +1,21 @@
+package com.checkout.payment.gateway.enums;
+
+/**
+ * Currencies accepted by the gateway (see the {@code @Pattern} on {@code CreatePaymentRequest}).
+ * The one-byte {@link #code()} is what compact and persistent representations store.
+ */
+public enum Currency {
+  GBP,
+  USD,
+  EUR;
+
+  private static final Currency[] BY_CODE = values();
+
+  public byte code() {
+    return (byte) ordinal();
+  }
+
+  public static Currency fromCode(byte code) {
+    return BY_CODE[code];
+  }
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.enums;
+
+/** Whether a card draws on credit, the holder's account, or a prepaid balance. */
+public enum FundingType {
+  CREDIT,
+  DEBIT,
+  PREPAID
+}
@@ -6,7 +6,11 @@ public enum PaymentStatus {
   AUTHORIZED("Authorized"),
   DECLINED("Declined"),
   REJECTED("Rejected"),
-  PENDING("Pending");
+  PENDING("Pending"),
+  /** Stayed PENDING past its deadline; the bank may or may not have authorized it. */
+  UNKNOWN("Unknown");
+
+  private static final PaymentStatus[] BY_CODE = values();
 
   private final String name;
 
@@ -18,4 +22,28 @@ public enum PaymentStatus {
   public String getName() {
     return this.name;
   }
+
+  public byte code() {
+    return (byte) ordinal();
+  }
+
+  public static PaymentStatus fromCode(byte code) {
+    return BY_CODE[code];
+  }
+
+  /**
+   * A payment is stored as PENDING and settles exactly once, to AUTHORIZED or DECLINED. One left
+   * PENDING past its deadline becomes UNKNOWN, which can still settle when the answer turns up.
+   */
+  public boolean canTransitionTo(PaymentStatus next) {
+    return switch (this) {
+      case PENDING -> next == AUTHORIZED || next == DECLINED || next == UNKNOWN;
+      case UNKNOWN -> next == AUTHORIZED || next == DECLINED;
+      default -> false;
+    };
+  }
+
+  public boolean isSettled() {
+    return this == AUTHORIZED || this == DECLINED;
+  }
 }
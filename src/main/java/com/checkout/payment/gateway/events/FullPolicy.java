@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.events;
+
+/** What a publisher does when the slowest subscriber is a whole ring behind. */
+public enum FullPolicy {
+  /**
+   * Wait for a free slot, so no subscriber misses an event. One slow subscriber, such as the
+   * audit trail waiting on fsync, then stalls every request thread that publishes.
+   */
+  BLOCK,
+  /**
+   * Drop the event and count it, so the request thread never waits. Every subscriber misses it;
+   * the audit trail records how many were missed, so the gap is visible in the chain.
+   */
+  DROP
+}
@@ -0,0 +1,88 @@
+package com.checkout.payment.gateway.events;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.UUID;
+
+/**
+ * Pre-allocated slot of the {@link PaymentEventBus}. Publishers overwrite slots in place, so an
+ * instance is only valid inside {@link PaymentEventSubscriber#onEvent}.
+ */
+public final class PaymentEvent {
+
+  private long sequence;
+  private PaymentEventType type;
+  private long timestampMillis;
+  private UUID paymentId;
+  private int version;
+  private Currency currency;
+  private int amount;
+  private int cardNumberLastFour;
+  private String idempotencyKey;
+  private String reason;
+  private long droppedBefore;
+
+  void set(long sequence, PaymentEventType type, long timestampMillis, PaymentRecord payment,
+      String idempotencyKey, String reason, long droppedBefore) {
+    this.sequence = sequence;
+    this.type = type;
+    this.timestampMillis = timestampMillis;
+    this.paymentId = payment.getId();
+    this.version = payment.getVersion();
+    this.currency = payment.getCurrency();
+    this.amount = payment.getAmount();
+    this.cardNumberLastFour = payment.getCardNumberLastFour();
+    this.idempotencyKey = idempotencyKey;
+    this.reason = reason;
+    this.droppedBefore = droppedBefore;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public PaymentEventType getType() {
+    return type;
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  public int getAmount() {
+    return amount;
+  }
+
+  public int getCardNumberLastFour() {
+    return cardNumberLastFour;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  /** Why the payment was compensated (the exception type), otherwise {@code null}. */
+  public String getReason() {
+    return reason;
+  }
+
+  /**
+   * Events the bus had dropped since it started when this one was published, so a subscriber can
+   * tell that it missed some.
+   */
+  public long getDroppedBefore() {
+    return droppedBefore;
+  }
+}
@@ -0,0 +1,213 @@
+package com.checkout.payment.gateway.events;
+
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process bus for payment lifecycle events, built on a ring of pre-allocated
+ * {@link PaymentEvent} slots. Every subscriber sees every event, in sequence order, on its own
+ * thread. Publishers claim a sequence with a CAS, fill the slot in place and mark it published,
+ * so {@link #publish} takes no lock and allocates nothing. A slot is reused only once the
+ * slowest subscriber has moved past it; until then publishers block or drop (see
+ * {@link FullPolicy}).
+ *
+ * <p>Request threads all publish, so claiming is multi-producer. Each subscriber only ever
+ * writes its own sequence.
+ */
+public class PaymentEventBus {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentEventBus.class);
+  private static final int MAX_BATCH = 256;
+  private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+  private final PaymentEvent[] slots;
+  private final AtomicLongArray published;
+  private final int mask;
+  private final FullPolicy fullPolicy;
+  private final AtomicLong claimed = new AtomicLong(-1);
+  // Read on every publish to stamp the event, and only written when the ring is full.
+  private final AtomicLong dropped = new AtomicLong();
+  private final List<Subscription> subscriptions = new ArrayList<>();
+  private volatile long gatingSequence = -1;
+  private volatile boolean running = true;
+
+  public PaymentEventBus(PaymentEventBusProperties properties,
+      List<PaymentEventSubscriber> subscribers) {
+    if (properties.bufferSize() < 2) {
+      throw new IllegalArgumentException("Event ring capacity must be at least 2");
+    }
+    int capacity = Integer.highestOneBit(properties.bufferSize() - 1) << 1;
+    this.slots = new PaymentEvent[capacity];
+    this.published = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    this.fullPolicy = properties.fullPolicy();
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new PaymentEvent();
+      published.set(i, -1);
+    }
+    for (PaymentEventSubscriber subscriber : subscribers) {
+      subscriptions.add(new Subscription(subscriber,
+          properties.waitStrategyFor(subscriber.name())));
+    }
+    for (Subscription subscription : subscriptions) {
+      subscription.thread.start();
+    }
+  }
+
+  /**
+   * Publishes {@code type} for {@code payment}. Returns false if the event was dropped: the ring
+   * was full under {@link FullPolicy#DROP}, or the bus has been shut down.
+   */
+  public boolean publish(PaymentEventType type, PaymentRecord payment, String idempotencyKey,
+      String reason) {
+    if (subscriptions.isEmpty()) {
+      return true;
+    }
+    long sequence;
+    while (true) {
+      if (!running) {
+        dropped.incrementAndGet();
+        return false;
+      }
+      long current = claimed.get();
+      long next = current + 1;
+      long wrapPoint = next - slots.length;
+      if (wrapPoint > gatingSequence) {
+        long gate = slowestSubscriber();
+        gatingSequence = gate;
+        if (wrapPoint > gate) {
+          if (fullPolicy == FullPolicy.DROP) {
+            dropped.incrementAndGet();
+            return false;
+          }
+          LockSupport.parkNanos(this, FULL_PARK_NANOS);
+          continue;
+        }
+      }
+      if (claimed.compareAndSet(current, next)) {
+        sequence = next;
+        break;
+      }
+    }
+    int index = (int) (sequence & mask);
+    slots[index].set(sequence, type, System.currentTimeMillis(), payment, idempotencyKey, reason,
+        dropped.get());
+    published.lazySet(index, sequence);
+    return true;
+  }
+
+  public int capacity() {
+    return slots.length;
+  }
+
+  /** Events published so far. */
+  public long getPublished() {
+    return claimed.get() + 1;
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  public List<String> getSubscribers() {
+    return subscriptions.stream().map(subscription -> subscription.subscriber.name()).toList();
+  }
+
+  /** Events published but not yet handled by {@code subscriber}. */
+  public long getLag(String subscriber) {
+    for (Subscription subscription : subscriptions) {
+      if (subscription.subscriber.name().equals(subscriber)) {
+        return claimed.get() - subscription.sequence.get();
+      }
+    }
+    throw new IllegalArgumentException("Unknown subscriber " + subscriber);
+  }
+
+  public long getFailures(String subscriber) {
+    for (Subscription subscription : subscriptions) {
+      if (subscription.subscriber.name().equals(subscriber)) {
+        return subscription.failures.sum();
+      }
+    }
+    throw new IllegalArgumentException("Unknown subscriber " + subscriber);
+  }
+
+  /**
+   * Stops accepting events and waits for the subscribers to handle everything already
+   * published.
+   */
+  public void shutdown() throws InterruptedException {
+    running = false;
+    for (Subscription subscription : subscriptions) {
+      LockSupport.unpark(subscription.thread);
+      subscription.thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+
+  private long slowestSubscriber() {
+    long slowest = Long.MAX_VALUE;
+    for (Subscription subscription : subscriptions) {
+      slowest = Math.min(slowest, subscription.sequence.get());
+    }
+    return slowest;
+  }
+
+  private final class Subscription implements Runnable {
+
+    private final PaymentEventSubscriber subscriber;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong sequence = new AtomicLong(-1);
+    private final LongAdder failures = new LongAdder();
+    private final Thread thread;
+
+    private Subscription(PaymentEventSubscriber subscriber, WaitStrategy waitStrategy) {
+      this.subscriber = subscriber;
+      this.waitStrategy = waitStrategy;
+      this.thread = new Thread(this, "payment-events-" + subscriber.name());
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      long next = sequence.get() + 1;
+      int idle = 0;
+      while (true) {
+        long available = next - 1;
+        while (available - next + 1 < MAX_BATCH
+            && published.get((int) ((available + 1) & mask)) == available + 1) {
+          available++;
+        }
+        if (available >= next) {
+          for (long s = next; s <= available; s++) {
+            handle(slots[(int) (s & mask)], s == available);
+          }
+          sequence.lazySet(available);
+          next = available + 1;
+          idle = 0;
+        } else if (!running && next > claimed.get()) {
+          return;
+        } else {
+          idle = waitStrategy.idle(idle);
+        }
+      }
+    }
+
+    private void handle(PaymentEvent event, boolean endOfBatch) {
+      try {
+        subscriber.onEvent(event, endOfBatch);
+      } catch (Exception e) {
+        failures.increment();
+        LOG.warn("Subscriber {} failed on event {} ({})", subscriber.name(),
+            event.getSequence(), event.getType(), e);
+      }
+    }
+  }
+}
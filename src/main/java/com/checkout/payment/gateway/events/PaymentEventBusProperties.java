@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.events;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "payment.events")
+public record PaymentEventBusProperties(
+    @DefaultValue("4096") int bufferSize,
+    @DefaultValue("BLOCK") FullPolicy fullPolicy,
+    @DefaultValue("SLEEPING") WaitStrategy waitStrategy,
+    Map<String, Subscriber> subscribers) {
+
+  public PaymentEventBusProperties {
+    subscribers = subscribers == null ? Map.of() : Map.copyOf(subscribers);
+  }
+
+  public WaitStrategy waitStrategyFor(String subscriber) {
+    Subscriber override = subscribers.get(subscriber);
+    return override == null || override.waitStrategy() == null
+        ? waitStrategy
+        : override.waitStrategy();
+  }
+
+  public record Subscriber(WaitStrategy waitStrategy) {
+  }
+}
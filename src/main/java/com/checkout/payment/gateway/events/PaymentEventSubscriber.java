@@ -0,0 +1,18 @@
+package com.checkout.payment.gateway.events;
+
+/**
+ * Receives every event published on the {@link PaymentEventBus}, in order, on a thread of its
+ * own. Beans implementing this are subscribed at startup.
+ */
+public interface PaymentEventSubscriber {
+
+  /** Names the subscriber thread and its {@code payment.events.subscribers.<name>} settings. */
+  String name();
+
+  /**
+   * Handles one event. {@code endOfBatch} is true for the last event currently available, which
+   * is the place to flush anything buffered. The event is a reused slot: copy what is needed and
+   * do not keep a reference. Exceptions are counted and logged, and the event is skipped.
+   */
+  void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,28 @@
+package com.checkout.payment.gateway.events;
+
+/**
+ * Payment lifecycle changes published on the {@link PaymentEventBus}, and
+ * {@link #SETTINGS_CHANGED} and {@link #EVENTS_DROPPED}, which are only ever written to the audit
+ * trail. {@link #UNRECONCILED} marks an UNKNOWN payment that nothing will resolve and needs
+ * review. Codes are stored in the audit trail, so new types only ever go last.
+ */
+public enum PaymentEventType {
+  CREATED,
+  AUTHORIZED,
+  DECLINED,
+  COMPENSATED,
+  EXPIRED,
+  SETTINGS_CHANGED,
+  EVENTS_DROPPED,
+  UNRECONCILED;
+
+  private static final PaymentEventType[] BY_CODE = values();
+
+  public byte code() {
+    return (byte) ordinal();
+  }
+
+  public static PaymentEventType fromCode(byte code) {
+    return BY_CODE[code];
+  }
+}
@@ -0,0 +1,49 @@
+package com.checkout.payment.gateway.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a subscriber thread does while no events are available. {@code BUSY_SPIN} has the lowest
+ * latency but keeps a core busy; {@code SLEEPING} costs up to a millisecond of latency after an
+ * idle period and almost no CPU.
+ */
+public enum WaitStrategy {
+  BUSY_SPIN {
+    @Override
+    int idle(int counter) {
+      Thread.onSpinWait();
+      return counter + 1;
+    }
+  },
+  YIELDING {
+    @Override
+    int idle(int counter) {
+      if (counter < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+      return counter + 1;
+    }
+  },
+  SLEEPING {
+    @Override
+    int idle(int counter) {
+      if (counter < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (counter < 2 * SPIN_TRIES) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(SLEEP_NANOS);
+      }
+      return counter + 1;
+    }
+  };
+
+  private static final int SPIN_TRIES = 100;
+  private static final long SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** Waits once; {@code counter} is the number of consecutive idle rounds so far. */
+  abstract int idle(int counter);
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.exception;
+
+public class AdminAuthenticationException extends RuntimeException {
+
+  public AdminAuthenticationException() {
+    super("Admin changes need an operator's bearer token");
+  }
+}
@@ -2,9 +2,17 @@ package com.checkout.payment.gateway.exception;
 
 import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
 import com.checkout.payment.gateway.api.PaymentStatusDto;
+import com.checkout.payment.gateway.bin.BinTableException;
+import com.checkout.payment.gateway.cluster.OwnerUnavailableException;
+import com.checkout.payment.gateway.execution.LaneSaturatedException;
 import com.checkout.payment.gateway.model.ErrorResponse;
+import com.checkout.payment.gateway.model.PaymentLookupRequest;
+import com.checkout.payment.gateway.tracing.PaymentTrace;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -18,6 +26,12 @@ public class CommonExceptionHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(CommonExceptionHandler.class);
 
+  private final PaymentTracer paymentTracer;
+
+  public CommonExceptionHandler(PaymentTracer paymentTracer) {
+    this.paymentTracer = paymentTracer;
+  }
+
   @ExceptionHandler(EventProcessingException.class)
   public ResponseEntity<ErrorResponse> handleException(EventProcessingException ex) {
     LOG.error("Exception happened", ex);
@@ -26,9 +40,12 @@ public class CommonExceptionHandler {
   }
 
   @ExceptionHandler(MethodArgumentNotValidException.class)
-  public ResponseEntity<CreatePaymentResponseDto> handleValidationException(
-      MethodArgumentNotValidException ex) {
+  public ResponseEntity<?> handleValidationException(MethodArgumentNotValidException ex) {
     LOG.error("Validation failed", ex);
+    if (ex.getTarget() instanceof PaymentLookupRequest) {
+      return new ResponseEntity<>(new ErrorResponse(ex.getAllErrors().get(0).getDefaultMessage()),
+          HttpStatus.BAD_REQUEST);
+    }
     CreatePaymentResponseDto response = new CreatePaymentResponseDto();
     response.setStatus(PaymentStatusDto.REJECTED);
       return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST); // double check
@@ -49,4 +66,60 @@ public class CommonExceptionHandler {
     return new ResponseEntity<>(new ErrorResponse("Invalid request parameter"),
         HttpStatus.BAD_REQUEST);
   }
+
+  @ExceptionHandler(RateLimitExceededException.class)
+  public ResponseEntity<ErrorResponse> handleRateLimitExceededException(
+      RateLimitExceededException ex) {
+    LOG.warn("Rate limit exceeded, merchantId={}, retryAfterSeconds={}", ex.getMerchantId(),
+        ex.getRetryAfterSeconds());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(new ErrorResponse("Too many requests"));
+  }
+
+  @ExceptionHandler(LaneSaturatedException.class)
+  public ResponseEntity<ErrorResponse> handleLaneSaturatedException(LaneSaturatedException ex,
+      HttpServletRequest request) {
+    LOG.warn("Execution lane saturated, lane={}", ex.getLane());
+    // The task never ran, so its queue phase and request event are ended here.
+    if (request.getAttribute(PaymentTrace.ATTRIBUTE) instanceof PaymentTrace trace) {
+      paymentTracer.abandon(trace, ex.getClass().getSimpleName());
+    }
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(new ErrorResponse("Service temporarily overloaded"));
+  }
+
+  @ExceptionHandler(OwnerUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleOwnerUnavailableException(
+      OwnerUnavailableException ex) {
+    LOG.warn("Could not forward to owning instance, node={}", ex.getNode(), ex.getCause());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(new ErrorResponse("Service temporarily unavailable"));
+  }
+
+  @ExceptionHandler(BinTableException.class)
+  public ResponseEntity<ErrorResponse> handleBinTableException(BinTableException ex) {
+    LOG.error("BIN table reload failed", ex);
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()),
+        HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @ExceptionHandler(AdminAuthenticationException.class)
+  public ResponseEntity<ErrorResponse> handleAdminAuthenticationException(
+      AdminAuthenticationException ex, HttpServletRequest request) {
+    LOG.warn("Unauthenticated admin change refused, uri={}, remoteAddr={}",
+        request.getRequestURI(), request.getRemoteAddr());
+    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+        .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer realm=\"admin\"")
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(InvalidSettingsException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidSettingsException(
+      InvalidSettingsException ex) {
+    LOG.warn("Settings change rejected: {}", ex.getErrors());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()), HttpStatus.BAD_REQUEST);
+  }
 }
@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.exception;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.util.UUID;
+
+public class IllegalPaymentTransitionException extends RuntimeException {
+  public IllegalPaymentTransitionException(UUID id, PaymentStatus from, PaymentStatus to) {
+    super("Payment " + id + " cannot move from " + from + " to " + to);
+  }
+}
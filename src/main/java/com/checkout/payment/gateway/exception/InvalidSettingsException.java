@@ -0,0 +1,17 @@
+package com.checkout.payment.gateway.exception;
+
+import java.util.List;
+
+public class InvalidSettingsException extends RuntimeException {
+
+  private final List<String> errors;
+
+  public InvalidSettingsException(List<String> errors) {
+    super("Invalid settings: " + String.join("; ", errors));
+    this.errors = List.copyOf(errors);
+  }
+
+  public List<String> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+public class PaymentStoreException extends RuntimeException {
+  public PaymentStoreException(String message) {
+    super(message);
+  }
+
+  public PaymentStoreException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
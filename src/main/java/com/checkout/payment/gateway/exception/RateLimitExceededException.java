@@ -0,0 +1,21 @@
+package com.checkout.payment.gateway.exception;
+
+public class RateLimitExceededException extends RuntimeException {
+
+  private final String merchantId;
+  private final long retryAfterSeconds;
+
+  public RateLimitExceededException(String merchantId, long retryAfterSeconds) {
+    super("Rate limit exceeded for merchant " + merchantId);
+    this.merchantId = merchantId;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public String getMerchantId() {
+    return merchantId;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,9 @@
+package com.checkout.payment.gateway.exception;
+
+import java.util.UUID;
+
+public class StalePaymentException extends RuntimeException {
+  public StalePaymentException(UUID id, int expectedVersion) {
+    super("Payment " + id + " is no longer at version " + expectedVersion);
+  }
+}
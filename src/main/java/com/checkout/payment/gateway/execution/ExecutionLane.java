@@ -0,0 +1,147 @@
+package com.checkout.payment.gateway.execution;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A named, bounded executor that a group of endpoints runs on. Each lane has its own threads,
+ * its own queue and its own saturation policy, so a backlog in one lane (e.g. writes stuck on
+ * the bank) cannot delay work in another.
+ */
+public class ExecutionLane implements AutoCloseable {
+
+  private final String name;
+  private final SaturationPolicy saturationPolicy;
+  private final ThreadPoolExecutor executor;
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder callerRuns = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+
+  public ExecutionLane(String name, int threads, int queueCapacity,
+      SaturationPolicy saturationPolicy) {
+    this.name = name;
+    this.saturationPolicy = saturationPolicy;
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new LaneThreadFactory(name),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public <T> CompletableFuture<T> supply(Supplier<T> task) {
+    submitted.increment();
+    CompletableFuture<T> future = new CompletableFuture<>();
+    long enqueuedAt = System.nanoTime();
+    try {
+      executor.execute(() -> run(task, future, enqueuedAt));
+    } catch (RejectedExecutionException e) {
+      if (saturationPolicy == SaturationPolicy.CALLER_RUNS && !executor.isShutdown()) {
+        callerRuns.increment();
+        run(task, future, enqueuedAt);
+      } else {
+        rejected.increment();
+        throw new LaneSaturatedException(name);
+      }
+    }
+    return future;
+  }
+
+  private <T> void run(Supplier<T> task, CompletableFuture<T> future, long enqueuedAt) {
+    queueWaitNanos.add(System.nanoTime() - enqueuedAt);
+    try {
+      future.complete(task.get());
+    } catch (Throwable t) {
+      future.completeExceptionally(t);
+    } finally {
+      completed.increment();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public SaturationPolicy getSaturationPolicy() {
+    return saturationPolicy;
+  }
+
+  public int getThreads() {
+    return executor.getMaximumPoolSize();
+  }
+
+  /**
+   * Resizes the lane's pool. Queued and running tasks are kept: extra threads start as work
+   * arrives, and surplus ones exit once they finish their current task.
+   */
+  public synchronized void setThreads(int threads) {
+    if (threads > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(threads);
+      executor.setCorePoolSize(threads);
+    } else {
+      executor.setCorePoolSize(threads);
+      executor.setMaximumPoolSize(threads);
+    }
+  }
+
+  public int getActive() {
+    return executor.getActiveCount();
+  }
+
+  public int getQueued() {
+    return executor.getQueue().size();
+  }
+
+  public int getQueueCapacity() {
+    return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+  }
+
+  public long getSubmitted() {
+    return submitted.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  public long getCallerRuns() {
+    return callerRuns.sum();
+  }
+
+  public long getCompleted() {
+    return completed.sum();
+  }
+
+  public long getTotalQueueWaitNanos() {
+    return queueWaitNanos.sum();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(30, TimeUnit.SECONDS);
+  }
+
+  private static final class LaneThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private LaneThreadFactory(String lane) {
+      this.prefix = "lane-" + lane + "-";
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.execution;
+
+public class LaneSaturatedException extends RuntimeException {
+
+  private final String lane;
+
+  public LaneSaturatedException(String lane) {
+    super("Execution lane '" + lane + "' is saturated");
+    this.lane = lane;
+  }
+
+  public String getLane() {
+    return lane;
+  }
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.execution;
+
+public enum SaturationPolicy {
+  // Fail fast with 503 so the caller can back off.
+  REJECT,
+  // Run the task on the submitting (Tomcat) thread; only sensible for cheap work.
+  CALLER_RUNS
+}
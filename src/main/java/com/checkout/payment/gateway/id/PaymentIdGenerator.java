@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.id;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates time-ordered UUIDv7 payment ids (RFC 9562): 48 bits of Unix milliseconds, then a
+ * 12-bit counter in {@code rand_a}, then 62 random bits. Unlike {@link UUID#randomUUID()}, nothing
+ * is shared between threads: each thread has its own DRBG, read through a buffer so it is
+ * reseeded rarely, and its own clock/counter state.
+ *
+ * <p>Ids from one thread are strictly increasing: within a millisecond the counter increments from
+ * a random start, and when it overflows, or the wall clock steps back, the timestamp is carried
+ * forward instead. Ids from different threads are ordered by millisecond only.
+ */
+@Component
+public class PaymentIdGenerator {
+
+  private static final int COUNTER_BITS = 12;
+  private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+  // The counter starts below half its range, so there is always room to increment in a millisecond.
+  private static final int COUNTER_START_RANGE = 1 << (COUNTER_BITS - 1);
+  private static final int ENTROPY_BUFFER_LONGS = 64;
+
+  private final LongSupplier clockMillis;
+  private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+  public PaymentIdGenerator() {
+    this(System::currentTimeMillis);
+  }
+
+  PaymentIdGenerator(LongSupplier clockMillis) {
+    this.clockMillis = clockMillis;
+  }
+
+  public UUID next() {
+    State s = state.get();
+    long now = clockMillis.getAsLong();
+    if (now > s.lastMillis) {
+      s.lastMillis = now;
+      s.counter = (int) (s.nextRandom() & (COUNTER_START_RANGE - 1));
+    } else if (++s.counter > MAX_COUNTER) {
+      s.lastMillis++;
+      s.counter = (int) (s.nextRandom() & (COUNTER_START_RANGE - 1));
+    }
+    long msb = (s.lastMillis << 16) | (0x7L << 12) | s.counter;
+    long lsb = (s.nextRandom() >>> 2) | Long.MIN_VALUE;
+    return new UUID(msb, lsb);
+  }
+
+  /** The creation time embedded in an id from this generator. */
+  public static long timestampMillis(UUID id) {
+    return id.getMostSignificantBits() >>> 16;
+  }
+
+  /**
+   * The smallest UUIDv7 for {@code millis}: by {@link UUID#compareTo}, every id created in or
+   * after that millisecond is greater or equal, which bounds a range scan by creation time.
+   */
+  public static UUID lowerBound(long millis) {
+    return new UUID((millis << 16) | (0x7L << 12), Long.MIN_VALUE);
+  }
+
+  private static final class State {
+
+    private final SecureRandom random;
+    private final long[] entropy = new long[ENTROPY_BUFFER_LONGS];
+    private int position = ENTROPY_BUFFER_LONGS;
+    private long lastMillis = -1;
+    private int counter;
+
+    private State() {
+      try {
+        random = SecureRandom.getInstance("DRBG");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("DRBG SecureRandom is not available", e);
+      }
+    }
+
+    private long nextRandom() {
+      if (position == ENTROPY_BUFFER_LONGS) {
+        byte[] bytes = new byte[ENTROPY_BUFFER_LONGS * Long.BYTES];
+        random.nextBytes(bytes);
+        for (int i = 0; i < ENTROPY_BUFFER_LONGS; i++) {
+          long value = 0;
+          for (int b = 0; b < Long.BYTES; b++) {
+            value = (value << 8) | (bytes[i * Long.BYTES + b] & 0xFF);
+          }
+          entropy[i] = value;
+        }
+        position = 0;
+      }
+      return entropy[position++];
+    }
+  }
+}
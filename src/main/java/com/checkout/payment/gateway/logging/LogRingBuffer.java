@@ -0,0 +1,89 @@
+package com.checkout.payment.gateway.logging;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer/single-consumer ring of pre-allocated {@link PaymentLogEvent} slots.
+ * Each slot carries a sequence number that tells producers whether it is free and the consumer
+ * whether it has been published, so neither side takes a lock. A full ring drops the event.
+ */
+final class LogRingBuffer {
+
+  private final PaymentLogEvent[] slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+  private long head;
+
+  LogRingBuffer(int requestedCapacity) {
+    if (requestedCapacity < 2) {
+      throw new IllegalArgumentException("Ring capacity must be at least 2");
+    }
+    int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+    this.slots = new PaymentLogEvent[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new PaymentLogEvent();
+      sequences.set(i, i);
+    }
+  }
+
+  boolean offer(PaymentLogEventType type, long timestampMillis, UUID paymentId,
+      PaymentStatus status, int amount, String currency, String idempotencyKey, String reason) {
+    long position;
+    int index;
+    while (true) {
+      position = tail.get();
+      index = (int) (position & mask);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (difference < 0) {
+        dropped.increment();
+        return false;
+      }
+    }
+    slots[index].set(type, timestampMillis, paymentId, status, amount, currency, idempotencyKey,
+        reason);
+    sequences.lazySet(index, position + 1);
+    return true;
+  }
+
+  // Must only be called from the single consumer thread.
+  int drain(Consumer<PaymentLogEvent> consumer, int limit) {
+    int drained = 0;
+    while (drained < limit) {
+      int index = (int) (head & mask);
+      if (sequences.get(index) != head + 1) {
+        break;
+      }
+      PaymentLogEvent event = slots[index];
+      try {
+        consumer.accept(event);
+      } finally {
+        event.clear();
+        sequences.lazySet(index, head + slots.length);
+        head++;
+        drained++;
+      }
+    }
+    return drained;
+  }
+
+  int capacity() {
+    return slots.length;
+  }
+
+  long droppedCount() {
+    return dropped.sum();
+  }
+}
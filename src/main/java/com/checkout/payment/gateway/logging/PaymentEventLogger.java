@@ -0,0 +1,183 @@
+package com.checkout.payment.gateway.logging;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits structured key/value payment events. In {@code sync} mode events are formatted and
+ * written on the calling thread, exactly like plain SLF4J logging. In {@code async} mode the
+ * calling thread only copies the fields into a {@link LogRingBuffer} slot and a background
+ * appender thread does the formatting and I/O; if the ring is full the event is dropped and
+ * counted instead of blocking the request. With a {@code sample-rate} below 1, only that share
+ * of the info-level events is kept, decided on the calling thread before any copying; failures
+ * are always logged. In {@code off} mode nothing is logged at all.
+ */
+@Component
+public class PaymentEventLogger {
+
+  private static final Logger LOG = LoggerFactory.getLogger("payment.events");
+  private static final int DRAIN_BATCH_SIZE = 256;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  public enum Mode { SYNC, ASYNC, OFF }
+
+  private final Mode mode;
+  private final LogRingBuffer ringBuffer;
+  private final Thread appender;
+  private final StringBuilder appenderBuffer = new StringBuilder(256);
+  private volatile boolean running;
+  private volatile double sampleRate;
+
+  @Autowired
+  public PaymentEventLogger(@Value("${payment.logging.mode:sync}") String mode,
+      @Value("${payment.logging.buffer-size:8192}") int bufferSize,
+      @Value("${payment.logging.sample-rate:1.0}") double sampleRate) {
+    this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    this.sampleRate = sampleRate;
+    if (this.mode == Mode.ASYNC) {
+      this.ringBuffer = new LogRingBuffer(bufferSize);
+      this.running = true;
+      this.appender = new Thread(this::runAppender, "payment-log-appender");
+      this.appender.setDaemon(true);
+      this.appender.start();
+    } else {
+      this.ringBuffer = null;
+      this.appender = null;
+    }
+  }
+
+  public void log(PaymentLogEventType type, UUID paymentId, PaymentStatus status, int amount,
+      String currency, String idempotencyKey) {
+    if (mode == Mode.OFF || !isSampled(type)) {
+      return;
+    }
+    if (mode == Mode.ASYNC) {
+      ringBuffer.offer(type, System.currentTimeMillis(), paymentId, status, amount, currency,
+          idempotencyKey, null);
+    } else if (isEnabled(type)) {
+      StringBuilder line = new StringBuilder(128);
+      format(line, type, paymentId, status, amount, currency, idempotencyKey, null);
+      write(type, line.toString());
+    }
+  }
+
+  public void log(PaymentLogEventType type, UUID paymentId, String idempotencyKey) {
+    log(type, paymentId, null, 0, null, idempotencyKey);
+  }
+
+  // The async path records only the exception type; full stack traces stay on the sync path.
+  public void logFailure(PaymentLogEventType type, UUID paymentId, String idempotencyKey,
+      Throwable cause) {
+    if (mode == Mode.OFF) {
+      return;
+    }
+    if (mode == Mode.ASYNC) {
+      ringBuffer.offer(type, System.currentTimeMillis(), paymentId, null, 0, null,
+          idempotencyKey, cause.getClass().getSimpleName());
+    } else if (isEnabled(type)) {
+      StringBuilder line = new StringBuilder(128);
+      format(line, type, paymentId, null, 0, null, idempotencyKey,
+          cause.getClass().getSimpleName());
+      LOG.warn(line.toString(), cause);
+    }
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(double sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  public long getDroppedEvents() {
+    return ringBuffer == null ? 0L : ringBuffer.droppedCount();
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    if (appender == null) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(appender);
+    appender.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void runAppender() {
+    while (running) {
+      if (ringBuffer.drain(this::append, DRAIN_BATCH_SIZE) == 0) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      }
+    }
+    while (ringBuffer.drain(this::append, DRAIN_BATCH_SIZE) > 0) {
+      // flush whatever was published before shutdown
+    }
+  }
+
+  private void append(PaymentLogEvent event) {
+    if (!isEnabled(event.getType())) {
+      return;
+    }
+    appenderBuffer.setLength(0);
+    format(appenderBuffer, event.getType(), event.getPaymentId(), event.getStatus(),
+        event.getAmount(), event.getCurrency(), event.getIdempotencyKey(), event.getReason());
+    appenderBuffer.append(" ts=").append(event.getTimestampMillis());
+    write(event.getType(), appenderBuffer.toString());
+  }
+
+  private boolean isSampled(PaymentLogEventType type) {
+    double rate = sampleRate;
+    return rate >= 1 || isWarning(type) || ThreadLocalRandom.current().nextDouble() < rate;
+  }
+
+  private static boolean isEnabled(PaymentLogEventType type) {
+    return isWarning(type) ? LOG.isWarnEnabled() : LOG.isInfoEnabled();
+  }
+
+  private static boolean isWarning(PaymentLogEventType type) {
+    return type == PaymentLogEventType.FAILED || type == PaymentLogEventType.RETRIEVAL_FAILED;
+  }
+
+  private static void write(PaymentLogEventType type, String line) {
+    if (isWarning(type)) {
+      LOG.warn(line);
+    } else {
+      LOG.info(line);
+    }
+  }
+
+  static void format(StringBuilder line, PaymentLogEventType type, UUID paymentId,
+      PaymentStatus status, int amount, String currency, String idempotencyKey, String reason) {
+    line.append("event=").append(type.getEventName());
+    if (paymentId != null) {
+      line.append(" paymentId=").append(paymentId);
+    }
+    if (status != null) {
+      line.append(" status=").append(status.getName());
+    }
+    if (currency != null) {
+      line.append(" amount=").append(amount).append(" currency=").append(currency);
+    }
+    if (idempotencyKey != null) {
+      line.append(" idempotencyKey=").append(idempotencyKey);
+    }
+    if (reason != null) {
+      line.append(" reason=").append(reason);
+    }
+  }
+}
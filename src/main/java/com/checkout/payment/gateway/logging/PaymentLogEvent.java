@@ -0,0 +1,68 @@
+package com.checkout.payment.gateway.logging;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.util.UUID;
+
+/**
+ * Mutable slot of the {@link LogRingBuffer}. Slots are allocated once and overwritten by
+ * producers, so instances must never escape the consumer callback.
+ */
+public final class PaymentLogEvent {
+
+  private PaymentLogEventType type;
+  private long timestampMillis;
+  private UUID paymentId;
+  private PaymentStatus status;
+  private int amount;
+  private String currency;
+  private String idempotencyKey;
+  private String reason;
+
+  void set(PaymentLogEventType type, long timestampMillis, UUID paymentId, PaymentStatus status,
+      int amount, String currency, String idempotencyKey, String reason) {
+    this.type = type;
+    this.timestampMillis = timestampMillis;
+    this.paymentId = paymentId;
+    this.status = status;
+    this.amount = amount;
+    this.currency = currency;
+    this.idempotencyKey = idempotencyKey;
+    this.reason = reason;
+  }
+
+  void clear() {
+    set(null, 0L, null, null, 0, null, null, null);
+  }
+
+  public PaymentLogEventType getType() {
+    return type;
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public PaymentStatus getStatus() {
+    return status;
+  }
+
+  public int getAmount() {
+    return amount;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public String getReason() {
+    return reason;
+  }
+}
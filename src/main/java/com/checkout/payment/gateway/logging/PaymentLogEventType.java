@@ -0,0 +1,22 @@
+package com.checkout.payment.gateway.logging;
+
+public enum PaymentLogEventType {
+  PROCESSING_REQUESTED("payment_processing_requested"),
+  DUPLICATE_DETECTED("payment_duplicate_detected"),
+  PROCESSED("payment_processed"),
+  FAILED("payment_failed"),
+  RETRIEVAL_REQUESTED("payment_retrieval_requested"),
+  RETRIEVAL_FAILED("payment_retrieval_failed"),
+  EXPIRED("payment_expired"),
+  RECONCILED("payment_reconciled");
+
+  private final String eventName;
+
+  PaymentLogEventType(String eventName) {
+    this.eventName = eventName;
+  }
+
+  public String getEventName() {
+    return eventName;
+  }
+}
@@ -0,0 +1,18 @@
+package com.checkout.payment.gateway.metrics;
+
+public enum BankOutcome {
+  AUTHORIZED("authorized"),
+  DECLINED("declined"),
+  ERROR("error"),
+  CIRCUIT_OPEN("circuit_open");
+
+  private final String tag;
+
+  BankOutcome(String tag) {
+    this.tag = tag;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+}
@@ -0,0 +1,150 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live payment counts and amounts per currency and status, kept up to date by the writers as
+ * payments change state, so reading them never touches the repository. Each (currency, status)
+ * cell holds:
+ * <ul>
+ *   <li>the payments currently in that status and their amount in minor units. A transition
+ *       takes the payment out of its old cell and adds it to the new one, and a compensated
+ *       payment is taken out of {@code PENDING};</li>
+ *   <li>a ring of {@value #WINDOW_MINUTES} one-minute slots counting the payments that entered
+ *       the status in each minute.</li>
+ * </ul>
+ * Every counter is a {@link LongAdder}, so concurrent writers update separate stripes instead of
+ * contending on one word. Each counter is exact. A read taken while a payment is mid-transition
+ * may see it in both cells or in neither, for the duration of two adds. Counting starts at
+ * startup; payments stored before it are not included.
+ */
+@Component
+public class PaymentAggregates {
+
+  public static final int WINDOW_MINUTES = 60;
+
+  private static final int STATUSES = PaymentStatus.values().length;
+  private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final LongSupplier clock;
+  private final LongAdder[] counts;
+  private final LongAdder[] amounts;
+  private final AtomicReferenceArray<Minute> minutes;
+
+  public PaymentAggregates() {
+    this(System::currentTimeMillis);
+  }
+
+  PaymentAggregates(LongSupplier clock) {
+    this.clock = clock;
+    int cells = Currency.values().length * STATUSES;
+    this.counts = new LongAdder[cells];
+    this.amounts = new LongAdder[cells];
+    for (int i = 0; i < cells; i++) {
+      counts[i] = new LongAdder();
+      amounts[i] = new LongAdder();
+    }
+    this.minutes = new AtomicReferenceArray<>(cells * WINDOW_MINUTES);
+  }
+
+  /** A payment was just stored as {@code PENDING}. */
+  public void created(PaymentRecord payment) {
+    enter(cell(payment.getCurrency(), PaymentStatus.PENDING), payment.getAmount());
+  }
+
+  /** {@code from} was moved to {@code to}. */
+  public void transitioned(PaymentRecord from, PaymentStatus to) {
+    int amount = from.getAmount();
+    leave(cell(from.getCurrency(), from.getStatus()), amount);
+    enter(cell(from.getCurrency(), to), amount);
+  }
+
+  /** {@code payment} was removed from the store, as a compensated payment is. */
+  public void removed(PaymentRecord payment) {
+    leave(cell(payment.getCurrency(), payment.getStatus()), payment.getAmount());
+  }
+
+  public long getCount(Currency currency, PaymentStatus status) {
+    return counts[cell(currency, status)].sum();
+  }
+
+  public long getAmount(Currency currency, PaymentStatus status) {
+    return amounts[cell(currency, status)].sum();
+  }
+
+  /**
+   * Payments that entered {@code status} during the last {@code window} minutes, the current one
+   * included, and their amount. {@code window} is capped at {@value #WINDOW_MINUTES}.
+   */
+  public Totals getRecent(Currency currency, PaymentStatus status, int window) {
+    int cell = cell(currency, status);
+    long now = clock.getAsLong() / MINUTE_MILLIS;
+    long count = 0;
+    long amount = 0;
+    for (long minute = now - Math.min(window, WINDOW_MINUTES) + 1; minute <= now; minute++) {
+      Minute slot = minutes.get(slot(cell, minute));
+      if (slot != null && slot.minute == minute) {
+        count += slot.count.sum();
+        amount += slot.amount.sum();
+      }
+    }
+    return new Totals(count, amount);
+  }
+
+  private void enter(int cell, int amount) {
+    counts[cell].increment();
+    amounts[cell].add(amount);
+    Minute slot = minute(cell, clock.getAsLong() / MINUTE_MILLIS);
+    slot.count.increment();
+    slot.amount.add(amount);
+  }
+
+  private void leave(int cell, int amount) {
+    counts[cell].decrement();
+    amounts[cell].add(-amount);
+  }
+
+  // A slot is reused every WINDOW_MINUTES minutes: the first writer of a new minute swaps in a
+  // fresh one, and a writer that loses the race uses the winner's.
+  private Minute minute(int cell, long now) {
+    int index = slot(cell, now);
+    Minute slot = minutes.get(index);
+    while (slot == null || slot.minute < now) {
+      Minute fresh = new Minute(now);
+      if (minutes.compareAndSet(index, slot, fresh)) {
+        return fresh;
+      }
+      slot = minutes.get(index);
+    }
+    return slot;
+  }
+
+  private static int slot(int cell, long minute) {
+    return cell * WINDOW_MINUTES + (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+  }
+
+  private static int cell(Currency currency, PaymentStatus status) {
+    return currency.ordinal() * STATUSES + status.ordinal();
+  }
+
+  public record Totals(long count, long amount) {
+  }
+
+  private static final class Minute {
+
+    private final long minute;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder amount = new LongAdder();
+
+    private Minute(long minute) {
+      this.minute = minute;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the payment saga. All timers and counters on the hot path are created up front (or
+ * cached on first use), so recording is a map lookup plus the meter's own lock-free update.
+ */
+@Component
+public class PaymentMetrics {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentMetrics.class);
+
+  private final MeterRegistry registry;
+  private final Map<PaymentStep, Timer> stepTimers = new EnumMap<>(PaymentStep.class);
+  private final Map<BankOutcome, Timer> bankTimers = new EnumMap<>(BankOutcome.class);
+  private final Counter idempotencyHits;
+  private final Counter idempotencyMisses;
+  private final Map<String, Counter> paymentCounters = new ConcurrentHashMap<>();
+  private final AtomicLong firstAuthorizedUptimeMillis = new AtomicLong(-1);
+
+  public PaymentMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    for (PaymentStep step : PaymentStep.values()) {
+      stepTimers.put(step, Timer.builder("payment.step.duration")
+          .description("Time spent in each step of a payment request")
+          .tag("step", step.getTag())
+          .publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofNanos(100))
+          .maximumExpectedValue(Duration.ofSeconds(10))
+          .register(registry));
+    }
+    for (BankOutcome outcome : BankOutcome.values()) {
+      bankTimers.put(outcome, Timer.builder("payment.bank.duration")
+          .description("Acquiring bank call latency by outcome")
+          .tag("outcome", outcome.getTag())
+          .publishPercentileHistogram()
+          .minimumExpectedValue(Duration.ofMillis(1))
+          .maximumExpectedValue(Duration.ofSeconds(10))
+          .register(registry));
+    }
+    this.idempotencyHits = Counter.builder("payment.idempotency.lookups")
+        .description("Idempotency store lookups")
+        .tag("result", "hit")
+        .register(registry);
+    this.idempotencyMisses = Counter.builder("payment.idempotency.lookups")
+        .description("Idempotency store lookups")
+        .tag("result", "miss")
+        .register(registry);
+    TimeGauge.builder("payment.startup.first.authorized", firstAuthorizedUptimeMillis,
+            TimeUnit.MILLISECONDS, AtomicLong::get)
+        .description("JVM uptime when the first payment was authorized, -1 until then")
+        .register(registry);
+  }
+
+  public void recordStep(PaymentStep step, long nanos) {
+    stepTimers.get(step).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordBankCall(BankOutcome outcome, long nanos) {
+    bankTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordIdempotencyLookup(boolean hit) {
+    (hit ? idempotencyHits : idempotencyMisses).increment();
+  }
+
+  public void recordPayment(PaymentStatus status, String currency) {
+    String key = status.name() + '/' + currency;
+    Counter counter = paymentCounters.get(key);
+    if (counter == null) {
+      counter = paymentCounters.computeIfAbsent(key, k -> Counter.builder("payment.completed")
+          .description("Payments by final status and currency")
+          .tag("status", status.getName().toLowerCase(Locale.ROOT))
+          .tag("currency", currency)
+          .register(registry));
+    }
+    counter.increment();
+    if (status == PaymentStatus.AUTHORIZED && firstAuthorizedUptimeMillis.get() < 0) {
+      recordFirstAuthorized();
+    }
+  }
+
+  private void recordFirstAuthorized() {
+    long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    if (firstAuthorizedUptimeMillis.compareAndSet(-1, uptimeMillis)) {
+      LOG.info("First payment authorized {} ms after JVM start", uptimeMillis);
+    }
+  }
+}
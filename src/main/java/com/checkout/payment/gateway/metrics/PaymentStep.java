@@ -0,0 +1,22 @@
+package com.checkout.payment.gateway.metrics;
+
+public enum PaymentStep {
+  REQUEST_BINDING("request_binding"),
+  LANE_QUEUE("lane_queue"),
+  IDEMPOTENCY_LOOKUP("idempotency_lookup"),
+  BIN_LOOKUP("bin_lookup"),
+  PENDING_PERSIST("pending_persist"),
+  BANK_CALL("bank_call"),
+  FINAL_UPDATE("final_update"),
+  COMPENSATION("compensation");
+
+  private final String tag;
+
+  PaymentStep(String tag) {
+    this.tag = tag;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+}
@@ -0,0 +1,42 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sums authorized amounts per currency from the event bus, so the aggregation runs on the
+ * subscriber thread instead of the request thread. Amounts are in minor units.
+ */
+@Component
+public class PaymentVolumeSubscriber implements PaymentEventSubscriber {
+
+  private final Map<Currency, Counter> authorizedAmounts = new EnumMap<>(Currency.class);
+
+  public PaymentVolumeSubscriber(MeterRegistry meterRegistry) {
+    for (Currency currency : Currency.values()) {
+      authorizedAmounts.put(currency, Counter.builder("payment.authorized.amount")
+          .description("Authorized payment volume, in minor units")
+          .tag("currency", currency.name())
+          .register(meterRegistry));
+    }
+  }
+
+  @Override
+  public String name() {
+    return "volume";
+  }
+
+  @Override
+  public void onEvent(PaymentEvent event, boolean endOfBatch) {
+    if (event.getType() == PaymentEventType.AUTHORIZED) {
+      authorizedAmounts.get(event.getCurrency()).increment(event.getAmount());
+    }
+  }
+}
@@ -1,6 +1,11 @@
 package com.checkout.payment.gateway.model;
 
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.FundingType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.UUID;
 
 public class AcquiringBankRequest {
 
@@ -16,6 +21,24 @@ public class AcquiringBankRequest {
 
   private String cvv;
 
+  // From the BIN table; left out of the body when the card's BIN is unknown.
+  @JsonProperty("card_scheme")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private CardScheme cardScheme;
+
+  @JsonProperty("issuer_country")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String issuerCountry;
+
+  @JsonProperty("funding_type")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private FundingType fundingType;
+
+  // Sent as the Idempotency-Key header rather than in the body, so a replay of this request is
+  // recognised by the bank as the same authorization.
+  @JsonIgnore
+  private UUID paymentId;
+
   public String getCardNumber() {
     return cardNumber;
   }
@@ -55,4 +78,36 @@ public class AcquiringBankRequest {
   public void setCvv(String cvv) {
     this.cvv = cvv;
   }
+
+  public CardScheme getCardScheme() {
+    return cardScheme;
+  }
+
+  public void setCardScheme(CardScheme cardScheme) {
+    this.cardScheme = cardScheme;
+  }
+
+  public String getIssuerCountry() {
+    return issuerCountry;
+  }
+
+  public void setIssuerCountry(String issuerCountry) {
+    this.issuerCountry = issuerCountry;
+  }
+
+  public FundingType getFundingType() {
+    return fundingType;
+  }
+
+  public void setFundingType(FundingType fundingType) {
+    this.fundingType = fundingType;
+  }
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public void setPaymentId(UUID paymentId) {
+    this.paymentId = paymentId;
+  }
 }
@@ -0,0 +1,32 @@
+package com.checkout.payment.gateway.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+public class PaymentLookupRequest implements Serializable {
+
+  public static final int MAX_IDS = 1000;
+
+  @NotEmpty(message = "At least one payment id is required")
+  @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " payment ids can be looked up at once")
+  private List<@NotNull(message = "Payment ids must not be null") UUID> ids;
+
+  public PaymentLookupRequest() {
+  }
+
+  public PaymentLookupRequest(List<UUID> ids) {
+    this.ids = ids;
+  }
+
+  public List<UUID> getIds() {
+    return ids;
+  }
+
+  public void setIds(List<UUID> ids) {
+    this.ids = ids;
+  }
+}
@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.bin.BinInfo;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.IllegalPaymentTransitionException;
+import java.util.UUID;
+
+/**
+ * Immutable stored payment. A status change produces a new instance with the version bumped, so
+ * a reader holding a reference always sees one consistent snapshot, and the repository can swap
+ * versions with a compare-and-set. Card and expiry fields use the narrowest types that hold them,
+ * and there is no separate {@code authorized} flag because the status already says so. The BIN
+ * entry is a shared instance from the BIN table, so it costs one reference.
+ *
+ * <p>Identity equality is deliberate: {@code ConcurrentHashMap.replace(key, expected, updated)}
+ * then succeeds only for the exact instance the writer read.
+ */
+public final class PaymentRecord {
+
+  private final UUID id;
+  private final PaymentStatus status;
+  private final Currency currency;
+  private final int amount;
+  private final int version;
+  private final short cardNumberLastFour;
+  private final short expiryYear;
+  private final byte expiryMonth;
+  private final BinInfo bin;
+  private final String authorizationCode;
+
+  public PaymentRecord(UUID id, PaymentStatus status, Currency currency, int amount,
+      int cardNumberLastFour, int expiryMonth, int expiryYear, BinInfo bin,
+      String authorizationCode, int version) {
+    this.id = id;
+    this.status = status;
+    this.currency = currency;
+    this.amount = amount;
+    this.version = version;
+    this.cardNumberLastFour = (short) cardNumberLastFour;
+    this.expiryYear = (short) expiryYear;
+    this.expiryMonth = (byte) expiryMonth;
+    this.bin = bin;
+    this.authorizationCode = authorizationCode;
+  }
+
+  public static PaymentRecord pending(UUID id, Currency currency, int amount,
+      int cardNumberLastFour, int expiryMonth, int expiryYear, BinInfo bin) {
+    return new PaymentRecord(id, PaymentStatus.PENDING, currency, amount, cardNumberLastFour,
+        expiryMonth, expiryYear, bin, null, 0);
+  }
+
+  /** Returns the next version of this payment in {@code next} status. */
+  public PaymentRecord transitionTo(PaymentStatus next, String authorizationCode) {
+    if (!status.canTransitionTo(next)) {
+      throw new IllegalPaymentTransitionException(id, status, next);
+    }
+    return new PaymentRecord(id, next, currency, amount, cardNumberLastFour, expiryMonth,
+        expiryYear, bin, authorizationCode, version + 1);
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public PaymentStatus getStatus() {
+    return status;
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  public int getAmount() {
+    return amount;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public int getCardNumberLastFour() {
+    return cardNumberLastFour;
+  }
+
+  public int getExpiryMonth() {
+    return expiryMonth;
+  }
+
+  public int getExpiryYear() {
+    return expiryYear;
+  }
+
+  /** The card's BIN table entry, or {@code null} if its BIN is not in the table. */
+  public BinInfo getBin() {
+    return bin;
+  }
+
+  public String getAuthorizationCode() {
+    return authorizationCode;
+  }
+
+  public boolean isAuthorized() {
+    return status == PaymentStatus.AUTHORIZED;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentRecord{" +
+        "id=" + id +
+        ", status=" + status +
+        ", version=" + version +
+        ", cardNumberLastFour=" + cardNumberLastFour +
+        ", expiryMonth=" + expiryMonth +
+        ", expiryYear=" + expiryYear +
+        ", bin=" + bin +
+        ", currency=" + currency +
+        ", amount=" + amount +
+        '}';
+  }
+}
@@ -1,101 +0,0 @@
-package com.checkout.payment.gateway.model;
-
-import com.checkout.payment.gateway.enums.PaymentStatus;
-import java.util.UUID;
-
-public class PaymentResponse {
-  private UUID id;
-  private PaymentStatus status;
-  private int cardNumberLastFour;
-  private int expiryMonth;
-  private int expiryYear;
-  private String currency;
-  private int amount;
-  private String authorizationCode;
-  private boolean authorized;
-
-  public boolean isAuthorized() {
-    return authorized;
-  }
-
-  public void setAuthorized(boolean authorized) {
-    this.authorized = authorized;
-  }
-
-  public String getAuthorizationCode() {
-    return authorizationCode;
-  }
-
-  public void setAuthorizationCode(String authorizationCode) {
-    this.authorizationCode = authorizationCode;
-  }
-
-  public UUID getId() {
-    return id;
-  }
-
-  public void setId(UUID id) {
-    this.id = id;
-  }
-
-  public PaymentStatus getStatus() {
-    return status;
-  }
-
-  public void setStatus(PaymentStatus status) {
-    this.status = status;
-  }
-
-  public int getCardNumberLastFour() {
-    return cardNumberLastFour;
-  }
-
-  public void setCardNumberLastFour(int cardNumberLastFour) {
-    this.cardNumberLastFour = cardNumberLastFour;
-  }
-
-  public int getExpiryMonth() {
-    return expiryMonth;
-  }
-
-  public void setExpiryMonth(int expiryMonth) {
-    this.expiryMonth = expiryMonth;
-  }
-
-  public int getExpiryYear() {
-    return expiryYear;
-  }
-
-  public void setExpiryYear(int expiryYear) {
-    this.expiryYear = expiryYear;
-  }
-
-  public String getCurrency() {
-    return currency;
-  }
-
-  public void setCurrency(String currency) {
-    this.currency = currency;
-  }
-
-  public int getAmount() {
-    return amount;
-  }
-
-  public void setAmount(int amount) {
-    this.amount = amount;
-  }
-
-  @Override
-  public String toString() {
-    return "GetPaymentResponse{" +
-        "id=" + id +
-        ", status=" + status +
-        ", cardNumberLastFour=" + cardNumberLastFour +
-        ", expiryMonth=" + expiryMonth +
-        ", expiryYear=" + expiryYear +
-        ", currency='" + currency + '\'' +
-        ", amount=" + amount +
-        '}';
-  }
-}
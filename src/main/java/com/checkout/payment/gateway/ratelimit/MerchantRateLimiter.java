@@ -0,0 +1,156 @@
+package com.checkout.payment.gateway.ratelimit;
+
+import com.checkout.payment.gateway.exception.RateLimitExceededException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one {@link TokenBucket} per merchant. The map is bounded: buckets idle for longer than
+ * the configured timeout are swept when the map reaches capacity, and merchants that still do
+ * not fit share a single overflow bucket instead of growing the map. Requests without a merchant
+ * id share one anonymous bucket with its own limit, so leaving the header out does not get around
+ * the limit. Admitted and rejected totals are kept apart from the buckets, so they never go down
+ * when idle buckets are swept.
+ */
+@Component
+public class MerchantRateLimiter {
+
+  static final String OVERFLOW_KEY = "__overflow__";
+  static final String ANONYMOUS_KEY = "__anonymous__";
+
+  private final RateLimitProperties properties;
+  private final LongSupplier clock;
+  private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final TokenBucket overflow;
+  private final TokenBucket anonymous;
+  private final AtomicBoolean sweeping = new AtomicBoolean();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private volatile int maxMerchants;
+
+  @Autowired
+  public MerchantRateLimiter(RateLimitProperties properties) {
+    this(properties, System::nanoTime);
+  }
+
+  MerchantRateLimiter(RateLimitProperties properties, LongSupplier clock) {
+    this.properties = properties;
+    this.clock = clock;
+    this.overflow = new TokenBucket(properties.defaultLimit(), clock.getAsLong());
+    this.anonymous = new TokenBucket(properties.anonymousLimit(), clock.getAsLong());
+    this.maxMerchants = properties.maxMerchants();
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  public String getHeader() {
+    return properties.header();
+  }
+
+  public long tryAcquire(String merchantId) {
+    return tryAcquire(merchantId, 1);
+  }
+
+  /**
+   * Takes {@code permits} tokens from the merchant's bucket, as a request that counts for several
+   * does. The cost is capped at the bucket's burst, so a full bucket always admits the request.
+   */
+  public long tryAcquire(String merchantId, int permits) {
+    long now = clock.getAsLong();
+    TokenBucket bucket = bucketFor(merchantId, now);
+    long waitNanos = bucket.tryAcquire(now,
+        Math.max(1, Math.min(permits, bucket.getLimit().burst())));
+    (waitNanos == 0 ? admitted : rejected).increment();
+    return waitNanos;
+  }
+
+  /**
+   * Admits a request from {@code merchantId} costing {@code permits}, or throws
+   * {@link RateLimitExceededException} with the seconds until it would be admitted. Requests
+   * without a merchant id are charged to the shared anonymous bucket.
+   */
+  public void admit(String merchantId, int permits) {
+    if (!isEnabled()) {
+      return;
+    }
+    long waitNanos = tryAcquire(merchantId, permits);
+    if (waitNanos > 0) {
+      long retryAfterSeconds = Math.max(1L,
+          (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+      throw new RateLimitExceededException(isAnonymous(merchantId) ? ANONYMOUS_KEY : merchantId,
+          retryAfterSeconds);
+    }
+  }
+
+  public long getAdmitted() {
+    return admitted.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  public int getMaxMerchants() {
+    return maxMerchants;
+  }
+
+  // A lower bound takes effect as idle buckets are swept; busy merchants keep theirs.
+  public void setMaxMerchants(int maxMerchants) {
+    this.maxMerchants = maxMerchants;
+  }
+
+  public Map<String, TokenBucket> snapshot() {
+    Map<String, TokenBucket> snapshot = new TreeMap<>(buckets);
+    if (overflow.getAdmitted() + overflow.getRejected() > 0) {
+      snapshot.put(OVERFLOW_KEY, overflow);
+    }
+    if (anonymous.getAdmitted() + anonymous.getRejected() > 0) {
+      snapshot.put(ANONYMOUS_KEY, anonymous);
+    }
+    return snapshot;
+  }
+
+  private TokenBucket bucketFor(String merchantId, long now) {
+    if (isAnonymous(merchantId)) {
+      return anonymous;
+    }
+    TokenBucket bucket = buckets.get(merchantId);
+    if (bucket != null) {
+      return bucket;
+    }
+    if (buckets.size() >= maxMerchants) {
+      sweepIdle(now);
+      if (buckets.size() >= maxMerchants) {
+        return overflow;
+      }
+    }
+    return buckets.computeIfAbsent(merchantId,
+        id -> new TokenBucket(properties.limitFor(id), now));
+  }
+
+  private static boolean isAnonymous(String merchantId) {
+    return merchantId == null || merchantId.isBlank();
+  }
+
+  // Only one thread sweeps at a time; the others go straight to the overflow bucket meanwhile.
+  private void sweepIdle(long now) {
+    if (!sweeping.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long idleNanos = properties.idleTimeout().toNanos();
+      buckets.values().removeIf(bucket -> now - bucket.getLastAccessNanos() > idleNanos);
+    } finally {
+      sweeping.set(false);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.checkout.payment.gateway.ratelimit;
+
+public record RateLimit(double permitsPerSecond, int burst) {
+
+  public RateLimit {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive");
+    }
+    if (burst < 1) {
+      throw new IllegalArgumentException("burst must be at least 1");
+    }
+  }
+}
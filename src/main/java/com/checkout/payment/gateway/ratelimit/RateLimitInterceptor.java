@@ -0,0 +1,31 @@
+package com.checkout.payment.gateway.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rate limits {@code POST /payment} per merchant, one token per request. Batch lookups are
+ * charged by the controller, which knows how many ids they carry.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+  private final MerchantRateLimiter rateLimiter;
+
+  public RateLimitInterceptor(MerchantRateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    // Async re-dispatches of an already admitted request must not consume a second token.
+    if (!"POST".equals(request.getMethod())
+        || request.getDispatcherType() == DispatcherType.ASYNC) {
+      return true;
+    }
+    rateLimiter.admit(request.getHeader(rateLimiter.getHeader()), 1);
+    return true;
+  }
+}
@@ -0,0 +1,43 @@
+package com.checkout.payment.gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "ratelimit")
+public record RateLimitProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("Merchant-Id") String header,
+    @DefaultValue("100") double permitsPerSecond,
+    @DefaultValue("200") int burst,
+    @DefaultValue("10000") int maxMerchants,
+    @DefaultValue("10m") Duration idleTimeout,
+    @DefaultValue("100") double anonymousPermitsPerSecond,
+    @DefaultValue("200") int anonymousBurst,
+    Map<String, Limit> merchants) {
+
+  public RateLimitProperties {
+    merchants = merchants == null ? Map.of() : Map.copyOf(merchants);
+  }
+
+  public RateLimit defaultLimit() {
+    return new RateLimit(permitsPerSecond, burst);
+  }
+
+  // Shared by every request that carries no merchant id.
+  public RateLimit anonymousLimit() {
+    return new RateLimit(anonymousPermitsPerSecond, anonymousBurst);
+  }
+
+  public RateLimit limitFor(String merchantId) {
+    Limit override = merchants.get(merchantId);
+    if (override == null) {
+      return defaultLimit();
+    }
+    return new RateLimit(override.permitsPerSecond(), override.burst());
+  }
+
+  public record Limit(double permitsPerSecond, int burst) {
+  }
+}
@@ -0,0 +1,76 @@
+package com.checkout.payment.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket. Rather than storing a token count and a refill timestamp separately,
+ * the bucket keeps a single "theoretical arrival time" (the GCRA formulation of a token bucket):
+ * each admitted request pushes it forward by one emission interval, and a request is rejected
+ * when that would put it further ahead of now than the burst allows. One CAS per admission.
+ */
+public class TokenBucket {
+
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrivalNanos;
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final RateLimit limit;
+  private volatile long lastAccessNanos;
+
+  public TokenBucket(RateLimit limit, long nowNanos) {
+    this.limit = limit;
+    this.emissionIntervalNanos = Math.max(1L,
+        (long) (TimeUnit.SECONDS.toNanos(1) / limit.permitsPerSecond()));
+    this.burstToleranceNanos = emissionIntervalNanos * limit.burst();
+    this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    this.lastAccessNanos = nowNanos;
+  }
+
+  /**
+   * Returns 0 when the request is admitted, otherwise the number of nanoseconds until a token
+   * becomes available.
+   */
+  public long tryAcquire(long nowNanos) {
+    return tryAcquire(nowNanos, 1);
+  }
+
+  /**
+   * Takes {@code permits} tokens at once, or none: returns 0 when they are admitted, otherwise
+   * the number of nanoseconds until that many are available. More than the burst never are.
+   */
+  public long tryAcquire(long nowNanos, int permits) {
+    lastAccessNanos = nowNanos;
+    while (true) {
+      long current = theoreticalArrivalNanos.get();
+      long next = Math.max(current, nowNanos) + emissionIntervalNanos * permits;
+      long ahead = next - nowNanos;
+      if (ahead > burstToleranceNanos) {
+        rejected.increment();
+        return ahead - burstToleranceNanos;
+      }
+      if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+        admitted.increment();
+        return 0L;
+      }
+    }
+  }
+
+  public RateLimit getLimit() {
+    return limit;
+  }
+
+  public long getAdmitted() {
+    return admitted.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  long getLastAccessNanos() {
+    return lastAccessNanos;
+  }
+}
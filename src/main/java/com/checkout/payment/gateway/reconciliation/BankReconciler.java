@@ -0,0 +1,291 @@
+package com.checkout.payment.gateway.reconciliation;
+
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.exception.IllegalPaymentTransitionException;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.logging.PaymentLogEventType;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
+import com.checkout.payment.gateway.model.AcquiringBankResponse;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.sweeper.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Resolves payments whose bank call ended without an answer, such as a read timeout after the
+ * request was sent. {@code processPayment} moves such a payment to {@link PaymentStatus#UNKNOWN}
+ * instead of compensating it and hands over the bank request it sent, the saga's intent. The bank
+ * API has no status lookup, so a single worker thread replays that request: it carries the
+ * payment id as its idempotency key, so the bank answers with the outcome of the first attempt
+ * rather than authorizing twice. The answer settles the payment, and a retry of the merchant's
+ * request with the same key then reads it from the store.
+ *
+ * <p>Each payment waits out a backoff on a timing wheel before it is replayed, and replays go out
+ * in batches of up to {@code batchSize}. When one of them is again left without an answer, the
+ * rest of the batch is not sent either: every payment in it is re-armed with exponential backoff
+ * and jitter, so an ailing bank is not hammered with replays. A
+ * payment that stays ambiguous for {@code maxAttempts} replays, or that finds the queue full, is
+ * left UNKNOWN for review.
+ *
+ * <p>Replaying is only safe when the bank deduplicates on the key, so nothing is replayed unless
+ * {@code bankIdempotent} is set; until then every ambiguous payment is left UNKNOWN for review.
+ * The intent holds the full card number and CVV, which the replay needs, so it is kept in memory
+ * only, is lost on restart, and is dropped once it is {@code maxIntentAge} old: backoffs are cut
+ * short to end by then, and a payment still unresolved at that age is left UNKNOWN as well.
+ */
+@Component
+public class BankReconciler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BankReconciler.class);
+
+  private final ReconciliationProperties properties;
+  private final PaymentsRepository paymentsRepository;
+  private final AcquiringBankClient acquiringBankClient;
+  private final PaymentEventBus paymentEventBus;
+  private final PaymentEventLogger paymentEventLogger;
+  private final PaymentAggregates paymentAggregates;
+  private final PaymentMetrics paymentMetrics;
+  private final BlockingQueue<Intent> due;
+  private final HashedTimingWheel<Intent> backoff;
+  private final Thread thread;
+  private final AtomicInteger outstanding = new AtomicInteger();
+  private final LongAdder resolved = new LongAdder();
+  private final LongAdder replays = new LongAdder();
+  private final LongAdder abandoned = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private volatile boolean running = true;
+
+  public BankReconciler(ReconciliationProperties properties,
+      PaymentsRepository paymentsRepository, AcquiringBankClient acquiringBankClient,
+      PaymentEventBus paymentEventBus, PaymentEventLogger paymentEventLogger,
+      PaymentAggregates paymentAggregates, PaymentMetrics paymentMetrics) {
+    this.properties = properties;
+    this.paymentsRepository = paymentsRepository;
+    this.acquiringBankClient = acquiringBankClient;
+    this.paymentEventBus = paymentEventBus;
+    this.paymentEventLogger = paymentEventLogger;
+    this.paymentAggregates = paymentAggregates;
+    this.paymentMetrics = paymentMetrics;
+    if (!properties.enabled() || !properties.bankIdempotent()) {
+      if (properties.enabled()) {
+        LOG.info("Bank not marked idempotent, ambiguous payments will be left UNKNOWN");
+      }
+      this.due = null;
+      this.backoff = null;
+      this.thread = null;
+      return;
+    }
+    // Sized for every outstanding payment, so a payment coming off the wheel always fits.
+    this.due = new ArrayBlockingQueue<>(properties.queueCapacity());
+    this.backoff = new HashedTimingWheel<>("reconciliation-backoff", properties.tickDuration(),
+        properties.wheelSize(), due::offer);
+    this.thread = new Thread(this::run, "bank-reconciler");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Queues an UNKNOWN payment for resolution with the bank request that was sent for it. Returns
+   * false, leaving the payment for review, when reconciliation is off, the bank is not known to
+   * be idempotent, or the queue is full. Such a payment is counted as skipped and published as
+   * {@link PaymentEventType#UNRECONCILED}, since nothing will look at it again.
+   */
+  public boolean submit(PaymentRecord unknown, AcquiringBankRequest sent, String idempotencyKey) {
+    if (due == null) {
+      paymentEventBus.publish(PaymentEventType.UNRECONCILED, unknown, idempotencyKey,
+          "reconciliation_off");
+      skipped.increment();
+      return false;
+    }
+    if (outstanding.incrementAndGet() > properties.queueCapacity()) {
+      outstanding.decrementAndGet();
+      LOG.warn("Reconciliation queue full, payment {} left UNKNOWN", unknown.getId());
+      paymentEventBus.publish(PaymentEventType.UNRECONCILED, unknown, idempotencyKey,
+          "queue_full");
+      skipped.increment();
+      return false;
+    }
+    // The bank has only just failed to answer, so even the first replay waits out a backoff.
+    backOff(new Intent(unknown, sent, idempotencyKey));
+    return true;
+  }
+
+  /** Payments queued or backing off. */
+  public int getOutstanding() {
+    return outstanding.get();
+  }
+
+  /** Payments settled from a replay's answer. */
+  public long getResolved() {
+    return resolved.sum();
+  }
+
+  /** Replays sent to the bank. */
+  public long getReplays() {
+    return replays.sum();
+  }
+
+  /** UNKNOWN payments left for review without a replay, because none could be queued. */
+  public long getSkipped() {
+    return skipped.sum();
+  }
+
+  /**
+   * Payments given up on after {@code maxAttempts} ambiguous replays or {@code maxIntentAge}. Each
+   * is counted once its event is published.
+   */
+  public long getAbandoned() {
+    return abandoned.sum();
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    if (thread == null) {
+      return;
+    }
+    running = false;
+    backoff.close();
+    thread.interrupt();
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void run() {
+    List<Intent> batch = new ArrayList<>(properties.batchSize());
+    while (running) {
+      try {
+        batch.add(due.take());
+      } catch (InterruptedException e) {
+        continue;
+      }
+      due.drainTo(batch, properties.batchSize() - 1);
+      boolean ailing = false;
+      for (Intent intent : batch) {
+        if (ailing) {
+          backOff(intent);
+          continue;
+        }
+        try {
+          ailing = !replay(intent);
+        } catch (RuntimeException e) {
+          // The store could not be read or written; keep the payment and try again later.
+          LOG.warn("Could not reconcile payment {}", intent.payment.getId(), e);
+          backOff(intent);
+          ailing = true;
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  // Returns false when the bank again left the outcome open.
+  private boolean replay(Intent intent) {
+    Optional<PaymentRecord> stored = paymentsRepository.get(intent.payment.getId());
+    if (stored.isEmpty() || stored.get().getStatus() != PaymentStatus.UNKNOWN) {
+      // A late answer to the original call settled it meanwhile.
+      outstanding.decrementAndGet();
+      return true;
+    }
+    if (System.nanoTime() - intent.createdNanos >= properties.maxIntentAge().toNanos()) {
+      // Not a sign of an ailing bank, so the rest of the batch still goes out.
+      LOG.warn("Payment {} still ambiguous after {}, request dropped and left UNKNOWN",
+          intent.payment.getId(), properties.maxIntentAge());
+      paymentEventBus.publish(PaymentEventType.UNRECONCILED, stored.get(), intent.idempotencyKey,
+          "expired");
+      outstanding.decrementAndGet();
+      abandoned.increment();
+      return true;
+    }
+    replays.increment();
+    AcquiringBankResponse response;
+    try {
+      response = acquiringBankClient.requestPayment(intent.sent);
+    } catch (HttpClientErrorException e) {
+      // The bank rejected the request itself, so it authorized nothing.
+      response = null;
+    } catch (RuntimeException e) {
+      intent.attempts++;
+      if (intent.attempts >= properties.maxAttempts()) {
+        LOG.warn("Payment {} still ambiguous after {} replays, left UNKNOWN",
+            intent.payment.getId(), intent.attempts, e);
+        paymentEventBus.publish(PaymentEventType.UNRECONCILED, stored.get(),
+            intent.idempotencyKey, "attempts_exhausted");
+        outstanding.decrementAndGet();
+        abandoned.increment();
+      } else {
+        backOff(intent);
+      }
+      return false;
+    }
+    settle(stored.get(), response, intent.idempotencyKey);
+    outstanding.decrementAndGet();
+    return true;
+  }
+
+  private void settle(PaymentRecord unknown, AcquiringBankResponse response,
+      String idempotencyKey) {
+    PaymentStatus status = response != null && response.isAuthorized()
+        ? PaymentStatus.AUTHORIZED
+        : PaymentStatus.DECLINED;
+    PaymentRecord settled;
+    try {
+      settled = paymentsRepository.transition(unknown, status,
+          response != null ? response.getAuthorizationCode() : null);
+    } catch (StalePaymentException | IllegalPaymentTransitionException e) {
+      // The original call's answer won the race and settled it first.
+      return;
+    }
+    paymentAggregates.transitioned(unknown, status);
+    paymentMetrics.recordPayment(status, settled.getCurrency().name());
+    resolved.increment();
+    paymentEventLogger.log(PaymentLogEventType.RECONCILED, settled.getId(), status,
+        settled.getAmount(), settled.getCurrency().name(), idempotencyKey);
+    paymentEventBus.publish(status == PaymentStatus.AUTHORIZED ? PaymentEventType.AUTHORIZED
+        : PaymentEventType.DECLINED, settled, idempotencyKey, "reconciled");
+  }
+
+  // Full jitter over an exponentially growing window, so payments that timed out together do not
+  // come back together. The wait never runs past the intent's age limit.
+  private void backOff(Intent intent) {
+    long initial = properties.initialBackoff().toNanos();
+    long window = Math.min(properties.maxBackoff().toNanos(),
+        initial << Math.min(intent.attempts, 30));
+    long delay = initial + ThreadLocalRandom.current().nextLong(Math.max(window - initial, 1));
+    long left = properties.maxIntentAge().toNanos() - (System.nanoTime() - intent.createdNanos);
+    backoff.schedule(intent, Duration.ofNanos(Math.max(Math.min(delay, left), 0)));
+  }
+
+  private static final class Intent {
+
+    private final PaymentRecord payment;
+    private final AcquiringBankRequest sent;
+    private final String idempotencyKey;
+    private final long createdNanos = System.nanoTime();
+    private int attempts;
+
+    private Intent(PaymentRecord payment, AcquiringBankRequest sent, String idempotencyKey) {
+      this.payment = payment;
+      this.sent = sent;
+      this.idempotencyKey = idempotencyKey;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.checkout.payment.gateway.reconciliation;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * At most {@code queueCapacity} payments with an ambiguous bank outcome wait to be resolved,
+ * counting those backing off; beyond that they are left UNKNOWN for review. The worker replays up
+ * to {@code batchSize} of them per pass. A replay that is still ambiguous is retried after
+ * {@code initialBackoff}, doubled per attempt up to {@code maxBackoff}, and given up on after
+ * {@code maxAttempts} or once it has been held for {@code maxIntentAge}, whichever comes first.
+ * Replays are only sent when {@code bankIdempotent} says the acquiring bank honours the
+ * {@code Idempotency-Key} header; otherwise a replay could charge the card twice, so ambiguous
+ * payments are left UNKNOWN for review.
+ */
+@ConfigurationProperties(prefix = "payment.reconciliation")
+public record ReconciliationProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("false") boolean bankIdempotent,
+    @DefaultValue("10000") int queueCapacity,
+    @DefaultValue("64") int batchSize,
+    @DefaultValue("1s") Duration initialBackoff,
+    @DefaultValue("1m") Duration maxBackoff,
+    @DefaultValue("10") int maxAttempts,
+    @DefaultValue("2m") Duration maxIntentAge,
+    @DefaultValue("100ms") Duration tickDuration,
+    @DefaultValue("512") int wheelSize) {
+}
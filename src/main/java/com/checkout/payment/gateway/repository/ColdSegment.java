@@ -0,0 +1,430 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.bin.BinInfo;
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.FundingType;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * An immutable file of finalized payments, sorted by id and memory-mapped for reads. Nothing of it
+ * is kept on heap except this object: the Bloom filter and the sparse index are in the file too, so
+ * the page cache, not the heap, holds whatever is hot. Layout, all big-endian:
+ * <pre>
+ *   header:  int magic, byte version, int records, int index entries, int index interval,
+ *            int Bloom words, int Bloom hashes, long[2] lowest id, long[2] highest id
+ *   Bloom:   long[Bloom words]
+ *   index:   (long msb, long lsb, long offset) for every index-interval-th record
+ *   records: long msb, long lsb, byte status, byte currency, int amount, int version,
+ *            short last four, byte expiry month, short expiry year,
+ *            byte scheme (-1 without a BIN), byte[2] issuer country, byte funding type,
+ *            u16 authorization code length (0xFFFF for null), authorization code UTF-8 bytes
+ * </pre>
+ * A lookup checks the id range, then the Bloom filter, then binary-searches the index and scans at
+ * most one interval of records.
+ */
+final class ColdSegment {
+
+  static final Comparator<UUID> ID_ORDER = (a, b) -> {
+    int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+    return high != 0 ? high
+        : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+  };
+
+  private static final int MAGIC = 0x50474353;
+  private static final byte FORMAT_VERSION = 1;
+  private static final int HEADER_BYTES = 4 + 1 + 5 * 4 + 4 * 8;
+  private static final int INDEX_ENTRY_BYTES = 24;
+  private static final int FIXED_RECORD_BYTES = 37;
+  private static final int NULL_STRING = 0xFFFF;
+  private static final CardScheme[] SCHEMES = CardScheme.values();
+  private static final FundingType[] FUNDING_TYPES = FundingType.values();
+
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private final int records;
+  private final int indexEntries;
+  private final int indexInterval;
+  private final int bloomWords;
+  private final int bloomHashes;
+  private final int indexOffset;
+  private final long lowMsb;
+  private final long lowLsb;
+  private final long highMsb;
+  private final long highLsb;
+
+  private ColdSegment(Path path, MappedByteBuffer buffer) throws IOException {
+    this.path = path;
+    this.buffer = buffer;
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+        || buffer.get(4) != FORMAT_VERSION) {
+      throw new IOException(path + " is not a cold payment segment");
+    }
+    this.records = buffer.getInt(5);
+    this.indexEntries = buffer.getInt(9);
+    this.indexInterval = buffer.getInt(13);
+    this.bloomWords = buffer.getInt(17);
+    this.bloomHashes = buffer.getInt(21);
+    this.lowMsb = buffer.getLong(25);
+    this.lowLsb = buffer.getLong(33);
+    this.highMsb = buffer.getLong(41);
+    this.highLsb = buffer.getLong(49);
+    this.indexOffset = HEADER_BYTES + bloomWords * 8;
+  }
+
+  static ColdSegment open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new ColdSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes {@code payments}, sorted by {@link #ID_ORDER}, to {@code path} and maps it. The file is
+   * written under a temporary name and synced before it is moved into place, so a crash never
+   * leaves a partial segment behind under the real name.
+   */
+  static ColdSegment write(Path path, List<PaymentRecord> payments, int indexInterval,
+      int bloomBitsPerKey) throws IOException {
+    int records = payments.size();
+    int indexEntries = (records + indexInterval - 1) / indexInterval;
+    int bloomWords = Math.max(1, (int) (((long) records * bloomBitsPerKey + 63) / 64));
+    int bloomHashes = Math.max(1, (int) Math.round(bloomBitsPerKey * Math.log(2)));
+    int dataOffset = HEADER_BYTES + bloomWords * 8 + indexEntries * INDEX_ENTRY_BYTES;
+    byte[][] codes = new byte[records][];
+    long size = dataOffset;
+    for (int i = 0; i < records; i++) {
+      String code = payments.get(i).getAuthorizationCode();
+      codes[i] = code == null ? null : code.getBytes(StandardCharsets.UTF_8);
+      size += FIXED_RECORD_BYTES + (codes[i] == null ? 0 : codes[i].length);
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Segment of " + records + " payments would exceed 2 GiB");
+    }
+    ByteBuffer out = ByteBuffer.allocate((int) size);
+    PaymentRecord first = payments.get(0);
+    PaymentRecord last = payments.get(records - 1);
+    out.putInt(MAGIC).put(FORMAT_VERSION).putInt(records).putInt(indexEntries)
+        .putInt(indexInterval).putInt(bloomWords).putInt(bloomHashes)
+        .putLong(first.getId().getMostSignificantBits())
+        .putLong(first.getId().getLeastSignificantBits())
+        .putLong(last.getId().getMostSignificantBits())
+        .putLong(last.getId().getLeastSignificantBits());
+    long[] bloom = new long[bloomWords];
+    int position = dataOffset;
+    for (int i = 0; i < records; i++) {
+      PaymentRecord payment = payments.get(i);
+      UUID id = payment.getId();
+      addToBloom(bloom, bloomHashes, id);
+      if (i % indexInterval == 0) {
+        out.position(HEADER_BYTES + bloomWords * 8 + (i / indexInterval) * INDEX_ENTRY_BYTES);
+        out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+            .putLong(position);
+      }
+      out.position(position);
+      encode(out, payment, codes[i]);
+      position = out.position();
+    }
+    out.position(HEADER_BYTES);
+    for (long word : bloom) {
+      out.putLong(word);
+    }
+    out.rewind();
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (out.hasRemaining()) {
+        channel.write(out);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+    return open(path);
+  }
+
+  PaymentRecord get(UUID id) {
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    if (compare(msb, lsb, lowMsb, lowLsb) < 0 || compare(msb, lsb, highMsb, highLsb) > 0
+        || !mightContain(msb, lsb)) {
+      return null;
+    }
+    return find(indexEntry(msb, lsb, 0), msb, lsb);
+  }
+
+  /**
+   * Looks up {@code ids}, which must be sorted by {@link #ID_ORDER}, and puts the payments held
+   * here into {@code found}; ids already in {@code found} are skipped. Each index search starts
+   * at the entry the previous id ended on, so a batch reads the file front to back once.
+   */
+  void getAll(List<UUID> ids, Map<UUID, PaymentRecord> found) {
+    int from = 0;
+    for (UUID id : ids) {
+      long msb = id.getMostSignificantBits();
+      long lsb = id.getLeastSignificantBits();
+      if (compare(msb, lsb, highMsb, highLsb) > 0) {
+        return;
+      }
+      if (found.containsKey(id) || compare(msb, lsb, lowMsb, lowLsb) < 0
+          || !mightContain(msb, lsb)) {
+        continue;
+      }
+      from = indexEntry(msb, lsb, from);
+      PaymentRecord payment = find(from, msb, lsb);
+      if (payment != null) {
+        found.put(id, payment);
+      }
+    }
+  }
+
+  /**
+   * The records with ids in {@code [from, to)}. The spliterator splits on index entries, whose
+   * offsets are known, so every part starts reading at once without scanning the part before it.
+   */
+  Spliterator<PaymentRecord> scan(UUID from, UUID to) {
+    int first = firstAtOrAbove(from);
+    int end = firstAtOrAbove(to);
+    return new Records(first, position(first), Math.max(first, end));
+  }
+
+  /** Every record, in id order. */
+  Spliterator<PaymentRecord> scan() {
+    return new Records(0, position(0), records);
+  }
+
+  Path path() {
+    return path;
+  }
+
+  int records() {
+    return records;
+  }
+
+  long bytes() {
+    return buffer.capacity();
+  }
+
+  // Last index entry at or below the id, searching from entry low onwards.
+  private int indexEntry(long msb, long lsb, int low) {
+    int high = indexEntries - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      int entry = indexOffset + middle * INDEX_ENTRY_BYTES;
+      if (compare(buffer.getLong(entry), buffer.getLong(entry + 8), msb, lsb) <= 0) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  // Index of the first record whose id is at or above {@code id}, or the record count if none is.
+  private int firstAtOrAbove(UUID id) {
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    if (compare(msb, lsb, lowMsb, lowLsb) <= 0) {
+      return 0;
+    }
+    if (compare(msb, lsb, highMsb, highLsb) > 0) {
+      return records;
+    }
+    int entry = indexEntry(msb, lsb, 0);
+    int position = entryPosition(entry);
+    int record = entry * indexInterval;
+    while (record < records
+        && compare(buffer.getLong(position), buffer.getLong(position + 8), msb, lsb) < 0) {
+      position += FIXED_RECORD_BYTES + codeLength(position);
+      record++;
+    }
+    return record;
+  }
+
+  // File offset of a record: its index entry's offset, then the records in between.
+  private int position(int record) {
+    if (record >= records) {
+      return -1;
+    }
+    int position = entryPosition(record / indexInterval);
+    for (int i = record - record % indexInterval; i < record; i++) {
+      position += FIXED_RECORD_BYTES + codeLength(position);
+    }
+    return position;
+  }
+
+  private int entryPosition(int entry) {
+    return (int) buffer.getLong(indexOffset + entry * INDEX_ENTRY_BYTES + 16);
+  }
+
+  // Scans the records of one index interval for the id.
+  private PaymentRecord find(int entry, long msb, long lsb) {
+    int position = entryPosition(entry);
+    int end = Math.min(records, (entry + 1) * indexInterval);
+    for (int i = entry * indexInterval; i < end; i++) {
+      int order = compare(buffer.getLong(position), buffer.getLong(position + 8), msb, lsb);
+      if (order == 0) {
+        return decode(position);
+      }
+      if (order > 0) {
+        return null;
+      }
+      position += FIXED_RECORD_BYTES + codeLength(position);
+    }
+    return null;
+  }
+
+  private boolean mightContain(long msb, long lsb) {
+    long hash = mix(msb ^ mix(lsb));
+    long step = mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    long bits = (long) bloomWords * 64;
+    for (int i = 0; i < bloomHashes; i++) {
+      long bit = Long.remainderUnsigned(hash + i * step, bits);
+      if ((buffer.getLong(HEADER_BYTES + (int) (bit >>> 6) * 8) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void addToBloom(long[] bloom, int hashes, UUID id) {
+    long hash = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    long step = mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    long bits = (long) bloom.length * 64;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Long.remainderUnsigned(hash + i * step, bits);
+      bloom[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  private static void encode(ByteBuffer out, PaymentRecord payment, byte[] code) {
+    out.putLong(payment.getId().getMostSignificantBits());
+    out.putLong(payment.getId().getLeastSignificantBits());
+    out.put(payment.getStatus().code());
+    out.put(payment.getCurrency().code());
+    out.putInt(payment.getAmount());
+    out.putInt(payment.getVersion());
+    out.putShort((short) payment.getCardNumberLastFour());
+    out.put((byte) payment.getExpiryMonth());
+    out.putShort((short) payment.getExpiryYear());
+    BinInfo bin = payment.getBin();
+    if (bin == null) {
+      out.put((byte) -1).put((byte) 0).put((byte) 0).put((byte) 0);
+    } else {
+      out.put((byte) bin.scheme().ordinal());
+      out.put((byte) bin.issuerCountry().charAt(0)).put((byte) bin.issuerCountry().charAt(1));
+      out.put((byte) bin.fundingType().ordinal());
+    }
+    out.putShort((short) (code == null ? NULL_STRING : code.length));
+    if (code != null) {
+      out.put(code);
+    }
+  }
+
+  private PaymentRecord decode(int position) {
+    byte scheme = buffer.get(position + 31);
+    BinInfo bin = scheme < 0 ? null : new BinInfo(SCHEMES[scheme],
+        new String(new byte[] {buffer.get(position + 32), buffer.get(position + 33)},
+            StandardCharsets.US_ASCII),
+        FUNDING_TYPES[buffer.get(position + 34)]);
+    int length = buffer.getShort(position + 35) & 0xFFFF;
+    String code = null;
+    if (length != NULL_STRING) {
+      byte[] bytes = new byte[length];
+      buffer.get(position + FIXED_RECORD_BYTES, bytes);
+      code = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return new PaymentRecord(new UUID(buffer.getLong(position), buffer.getLong(position + 8)),
+        PaymentStatus.fromCode(buffer.get(position + 16)),
+        Currency.fromCode(buffer.get(position + 17)), buffer.getInt(position + 18),
+        buffer.getShort(position + 26), buffer.get(position + 28),
+        buffer.getShort(position + 29), bin, code, buffer.getInt(position + 22));
+  }
+
+  private int codeLength(int position) {
+    int length = buffer.getShort(position + 35) & 0xFFFF;
+    return length == NULL_STRING ? 0 : length;
+  }
+
+  private static int compare(long msb, long lsb, long otherMsb, long otherLsb) {
+    int high = Long.compareUnsigned(msb, otherMsb);
+    return high != 0 ? high : Long.compareUnsigned(lsb, otherLsb);
+  }
+
+  // murmur3's fmix64.
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  private final class Records implements Spliterator<PaymentRecord> {
+
+    private int next;
+    private int position;
+    private final int end;
+
+    private Records(int next, int position, int end) {
+      this.next = next;
+      this.position = position;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super PaymentRecord> action) {
+      if (next >= end) {
+        return false;
+      }
+      action.accept(decode(position));
+      position += FIXED_RECORD_BYTES + codeLength(position);
+      next++;
+      return true;
+    }
+
+    // Splits at the index entry nearest the middle; the first half is handed off.
+    @Override
+    public Spliterator<PaymentRecord> trySplit() {
+      int middle = (next + end) >>> 1;
+      middle -= middle % indexInterval;
+      if (middle <= next) {
+        return null;
+      }
+      Records first = new Records(next, position, middle);
+      next = middle;
+      position = entryPosition(middle / indexInterval);
+      return first;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - next;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super PaymentRecord> getComparator() {
+      return (a, b) -> ID_ORDER.compare(a.getId(), b.getId());
+    }
+  }
+}
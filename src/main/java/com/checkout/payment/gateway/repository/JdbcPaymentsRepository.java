@@ -0,0 +1,323 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.bin.BinInfo;
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.FundingType;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.PaymentStoreException;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keeps payments in a SQL table through a HikariCP pool, by default in an embedded H2 database
+ * file ({@code payment.repository.jdbc.url}), so they survive restarts and can be queried. Reads
+ * borrow a pooled connection; H2 caches the parsed statement per connection, so re-preparing the
+ * same SQL is a cache hit. Writes go through a {@link PaymentWriteStage}, which batches
+ * concurrent writes into one commit. Version checks are part of the {@code WHERE} clause, which
+ * gives {@link #transition} and {@link #remove(PaymentRecord)} the same compare-and-set
+ * semantics as the in-memory map.
+ */
+public class JdbcPaymentsRepository implements PaymentsRepository, AutoCloseable {
+
+  static final String INSERT = "INSERT INTO payments (id, status, currency, amount,"
+      + " card_last_four, expiry_month, expiry_year, card_scheme, issuer_country, funding_type,"
+      + " authorization_code, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String SELECT_COLUMNS = "SELECT id, status, currency, amount,"
+      + " card_last_four, expiry_month, expiry_year, card_scheme, issuer_country, funding_type,"
+      + " authorization_code, version FROM payments";
+
+  private static final String SELECT = SELECT_COLUMNS + " WHERE id = ?";
+
+  // H2 resolves = ANY(?) with one primary key lookup per array element.
+  private static final String SELECT_ANY = SELECT_COLUMNS + " WHERE id = ANY(?)";
+
+  private static final String SELECT_RANGE = SELECT_COLUMNS + " WHERE id >= ? AND id < ?";
+
+  // A scan splits its id range in halves this many times at most, into up to 64 queries.
+  private static final int SCAN_SPLITS = 6;
+
+  private static final String[] SCHEMA = {
+      "CREATE TABLE IF NOT EXISTS payments ("
+          + "id UUID PRIMARY KEY,"
+          + " status VARCHAR(10) NOT NULL,"
+          + " currency CHAR(3) NOT NULL,"
+          + " amount INT NOT NULL,"
+          + " card_last_four SMALLINT NOT NULL,"
+          + " expiry_month TINYINT NOT NULL,"
+          + " expiry_year SMALLINT NOT NULL,"
+          + " card_scheme VARCHAR(16),"
+          + " issuer_country CHAR(2),"
+          + " funding_type VARCHAR(8),"
+          + " authorization_code VARCHAR(64),"
+          + " version INT NOT NULL)",
+      "CREATE INDEX IF NOT EXISTS payments_status ON payments (status)"
+  };
+
+  private final HikariDataSource dataSource;
+  private final PaymentWriteStage writeStage;
+
+  public JdbcPaymentsRepository(RepositoryProperties.Jdbc properties) {
+    HikariConfig config = new HikariConfig();
+    config.setPoolName("payments");
+    config.setJdbcUrl(properties.url());
+    config.setUsername(properties.username());
+    config.setPassword(properties.password());
+    // The write stage keeps one connection for itself.
+    config.setMaximumPoolSize(properties.poolSize() + 1);
+    this.dataSource = new HikariDataSource(config);
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      for (String ddl : SCHEMA) {
+        statement.execute(ddl);
+      }
+    } catch (SQLException e) {
+      dataSource.close();
+      throw new PaymentStoreException("Cannot create the payments table at " + properties.url(),
+          e);
+    }
+    this.writeStage = new PaymentWriteStage(dataSource, properties.batchSize(),
+        properties.queueCapacity());
+  }
+
+  @Override
+  public void add(PaymentRecord payment) {
+    writeStage.insert(payment);
+  }
+
+  @Override
+  public Optional<PaymentRecord> get(UUID id) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SELECT)) {
+      statement.setObject(1, id);
+      try (ResultSet row = statement.executeQuery()) {
+        return row.next() ? Optional.of(read(row)) : Optional.empty();
+      }
+    } catch (SQLException e) {
+      throw new PaymentStoreException("Could not read payment " + id, e);
+    }
+  }
+
+  // One statement and one round trip for the whole batch, with the ids in key order.
+  @Override
+  public Map<UUID, PaymentRecord> getAll(Collection<UUID> ids) {
+    Map<UUID, PaymentRecord> found = new HashMap<>();
+    if (ids.isEmpty()) {
+      return found;
+    }
+    UUID[] sorted = ids.toArray(new UUID[0]);
+    Arrays.sort(sorted, ColdSegment.ID_ORDER);
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SELECT_ANY)) {
+      statement.setArray(1, connection.createArrayOf("UUID", sorted));
+      try (ResultSet row = statement.executeQuery()) {
+        while (row.next()) {
+          PaymentRecord payment = read(row);
+          found.put(payment.getId(), payment);
+        }
+      }
+    } catch (SQLException e) {
+      throw new PaymentStoreException("Could not read " + sorted.length + " payments", e);
+    }
+    return found;
+  }
+
+  // H2 compares UUIDs as unsigned 128-bit numbers, so halving the range numerically gives parts
+  // that are primary key range scans. Each part runs its query when it is first read.
+  @Override
+  public Spliterator<PaymentRecord> scan(UUID from, UUID to) {
+    return new IdRange(unsigned(from), unsigned(to), 0);
+  }
+
+  @Override
+  public PaymentRecord transition(PaymentRecord expected, PaymentStatus next,
+      String authorizationCode) {
+    PaymentRecord updated = expected.transitionTo(next, authorizationCode);
+    if (!writeStage.update(updated)) {
+      throw new StalePaymentException(expected.getId(), expected.getVersion());
+    }
+    return updated;
+  }
+
+  @Override
+  public void remove(UUID id) {
+    writeStage.delete(id);
+  }
+
+  @Override
+  public boolean remove(PaymentRecord expected) {
+    return writeStage.delete(expected);
+  }
+
+  @Override
+  public int size() {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet row = statement.executeQuery("SELECT COUNT(*) FROM payments")) {
+      row.next();
+      return row.getInt(1);
+    } catch (SQLException e) {
+      throw new PaymentStoreException("Could not count payments", e);
+    }
+  }
+
+  // Rows live in the database, whose page cache is bounded by its own settings.
+  @Override
+  public long estimatedMemoryBytes() {
+    return 0;
+  }
+
+  /** Batches written so far and the writes they held; their ratio is the average batch size. */
+  public long getWriteBatches() {
+    return writeStage.getBatches();
+  }
+
+  public long getWrites() {
+    return writeStage.getWrites();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    writeStage.close();
+    dataSource.close();
+  }
+
+  static void bindInsert(PreparedStatement statement, PaymentRecord payment)
+      throws SQLException {
+    statement.setObject(1, payment.getId());
+    statement.setString(2, payment.getStatus().name());
+    statement.setString(3, payment.getCurrency().name());
+    statement.setInt(4, payment.getAmount());
+    statement.setShort(5, (short) payment.getCardNumberLastFour());
+    statement.setByte(6, (byte) payment.getExpiryMonth());
+    statement.setShort(7, (short) payment.getExpiryYear());
+    BinInfo bin = payment.getBin();
+    if (bin == null) {
+      statement.setNull(8, Types.VARCHAR);
+      statement.setNull(9, Types.CHAR);
+      statement.setNull(10, Types.VARCHAR);
+    } else {
+      statement.setString(8, bin.scheme().name());
+      statement.setString(9, bin.issuerCountry());
+      statement.setString(10, bin.fundingType().name());
+    }
+    statement.setString(11, payment.getAuthorizationCode());
+    statement.setInt(12, payment.getVersion());
+  }
+
+  private static BigInteger unsigned(UUID id) {
+    return new BigInteger(1, ByteBuffer.allocate(16).putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits()).array());
+  }
+
+  private static UUID uuid(BigInteger unsigned) {
+    return new UUID(unsigned.shiftRight(64).longValue(), unsigned.longValue());
+  }
+
+  private static PaymentRecord read(ResultSet row) throws SQLException {
+    String scheme = row.getString("card_scheme");
+    BinInfo bin = scheme == null ? null : new BinInfo(CardScheme.valueOf(scheme),
+        row.getString("issuer_country"), FundingType.valueOf(row.getString("funding_type")));
+    return new PaymentRecord(row.getObject("id", UUID.class),
+        PaymentStatus.valueOf(row.getString("status")),
+        Currency.valueOf(row.getString("currency")), row.getInt("amount"),
+        row.getShort("card_last_four"), row.getByte("expiry_month"),
+        row.getShort("expiry_year"), bin, row.getString("authorization_code"),
+        row.getInt("version"));
+  }
+
+  private final class IdRange implements Spliterator<PaymentRecord> {
+
+    private BigInteger from;
+    private final BigInteger to;
+    private int splits;
+    private Spliterator<PaymentRecord> rows;
+
+    private IdRange(BigInteger from, BigInteger to, int splits) {
+      this.from = from;
+      this.to = to;
+      this.splits = splits;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super PaymentRecord> action) {
+      if (rows == null) {
+        List<PaymentRecord> read = new ArrayList<>();
+        query(read::add);
+        rows = read.spliterator();
+      }
+      return rows.tryAdvance(action);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super PaymentRecord> action) {
+      if (rows == null) {
+        query(action);
+        rows = Spliterators.emptySpliterator();
+      } else {
+        rows.forEachRemaining(action);
+      }
+    }
+
+    @Override
+    public Spliterator<PaymentRecord> trySplit() {
+      BigInteger middle = from.add(to).shiftRight(1);
+      if (rows != null || splits >= SCAN_SPLITS || middle.compareTo(from) <= 0) {
+        return null;
+      }
+      IdRange first = new IdRange(from, middle, ++splits);
+      from = middle;
+      return first;
+    }
+
+    @Override
+    public long estimateSize() {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+      return DISTINCT | NONNULL;
+    }
+
+    private void query(Consumer<? super PaymentRecord> action) {
+      if (from.compareTo(to) >= 0) {
+        return;
+      }
+      try (Connection connection = dataSource.getConnection();
+          PreparedStatement statement = connection.prepareStatement(SELECT_RANGE)) {
+        statement.setObject(1, uuid(from));
+        statement.setObject(2, uuid(to));
+        try (ResultSet row = statement.executeQuery()) {
+          while (row.next()) {
+            action.accept(read(row));
+          }
+        }
+      } catch (SQLException e) {
+        throw new PaymentStoreException("Could not scan payments from " + uuid(from), e);
+      }
+    }
+  }
+}
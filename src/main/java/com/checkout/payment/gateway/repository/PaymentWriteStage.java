@@ -0,0 +1,271 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.exception.PaymentStoreException;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Turns concurrent repository writes into JDBC batches. Writers queue their write and wait; a
+ * single thread takes everything that has queued up (up to {@code batchSize}), runs it as one
+ * batch per statement in one transaction, commits, and hands each writer its own row count. The
+ * more writers arrive together, the bigger the batch, so a burst costs one commit instead of one
+ * per payment. Writers still wait for the commit, which keeps the compare-and-set result of
+ * {@code transition} exact and the write durable once the call returns.
+ *
+ * <p>The thread keeps one connection with its four statements prepared for its whole life. If a
+ * batch fails, it is rolled back and replayed one write at a time, so a single bad write (say a
+ * duplicate id) fails only its own caller. That holds for runtime exceptions too, such as a
+ * record that cannot be bound or a driver bug: whatever happens, every write taken off the queue
+ * is completed and the thread goes on to the next batch.
+ */
+final class PaymentWriteStage implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentWriteStage.class);
+  private static final long WRITE_TIMEOUT_SECONDS = 30;
+  private static final long IDLE_POLL_MILLIS = 100;
+
+  private enum Kind { INSERT, UPDATE, DELETE, DELETE_VERSION }
+
+  private final DataSource dataSource;
+  private final int batchSize;
+  private final BlockingQueue<Write> queue;
+  private final Thread thread;
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder writes = new LongAdder();
+  private final PreparedStatement[] statements = new PreparedStatement[Kind.values().length];
+  private volatile boolean running = true;
+  private Connection connection;
+
+  PaymentWriteStage(DataSource dataSource, int batchSize, int queueCapacity) {
+    this.dataSource = dataSource;
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.thread = new Thread(this::run, "payment-store-writer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  void insert(PaymentRecord payment) {
+    submit(new Write(Kind.INSERT, payment, payment.getId()));
+  }
+
+  /** Stores {@code updated} over the version before it. Returns false if that is not stored. */
+  boolean update(PaymentRecord updated) {
+    return submit(new Write(Kind.UPDATE, updated, updated.getId())) > 0;
+  }
+
+  void delete(UUID id) {
+    submit(new Write(Kind.DELETE, null, id));
+  }
+
+  /** Deletes the payment only if {@code expected}'s version is still stored. */
+  boolean delete(PaymentRecord expected) {
+    return submit(new Write(Kind.DELETE_VERSION, expected, expected.getId())) > 0;
+  }
+
+  long getBatches() {
+    return batches.sum();
+  }
+
+  long getWrites() {
+    return writes.sum();
+  }
+
+  /** Stops taking writes, flushes what is queued and releases the connection. */
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    thread.join(TimeUnit.SECONDS.toMillis(WRITE_TIMEOUT_SECONDS));
+    Write abandoned;
+    while ((abandoned = queue.poll()) != null) {
+      abandoned.rows.completeExceptionally(new PaymentStoreException("Payment store is closed"));
+    }
+  }
+
+  private int submit(Write write) {
+    if (!running) {
+      throw new PaymentStoreException("Payment store is closed");
+    }
+    try {
+      queue.put(write);
+      return write.rows.get(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PaymentStoreException("Interrupted while writing payment " + write.id, e);
+    } catch (ExecutionException e) {
+      throw (PaymentStoreException) e.getCause();
+    } catch (TimeoutException e) {
+      throw new PaymentStoreException("Timed out writing payment " + write.id, e);
+    }
+  }
+
+  private void run() {
+    List<Write> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      Write first;
+      try {
+        first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        continue;
+      }
+      if (first == null) {
+        continue;
+      }
+      batch.add(first);
+      queue.drainTo(batch, batchSize - 1);
+      try {
+        flush(batch);
+      } catch (RuntimeException e) {
+        LOG.error("Payment store writer failed on a batch of {} writes", batch.size(), e);
+        for (Write write : batch) {
+          write.rows.completeExceptionally(
+              new PaymentStoreException("Could not write payment " + write.id, e));
+        }
+      }
+      batches.increment();
+      writes.add(batch.size());
+      batch.clear();
+    }
+    closeConnection();
+  }
+
+  private void flush(List<Write> batch) {
+    try {
+      prepare();
+      int[] queued = new int[statements.length];
+      for (Write write : batch) {
+        bind(write);
+        statements[write.kind.ordinal()].addBatch();
+        queued[write.kind.ordinal()]++;
+      }
+      int[][] rows = new int[statements.length][];
+      for (int i = 0; i < statements.length; i++) {
+        rows[i] = queued[i] == 0 ? new int[0] : statements[i].executeBatch();
+      }
+      connection.commit();
+      int[] next = new int[statements.length];
+      for (Write write : batch) {
+        int kind = write.kind.ordinal();
+        write.rows.complete(rows[kind][next[kind]++]);
+      }
+    } catch (SQLException | RuntimeException e) {
+      LOG.warn("Batch of {} payment writes failed, retrying them one by one", batch.size(), e);
+      rollback();
+      for (Write write : batch) {
+        flushOne(write);
+      }
+    }
+  }
+
+  private void flushOne(Write write) {
+    try {
+      prepare();
+      bind(write);
+      int rows = statements[write.kind.ordinal()].executeUpdate();
+      connection.commit();
+      write.rows.complete(rows);
+    } catch (SQLException | RuntimeException e) {
+      rollback();
+      write.rows.completeExceptionally(
+          new PaymentStoreException("Could not write payment " + write.id, e));
+    }
+  }
+
+  private void bind(Write write) throws SQLException {
+    PreparedStatement statement = statements[write.kind.ordinal()];
+    switch (write.kind) {
+      case INSERT -> JdbcPaymentsRepository.bindInsert(statement, write.record);
+      case UPDATE -> {
+        statement.setString(1, write.record.getStatus().name());
+        statement.setString(2, write.record.getAuthorizationCode());
+        statement.setInt(3, write.record.getVersion());
+        statement.setObject(4, write.id);
+        statement.setInt(5, write.record.getVersion() - 1);
+      }
+      case DELETE -> statement.setObject(1, write.id);
+      case DELETE_VERSION -> {
+        statement.setObject(1, write.id);
+        statement.setInt(2, write.record.getVersion());
+      }
+    }
+  }
+
+  private void prepare() throws SQLException {
+    if (connection != null) {
+      return;
+    }
+    Connection opened = dataSource.getConnection();
+    try {
+      opened.setAutoCommit(false);
+      statements[Kind.INSERT.ordinal()] = opened.prepareStatement(JdbcPaymentsRepository.INSERT);
+      statements[Kind.UPDATE.ordinal()] = opened.prepareStatement(
+          "UPDATE payments SET status = ?, authorization_code = ?, version = ?"
+              + " WHERE id = ? AND version = ?");
+      statements[Kind.DELETE.ordinal()] = opened.prepareStatement(
+          "DELETE FROM payments WHERE id = ?");
+      statements[Kind.DELETE_VERSION.ordinal()] = opened.prepareStatement(
+          "DELETE FROM payments WHERE id = ? AND version = ?");
+    } catch (SQLException e) {
+      opened.close();
+      throw e;
+    }
+    connection = opened;
+  }
+
+  // A failed rollback means the connection is unusable: drop it and prepare afresh next time.
+  private void rollback() {
+    try {
+      if (connection != null) {
+        for (PreparedStatement statement : statements) {
+          if (statement != null) {
+            statement.clearBatch();
+          }
+        }
+        connection.rollback();
+      }
+    } catch (SQLException e) {
+      closeConnection();
+    }
+  }
+
+  private void closeConnection() {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      LOG.warn("Could not close the payment store writer connection", e);
+    }
+    connection = null;
+  }
+
+  private static final class Write {
+
+    private final Kind kind;
+    private final PaymentRecord record;
+    private final UUID id;
+    private final CompletableFuture<Integer> rows = new CompletableFuture<>();
+
+    private Write(Kind kind, PaymentRecord record, UUID id) {
+      this.kind = kind;
+      this.record = record;
+      this.id = id;
+    }
+  }
+}
@@ -1,30 +1,61 @@
 package com.checkout.payment.gateway.repository;
 
-import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
 import java.util.UUID;
-import org.springframework.stereotype.Repository;
 
-@Repository
-public class PaymentsRepository {
+/**
+ * Stores immutable {@link PaymentRecord}s. Writes after the initial insert go through
+ * {@link #transition}, which only succeeds against the exact version the writer started from.
+ * The backend is chosen with {@code payment.repository.backend} (see {@link RepositoryBackend}).
+ */
+public interface PaymentsRepository {
+
+  void add(PaymentRecord payment);
+
+  Optional<PaymentRecord> get(UUID id);
+
+  /**
+   * Looks up all of {@code ids} in one pass and returns the payments found, keyed by id. Ids that
+   * are not stored are left out. Backends override this where a batch is cheaper than one
+   * {@link #get} per id.
+   */
+  default Map<UUID, PaymentRecord> getAll(Collection<UUID> ids) {
+    Map<UUID, PaymentRecord> found = new HashMap<>();
+    for (UUID id : ids) {
+      get(id).ifPresent(payment -> found.put(id, payment));
+    }
+    return found;
+  }
 
-  private final HashMap<UUID, PaymentResponse> payments = new HashMap<>();
+  /**
+   * Payments whose id is in {@code [from, to)}, comparing ids as unsigned 128-bit numbers, the
+   * order UUIDv7 ids sort in by creation time. The spliterator splits into parts that can be read
+   * on different threads. Like a concurrent map's iterator it is weakly consistent: payments
+   * written during the scan may or may not be seen.
+   */
+  Spliterator<PaymentRecord> scan(UUID from, UUID to);
 
-  public void add(PaymentResponse payment) {
-    payments.put(payment.getId(), payment);
-  }
+  /**
+   * Moves {@code expected} to {@code next} and returns the stored result. Throws
+   * {@link StalePaymentException} if the stored payment is no longer {@code expected}, and
+   * {@code IllegalPaymentTransitionException} if the status change is not allowed.
+   */
+  PaymentRecord transition(PaymentRecord expected, PaymentStatus next, String authorizationCode);
 
-  public Optional<PaymentResponse> get(UUID id) {
-    return Optional.ofNullable(payments.get(id));
-  }
+  void remove(UUID id);
 
-  public void update(PaymentResponse payment) {
-    add(payment);
-  }
+  /** Removes the payment only if it is still exactly {@code expected}. */
+  boolean remove(PaymentRecord expected);
 
-  public void remove(UUID id) {
-    payments.remove(id);
-  }
+  int size();
 
+  /** An estimate of the heap held by stored payments, for the memory gauge; not measured. */
+  long estimatedMemoryBytes();
 }
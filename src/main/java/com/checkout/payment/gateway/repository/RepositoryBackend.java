@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.repository;
+
+public enum RepositoryBackend {
+  /** {@link InMemoryPaymentsRepository}: fastest, lost on restart. */
+  MEMORY,
+  /** {@link JdbcPaymentsRepository}: durable, queryable with SQL. */
+  JDBC,
+  /** {@link TieredPaymentsRepository}: recent payments on heap, settled ones in mapped files. */
+  TIERED
+}
@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway.repository;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "payment.repository")
+public record RepositoryProperties(
+    @DefaultValue("MEMORY") RepositoryBackend backend,
+    @DefaultValue Jdbc jdbc,
+    @DefaultValue Tiered tiered) {
+
+  /**
+   * {@code poolSize} connections serve reads; the write stage holds one more of its own.
+   * {@code batchSize} caps how many queued writes go into one batch, and a full queue of
+   * {@code queueCapacity} writes makes writers wait.
+   */
+  public record Jdbc(
+      @DefaultValue("jdbc:h2:file:./data/payments") String url,
+      @DefaultValue("sa") String username,
+      @DefaultValue("") String password,
+      @DefaultValue("8") int poolSize,
+      @DefaultValue("256") int batchSize,
+      @DefaultValue("4096") int queueCapacity) {
+  }
+
+  /**
+   * Payments stay on heap until {@code hotRetention} after they settle. Every
+   * {@code migrationInterval} the settled ones past that age are written to cold segments in
+   * {@code directory}, at most {@code maxSegmentRecords} per segment. Past {@code maxSegments}
+   * segments, adjacent ones are merged. One index entry is kept per {@code indexInterval}
+   * records, and the Bloom filter gets {@code bloomBitsPerKey} bits per id.
+   */
+  public record Tiered(
+      @DefaultValue("data/cold") Path directory,
+      @DefaultValue("5m") Duration hotRetention,
+      @DefaultValue("30s") Duration migrationInterval,
+      @DefaultValue("1000000") int maxSegmentRecords,
+      @DefaultValue("8") int maxSegments,
+      @DefaultValue("64") int indexInterval,
+      @DefaultValue("10") int bloomBitsPerKey) {
+  }
+}
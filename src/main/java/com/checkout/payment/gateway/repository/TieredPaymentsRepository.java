@@ -0,0 +1,516 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.PaymentStoreException;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps recent and {@code PENDING} payments in an {@link InMemoryPaymentsRepository} and moves
+ * settled ones to immutable {@link ColdSegment}s once they have been settled for
+ * {@code payment.repository.tiered.hot-retention}. Reads check the heap first and then the
+ * segments, newest first; each segment rejects most ids it does not hold by its id range and Bloom
+ * filter without touching its index. Heap use grows with the payments of the last few minutes, not
+ * with everything ever stored; the segments are paged in and out by the OS.
+ *
+ * <p>A background thread runs the migration: it takes the payments that settled before the cutoff
+ * in the order they settled, sorts them by id, writes them as one segment, and only then drops
+ * them from the heap, so a concurrent read always finds a payment in one tier or the other. Settled
+ * payments never change again, which is what makes it safe to freeze them. Segments in the
+ * directory are reopened on start.
+ *
+ * <p>After each migration, once there are more than {@code payment.repository.tiered.max-segments}
+ * segments, runs of adjacent segments that fit in {@code max-segment-records} together are merged
+ * into one, so the segment count stays bounded by the data rather than by uptime. Removing a cold
+ * payment hides it at once; the next compaction rewrites its segment without it, which is what
+ * makes the removal durable and lets its id leave the heap. A merged segment is named after the
+ * range of segment numbers it replaces, and is in place before they are deleted, so a crash in
+ * between leaves files on disk that the next start recognizes as replaced and deletes.
+ */
+public class TieredPaymentsRepository implements PaymentsRepository, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TieredPaymentsRepository.class);
+  private static final Pattern SEGMENT = Pattern.compile("cold-(\\d{6})(?:-(\\d{6}))?\\.seg");
+
+  private final InMemoryPaymentsRepository hot = new InMemoryPaymentsRepository();
+  private final ConcurrentLinkedQueue<Settled> settled = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger settledCount = new AtomicInteger();
+  private final Set<UUID> removedCold = ConcurrentHashMap.newKeySet();
+  private final RepositoryProperties.Tiered properties;
+  private final LongSupplier clock;
+  private final ScheduledExecutorService migrator;
+  private volatile ColdSegment[] segments;
+  private int nextSegment;
+
+  public TieredPaymentsRepository(RepositoryProperties.Tiered properties) {
+    this(properties, System::currentTimeMillis, true);
+  }
+
+  TieredPaymentsRepository(RepositoryProperties.Tiered properties, LongSupplier clock,
+      boolean scheduled) {
+    this.properties = properties;
+    this.clock = clock;
+    this.segments = openSegments(properties.directory());
+    if (scheduled) {
+      this.migrator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-tier-migrator");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long interval = properties.migrationInterval().toMillis();
+      migrator.scheduleWithFixedDelay(this::migrateQuietly, interval, interval,
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.migrator = null;
+    }
+  }
+
+  @Override
+  public void add(PaymentRecord payment) {
+    hot.add(payment);
+  }
+
+  @Override
+  public Optional<PaymentRecord> get(UUID id) {
+    Optional<PaymentRecord> payment = hot.get(id);
+    if (payment.isPresent()) {
+      return payment;
+    }
+    for (ColdSegment segment : segments) {
+      PaymentRecord cold = segment.get(id);
+      if (cold != null) {
+        return removedCold.contains(id) ? Optional.empty() : Optional.of(cold);
+      }
+    }
+    return Optional.empty();
+  }
+
+  // Ids missing from the heap are sorted once, so every segment is walked front to back and one
+  // that holds none of them is skipped after reading its header and Bloom filter.
+  @Override
+  public Map<UUID, PaymentRecord> getAll(Collection<UUID> ids) {
+    Map<UUID, PaymentRecord> found = hot.getAll(ids);
+    List<UUID> cold = new ArrayList<>();
+    for (UUID id : ids) {
+      if (!found.containsKey(id) && !removedCold.contains(id)) {
+        cold.add(id);
+      }
+    }
+    if (cold.isEmpty()) {
+      return found;
+    }
+    cold.sort(ColdSegment.ID_ORDER);
+    int wanted = found.size() + cold.size();
+    for (ColdSegment segment : segments) {
+      segment.getAll(cold, found);
+      if (found.size() == wanted) {
+        break;
+      }
+    }
+    return found;
+  }
+
+  // The heap and each segment are separate parts, and each splits further on its own; the
+  // segment streams are parallel only so that the filtered ones split too. The parts sit side by
+  // side in one spliterator, so the depth does not grow with the number of segments. A payment
+  // migrated while the scan runs can be seen in both tiers or in neither, so a full scan is best
+  // run over payments settled longer ago than the hot retention.
+  @Override
+  public Spliterator<PaymentRecord> scan(UUID from, UUID to) {
+    ColdSegment[] cold = segments;
+    List<Spliterator<PaymentRecord>> parts = new ArrayList<>(cold.length + 1);
+    parts.add(hot.scan(from, to));
+    for (ColdSegment segment : cold) {
+      parts.add(StreamSupport.stream(segment.scan(from, to), true)
+          .filter(payment -> !removedCold.contains(payment.getId()))
+          .spliterator());
+    }
+    return new Parts(parts, 0, parts.size());
+  }
+
+  @Override
+  public PaymentRecord transition(PaymentRecord expected, PaymentStatus next,
+      String authorizationCode) {
+    PaymentRecord updated = hot.transition(expected, next, authorizationCode);
+    // UNKNOWN payments can still settle, so they stay hot until they do.
+    if (next.isSettled()) {
+      settled.add(new Settled(updated.getId(), clock.getAsLong()));
+      settledCount.incrementAndGet();
+    }
+    return updated;
+  }
+
+  @Override
+  public void remove(UUID id) {
+    hot.remove(id);
+    if (findCold(id) != null) {
+      removedCold.add(id);
+    }
+  }
+
+  @Override
+  public boolean remove(PaymentRecord expected) {
+    if (hot.remove(expected)) {
+      return true;
+    }
+    PaymentRecord cold = findCold(expected.getId());
+    return cold != null && cold.getVersion() == expected.getVersion()
+        && removedCold.add(expected.getId());
+  }
+
+  @Override
+  public int size() {
+    int cold = 0;
+    for (ColdSegment segment : segments) {
+      cold += segment.records();
+    }
+    return hot.size() + cold - removedCold.size();
+  }
+
+  // The hot map plus one queue node per settled payment still on heap; segments are off heap.
+  @Override
+  public long estimatedMemoryBytes() {
+    return hot.estimatedMemoryBytes() + settledCount.get() * 48L;
+  }
+
+  public int getHotSize() {
+    return hot.size();
+  }
+
+  public int getColdSegments() {
+    return segments.length;
+  }
+
+  /** Size of the mapped segment files, which live in the page cache rather than on heap. */
+  public long getColdBytes() {
+    long bytes = 0;
+    for (ColdSegment segment : segments) {
+      bytes += segment.bytes();
+    }
+    return bytes;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    if (migrator != null) {
+      migrator.shutdownNow();
+      migrator.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  /** Moves payments settled before the hot retention cutoff to cold segments. */
+  synchronized int migrate() throws IOException {
+    long cutoff = clock.getAsLong() - properties.hotRetention().toMillis();
+    List<Settled> taken = new ArrayList<>();
+    List<PaymentRecord> frozen = new ArrayList<>();
+    Settled head;
+    while ((head = settled.peek()) != null && head.atMillis() <= cutoff) {
+      settled.poll();
+      settledCount.decrementAndGet();
+      taken.add(head);
+      // Gone if the payment was removed after it settled.
+      hot.get(head.id()).ifPresent(frozen::add);
+    }
+    frozen.sort((a, b) -> ColdSegment.ID_ORDER.compare(a.getId(), b.getId()));
+    int migrated = 0;
+    try {
+      for (int from = 0; from < frozen.size(); from += properties.maxSegmentRecords()) {
+        List<PaymentRecord> chunk = frozen.subList(from,
+            Math.min(frozen.size(), from + properties.maxSegmentRecords()));
+        publish(ColdSegment.write(nextSegmentPath(), chunk, properties.indexInterval(),
+            properties.bloomBitsPerKey()));
+        for (PaymentRecord payment : chunk) {
+          hot.remove(payment);
+        }
+        migrated += chunk.size();
+      }
+    } catch (IOException e) {
+      // Whatever was not frozen stays hot and is tried again on the next run; payments that did
+      // make it into a segment are no longer hot and are skipped then.
+      for (Settled retry : taken) {
+        settled.add(retry);
+        settledCount.incrementAndGet();
+      }
+      throw e;
+    }
+    return migrated;
+  }
+
+  /**
+   * Merges adjacent segments and drops removed payments from theirs. Returns how many segments
+   * were replaced; a failure leaves the current segments in place.
+   */
+  synchronized int compact() throws IOException {
+    ColdSegment[] current = segments;
+    boolean merging = current.length > properties.maxSegments();
+    if (!merging && removedCold.isEmpty()) {
+      return 0;
+    }
+    List<ColdSegment> next = new ArrayList<>();
+    List<ColdSegment> replaced = new ArrayList<>();
+    Set<UUID> dropped = new HashSet<>();
+    // Groups run newest to oldest, so every group covers a contiguous range of segment numbers.
+    int from = 0;
+    while (from < current.length) {
+      int to = from + 1;
+      long records = current[from].records();
+      while (merging && to < current.length
+          && records + current[to].records() <= properties.maxSegmentRecords()) {
+        records += current[to].records();
+        to++;
+      }
+      List<ColdSegment> group = List.of(current).subList(from, to);
+      if (group.size() > 1 || holdsRemoved(group.get(0))) {
+        ColdSegment merged = rewrite(group, dropped);
+        if (merged != null) {
+          next.add(merged);
+        }
+        replaced.addAll(group);
+      } else {
+        next.addAll(group);
+      }
+      from = to;
+    }
+    if (replaced.isEmpty()) {
+      return 0;
+    }
+    segments = next.toArray(new ColdSegment[0]);
+    removedCold.removeAll(dropped);
+    Set<Path> kept = new HashSet<>();
+    for (ColdSegment segment : next) {
+      kept.add(segment.path());
+    }
+    for (ColdSegment segment : replaced) {
+      if (!kept.contains(segment.path())) {
+        try {
+          Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+          // Still covered by the merged segment's name, so the next start deletes it.
+          LOG.warn("Could not delete compacted segment {}", segment.path(), e);
+        }
+      }
+    }
+    return replaced.size();
+  }
+
+  private boolean holdsRemoved(ColdSegment segment) {
+    for (UUID id : removedCold) {
+      if (segment.get(id) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Readers keep using the old mappings until the new array is published; ids removed after the
+  // removed set was read here stay in the merged segment and in the set until the next run.
+  private ColdSegment rewrite(List<ColdSegment> group, Set<UUID> dropped) throws IOException {
+    List<PaymentRecord> live = new ArrayList<>();
+    for (ColdSegment segment : group) {
+      segment.scan().forEachRemaining(payment -> {
+        if (removedCold.contains(payment.getId())) {
+          dropped.add(payment.getId());
+        } else {
+          live.add(payment);
+        }
+      });
+    }
+    if (live.isEmpty()) {
+      return null;
+    }
+    live.sort((a, b) -> ColdSegment.ID_ORDER.compare(a.getId(), b.getId()));
+    int low = range(group.get(group.size() - 1).path())[0];
+    int high = range(group.get(0).path())[1];
+    return ColdSegment.write(
+        properties.directory().resolve(String.format("cold-%06d-%06d.seg", low, high)), live,
+        properties.indexInterval(), properties.bloomBitsPerKey());
+  }
+
+  private void migrateQuietly() {
+    try {
+      int migrated = migrate();
+      if (migrated > 0) {
+        LOG.debug("Moved {} settled payments to cold storage", migrated);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not move settled payments to cold storage", e);
+    }
+    try {
+      int compacted = compact();
+      if (compacted > 0) {
+        LOG.debug("Compacted {} cold segments", compacted);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not compact cold payment segments", e);
+    }
+  }
+
+  private PaymentRecord findCold(UUID id) {
+    for (ColdSegment segment : segments) {
+      PaymentRecord cold = segment.get(id);
+      if (cold != null) {
+        return cold;
+      }
+    }
+    return null;
+  }
+
+  private void publish(ColdSegment segment) {
+    ColdSegment[] current = segments;
+    ColdSegment[] next = new ColdSegment[current.length + 1];
+    next[0] = segment;
+    System.arraycopy(current, 0, next, 1, current.length);
+    segments = next;
+  }
+
+  private Path nextSegmentPath() {
+    return properties.directory().resolve(String.format("cold-%06d.seg", nextSegment++));
+  }
+
+  // The segment numbers a file covers: one for a migrated segment, a range for a merged one.
+  private static int[] range(Path file) {
+    Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+    if (!matcher.matches()) {
+      return null;
+    }
+    int low = Integer.parseInt(matcher.group(1));
+    return new int[] {low, matcher.group(2) == null ? low : Integer.parseInt(matcher.group(2))};
+  }
+
+  // Newest first, so recently migrated payments are found after the fewest probes. A file whose
+  // numbers fall inside a merged segment's range was replaced by it before a crash.
+  private ColdSegment[] openSegments(Path directory) {
+    List<ColdSegment> opened = new ArrayList<>();
+    try {
+      Files.createDirectories(directory);
+      List<Path> files = new ArrayList<>();
+      List<Path> merged = new ArrayList<>();
+      try (Stream<Path> listing = Files.list(directory)) {
+        for (Path file : listing.toList()) {
+          String name = file.getFileName().toString();
+          Matcher matcher = SEGMENT.matcher(name);
+          if (matcher.matches()) {
+            files.add(file);
+            if (matcher.group(2) != null) {
+              merged.add(file);
+            }
+          } else if (name.endsWith(".seg.tmp")) {
+            Files.delete(file);
+          }
+        }
+      }
+      files.sort(Comparator.comparingInt(file -> range(file)[0]));
+      for (Path file : files) {
+        int[] range = range(file);
+        if (replaced(file, range, merged)) {
+          Files.delete(file);
+          continue;
+        }
+        opened.add(0, ColdSegment.open(file));
+        nextSegment = Math.max(nextSegment, range[1] + 1);
+      }
+    } catch (IOException e) {
+      throw new PaymentStoreException("Cannot open cold payment segments in " + directory, e);
+    }
+    return opened.toArray(new ColdSegment[0]);
+  }
+
+  private static boolean replaced(Path file, int[] range, List<Path> merged) {
+    for (Path other : merged) {
+      int[] covering = range(other);
+      if (!other.equals(file) && covering[0] <= range[0] && range[1] <= covering[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Reads its parts one after another. A split hands off the first half of the parts, and the last
+  // part left splits on its own.
+  private static final class Parts implements Spliterator<PaymentRecord> {
+
+    private final List<Spliterator<PaymentRecord>> parts;
+    private final int end;
+    private int next;
+
+    private Parts(List<Spliterator<PaymentRecord>> parts, int next, int end) {
+      this.parts = parts;
+      this.next = next;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super PaymentRecord> action) {
+      for (; next < end; next++) {
+        if (parts.get(next).tryAdvance(action)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super PaymentRecord> action) {
+      for (; next < end; next++) {
+        parts.get(next).forEachRemaining(action);
+      }
+    }
+
+    @Override
+    public Spliterator<PaymentRecord> trySplit() {
+      if (end - next > 1) {
+        int middle = (next + end) >>> 1;
+        Parts first = new Parts(parts, next, middle);
+        next = middle;
+        return first;
+      }
+      return next < end ? parts.get(next).trySplit() : null;
+    }
+
+    @Override
+    public long estimateSize() {
+      long size = 0;
+      for (int i = next; i < end; i++) {
+        size += parts.get(i).estimateSize();
+        if (size < 0) {
+          return Long.MAX_VALUE;
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public int characteristics() {
+      return NONNULL;
+    }
+  }
+
+  private record Settled(UUID id, long atMillis) {
+  }
+}
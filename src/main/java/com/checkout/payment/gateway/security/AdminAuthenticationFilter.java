@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates {@code admin.operators}: a request with {@code Authorization: Bearer <token>}
+ * matching an operator's token carries that operator as its user principal. Nothing is refused
+ * here; the admin endpoints that change the gateway require the principal, so the check does
+ * not depend on how the path was spelled. Tokens are compared as SHA-256 digests in constant
+ * time, against every operator.
+ */
+@Component
+public class AdminAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final String BEARER = "Bearer ";
+
+  private final Map<String, byte[]> tokenDigests = new LinkedHashMap<>();
+
+  public AdminAuthenticationFilter(AdminProperties properties) {
+    properties.operators().forEach((operator, token) ->
+        tokenDigests.put(operator, sha256(token)));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+    return authorization == null || !authorization.startsWith(BEARER);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    byte[] presented = sha256(request.getHeader(HttpHeaders.AUTHORIZATION)
+        .substring(BEARER.length()).trim());
+    String operator = null;
+    for (Map.Entry<String, byte[]> entry : tokenDigests.entrySet()) {
+      if (MessageDigest.isEqual(presented, entry.getValue())) {
+        operator = entry.getKey();
+      }
+    }
+    filterChain.doFilter(operator == null ? request : new Authenticated(request, operator),
+        response);
+  }
+
+  private static byte[] sha256(String token) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class Authenticated extends HttpServletRequestWrapper {
+
+    private final Principal operator;
+
+    private Authenticated(HttpServletRequest request, String operator) {
+      super(request);
+      this.operator = () -> operator;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+      return operator;
+    }
+
+    @Override
+    public String getRemoteUser() {
+      return operator.getName();
+    }
+  }
+}
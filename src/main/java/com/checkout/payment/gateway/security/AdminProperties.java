@@ -0,0 +1,17 @@
+package com.checkout.payment.gateway.security;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code admin.operators} maps each operator allowed to change the gateway through
+ * {@code /admin} to the bearer token they authenticate with. With none configured, no change can
+ * be made.
+ */
+@ConfigurationProperties(prefix = "admin")
+public record AdminProperties(Map<String, String> operators) {
+
+  public AdminProperties {
+    operators = operators == null ? Map.of() : Map.copyOf(operators);
+  }
+}
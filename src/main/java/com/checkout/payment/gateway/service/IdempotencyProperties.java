@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.service;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * The answer to a {@code POST /payment} is replayed for the same {@code Idempotency-Key} for
+ * {@code ttl} after the key was first used, and for at most {@code maxKeys} keys at once.
+ */
+@ConfigurationProperties(prefix = "payment.idempotency")
+public record IdempotencyProperties(
+    @DefaultValue("24h") Duration ttl,
+    @DefaultValue("1000000") int maxKeys) {
+}
@@ -0,0 +1,93 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The answer given for each idempotency key. Keys are evicted in the order they were first
+ * stored, once they are older than {@code ttl} or when there are more than {@code maxKeys}, so
+ * the heap it takes is bounded by its settings rather than by uptime. A retry with an evicted key
+ * is treated as a new payment. Eviction runs on the storing thread and costs one queue poll per
+ * evicted key.
+ */
+@Component
+public class IdempotencyStore {
+
+  private final long ttlNanos;
+  private final int maxKeys;
+  private final LongSupplier clock;
+  private final ConcurrentHashMap<String, Entry> answers = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  @Autowired
+  public IdempotencyStore(IdempotencyProperties properties) {
+    this(properties, System::nanoTime);
+  }
+
+  IdempotencyStore(IdempotencyProperties properties, LongSupplier clock) {
+    this.ttlNanos = properties.ttl().toNanos();
+    this.maxKeys = properties.maxKeys();
+    this.clock = clock;
+  }
+
+  /** The answer stored for {@code key}, or null if there is none or it has expired. */
+  public CreatePaymentResponseDto get(String key) {
+    Entry entry = answers.get(key);
+    if (entry == null || clock.getAsLong() - entry.storedNanos() > ttlNanos) {
+      return null;
+    }
+    return entry.answer();
+  }
+
+  public void put(String key, CreatePaymentResponseDto answer) {
+    long now = clock.getAsLong();
+    Entry entry = new Entry(key, answer, now);
+    answers.put(key, entry);
+    order.add(entry);
+    evict(now);
+  }
+
+  /**
+   * Replaces the answer for {@code key} with {@code fresh} if it is still {@code expected}. The
+   * key keeps its age, so a replaced answer expires when the original would have.
+   */
+  public boolean replace(String key, CreatePaymentResponseDto expected,
+      CreatePaymentResponseDto fresh) {
+    Entry current = answers.get(key);
+    return current != null && current.answer() == expected
+        && answers.replace(key, current, new Entry(key, fresh, current.storedNanos()));
+  }
+
+  public int size() {
+    return answers.size();
+  }
+
+  // Only one thread evicts at a time; the others leave it to the next put. A queued entry whose
+  // key was stored again since only leaves the queue, not the map.
+  private void evict(long now) {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      Entry oldest;
+      while ((oldest = order.peek()) != null
+          && (answers.size() > maxKeys || now - oldest.storedNanos() > ttlNanos)) {
+        order.poll();
+        Entry evicted = oldest;
+        answers.computeIfPresent(evicted.key(),
+            (key, entry) -> entry.storedNanos() == evicted.storedNanos() ? null : entry);
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  private record Entry(String key, CreatePaymentResponseDto answer, long storedNanos) {
+  }
+}
@@ -1,60 +1,166 @@
 package com.checkout.payment.gateway.service;
 
 import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentLookupResponseDto;
 import com.checkout.payment.gateway.api.PaymentResponseDto;
 import com.checkout.payment.gateway.api.PaymentStatusDto;
+import com.checkout.payment.gateway.bin.BinIndex;
+import com.checkout.payment.gateway.bin.BinInfo;
 import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.enums.Currency;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventType;
 import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.logging.PaymentLogEventType;
+import com.checkout.payment.gateway.metrics.BankOutcome;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.PaymentStep;
 import com.checkout.payment.gateway.model.AcquiringBankRequest;
 import com.checkout.payment.gateway.model.AcquiringBankResponse;
 import com.checkout.payment.gateway.model.CreatePaymentRequest;
-import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.reconciliation.BankReconciler;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.sweeper.HashedTimingWheel;
+import com.checkout.payment.gateway.sweeper.PendingPaymentSweeper;
+import com.checkout.payment.gateway.tracing.PaymentPhaseEvent;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 
 @Service
 public class PaymentGatewayService {
 
-  private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayService.class);
-
   private final PaymentsRepository paymentsRepository;
   private final AcquiringBankClient acquiringBankClient;
-  private final ConcurrentHashMap<String, CreatePaymentResponseDto> idempotencyStore = new ConcurrentHashMap<>();
+  private final PaymentEventLogger paymentEventLogger;
+  private final PaymentMetrics paymentMetrics;
+  private final PaymentTracer paymentTracer;
+  private final PaymentIdGenerator paymentIdGenerator;
+  private final BinIndex binIndex;
+  private final PaymentEventBus paymentEventBus;
+  private final ClusterRouter clusterRouter;
+  private final PendingPaymentSweeper pendingPaymentSweeper;
+  private final PaymentAggregates paymentAggregates;
+  private final BankReconciler bankReconciler;
+  private final IdempotencyStore idempotencyStore;
 
-  public PaymentGatewayService(PaymentsRepository paymentsRepository, AcquiringBankClient acquiringBankClient) {
+  public PaymentGatewayService(PaymentsRepository paymentsRepository, AcquiringBankClient acquiringBankClient,
+      PaymentEventLogger paymentEventLogger, PaymentMetrics paymentMetrics,
+      PaymentTracer paymentTracer, PaymentIdGenerator paymentIdGenerator, BinIndex binIndex,
+      PaymentEventBus paymentEventBus, ClusterRouter clusterRouter,
+      PendingPaymentSweeper pendingPaymentSweeper, PaymentAggregates paymentAggregates,
+      BankReconciler bankReconciler, IdempotencyStore idempotencyStore) {
     this.paymentsRepository = paymentsRepository;
     this.acquiringBankClient = acquiringBankClient;
+    this.paymentEventLogger = paymentEventLogger;
+    this.paymentMetrics = paymentMetrics;
+    this.paymentTracer = paymentTracer;
+    this.paymentIdGenerator = paymentIdGenerator;
+    this.binIndex = binIndex;
+    this.paymentEventBus = paymentEventBus;
+    this.clusterRouter = clusterRouter;
+    this.pendingPaymentSweeper = pendingPaymentSweeper;
+    this.paymentAggregates = paymentAggregates;
+    this.bankReconciler = bankReconciler;
+    this.idempotencyStore = idempotencyStore;
   }
 
   public PaymentResponseDto getPaymentById(UUID id) {
-    LOG.info("Payment retrieval requested, paymentId={}", id);
-    PaymentResponse paymentResponse = paymentsRepository.get(id).orElseThrow(() -> {
-      LOG.warn("Payment retrieval failed, paymentId={}, reason=not_found", id);
+    paymentEventLogger.log(PaymentLogEventType.RETRIEVAL_REQUESTED, id, null);
+    paymentTracer.annotate(id, null, null);
+    PaymentRecord payment = paymentsRepository.get(id).orElseThrow(() -> {
+      paymentEventLogger.log(PaymentLogEventType.RETRIEVAL_FAILED, id, null);
+      paymentTracer.annotate(null, null, "not_found");
       return new EventProcessingException("Invalid ID");
     });
-    PaymentResponseDto responseDto = new PaymentResponseDto();
-    responseDto.setId(paymentResponse.getId());
-    responseDto.setAmount(paymentResponse.getAmount());
-    responseDto.setCurrency(paymentResponse.getCurrency());
-    responseDto.setStatus(paymentResponse.getStatus() == PaymentStatus.AUTHORIZED ?
-        PaymentStatusDto.AUTHORIZED : PaymentStatusDto.DECLINED);
-    responseDto.setCardNumberLastFour(paymentResponse.getCardNumberLastFour());
-    responseDto.setExpiryMonth(paymentResponse.getExpiryMonth());
-    responseDto.setExpiryYear(paymentResponse.getExpiryYear());
-    return responseDto;
+    paymentTracer.annotate(null, null, "found");
+    return toResponseDto(payment);
+  }
+
+  /**
+   * Looks up a batch of payments with one repository pass. In a cluster, ids owned by other
+   * instances are sent to each owner as one sub-batch, in parallel with the local pass, unless
+   * this batch was itself forwarded. Duplicate ids are answered once.
+   */
+  public PaymentLookupResponseDto lookupPayments(List<UUID> ids, boolean forwarded) {
+    Set<UUID> requested = new LinkedHashSet<>(ids);
+    List<UUID> local = new ArrayList<>();
+    Map<String, List<UUID>> remote = new HashMap<>();
+    boolean fanOut = clusterRouter.isEnabled() && !forwarded;
+    for (UUID id : requested) {
+      String owner = fanOut ? clusterRouter.ownerOfPayment(id) : clusterRouter.getSelf();
+      if (owner.equals(clusterRouter.getSelf())) {
+        local.add(id);
+      } else {
+        remote.computeIfAbsent(owner, node -> new ArrayList<>()).add(id);
+      }
+    }
+    List<CompletableFuture<PaymentLookupResponseDto>> peers = new ArrayList<>();
+    remote.forEach((node, owned) -> peers.add(clusterRouter.lookup(node, owned)));
+
+    Map<UUID, PaymentResponseDto> found = new HashMap<>();
+    paymentsRepository.getAll(local)
+        .forEach((id, payment) -> found.put(id, toResponseDto(payment)));
+    for (CompletableFuture<PaymentLookupResponseDto> peer : peers) {
+      try {
+        peer.join().getPayments().forEach(payment -> found.put(payment.getId(), payment));
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+    paymentTracer.annotate(null, null, found.size() == requested.size() ? "found" : "partial");
+
+    List<PaymentResponseDto> payments = new ArrayList<>(found.size());
+    List<UUID> missing = new ArrayList<>(requested.size() - found.size());
+    for (UUID id : requested) {
+      PaymentResponseDto payment = found.get(id);
+      if (payment != null) {
+        payments.add(payment);
+      } else {
+        missing.add(id);
+      }
+    }
+    PaymentLookupResponseDto response = new PaymentLookupResponseDto();
+    response.setPayments(payments);
+    response.setMissing(missing);
+    return response;
   }
 
   public CreatePaymentResponseDto processPayment(String idempotencyKey, CreatePaymentRequest request) {
-    LOG.info("Payment processing requested, idempotencyKey={}", idempotencyKey);
+    paymentEventLogger.log(PaymentLogEventType.PROCESSING_REQUESTED, null, idempotencyKey);
+    paymentTracer.annotate(null, idempotencyKey, null);
+    PaymentPhaseEvent phase = paymentTracer.begin(PaymentStep.IDEMPOTENCY_LOOKUP);
     CreatePaymentResponseDto existing = idempotencyStore.get(idempotencyKey);
+    paymentTracer.end(phase, existing == null ? null : existing.getId(),
+        existing == null ? "miss" : "hit");
+    paymentMetrics.recordIdempotencyLookup(existing != null);
     if (existing != null) {
-      LOG.info("Payment duplicate detected, idempotencyKey={}, paymentId={}", idempotencyKey, existing.getId());
+      if (existing.getStatus() == PaymentStatusDto.PENDING) {
+        existing = refresh(idempotencyKey, existing);
+      }
+      paymentTracer.annotate(existing.getId(), null, "duplicate");
+      paymentEventLogger.log(PaymentLogEventType.DUPLICATE_DETECTED, existing.getId(), idempotencyKey);
       return existing;
     }
 
@@ -62,37 +168,67 @@ public class PaymentGatewayService {
         request.getCardNumber().substring(request.getCardNumber().length() - 4));
 
     // Step 1: Save payment as PENDING
-    CreatePaymentResponseDto responseDto = buildCreatePaymentResponseWithPendingStatus(request, lastFourDigitsOfTheCardNumber);
-    PaymentResponse storedPaymentResponse = buildPendingPaymentResponse(request, responseDto, lastFourDigitsOfTheCardNumber);
-    paymentsRepository.add(storedPaymentResponse);
+    CreatePaymentResponseDto responseDto = buildCreatePaymentResponseWithPendingStatus(
+        nextPaymentId(), request, lastFourDigitsOfTheCardNumber);
+    paymentTracer.annotate(responseDto.getId(), null, null);
+    phase = paymentTracer.begin(PaymentStep.BIN_LOOKUP);
+    BinInfo bin = binIndex.lookup(request.getCardNumber());
+    paymentTracer.end(phase, responseDto.getId(), bin == null ? "miss" : "hit");
+    PaymentRecord pending = PaymentRecord.pending(responseDto.getId(),
+        Currency.valueOf(request.getCurrency()), request.getAmount(),
+        lastFourDigitsOfTheCardNumber, request.getExpiryMonth(), request.getExpiryYear(), bin);
+    phase = paymentTracer.begin(PaymentStep.PENDING_PERSIST);
+    paymentsRepository.add(pending);
+    HashedTimingWheel.Timeout deadline = pendingPaymentSweeper.track(pending.getId());
+    paymentAggregates.created(pending);
+    paymentTracer.end(phase, responseDto.getId(), null);
+    paymentEventBus.publish(PaymentEventType.CREATED, pending, idempotencyKey, null);
 
+    AcquiringBankRequest acquiringBankRequest = buildAcquiringBankRequest(request, bin);
+    acquiringBankRequest.setPaymentId(pending.getId());
     try {
       // Step 2: Call the bank
-      AcquiringBankRequest acquiringBankRequest = buildAcquiringBankRequest(request);
-      AcquiringBankResponse acquiringBankResponse = acquiringBankClient.requestPayment(acquiringBankRequest);
+      AcquiringBankResponse acquiringBankResponse = callBank(responseDto.getId(),
+          acquiringBankRequest);
       PaymentStatus status = acquiringBankResponse != null && acquiringBankResponse.isAuthorized()
           ? PaymentStatus.AUTHORIZED
           : PaymentStatus.DECLINED;
 
-      // Step 3: Update stored payment with final status
-      if (acquiringBankResponse != null) {
-        storedPaymentResponse.setAuthorizationCode(acquiringBankResponse.getAuthorizationCode());
-        storedPaymentResponse.setAuthorized(acquiringBankResponse.isAuthorized());
-      }
-      storedPaymentResponse.setStatus(status);
-      paymentsRepository.update(storedPaymentResponse);
+      // Step 3: Move the stored payment from PENDING to its final status
+      phase = paymentTracer.begin(PaymentStep.FINAL_UPDATE);
+      PaymentRecord completed = settle(pending, status,
+          acquiringBankResponse != null ? acquiringBankResponse.getAuthorizationCode() : null);
+      deadline.cancel();
+      paymentTracer.end(phase, responseDto.getId(), status.getName().toLowerCase(Locale.ROOT));
+      paymentTracer.annotate(null, null, status.getName().toLowerCase(Locale.ROOT));
+      paymentMetrics.recordPayment(status, responseDto.getCurrency());
+      paymentEventBus.publish(status == PaymentStatus.AUTHORIZED ? PaymentEventType.AUTHORIZED
+          : PaymentEventType.DECLINED, completed, idempotencyKey, null);
 
       responseDto.setStatus(status == PaymentStatus.AUTHORIZED ? PaymentStatusDto.AUTHORIZED : PaymentStatusDto.DECLINED);
       idempotencyStore.put(idempotencyKey, responseDto);
-      LOG.info("Payment processed, paymentId={}, status={}, amount={}, currency={}, cardLastFour={}, idempotencyKey={}",
-          responseDto.getId(), status, responseDto.getAmount(), responseDto.getCurrency(),
-          responseDto.getCardNumberLastFour(), idempotencyKey);
+      paymentEventLogger.log(PaymentLogEventType.PROCESSED, responseDto.getId(), status,
+          responseDto.getAmount(), responseDto.getCurrency(), idempotencyKey);
       return responseDto;
     } catch (Exception e) {
-      // Step 4: Compensate — remove the PENDING payment
-      LOG.error("Payment failed, paymentId={}, idempotencyKey={}, reason=bank_error",
-          storedPaymentResponse.getId(), idempotencyKey, e);
-      paymentsRepository.remove(storedPaymentResponse.getId());
+      paymentEventLogger.logFailure(PaymentLogEventType.FAILED, pending.getId(),
+          idempotencyKey, e);
+      if (isAmbiguous(e)) {
+        deadline.cancel();
+        return hold(pending, acquiringBankRequest, idempotencyKey, responseDto, e);
+      }
+      // Step 4: Compensate — remove the PENDING payment, unless another writer has moved it on
+      phase = paymentTracer.begin(PaymentStep.COMPENSATION);
+      boolean removed = paymentsRepository.remove(pending);
+      deadline.cancel();
+      paymentTracer.end(phase, responseDto.getId(), e.getClass().getSimpleName());
+      paymentTracer.annotate(null, null, "compensated");
+      paymentMetrics.recordPayment(PaymentStatus.DECLINED, responseDto.getCurrency());
+      if (removed) {
+        paymentAggregates.removed(pending);
+        paymentEventBus.publish(PaymentEventType.COMPENSATED, pending, idempotencyKey,
+            e.getClass().getSimpleName());
+      }
 
       responseDto.setStatus(PaymentStatusDto.DECLINED);
       idempotencyStore.put(idempotencyKey, responseDto);
@@ -100,36 +236,140 @@ public class PaymentGatewayService {
     }
   }
 
+  // Step 4, when the bank may have authorized the payment: rather than compensate, keep it as
+  // UNKNOWN and hand the request that was sent to the reconciler, which replays it to learn the
+  // outcome. The merchant is told the payment is pending; a retry with the same key reads the
+  // outcome once it is known.
+  private CreatePaymentResponseDto hold(PaymentRecord pending, AcquiringBankRequest sent,
+      String idempotencyKey, CreatePaymentResponseDto responseDto, Exception cause) {
+    PaymentPhaseEvent phase = paymentTracer.begin(PaymentStep.FINAL_UPDATE);
+    PaymentRecord unknown;
+    try {
+      unknown = paymentsRepository.transition(pending, PaymentStatus.UNKNOWN, null);
+      paymentAggregates.transitioned(pending, PaymentStatus.UNKNOWN);
+      paymentEventBus.publish(PaymentEventType.EXPIRED, unknown, idempotencyKey,
+          cause.getClass().getSimpleName());
+    } catch (StalePaymentException e) {
+      // The sweeper got there first.
+      unknown = paymentsRepository.get(pending.getId()).orElseThrow(() -> e);
+    }
+    boolean queued = bankReconciler.submit(unknown, sent, idempotencyKey);
+    paymentTracer.end(phase, responseDto.getId(), "unknown");
+    paymentTracer.annotate(null, null, queued ? "reconciling" : "unknown");
+
+    responseDto.setStatus(PaymentStatusDto.PENDING);
+    idempotencyStore.put(idempotencyKey, responseDto);
+    paymentEventLogger.log(PaymentLogEventType.PROCESSED, responseDto.getId(),
+        PaymentStatus.UNKNOWN, responseDto.getAmount(), responseDto.getCurrency(), idempotencyKey);
+    return responseDto;
+  }
+
+  // A pending answer is brought up to date from the store, without calling the bank again. Other
+  // retries may be serializing the stored answer, so a settled copy replaces it instead.
+  private CreatePaymentResponseDto refresh(String idempotencyKey,
+      CreatePaymentResponseDto pending) {
+    return paymentsRepository.get(pending.getId())
+        .filter(payment -> payment.getStatus().isSettled())
+        .map(payment -> {
+          CreatePaymentResponseDto settled = withStatus(pending,
+              toStatusDto(payment.getStatus()));
+          idempotencyStore.replace(idempotencyKey, pending, settled);
+          return settled;
+        })
+        .orElse(pending);
+  }
+
+  private static CreatePaymentResponseDto withStatus(CreatePaymentResponseDto from,
+      PaymentStatusDto status) {
+    CreatePaymentResponseDto copy = new CreatePaymentResponseDto();
+    copy.setId(from.getId());
+    copy.setStatus(status);
+    copy.setCardNumberLastFour(from.getCardNumberLastFour());
+    copy.setExpiryMonth(from.getExpiryMonth());
+    copy.setExpiryYear(from.getExpiryYear());
+    copy.setCurrency(from.getCurrency());
+    copy.setAmount(from.getAmount());
+    return copy;
+  }
+
+  // Only a failure after the request may have reached the bank is ambiguous. An open breaker, a
+  // refused connection or an error status from the bank all mean nothing was authorized.
+  private static boolean isAmbiguous(Exception e) {
+    return e instanceof ResourceAccessException
+        && !(e.getCause() instanceof ConnectException)
+        && !(e.getCause() instanceof UnknownHostException);
+  }
+
+  // In a cluster, ids are drawn until one hashes to this instance, so a GET by id is routed to the
+  // instance holding the payment. With n equal nodes that takes n draws on average.
+  private UUID nextPaymentId() {
+    UUID id = paymentIdGenerator.next();
+    while (!clusterRouter.ownsPayment(id)) {
+      id = paymentIdGenerator.next();
+    }
+    return id;
+  }
+
+  // The sweeper may have marked a slow payment UNKNOWN meanwhile; the bank's answer still settles
+  // it.
+  private PaymentRecord settle(PaymentRecord pending, PaymentStatus status,
+      String authorizationCode) {
+    PaymentRecord from = pending;
+    PaymentRecord settled;
+    try {
+      settled = paymentsRepository.transition(pending, status, authorizationCode);
+    } catch (StalePaymentException e) {
+      from = paymentsRepository.get(pending.getId()).orElseThrow(() -> e);
+      if (from.getStatus() != PaymentStatus.UNKNOWN) {
+        throw e;
+      }
+      settled = paymentsRepository.transition(from, status, authorizationCode);
+    }
+    paymentAggregates.transitioned(from, status);
+    return settled;
+  }
+
+  private AcquiringBankResponse callBank(UUID paymentId,
+      AcquiringBankRequest acquiringBankRequest) {
+    PaymentPhaseEvent phase = paymentTracer.begin(PaymentStep.BANK_CALL);
+    BankOutcome outcome = BankOutcome.ERROR;
+    try {
+      AcquiringBankResponse response = acquiringBankClient.requestPayment(acquiringBankRequest);
+      outcome = response != null && response.isAuthorized()
+          ? BankOutcome.AUTHORIZED
+          : BankOutcome.DECLINED;
+      return response;
+    } catch (CallNotPermittedException e) {
+      outcome = BankOutcome.CIRCUIT_OPEN;
+      throw e;
+    } finally {
+      long elapsed = paymentTracer.end(phase, paymentId, outcome.getTag());
+      paymentMetrics.recordBankCall(outcome, elapsed);
+    }
+  }
+
   @NonNull
-  private static AcquiringBankRequest buildAcquiringBankRequest(CreatePaymentRequest request) {
+  private static AcquiringBankRequest buildAcquiringBankRequest(CreatePaymentRequest request,
+      BinInfo bin) {
     AcquiringBankRequest acquiringBankRequest = new AcquiringBankRequest();
     acquiringBankRequest.setCardNumber(request.getCardNumber());
     acquiringBankRequest.setExpiryDate(request.getExpiryDate());
     acquiringBankRequest.setCurrency(request.getCurrency());
     acquiringBankRequest.setAmount(request.getAmount());
     acquiringBankRequest.setCvv(request.getCvv());
+    if (bin != null) {
+      acquiringBankRequest.setCardScheme(bin.scheme());
+      acquiringBankRequest.setIssuerCountry(bin.issuerCountry());
+      acquiringBankRequest.setFundingType(bin.fundingType());
+    }
     return acquiringBankRequest;
   }
 
   @NonNull
-  private static PaymentResponse buildPendingPaymentResponse(CreatePaymentRequest request,
-      CreatePaymentResponseDto response, int lastFour) {
-    PaymentResponse stored = new PaymentResponse();
-    stored.setId(response.getId());
-    stored.setStatus(PaymentStatus.PENDING);
-    stored.setCardNumberLastFour(lastFour);
-    stored.setExpiryMonth(request.getExpiryMonth());
-    stored.setExpiryYear(request.getExpiryYear());
-    stored.setCurrency(request.getCurrency());
-    stored.setAmount(request.getAmount());
-    return stored;
-  }
-
-  @NonNull
-  private static CreatePaymentResponseDto buildCreatePaymentResponseWithPendingStatus(CreatePaymentRequest request,
-      int lastFour) {
+  private static CreatePaymentResponseDto buildCreatePaymentResponseWithPendingStatus(UUID id,
+      CreatePaymentRequest request, int lastFour) {
     CreatePaymentResponseDto response = new CreatePaymentResponseDto();
-    response.setId(UUID.randomUUID());
+    response.setId(id);
     response.setCardNumberLastFour(lastFour);
     response.setExpiryMonth(request.getExpiryMonth());
     response.setExpiryYear(request.getExpiryYear());
@@ -137,4 +377,24 @@ public class PaymentGatewayService {
     response.setAmount(request.getAmount());
     return response;
   }
+
+  private static PaymentResponseDto toResponseDto(PaymentRecord payment) {
+    PaymentResponseDto responseDto = new PaymentResponseDto();
+    responseDto.setId(payment.getId());
+    responseDto.setAmount(payment.getAmount());
+    responseDto.setCurrency(payment.getCurrency().name());
+    responseDto.setStatus(toStatusDto(payment.getStatus()));
+    responseDto.setCardNumberLastFour(payment.getCardNumberLastFour());
+    responseDto.setExpiryMonth(payment.getExpiryMonth());
+    responseDto.setExpiryYear(payment.getExpiryYear());
+    return responseDto;
+  }
+
+  private static PaymentStatusDto toStatusDto(PaymentStatus status) {
+    return switch (status) {
+      case AUTHORIZED -> PaymentStatusDto.AUTHORIZED;
+      case PENDING, UNKNOWN -> PaymentStatusDto.PENDING;
+      default -> PaymentStatusDto.DECLINED;
+    };
+  }
 }
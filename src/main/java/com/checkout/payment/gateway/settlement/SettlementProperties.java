@@ -0,0 +1,24 @@
+package com.checkout.payment.gateway.settlement;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * The end-of-day settlement report. With {@code enabled}, the previous UTC day's report is written
+ * to {@code directory} every day at {@code dailyAt} past midnight UTC; it can also be started from
+ * the admin API. The store is read by at most {@code parallelism} threads, in partitions of about
+ * {@code partitionSize} payments, and each partition writes through a buffer of
+ * {@code bufferSize}.
+ */
+@ConfigurationProperties(prefix = "payment.settlement")
+public record SettlementProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("30m") Duration dailyAt,
+    @DefaultValue("data/settlement") Path directory,
+    @DefaultValue("4") int parallelism,
+    @DefaultValue("8192") int partitionSize,
+    @DefaultValue("64KB") DataSize bufferSize) {
+}
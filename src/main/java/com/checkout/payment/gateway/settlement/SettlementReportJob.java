@@ -0,0 +1,345 @@
+package com.checkout.payment.gateway.settlement;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the end-of-day settlement report: every payment of one UTC day that is AUTHORIZED, and a
+ * count and total amount per currency. Payment ids are UUIDv7, so a day's payments are one id
+ * range, which the store hands out as a {@link Spliterator}. A {@link ForkJoinPool} of its own,
+ * capped at {@code parallelism} threads so a report never takes more from the request lanes,
+ * splits the range into partitions of about {@code partitionSize} payments. Each partition tallies
+ * its payments and writes their lines through its own buffer to the shared file channel; the
+ * totals are merged as partitions are joined and written last. Report for a day, in
+ * {@code settlement-<yyyyMMdd>.csv}:
+ * <pre>
+ *   # settlement yyyy-MM-dd UTC
+ *   P,currency,payment id,amount,authorization code    one per authorized payment, in no order
+ *   T,currency,count,amount                            one per currency
+ * </pre>
+ * The file is written under a temporary name and moved into place once complete. In a cluster each
+ * instance reports the payments it stores.
+ */
+@Component
+public class SettlementReportJob {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SettlementReportJob.class);
+  private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+  // Room for the longest line: a 64 character authorization code may take 3 bytes a character.
+  private static final int MAX_LINE_BYTES = 512;
+  // The JDBC column's width. At three UTF-8 bytes a character and every one a doubled quote, a
+  // code this long still fits in a line.
+  private static final int MAX_AUTHORIZATION_CODE_CHARS = 64;
+
+  private final PaymentsRepository paymentsRepository;
+  private final SettlementProperties properties;
+  private final LongSupplier clock;
+  private final ForkJoinPool pool;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicReference<SettlementRun> latest = new AtomicReference<>();
+
+  @Autowired
+  public SettlementReportJob(PaymentsRepository paymentsRepository,
+      SettlementProperties properties) {
+    this(paymentsRepository, properties, System::currentTimeMillis);
+  }
+
+  SettlementReportJob(PaymentsRepository paymentsRepository, SettlementProperties properties,
+      LongSupplier clock) {
+    this.paymentsRepository = paymentsRepository;
+    this.properties = properties;
+    this.clock = clock;
+    this.pool = new ForkJoinPool(properties.parallelism(), SettlementReportJob::worker, null,
+        false);
+    if (!properties.enabled()) {
+      this.scheduler = null;
+      return;
+    }
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "settlement-scheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long delay = Math.floorMod(
+        properties.dailyAt().toMillis() - Math.floorMod(clock.getAsLong(), DAY_MILLIS), DAY_MILLIS);
+    scheduler.scheduleAtFixedRate(this::startPreviousDay, delay, DAY_MILLIS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts the report for {@code day} on the settlement pool and returns its progress. Reports run
+   * one at a time: while another is running, nothing is started and this returns empty.
+   */
+  public Optional<SettlementRun> start(LocalDate day) {
+    SettlementRun previous = latest.get();
+    if (previous != null && previous.getState() == SettlementRun.State.RUNNING) {
+      return Optional.empty();
+    }
+    SettlementRun run = new SettlementRun(day, clock.getAsLong());
+    if (!latest.compareAndSet(previous, run)) {
+      return Optional.empty();
+    }
+    pool.execute(() -> execute(run));
+    return Optional.of(run);
+  }
+
+  /** The running report, or else the last one; empty before the first. */
+  public Optional<SettlementRun> getLatest() {
+    return Optional.ofNullable(latest.get());
+  }
+
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    pool.shutdownNow();
+  }
+
+  private void startPreviousDay() {
+    LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(clock.getAsLong(), DAY_MILLIS) - 1);
+    if (start(day).isEmpty()) {
+      LOG.warn("Settlement report for {} not started, another report is running", day);
+    }
+  }
+
+  private void execute(SettlementRun run) {
+    Path file = properties.directory().resolve(
+        "settlement-" + run.getDay().format(DateTimeFormatter.BASIC_ISO_DATE) + ".csv");
+    Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(properties.directory());
+      try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        Lines header = new Lines(channel);
+        header.ascii("# settlement " + run.getDay() + " UTC\n");
+        header.flush();
+        long dayStart = run.getDay().toEpochDay() * DAY_MILLIS;
+        Spliterator<PaymentRecord> payments = paymentsRepository.scan(
+            PaymentIdGenerator.lowerBound(dayStart),
+            PaymentIdGenerator.lowerBound(dayStart + DAY_MILLIS));
+        run.partitionStarted();
+        Totals totals = new Partition(run, payments, channel).invoke();
+        Lines trailer = new Lines(channel);
+        for (Currency currency : Currency.values()) {
+          trailer.total(currency, totals);
+        }
+        trailer.flush();
+        channel.force(true);
+      }
+      Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      run.completed(file, clock.getAsLong());
+      LOG.info("Settlement report for {} written to {}: {} of {} payments authorized",
+          run.getDay(), file, run.getAuthorized(), run.getScanned());
+    } catch (IOException | RuntimeException e) {
+      run.failed(e, clock.getAsLong());
+      LOG.warn("Settlement report for {} failed", run.getDay(), e);
+      try {
+        Files.deleteIfExists(partial);
+      } catch (IOException ignored) {
+        // The next run for the day truncates it.
+      }
+    }
+  }
+
+  private static ForkJoinWorkerThread worker(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("settlement-" + thread.getPoolIndex());
+    return thread;
+  }
+
+  // Splits off and forks halves until its own part is small enough, reads that, then joins the
+  // forked halves. Stores that cannot estimate their size split as far as they allow.
+  private final class Partition extends RecursiveTask<Totals> {
+
+    private final SettlementRun run;
+    private final Spliterator<PaymentRecord> payments;
+    private final FileChannel channel;
+
+    private Partition(SettlementRun run, Spliterator<PaymentRecord> payments,
+        FileChannel channel) {
+      this.run = run;
+      this.payments = payments;
+      this.channel = channel;
+    }
+
+    @Override
+    protected Totals compute() {
+      List<Partition> forked = new ArrayList<>();
+      Spliterator<PaymentRecord> split;
+      while (payments.estimateSize() > properties.partitionSize()
+          && (split = payments.trySplit()) != null) {
+        Partition partition = new Partition(run, split, channel);
+        run.partitionStarted();
+        partition.fork();
+        forked.add(partition);
+      }
+      Totals totals = settle();
+      for (int i = forked.size() - 1; i >= 0; i--) {
+        totals.add(forked.get(i).join());
+      }
+      return totals;
+    }
+
+    private Totals settle() {
+      Totals totals = new Totals();
+      Lines lines = new Lines(channel);
+      long[] scanned = new long[1];
+      payments.forEachRemaining(payment -> {
+        scanned[0]++;
+        if (payment.getStatus() == PaymentStatus.AUTHORIZED) {
+          totals.add(payment);
+          lines.payment(payment);
+        }
+      });
+      lines.flush();
+      run.partitionDone(scanned[0], totals.authorized());
+      return totals;
+    }
+  }
+
+  private static final class Totals {
+
+    private final long[] counts = new long[Currency.values().length];
+    private final long[] amounts = new long[Currency.values().length];
+
+    private void add(PaymentRecord payment) {
+      counts[payment.getCurrency().ordinal()]++;
+      amounts[payment.getCurrency().ordinal()] += payment.getAmount();
+    }
+
+    private void add(Totals other) {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] += other.counts[i];
+        amounts[i] += other.amounts[i];
+      }
+    }
+
+    private long authorized() {
+      long authorized = 0;
+      for (long count : counts) {
+        authorized += count;
+      }
+      return authorized;
+    }
+  }
+
+  // One partition's write buffer. A flush writes whole lines and holds the channel for the
+  // duration, so lines from different partitions never interleave.
+  private final class Lines {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    private Lines(FileChannel channel) {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocate(
+          Math.max(MAX_LINE_BYTES, (int) properties.bufferSize().toBytes()));
+    }
+
+    private void payment(PaymentRecord payment) {
+      if (buffer.remaining() < MAX_LINE_BYTES) {
+        flush();
+      }
+      buffer.put((byte) 'P').put((byte) ',');
+      ascii(payment.getCurrency().name());
+      buffer.put((byte) ',');
+      ascii(payment.getId().toString());
+      buffer.put((byte) ',');
+      ascii(Integer.toString(payment.getAmount()));
+      buffer.put((byte) ',');
+      if (payment.getAuthorizationCode() != null) {
+        authorizationCode(payment.getAuthorizationCode());
+      }
+      buffer.put((byte) '\n');
+    }
+
+    // Cut to MAX_AUTHORIZATION_CODE_CHARS without splitting a surrogate pair, and quoted as in
+    // RFC 4180 when it holds a comma, a quote or a line break.
+    private void authorizationCode(String code) {
+      if (code.length() > MAX_AUTHORIZATION_CODE_CHARS) {
+        int end = MAX_AUTHORIZATION_CODE_CHARS;
+        if (Character.isHighSurrogate(code.charAt(end - 1))) {
+          end--;
+        }
+        code = code.substring(0, end);
+      }
+      boolean quoted = false;
+      for (int i = 0; i < code.length() && !quoted; i++) {
+        char c = code.charAt(i);
+        quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+      }
+      if (!quoted) {
+        buffer.put(code.getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+      buffer.put((byte) '"');
+      buffer.put(code.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+      buffer.put((byte) '"');
+    }
+
+    private void total(Currency currency, Totals totals) {
+      if (buffer.remaining() < MAX_LINE_BYTES) {
+        flush();
+      }
+      ascii("T," + currency.name() + "," + totals.counts[currency.ordinal()] + ","
+          + totals.amounts[currency.ordinal()] + "\n");
+    }
+
+    private void ascii(String text) {
+      for (int i = 0; i < text.length(); i++) {
+        buffer.put((byte) text.charAt(i));
+      }
+    }
+
+    private void flush() {
+      buffer.flip();
+      try {
+        synchronized (channel) {
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.checkout.payment.gateway.settlement;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one settlement report, updated by the partitions as they finish. The partition count
+ * grows while the store is still being split, so early on it understates the work left.
+ */
+public class SettlementRun {
+
+  public enum State { RUNNING, COMPLETED, FAILED }
+
+  private final LocalDate day;
+  private final long startedAtMillis;
+  private final AtomicInteger partitions = new AtomicInteger();
+  private final AtomicInteger partitionsDone = new AtomicInteger();
+  private final LongAdder scanned = new LongAdder();
+  private final LongAdder authorized = new LongAdder();
+  private final CompletableFuture<Path> report = new CompletableFuture<>();
+  private volatile long finishedAtMillis;
+  private volatile Path file;
+  private volatile String error;
+
+  SettlementRun(LocalDate day, long startedAtMillis) {
+    this.day = day;
+    this.startedAtMillis = startedAtMillis;
+  }
+
+  public LocalDate getDay() {
+    return day;
+  }
+
+  public State getState() {
+    if (!report.isDone()) {
+      return State.RUNNING;
+    }
+    return report.isCompletedExceptionally() ? State.FAILED : State.COMPLETED;
+  }
+
+  public long getStartedAtMillis() {
+    return startedAtMillis;
+  }
+
+  /** When the report was written or failed, or 0 while it runs. */
+  public long getFinishedAtMillis() {
+    return finishedAtMillis;
+  }
+
+  public int getPartitions() {
+    return partitions.get();
+  }
+
+  public int getPartitionsDone() {
+    return partitionsDone.get();
+  }
+
+  /** Payments of the day read so far, in any status. */
+  public long getScanned() {
+    return scanned.sum();
+  }
+
+  /** Of those, the authorized ones, which are the ones reported. */
+  public long getAuthorized() {
+    return authorized.sum();
+  }
+
+  /** The report file once it is written, otherwise null. */
+  public Path getFile() {
+    return file;
+  }
+
+  /** Why the report failed, otherwise null. */
+  public String getError() {
+    return error;
+  }
+
+  /** Completes with the report file once it is written. */
+  public CompletableFuture<Path> getReport() {
+    return report;
+  }
+
+  void partitionStarted() {
+    partitions.incrementAndGet();
+  }
+
+  void partitionDone(long scannedPayments, long authorizedPayments) {
+    scanned.add(scannedPayments);
+    authorized.add(authorizedPayments);
+    partitionsDone.incrementAndGet();
+  }
+
+  void completed(Path file, long now) {
+    this.file = file;
+    finishedAtMillis = now;
+    report.complete(file);
+  }
+
+  void failed(Throwable error, long now) {
+    this.error = String.valueOf(error.getMessage());
+    finishedAtMillis = now;
+    report.completeExceptionally(error);
+  }
+}
@@ -0,0 +1,106 @@
+package com.checkout.payment.gateway.simulator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-JVM port of {@code imposters/bank_simulator.ejs}: a card number ending in an odd digit is
+ * authorized, an even digit is declined, a zero answers 503, and a request missing any field
+ * answers 400. On top of the imposter rules it can add latency drawn from a configurable
+ * distribution, random 503s, and occasional long stalls.
+ *
+ * <p>Like a real acquirer it is idempotent per {@code Idempotency-Key}: once a key has had a 200
+ * answer, a request carrying it again gets that same answer, authorization code included, instead
+ * of a new authorization. The last {@value #REMEMBERED_KEYS} keys are remembered.
+ */
+public class BankSimulator {
+
+  static final List<String> REQUIRED_FIELDS =
+      List.of("card_number", "expiry_date", "currency", "amount", "cvv");
+
+  static final int REMEMBERED_KEYS = 100_000;
+
+  private final BankSimulatorProperties properties;
+  private final Map<String, Map<String, Object>> answered =
+      new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+          return size() > REMEMBERED_KEYS;
+        }
+      };
+
+  public BankSimulator(BankSimulatorProperties properties) {
+    this.properties = properties;
+  }
+
+  public SimulatedBankResponse respond(Map<String, Object> body) {
+    return respond(null, body);
+  }
+
+  // Latency, stalls and random 503s still apply to a replay: it is a request like any other.
+  public SimulatedBankResponse respond(String idempotencyKey, Map<String, Object> body) {
+    SimulatedBankResponse response = evaluate(body);
+    if (idempotencyKey == null || response.statusCode() != 200) {
+      return response;
+    }
+    synchronized (answered) {
+      Map<String, Object> first = answered.putIfAbsent(idempotencyKey, response.body());
+      return first == null ? response
+          : new SimulatedBankResponse(200, first, response.delayNanos());
+    }
+  }
+
+  private SimulatedBankResponse evaluate(Map<String, Object> body) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long delayNanos = sampleLatencyNanos(random);
+    if (properties.stallProbability() > 0 && random.nextDouble() < properties.stallProbability()) {
+      delayNanos += properties.stallDuration().toNanos();
+    }
+    for (String field : REQUIRED_FIELDS) {
+      if (body == null || !body.containsKey(field)) {
+        return new SimulatedBankResponse(400,
+            Map.of("error_message", "Not all required properties were sent in the request"),
+            delayNanos);
+      }
+    }
+    if (properties.errorRate() > 0 && random.nextDouble() < properties.errorRate()) {
+      return new SimulatedBankResponse(503, Map.of(), delayNanos);
+    }
+    String cardNumber = String.valueOf(body.get("card_number"));
+    char lastDigit = cardNumber.isEmpty() ? '0' : cardNumber.charAt(cardNumber.length() - 1);
+    return switch (lastDigit) {
+      case '1', '3', '5', '7', '9' -> new SimulatedBankResponse(200,
+          Map.of("authorized", true, "authorization_code", UUID.randomUUID().toString()),
+          delayNanos);
+      case '2', '4', '6', '8' -> new SimulatedBankResponse(200,
+          Map.of("authorized", false, "authorization_code", ""), delayNanos);
+      case '0' -> new SimulatedBankResponse(503, Map.of(), delayNanos);
+      default -> new SimulatedBankResponse(400,
+          Map.of("errorMessage", "The request supplied is not supported by the simulator"),
+          delayNanos);
+    };
+  }
+
+  long sampleLatencyNanos(ThreadLocalRandom random) {
+    double mean = properties.latencyMean().toNanos();
+    if (mean <= 0) {
+      return 0L;
+    }
+    double sample = switch (properties.latencyDistribution()) {
+      case NONE -> 0;
+      case FIXED -> mean;
+      case UNIFORM -> random.nextDouble(0, 2 * mean);
+      case EXPONENTIAL -> -mean * Math.log(1 - random.nextDouble());
+      case LOG_NORMAL -> {
+        // Pick mu so that the distribution's mean equals latencyMean.
+        double sigma = properties.latencySigma();
+        double mu = Math.log(mean) - sigma * sigma / 2;
+        yield Math.exp(mu + sigma * random.nextGaussian());
+      }
+    };
+    return (long) Math.min(sample, properties.latencyMax().toNanos());
+  }
+}
@@ -0,0 +1,36 @@
+package com.checkout.payment.gateway.simulator;
+
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("bank-simulator")
+@EnableConfigurationProperties(BankSimulatorProperties.class)
+public class BankSimulatorController {
+
+  private final BankSimulator bankSimulator;
+
+  public BankSimulatorController(BankSimulatorProperties properties) {
+    this.bankSimulator = new BankSimulator(properties);
+  }
+
+  @PostMapping("/bank-simulator/payments")
+  public ResponseEntity<Map<String, Object>> requestPayment(
+      @RequestHeader(name = AcquiringBankClient.IDEMPOTENCY_HEADER, required = false)
+      String idempotencyKey,
+      @RequestBody(required = false) Map<String, Object> body) throws InterruptedException {
+    SimulatedBankResponse response = bankSimulator.respond(idempotencyKey, body);
+    if (response.delayNanos() > 0) {
+      TimeUnit.NANOSECONDS.sleep(response.delayNanos());
+    }
+    return ResponseEntity.status(response.statusCode()).body(response.body());
+  }
+}
@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.simulator;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank-simulator")
+public record BankSimulatorProperties(
+    @DefaultValue("NONE") LatencyDistribution latencyDistribution,
+    @DefaultValue("50ms") Duration latencyMean,
+    @DefaultValue("0.5") double latencySigma,
+    @DefaultValue("2s") Duration latencyMax,
+    @DefaultValue("0") double errorRate,
+    @DefaultValue("0") double stallProbability,
+    @DefaultValue("10s") Duration stallDuration) {
+}
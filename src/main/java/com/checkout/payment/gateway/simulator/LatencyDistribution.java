@@ -0,0 +1,9 @@
+package com.checkout.payment.gateway.simulator;
+
+public enum LatencyDistribution {
+  NONE,
+  FIXED,
+  UNIFORM,
+  EXPONENTIAL,
+  LOG_NORMAL
+}
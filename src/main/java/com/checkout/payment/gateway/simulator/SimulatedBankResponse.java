@@ -0,0 +1,6 @@
+package com.checkout.payment.gateway.simulator;
+
+import java.util.Map;
+
+public record SimulatedBankResponse(int statusCode, Map<String, Object> body, long delayNanos) {
+}
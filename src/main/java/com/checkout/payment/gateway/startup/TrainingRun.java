@@ -0,0 +1,76 @@
+package com.checkout.payment.gateway.startup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Training run for the class-data-sharing archive ({@code ./gradlew cdsArchive}). Once the
+ * context is ready it sends a few requests through the real HTTP stack, so the classes of the
+ * request path (Tomcat, Jackson, validation, the lanes) are loaded and end up in the archive,
+ * then shuts the application down so the JVM can write the archive on exit.
+ *
+ * <p>The flag is read at runtime rather than used as a condition, because AOT processing fixes
+ * bean conditions at build time.
+ */
+@Component
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TrainingRun.class);
+  private static final String PAYMENT = "{\"card_number\":\"2222405343248877\","
+      + "\"expiry_month\":4,\"expiry_year\":2030,\"currency\":\"GBP\",\"amount\":100,"
+      + "\"cvv\":\"123\"}";
+
+  private final boolean enabled;
+
+  public TrainingRun(@Value("${startup.training-run:false}") boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    if (!enabled) {
+      return;
+    }
+    int exitCode = 0;
+    try {
+      int port = ((WebServerApplicationContext) event.getApplicationContext())
+          .getWebServer().getPort();
+      exercise("http://localhost:" + port);
+    } catch (Exception e) {
+      LOG.warn("Training run request failed", e);
+      exitCode = 1;
+    }
+    int status = exitCode;
+    System.exit(SpringApplication.exit(event.getApplicationContext(), () -> status));
+  }
+
+  private static void exercise(String baseUrl) throws Exception {
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    HttpResponse<String> created = client.send(HttpRequest.newBuilder(
+            URI.create(baseUrl + "/payment"))
+        .header("Content-Type", "application/json")
+        .header("Idempotency-Key", UUID.randomUUID().toString())
+        .POST(HttpRequest.BodyPublishers.ofString(PAYMENT))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    LOG.info("Training run POST /payment -> {}", created.statusCode());
+    for (String path : new String[] {"/payment/" + UUID.randomUUID(), "/admin/lanes",
+        "/actuator/health", "/actuator/prometheus"}) {
+      HttpResponse<String> response = client.send(
+          HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+          HttpResponse.BodyHandlers.ofString());
+      LOG.info("Training run GET {} -> {}", path, response.statusCode());
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.checkout.payment.gateway.startup;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.bin.BinIndex;
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Drives synthetic payments through the payment path before the instance reports ready, so
+ * Jackson, validation, the controller, {@code processPayment} and the bank client are
+ * JIT-compiled before real traffic arrives. The payments run through a {@link WarmUpGateway},
+ * separate instances of the live classes with throwaway state and no event log, whose bank is a
+ * {@link WarmUpBank} on the loopback interface; the real bank only gets its pooled connections
+ * opened. They are valid payments sent over HTTP to the gateway's own port, where the
+ * {@link WarmUpEndpoint} hands them to the warm-up gateway, so the servlet stack is warmed too
+ * while nothing is stored, counted, published or logged by the live gateway.
+ *
+ * <p>Runs synchronously on {@link ApplicationStartedEvent}: Spring Boot only switches readiness
+ * to {@code ACCEPTING_TRAFFIC} after the started listeners have returned. Without a real web
+ * server (MockMvc tests) the warm-up is skipped.
+ */
+@Component
+public class WarmUp implements ApplicationListener<ApplicationStartedEvent> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmUp.class);
+  private static final String[] CARD_NUMBERS = {"2222405343248877", "2222405343248112"};
+  private static final int COMPARISON_WINDOW = 100;
+
+  private final boolean enabled;
+  private final int iterations;
+  private final int concurrency;
+  private final Duration maxDuration;
+  private final int bankConnections;
+  private final AcquiringBankClient acquiringBankClient;
+  private final RestTemplate restTemplate;
+  private final ObjectMapper objectMapper;
+  private final BinIndex binIndex;
+  private final WarmUpEndpoint warmUpEndpoint;
+  private volatile int completed;
+
+  public WarmUp(@Value("${warm-up.enabled:true}") boolean enabled,
+      @Value("${warm-up.iterations:2000}") int iterations,
+      @Value("${warm-up.concurrency:4}") int concurrency,
+      @Value("${warm-up.max-duration:60s}") Duration maxDuration,
+      @Value("${warm-up.bank-connections:5}") int bankConnections,
+      AcquiringBankClient acquiringBankClient, RestTemplate restTemplate,
+      ObjectMapper objectMapper, BinIndex binIndex, WarmUpEndpoint warmUpEndpoint) {
+    this.enabled = enabled;
+    this.iterations = iterations;
+    this.concurrency = concurrency;
+    this.maxDuration = maxDuration;
+    this.bankConnections = bankConnections;
+    this.acquiringBankClient = acquiringBankClient;
+    this.restTemplate = restTemplate;
+    this.objectMapper = objectMapper;
+    this.binIndex = binIndex;
+    this.warmUpEndpoint = warmUpEndpoint;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationStartedEvent event) {
+    if (!enabled || !(event.getApplicationContext() instanceof WebServerApplicationContext web)) {
+      return;
+    }
+    AvailabilityChangeEvent.publish(event.getApplicationContext(),
+        ReadinessState.REFUSING_TRAFFIC);
+
+    if (bankConnections > 0) {
+      int opened = acquiringBankClient.preconnect(bankConnections);
+      LOG.info("Pre-opened {}/{} connections to the acquiring bank", opened, bankConnections);
+    }
+    if (iterations <= 0) {
+      return;
+    }
+    long start = System.nanoTime();
+    long[] latencies;
+    try (WarmUpBank bank = WarmUpBank.open(objectMapper);
+        WarmUpGateway gateway = new WarmUpGateway(bank.getUrl(), concurrency, restTemplate,
+            objectMapper, binIndex)) {
+      String token = warmUpEndpoint.open(gateway);
+      try {
+        latencies = drive(token, "http://localhost:" + web.getWebServer().getPort()
+            + "/internal/warm-up/payment");
+      } finally {
+        warmUpEndpoint.close();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    report(latencies, System.nanoTime() - start);
+  }
+
+  /** Payments the last warm-up completed. */
+  int getCompleted() {
+    return completed;
+  }
+
+  private long[] drive(String token, String paymentUrl) {
+    long[] latencies = new long[iterations];
+    AtomicInteger next = new AtomicInteger();
+    long deadline = System.nanoTime() + maxDuration.toNanos();
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    for (int t = 0; t < concurrency; t++) {
+      executor.execute(() -> {
+        int i;
+        while ((i = next.getAndIncrement()) < iterations && System.nanoTime() < deadline) {
+          try {
+            latencies[i] = iterate(client, token, paymentUrl, i);
+          } catch (Exception e) {
+            latencies[i] = -1;
+            LOG.debug("Warm-up payment {} failed", i, e);
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(maxDuration.toMillis() + 5_000, TimeUnit.MILLISECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    return latencies;
+  }
+
+  // One authorized or declined payment, from its JSON body to its JSON answer, and its retrieval.
+  private long iterate(HttpClient client, String token, String paymentUrl, int i)
+      throws Exception {
+    String body = "{\"card_number\":\"" + CARD_NUMBERS[i % CARD_NUMBERS.length]
+        + "\",\"expiry_month\":4,\"expiry_year\":2030,\"currency\":\"GBP\",\"amount\":"
+        + (1 + i % 10_000) + ",\"cvv\":\"123\"}";
+    long start = System.nanoTime();
+    HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(paymentUrl))
+        .header("Content-Type", "application/json")
+        .header("Idempotency-Key", "warm-up-" + i)
+        .header(WarmUpEndpoint.TOKEN_HEADER, token)
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    if (created.statusCode() != 200) {
+      throw new IllegalStateException("Warm-up payment answered " + created.statusCode());
+    }
+    long latency = System.nanoTime() - start;
+    CreatePaymentResponseDto payment =
+        objectMapper.readValue(created.body(), CreatePaymentResponseDto.class);
+    client.send(HttpRequest.newBuilder(URI.create(paymentUrl + "/" + payment.getId()))
+        .header(WarmUpEndpoint.TOKEN_HEADER, token)
+        .GET()
+        .build(), HttpResponse.BodyHandlers.discarding());
+    return latency;
+  }
+
+  private void report(long[] latencies, long elapsedNanos) {
+    long[] completed = Arrays.stream(latencies).filter(latency -> latency > 0).toArray();
+    this.completed = completed.length;
+    if (completed.length < 2 * COMPARISON_WINDOW) {
+      LOG.info("Warm-up finished after {} ms with {} payments", elapsedNanos / 1_000_000,
+          completed.length);
+      return;
+    }
+    LOG.info("Warm-up finished after {} ms with {} payments; mean payment latency {} us for the "
+            + "first {}, {} us for the last {}", elapsedNanos / 1_000_000, completed.length,
+        meanMicros(completed, 0), COMPARISON_WINDOW,
+        meanMicros(completed, completed.length - COMPARISON_WINDOW), COMPARISON_WINDOW);
+  }
+
+  private static long meanMicros(long[] latencies, int from) {
+    return Arrays.stream(latencies, from, from + COMPARISON_WINDOW).sum()
+        / COMPARISON_WINDOW / 1_000;
+  }
+}
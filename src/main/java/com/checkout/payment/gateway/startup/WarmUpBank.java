@@ -0,0 +1,76 @@
+package com.checkout.payment.gateway.startup;
+
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
+import com.checkout.payment.gateway.model.AcquiringBankResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/**
+ * Stub acquiring bank used only while {@link WarmUp} runs. It is a JDK HTTP server of its own,
+ * bound to the loopback address on an ephemeral port and stopped when the warm-up ends, so it is
+ * never reachable through the gateway's port or from another host. Same rule as the bank
+ * simulator: an odd last card digit is authorized.
+ */
+final class WarmUpBank implements AutoCloseable {
+
+  private static final String PATH = "/payments";
+
+  private final ObjectMapper objectMapper;
+  private final HttpServer server;
+
+  private WarmUpBank(ObjectMapper objectMapper, HttpServer server) {
+    this.objectMapper = objectMapper;
+    this.server = server;
+  }
+
+  static WarmUpBank open(ObjectMapper objectMapper) {
+    try {
+      HttpServer server = HttpServer.create(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      WarmUpBank bank = new WarmUpBank(objectMapper, server);
+      server.createContext(PATH, bank::authorize);
+      server.start();
+      return bank;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not start the warm-up bank", e);
+    }
+  }
+
+  String getUrl() {
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getHostString() + ":" + address.getPort() + PATH;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void authorize(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      AcquiringBankRequest request;
+      try (InputStream body = exchange.getRequestBody()) {
+        request = objectMapper.readValue(body, AcquiringBankRequest.class);
+      }
+      String cardNumber = request.getCardNumber();
+      boolean authorized = (cardNumber.charAt(cardNumber.length() - 1) - '0') % 2 == 1;
+      AcquiringBankResponse response = new AcquiringBankResponse();
+      response.setAuthorized(authorized);
+      response.setAuthorizationCode(authorized ? UUID.randomUUID().toString() : "");
+      byte[] json = objectMapper.writeValueAsBytes(response);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, json.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(json);
+      }
+    }
+  }
+}
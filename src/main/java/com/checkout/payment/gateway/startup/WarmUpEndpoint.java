@@ -0,0 +1,90 @@
+package com.checkout.payment.gateway.startup;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentResponseDto;
+import com.checkout.payment.gateway.model.CreatePaymentRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Lets {@link WarmUp} send valid payments through the real servlet stack: Tomcat, the
+ * dispatcher, the message converters and bean validation handle them as they would
+ * {@code POST /payment} and {@code GET /payment/{id}}, but they are processed by the current
+ * {@link WarmUpGateway} against its stub bank. The endpoint only exists while a warm-up runs,
+ * for loopback callers sending that run's {@value #TOKEN_HEADER}; any other request gets a 404
+ * from {@link #guard()} before its body is read.
+ */
+@RestController
+@RequestMapping("/internal/warm-up")
+public class WarmUpEndpoint {
+
+  static final String TOKEN_HEADER = "Warm-Up-Token";
+
+  private volatile Run run;
+
+  @PostMapping("/payment")
+  public CompletableFuture<ResponseEntity<CreatePaymentResponseDto>> createPayment(
+      @RequestHeader("Idempotency-Key") String idempotencyKey,
+      @Valid @RequestBody CreatePaymentRequest createPaymentRequest) {
+    return run.gateway().create(idempotencyKey, createPaymentRequest);
+  }
+
+  @GetMapping("/payment/{id}")
+  public CompletableFuture<ResponseEntity<PaymentResponseDto>> getPayment(@PathVariable UUID id) {
+    return run.gateway().get(id);
+  }
+
+  /** Answers 404 to every request the current warm-up did not send. */
+  public HandlerInterceptor guard() {
+    return new HandlerInterceptor() {
+      @Override
+      public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+          Object handler) {
+        Run current = run;
+        if (current == null || !current.token().equals(request.getHeader(TOKEN_HEADER))
+            || !isLoopback(request.getRemoteAddr())) {
+          response.setStatus(HttpStatus.NOT_FOUND.value());
+          return false;
+        }
+        return true;
+      }
+    };
+  }
+
+  // Returns the token the warm-up's requests must carry.
+  String open(WarmUpGateway gateway) {
+    Run opened = new Run(gateway, UUID.randomUUID().toString());
+    run = opened;
+    return opened.token();
+  }
+
+  void close() {
+    run = null;
+  }
+
+  private static boolean isLoopback(String address) {
+    try {
+      return InetAddress.getByName(address).isLoopbackAddress();
+    } catch (UnknownHostException e) {
+      return false;
+    }
+  }
+
+  private record Run(WarmUpGateway gateway, String token) {
+  }
+}
@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.startup;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentResponseDto;
+import com.checkout.payment.gateway.bin.BinIndex;
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.client.BankCircuitBreakers;
+import com.checkout.payment.gateway.client.BankPartitioning;
+import com.checkout.payment.gateway.cluster.ClusterProperties;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.controller.PaymentGatewayController;
+import com.checkout.payment.gateway.events.FullPolicy;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.WaitStrategy;
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.execution.SaturationPolicy;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.CreatePaymentRequest;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.ratelimit.RateLimitProperties;
+import com.checkout.payment.gateway.reconciliation.BankReconciler;
+import com.checkout.payment.gateway.reconciliation.ReconciliationProperties;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.service.IdempotencyProperties;
+import com.checkout.payment.gateway.service.IdempotencyStore;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.sweeper.PendingPaymentSweeper;
+import com.checkout.payment.gateway.sweeper.SweeperProperties;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import com.checkout.payment.gateway.tracing.SlowPaymentRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The payment path {@link WarmUp} drives: the live gateway's controller, lane, tracer, service
+ * and bank client classes, as instances of their own. They share nothing with the live gateway
+ * that a payment changes: the store, idempotency keys, meters, slow-payment recorder, aggregates,
+ * circuit breakers and lanes are throwaway, events have no subscribers, the sweeper, the
+ * reconciler and the rate limiter are off, the event logger logs nothing, and the bank client
+ * points at the {@link WarmUpBank}. So warm-up payments need no special casing in the live code,
+ * and are gone with this object. Only the stateless parts are shared: the bank's
+ * {@link RestTemplate}, the object mapper and the BIN index.
+ */
+final class WarmUpGateway implements AutoCloseable {
+
+  private final ExecutionLane readLane;
+  private final ExecutionLane writeLane;
+  private final PaymentTracer paymentTracer;
+  private final PaymentGatewayController controller;
+
+  WarmUpGateway(String bankUrl, int concurrency, RestTemplate restTemplate,
+      ObjectMapper objectMapper, BinIndex binIndex) {
+    PaymentEventLogger paymentEventLogger = new PaymentEventLogger("off", 1, 1.0);
+    readLane = new ExecutionLane("warm-up-read", concurrency, concurrency,
+        SaturationPolicy.CALLER_RUNS);
+    writeLane = new ExecutionLane("warm-up-write", concurrency, concurrency,
+        SaturationPolicy.CALLER_RUNS);
+    PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry());
+    paymentTracer = new PaymentTracer(paymentMetrics, new SlowPaymentRecorder(10, 1, 250));
+    InMemoryPaymentsRepository paymentsRepository = new InMemoryPaymentsRepository();
+    PaymentEventBus paymentEventBus = new PaymentEventBus(
+        new PaymentEventBusProperties(2, FullPolicy.DROP, WaitStrategy.SLEEPING, Map.of()),
+        List.of());
+    PaymentAggregates paymentAggregates = new PaymentAggregates();
+    AcquiringBankClient acquiringBankClient = new AcquiringBankClient(restTemplate, bankUrl,
+        new BankCircuitBreakers(CircuitBreakerRegistry.ofDefaults(), BankPartitioning.CURRENCY,
+            6, 16));
+    ClusterRouter clusterRouter = new ClusterRouter(new ClusterProperties(false, "warm-up",
+        Map.of(), 1, Duration.ofSeconds(1), Duration.ofSeconds(1)), objectMapper);
+    PaymentGatewayService service = new PaymentGatewayService(paymentsRepository,
+        acquiringBankClient, paymentEventLogger, paymentMetrics, paymentTracer,
+        new PaymentIdGenerator(), binIndex, paymentEventBus, clusterRouter,
+        new PendingPaymentSweeper(new SweeperProperties(false, Duration.ofSeconds(30),
+            Duration.ofMillis(100), 512, 1, 1), paymentsRepository, paymentEventBus,
+            paymentEventLogger, paymentAggregates),
+        paymentAggregates,
+        new BankReconciler(new ReconciliationProperties(false, false, 1, 1,
+            Duration.ofSeconds(1), Duration.ofSeconds(1), 1, Duration.ofSeconds(1),
+            Duration.ofMillis(100), 512), paymentsRepository,
+            acquiringBankClient, paymentEventBus, paymentEventLogger, paymentAggregates,
+            paymentMetrics),
+        new IdempotencyStore(new IdempotencyProperties(Duration.ofMinutes(10), 10_000)));
+    controller = new PaymentGatewayController(service, readLane, writeLane, paymentTracer,
+        clusterRouter, new MerchantRateLimiter(new RateLimitProperties(false, "Merchant-Id", 1, 1,
+            1, Duration.ofMinutes(1), 1, 1, Map.of())));
+  }
+
+  CompletableFuture<ResponseEntity<CreatePaymentResponseDto>> create(String idempotencyKey,
+      CreatePaymentRequest request) {
+    return controller.createPostPayment(idempotencyKey, request,
+        paymentTracer.start("POST /payment"));
+  }
+
+  CompletableFuture<ResponseEntity<PaymentResponseDto>> get(UUID id) {
+    return controller.getPaymentEventById(id, paymentTracer.start("GET /payment/{id}"));
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    readLane.close();
+    writeLane.close();
+  }
+}
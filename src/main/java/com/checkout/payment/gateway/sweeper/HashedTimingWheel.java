@@ -0,0 +1,197 @@
+package com.checkout.payment.gateway.sweeper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed timing wheel (Varghese and Lauck): {@code wheelSize} buckets, one per tick, each a
+ * doubly linked list of the timeouts due on that tick modulo the wheel. Scheduling links a timeout
+ * into one bucket and cancelling unlinks it, both O(1) under that bucket's lock only, so request
+ * threads rarely meet. A tick visits just one bucket; timeouts further away than one turn of the
+ * wheel stay in it until their own tick comes round. Deadlines are rounded up to whole ticks, so a
+ * timeout fires up to one tick late, never early.
+ *
+ * <p>One thread, started with the wheel, advances it and hands each due payload to
+ * {@code onExpired}, which should be quick.
+ */
+public final class HashedTimingWheel<T> implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+  private final long tickNanos;
+  private final Bucket[] buckets;
+  private final int mask;
+  private final Consumer<T> onExpired;
+  private final LongAdder outstanding = new LongAdder();
+  private final List<Timeout> due = new ArrayList<>();
+  private final Thread thread;
+  private volatile long elapsedTicks;
+  private volatile boolean running = true;
+
+  public HashedTimingWheel(String name, Duration tickDuration, int wheelSize,
+      Consumer<T> onExpired) {
+    this(name, tickDuration, wheelSize, onExpired, true);
+  }
+
+  HashedTimingWheel(String name, Duration tickDuration, int wheelSize, Consumer<T> onExpired,
+      boolean start) {
+    if (Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+    }
+    this.tickNanos = tickDuration.toNanos();
+    this.buckets = new Bucket[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      buckets[i] = new Bucket();
+    }
+    this.mask = wheelSize - 1;
+    this.onExpired = onExpired;
+    this.thread = new Thread(this::run, name);
+    this.thread.setDaemon(true);
+    if (start) {
+      thread.start();
+    }
+  }
+
+  /** Hands {@code payload} to {@code onExpired} once {@code delay} has passed, unless cancelled. */
+  public Timeout schedule(T payload, Duration delay) {
+    long ticks = Math.max(1, (delay.toNanos() + tickNanos - 1) / tickNanos);
+    Timeout timeout = new Timeout(this, payload);
+    while (true) {
+      long target = elapsedTicks + ticks;
+      Bucket bucket = buckets[(int) (target & mask)];
+      synchronized (bucket) {
+        // The wheel reached the target while this thread was descheduled: aim again.
+        if (elapsedTicks >= target) {
+          continue;
+        }
+        timeout.tick = target;
+        timeout.bucket = bucket;
+        bucket.link(timeout);
+      }
+      outstanding.increment();
+      return timeout;
+    }
+  }
+
+  /** Timeouts scheduled and neither fired nor cancelled yet. */
+  public long size() {
+    return outstanding.sum();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(thread);
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  /** Moves the wheel on by one tick and fires everything due on it. */
+  @SuppressWarnings("unchecked")
+  void tick() {
+    long current = elapsedTicks + 1;
+    Bucket bucket = buckets[(int) (current & mask)];
+    synchronized (bucket) {
+      Timeout timeout = bucket.head;
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        if (timeout.tick <= current) {
+          bucket.unlink(timeout);
+          timeout.bucket = null;
+          due.add(timeout);
+        }
+        timeout = next;
+      }
+      elapsedTicks = current;
+    }
+    outstanding.add(-due.size());
+    for (Timeout timeout : due) {
+      try {
+        onExpired.accept((T) timeout.payload);
+      } catch (RuntimeException e) {
+        LOG.warn("Timeout callback failed for {}", timeout.payload, e);
+      }
+    }
+    due.clear();
+  }
+
+  private void run() {
+    long start = System.nanoTime();
+    while (running) {
+      long wait = start + (elapsedTicks + 1) * tickNanos - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(this, wait);
+      } else {
+        tick();
+      }
+    }
+  }
+
+  /** A scheduled callback; {@link #cancel()} it once the thing it guards has happened. */
+  public static final class Timeout {
+
+    /** A timeout that was never scheduled, for callers with tracking turned off. */
+    public static final Timeout NONE = new Timeout(null, null);
+
+    private final HashedTimingWheel<?> wheel;
+    private final Object payload;
+    private long tick;
+    private volatile Bucket bucket;
+    private Timeout previous;
+    private Timeout next;
+
+    private Timeout(HashedTimingWheel<?> wheel, Object payload) {
+      this.wheel = wheel;
+      this.payload = payload;
+    }
+
+    /** Returns false if the timeout already fired or was cancelled. */
+    public boolean cancel() {
+      Bucket current = bucket;
+      if (current == null) {
+        return false;
+      }
+      synchronized (current) {
+        if (bucket != current) {
+          return false;
+        }
+        current.unlink(this);
+        bucket = null;
+      }
+      wheel.outstanding.decrement();
+      return true;
+    }
+  }
+
+  private static final class Bucket {
+
+    private Timeout head;
+
+    private void link(Timeout timeout) {
+      timeout.next = head;
+      if (head != null) {
+        head.previous = timeout;
+      }
+      head = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+      if (timeout.previous == null) {
+        head = timeout.next;
+      } else {
+        timeout.previous.next = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.previous = timeout.previous;
+      }
+      timeout.previous = null;
+      timeout.next = null;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.checkout.payment.gateway.sweeper;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.exception.IllegalPaymentTransitionException;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.logging.PaymentLogEventType;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts a deadline on every PENDING payment. {@code processPayment} arms it when it stores the
+ * payment and cancels it once the payment is settled or compensated, so in the normal case the
+ * deadline never fires. If the request thread stalls or dies mid bank call, it does: the payment id
+ * goes onto a bounded queue, and a single sweeper thread moves payments that are still PENDING to
+ * {@link PaymentStatus#UNKNOWN} and publishes {@code EXPIRED}, so they show up for review instead
+ * of passing as declined forever. The bank API has no status lookup, so the sweeper cannot ask the
+ * bank what happened; a bank answer that arrives late still settles the payment.
+ */
+@Component
+public class PendingPaymentSweeper {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PendingPaymentSweeper.class);
+
+  private final SweeperProperties properties;
+  private final PaymentsRepository paymentsRepository;
+  private final PaymentEventBus paymentEventBus;
+  private final PaymentEventLogger paymentEventLogger;
+  private final PaymentAggregates paymentAggregates;
+  private final HashedTimingWheel<UUID> wheel;
+  private final BlockingQueue<UUID> expired;
+  private final Thread thread;
+  private final LongAdder marked = new LongAdder();
+  private volatile boolean running = true;
+
+  public PendingPaymentSweeper(SweeperProperties properties, PaymentsRepository paymentsRepository,
+      PaymentEventBus paymentEventBus, PaymentEventLogger paymentEventLogger,
+      PaymentAggregates paymentAggregates) {
+    this.properties = properties;
+    this.paymentsRepository = paymentsRepository;
+    this.paymentEventBus = paymentEventBus;
+    this.paymentEventLogger = paymentEventLogger;
+    this.paymentAggregates = paymentAggregates;
+    if (!properties.enabled()) {
+      this.wheel = null;
+      this.expired = null;
+      this.thread = null;
+      return;
+    }
+    this.expired = new ArrayBlockingQueue<>(properties.queueCapacity());
+    this.wheel = new HashedTimingWheel<>("payment-deadlines", properties.tickDuration(),
+        properties.wheelSize(), this::onExpired);
+    this.thread = new Thread(this::run, "payment-sweeper");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /** Arms the deadline of a payment just stored as PENDING. */
+  public HashedTimingWheel.Timeout track(UUID paymentId) {
+    return wheel == null ? HashedTimingWheel.Timeout.NONE
+        : wheel.schedule(paymentId, properties.deadline());
+  }
+
+  /** PENDING payments whose deadline is armed. */
+  public long getOutstanding() {
+    return wheel == null ? 0 : wheel.size();
+  }
+
+  /** Payments moved to UNKNOWN because their deadline passed. */
+  public long getMarked() {
+    return marked.sum();
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    if (wheel == null) {
+      return;
+    }
+    running = false;
+    wheel.close();
+    thread.interrupt();
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  // Runs on the wheel's thread: never block it, re-arm for the next tick if the queue is full.
+  private void onExpired(UUID paymentId) {
+    if (!expired.offer(paymentId)) {
+      wheel.schedule(paymentId, properties.tickDuration());
+    }
+  }
+
+  private void run() {
+    List<UUID> batch = new ArrayList<>(properties.batchSize());
+    while (running) {
+      try {
+        batch.add(expired.take());
+      } catch (InterruptedException e) {
+        continue;
+      }
+      expired.drainTo(batch, properties.batchSize() - 1);
+      for (UUID paymentId : batch) {
+        try {
+          sweep(paymentId);
+        } catch (RuntimeException e) {
+          LOG.warn("Could not sweep payment {}", paymentId, e);
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  void sweep(UUID paymentId) {
+    Optional<PaymentRecord> stored = paymentsRepository.get(paymentId);
+    if (stored.isEmpty() || stored.get().getStatus() != PaymentStatus.PENDING) {
+      return;
+    }
+    PaymentRecord unknown;
+    try {
+      unknown = paymentsRepository.transition(stored.get(), PaymentStatus.UNKNOWN, null);
+    } catch (StalePaymentException | IllegalPaymentTransitionException e) {
+      // The request thread settled or compensated it after all.
+      return;
+    }
+    paymentAggregates.transitioned(stored.get(), PaymentStatus.UNKNOWN);
+    marked.increment();
+    paymentEventLogger.log(PaymentLogEventType.EXPIRED, paymentId, PaymentStatus.UNKNOWN,
+        unknown.getAmount(), unknown.getCurrency().name(), null);
+    paymentEventBus.publish(PaymentEventType.EXPIRED, unknown, null, "deadline");
+  }
+}
@@ -0,0 +1,21 @@
+package com.checkout.payment.gateway.sweeper;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * A payment still PENDING {@code deadline} after it was stored is handed to the sweeper. The
+ * deadline should sit well beyond the bank call's own timeouts, so only payments whose request
+ * thread is stuck or gone are swept. At most {@code queueCapacity} expired payments wait for the
+ * sweeper thread; beyond that they are re-armed for another tick.
+ */
+@ConfigurationProperties(prefix = "payment.sweeper")
+public record SweeperProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("30s") Duration deadline,
+    @DefaultValue("100ms") Duration tickDuration,
+    @DefaultValue("512") int wheelSize,
+    @DefaultValue("10000") int queueCapacity,
+    @DefaultValue("256") int batchSize) {
+}
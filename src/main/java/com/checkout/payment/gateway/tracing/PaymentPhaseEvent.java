@@ -0,0 +1,30 @@
+package com.checkout.payment.gateway.tracing;
+
+import com.checkout.payment.gateway.metrics.PaymentStep;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.checkout.payment.Phase")
+@Label("Payment Phase")
+@Category({"Payment Gateway"})
+@Description("One phase of a payment request, from request binding to the final update")
+@StackTrace(false)
+public class PaymentPhaseEvent extends Event {
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Payment Id")
+  String paymentId;
+
+  @Label("Outcome")
+  String outcome;
+
+  // Transient fields are not recorded by JFR; they carry the timing into PaymentTracer.end.
+  transient PaymentStep step;
+  transient long startNanos;
+}
@@ -0,0 +1,28 @@
+package com.checkout.payment.gateway.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.checkout.payment.Request")
+@Label("Payment Request")
+@Category({"Payment Gateway"})
+@Description("A whole payment request, from the servlet filter to the lane finishing it")
+@StackTrace(false)
+public class PaymentRequestEvent extends Event {
+
+  @Label("Request")
+  String request;
+
+  @Label("Payment Id")
+  String paymentId;
+
+  @Label("Idempotency Key")
+  String idempotencyKey;
+
+  @Label("Outcome")
+  String outcome;
+}
@@ -0,0 +1,85 @@
+package com.checkout.payment.gateway.tracing;
+
+import com.checkout.payment.gateway.metrics.PaymentStep;
+import java.util.UUID;
+
+/**
+ * Per-request phase breakdown. Created by {@link PaymentTraceFilter} on the Tomcat thread and
+ * handed to the execution lane with the task, so it is only ever touched by one thread at a time.
+ */
+public final class PaymentTrace {
+
+  public static final String ATTRIBUTE = "com.checkout.payment.gateway.tracing.PaymentTrace";
+
+  private final String request;
+  private final long startedAtMillis;
+  private final long startNanos;
+  private final long[] stepNanos = new long[PaymentStep.values().length];
+  private final PaymentRequestEvent event;
+  private PaymentPhaseEvent pendingPhase;
+  private UUID paymentId;
+  private String idempotencyKey;
+  private String outcome;
+
+  PaymentTrace(String request, PaymentRequestEvent event, PaymentPhaseEvent pendingPhase) {
+    this.request = request;
+    this.startedAtMillis = System.currentTimeMillis();
+    this.startNanos = System.nanoTime();
+    this.event = event;
+    this.pendingPhase = pendingPhase;
+  }
+
+  void record(PaymentStep step, long nanos) {
+    stepNanos[step.ordinal()] += nanos;
+  }
+
+  long getStepNanos(PaymentStep step) {
+    return stepNanos[step.ordinal()];
+  }
+
+  PaymentPhaseEvent swapPendingPhase(PaymentPhaseEvent next) {
+    PaymentPhaseEvent previous = pendingPhase;
+    pendingPhase = next;
+    return previous;
+  }
+
+  PaymentRequestEvent getEvent() {
+    return event;
+  }
+
+  public String getRequest() {
+    return request;
+  }
+
+  public long getStartedAtMillis() {
+    return startedAtMillis;
+  }
+
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  void setPaymentId(UUID paymentId) {
+    this.paymentId = paymentId;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+  void setOutcome(String outcome) {
+    this.outcome = outcome;
+  }
+}
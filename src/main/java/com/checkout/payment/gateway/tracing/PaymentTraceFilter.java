@@ -0,0 +1,38 @@
+package com.checkout.payment.gateway.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts a {@link PaymentTrace} as early in the servlet pipeline as possible, so the binding
+ * phase covers the other filters, JSON deserialisation and validation.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PaymentTraceFilter extends OncePerRequestFilter {
+
+  private final PaymentTracer paymentTracer;
+  public PaymentTraceFilter(PaymentTracer paymentTracer) {
+    this.paymentTracer = paymentTracer;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith("/payment");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    request.setAttribute(PaymentTrace.ATTRIBUTE,
+        paymentTracer.start(request.getMethod() + " " + request.getRequestURI()));
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,151 @@
+package com.checkout.payment.gateway.tracing;
+
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.PaymentStep;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the phases of a payment request. Every phase is recorded in {@link PaymentMetrics}, added
+ * to the current {@link PaymentTrace} (if the work runs under one) and emitted as a
+ * {@link PaymentPhaseEvent}. JFR fields are only filled in when a recording wants the event, so
+ * with JFR off the cost is one small allocation and a {@code shouldCommit} check per phase.
+ */
+@Component
+public class PaymentTracer {
+
+  private static final ThreadLocal<PaymentTrace> CURRENT = new ThreadLocal<>();
+
+  private final PaymentMetrics paymentMetrics;
+  private final SlowPaymentRecorder slowPaymentRecorder;
+
+  public PaymentTracer(PaymentMetrics paymentMetrics, SlowPaymentRecorder slowPaymentRecorder) {
+    this.paymentMetrics = paymentMetrics;
+    this.slowPaymentRecorder = slowPaymentRecorder;
+  }
+
+  public static UUID currentPaymentId() {
+    PaymentTrace trace = CURRENT.get();
+    return trace == null ? null : trace.getPaymentId();
+  }
+
+  /** Starts a trace at the edge of the servlet pipeline; binding runs until the handler. */
+  public PaymentTrace start(String request) {
+    PaymentRequestEvent event = new PaymentRequestEvent();
+    event.begin();
+    return new PaymentTrace(request, event, begin(PaymentStep.REQUEST_BINDING));
+  }
+
+  /**
+   * Wraps lane work so that it runs under {@code trace}. Ends the binding phase now, on the
+   * calling thread, and times the wait in the lane queue until the returned supplier runs.
+   */
+  public <T> Supplier<T> traced(PaymentTrace trace, Supplier<T> work) {
+    if (trace == null) {
+      return work;
+    }
+    end(trace, trace.swapPendingPhase(begin(PaymentStep.LANE_QUEUE)), null, null);
+    return () -> {
+      end(trace, trace.swapPendingPhase(null), null, null);
+      PaymentTrace previous = CURRENT.get();
+      CURRENT.set(trace);
+      try {
+        return work.get();
+      } catch (RuntimeException e) {
+        if (trace.getOutcome() == null) {
+          trace.setOutcome(e.getClass().getSimpleName());
+        }
+        throw e;
+      } finally {
+        restore(previous);
+        complete(trace);
+      }
+    };
+  }
+
+  /**
+   * Ends a trace whose work never ran, such as a request the lane refused: closes the phase still
+   * open, usually {@code LANE_QUEUE}, and the request event with {@code outcome}.
+   */
+  public void abandon(PaymentTrace trace, String outcome) {
+    PaymentPhaseEvent pending = trace.swapPendingPhase(null);
+    if (pending == null) {
+      return;
+    }
+    end(trace, pending, null, outcome);
+    trace.setOutcome(outcome);
+    complete(trace);
+  }
+
+  public PaymentPhaseEvent begin(PaymentStep step) {
+    PaymentPhaseEvent phase = new PaymentPhaseEvent();
+    phase.step = step;
+    phase.begin();
+    phase.startNanos = System.nanoTime();
+    return phase;
+  }
+
+  /** Ends {@code phase} and returns its duration in nanoseconds. */
+  public long end(PaymentPhaseEvent phase, UUID paymentId, String outcome) {
+    return end(CURRENT.get(), phase, paymentId, outcome);
+  }
+
+  /** Records on the current trace; {@code null} arguments leave the existing value unchanged. */
+  public void annotate(UUID paymentId, String idempotencyKey, String outcome) {
+    PaymentTrace trace = CURRENT.get();
+    if (trace == null) {
+      return;
+    }
+    if (paymentId != null) {
+      trace.setPaymentId(paymentId);
+    }
+    if (idempotencyKey != null) {
+      trace.setIdempotencyKey(idempotencyKey);
+    }
+    if (outcome != null) {
+      trace.setOutcome(outcome);
+    }
+  }
+
+  private long end(PaymentTrace trace, PaymentPhaseEvent phase, UUID paymentId, String outcome) {
+    long nanos = System.nanoTime() - phase.startNanos;
+    paymentMetrics.recordStep(phase.step, nanos);
+    if (trace != null) {
+      trace.record(phase.step, nanos);
+      if (paymentId == null) {
+        paymentId = trace.getPaymentId();
+      }
+    }
+    phase.end();
+    if (phase.shouldCommit()) {
+      phase.phase = phase.step.getTag();
+      phase.paymentId = paymentId == null ? null : paymentId.toString();
+      phase.outcome = outcome;
+      phase.commit();
+    }
+    return nanos;
+  }
+
+  private void complete(PaymentTrace trace) {
+    long totalNanos = System.nanoTime() - trace.getStartNanos();
+    slowPaymentRecorder.offer(trace, totalNanos);
+    PaymentRequestEvent event = trace.getEvent();
+    event.end();
+    if (event.shouldCommit()) {
+      event.request = trace.getRequest();
+      event.paymentId = trace.getPaymentId() == null ? null : trace.getPaymentId().toString();
+      event.idempotencyKey = trace.getIdempotencyKey();
+      event.outcome = trace.getOutcome();
+      event.commit();
+    }
+  }
+
+  private static void restore(PaymentTrace previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
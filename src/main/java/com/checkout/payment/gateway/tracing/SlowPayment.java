@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.tracing;
+
+import java.util.Map;
+import java.util.UUID;
+
+public record SlowPayment(UUID paymentId, String request, String idempotencyKey, String outcome,
+                          long startedAtMillis, long totalNanos, Map<String, Long> phaseNanos) {
+}
@@ -0,0 +1,147 @@
+package com.checkout.payment.gateway.tracing;
+
+import com.checkout.payment.gateway.metrics.PaymentStep;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the full phase breakdown of the slowest payments of each minute, for the last few
+ * minutes. Each minute has a volatile floor: until the minute is full it is the configured
+ * threshold, afterwards the fastest payment kept. Anything at or under the floor is rejected
+ * with two volatile reads, so a healthy gateway never takes the lock or copies a trace.
+ */
+@Component
+public class SlowPaymentRecorder {
+
+  private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final PaymentStep[] STEPS = PaymentStep.values();
+
+  private final int perMinute;
+  private final long thresholdNanos;
+  private final LongSupplier clock;
+  private final Minute[] minutes;
+
+  @Autowired
+  public SlowPaymentRecorder(@Value("${payment.slow-payments.per-minute:10}") int perMinute,
+      @Value("${payment.slow-payments.retained-minutes:15}") int retainedMinutes,
+      @Value("${payment.slow-payments.threshold-millis:250}") long thresholdMillis) {
+    this(perMinute, retainedMinutes, TimeUnit.MILLISECONDS.toNanos(thresholdMillis),
+        System::currentTimeMillis);
+  }
+
+  SlowPaymentRecorder(int perMinute, int retainedMinutes, long thresholdNanos,
+      LongSupplier clock) {
+    this.perMinute = perMinute;
+    this.thresholdNanos = thresholdNanos;
+    this.clock = clock;
+    this.minutes = new Minute[retainedMinutes];
+    for (int i = 0; i < retainedMinutes; i++) {
+      minutes[i] = new Minute(perMinute, thresholdNanos);
+    }
+  }
+
+  public void offer(PaymentTrace trace, long totalNanos) {
+    long minute = clock.getAsLong() / MINUTE_MILLIS;
+    Minute slot = minutes[(int) (minute % minutes.length)];
+    if (slot.minute == minute && totalNanos <= slot.floorNanos) {
+      return;
+    }
+    synchronized (slot) {
+      if (slot.minute != minute) {
+        if (slot.minute > minute) {
+          return;
+        }
+        slot.reset(minute, thresholdNanos);
+      }
+      if (totalNanos > slot.floorNanos) {
+        slot.insert(snapshot(trace, totalNanos));
+      }
+    }
+  }
+
+  /** Slowest payments of the last {@code lastMinutes} minutes, slowest first. */
+  public List<SlowPayment> slowest(int lastMinutes) {
+    long current = clock.getAsLong() / MINUTE_MILLIS;
+    long oldest = current - Math.min(lastMinutes, minutes.length) + 1;
+    List<SlowPayment> result = new ArrayList<>();
+    for (Minute slot : minutes) {
+      synchronized (slot) {
+        if (slot.minute >= oldest && slot.minute <= current) {
+          for (int i = 0; i < slot.size; i++) {
+            result.add(slot.entries[i]);
+          }
+        }
+      }
+    }
+    result.sort(Comparator.comparingLong(SlowPayment::totalNanos).reversed());
+    return result;
+  }
+
+  public int getPerMinute() {
+    return perMinute;
+  }
+
+  private static SlowPayment snapshot(PaymentTrace trace, long totalNanos) {
+    Map<String, Long> phases = new LinkedHashMap<>();
+    for (PaymentStep step : STEPS) {
+      long nanos = trace.getStepNanos(step);
+      if (nanos > 0) {
+        phases.put(step.getTag(), nanos);
+      }
+    }
+    return new SlowPayment(trace.getPaymentId(), trace.getRequest(), trace.getIdempotencyKey(),
+        trace.getOutcome(), trace.getStartedAtMillis(), totalNanos, phases);
+  }
+
+  private static final class Minute {
+
+    private final SlowPayment[] entries;
+    private int size;
+    private volatile long minute = -1;
+    private volatile long floorNanos;
+
+    Minute(int capacity, long thresholdNanos) {
+      this.entries = new SlowPayment[capacity];
+      this.floorNanos = thresholdNanos;
+    }
+
+    void reset(long minute, long thresholdNanos) {
+      Arrays.fill(entries, null);
+      size = 0;
+      floorNanos = thresholdNanos;
+      this.minute = minute;
+    }
+
+    // Capacity is small (tens), so a linear scan for the fastest entry beats keeping a heap.
+    void insert(SlowPayment payment) {
+      if (size < entries.length) {
+        entries[size++] = payment;
+        if (size == entries.length) {
+          floorNanos = entries[fastest()].totalNanos();
+        }
+        return;
+      }
+      entries[fastest()] = payment;
+      floorNanos = entries[fastest()].totalNanos();
+    }
+
+    private int fastest() {
+      int fastest = 0;
+      for (int i = 1; i < size; i++) {
+        if (entries[i].totalNanos() < entries[fastest].totalNanos()) {
+          fastest = i;
+        }
+      }
+      return fastest;
+    }
+  }
+}
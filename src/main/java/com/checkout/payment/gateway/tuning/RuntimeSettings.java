@@ -0,0 +1,105 @@
+package com.checkout.payment.gateway.tuning;
+
+import java.lang.reflect.RecordComponent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The performance controls that can be changed while the gateway runs, as one immutable
+ * snapshot:
+ * <ul>
+ *   <li>the thread counts of the read and write lanes;</li>
+ *   <li>the bank call's connect and read timeouts;</li>
+ *   <li>the bank circuit breakers' thresholds, as in {@code resilience4j.circuitbreaker};</li>
+ *   <li>the bounds of the per-merchant rate limit table and of the breaker partition table;</li>
+ *   <li>the share of info-level payment log events that is kept.</li>
+ * </ul>
+ */
+public record RuntimeSettings(
+    int readLaneThreads,
+    int writeLaneThreads,
+    Duration bankConnectTimeout,
+    Duration bankReadTimeout,
+    float breakerFailureRateThreshold,
+    int breakerMinimumNumberOfCalls,
+    int breakerSlidingWindowSize,
+    Duration breakerWaitDurationInOpenState,
+    int breakerPermittedCallsInHalfOpenState,
+    int rateLimitMaxMerchants,
+    int breakerMaxPartitions,
+    double logSampleRate) {
+
+  static final int MAX_LANE_THREADS = 1024;
+
+  /**
+   * Returns what is wrong with these settings, empty if nothing. The bank call must give up before
+   * {@code sweeperDeadline}, or payments still waiting on the bank would be marked UNKNOWN.
+   */
+  public List<String> validate(Duration sweeperDeadline) {
+    List<String> errors = new ArrayList<>();
+    check(errors, readLaneThreads >= 1 && readLaneThreads <= MAX_LANE_THREADS,
+        "readLaneThreads must be between 1 and " + MAX_LANE_THREADS);
+    check(errors, writeLaneThreads >= 1 && writeLaneThreads <= MAX_LANE_THREADS,
+        "writeLaneThreads must be between 1 and " + MAX_LANE_THREADS);
+    check(errors, isPositive(bankConnectTimeout), "bankConnectTimeout must be positive");
+    check(errors, isPositive(bankReadTimeout), "bankReadTimeout must be positive");
+    check(errors, !isPositive(bankConnectTimeout) || !isPositive(bankReadTimeout)
+            || bankConnectTimeout.plus(bankReadTimeout).compareTo(sweeperDeadline) < 0,
+        "bankConnectTimeout plus bankReadTimeout must be shorter than the sweeper deadline ("
+            + sweeperDeadline.toMillis() + " ms)");
+    check(errors, breakerFailureRateThreshold > 0 && breakerFailureRateThreshold <= 100,
+        "breakerFailureRateThreshold must be above 0 and at most 100");
+    check(errors, breakerMinimumNumberOfCalls >= 1,
+        "breakerMinimumNumberOfCalls must be at least 1");
+    check(errors, breakerSlidingWindowSize >= 1, "breakerSlidingWindowSize must be at least 1");
+    check(errors, breakerWaitDurationInOpenState != null
+            && breakerWaitDurationInOpenState.toMillis() >= 1,
+        "breakerWaitDurationInOpenState must be at least 1 ms");
+    check(errors, breakerPermittedCallsInHalfOpenState >= 1,
+        "breakerPermittedCallsInHalfOpenState must be at least 1");
+    check(errors, rateLimitMaxMerchants >= 1, "rateLimitMaxMerchants must be at least 1");
+    check(errors, breakerMaxPartitions >= 1, "breakerMaxPartitions must be at least 1");
+    check(errors, logSampleRate >= 0 && logSampleRate <= 1,
+        "logSampleRate must be between 0 and 1");
+    return errors;
+  }
+
+  /** The settings that differ from {@code before}, as {@code name -> [before, after]}. */
+  public Map<String, List<Object>> diff(RuntimeSettings before) {
+    Map<String, List<Object>> changed = new LinkedHashMap<>();
+    for (RecordComponent component : RuntimeSettings.class.getRecordComponents()) {
+      try {
+        Object was = component.getAccessor().invoke(before);
+        Object now = component.getAccessor().invoke(this);
+        if (!Objects.equals(was, now)) {
+          changed.put(component.getName(), List.of(was, now));
+        }
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return changed;
+  }
+
+  boolean sameBreakerConfig(RuntimeSettings other) {
+    return breakerFailureRateThreshold == other.breakerFailureRateThreshold
+        && breakerMinimumNumberOfCalls == other.breakerMinimumNumberOfCalls
+        && breakerSlidingWindowSize == other.breakerSlidingWindowSize
+        && breakerWaitDurationInOpenState.equals(other.breakerWaitDurationInOpenState)
+        && breakerPermittedCallsInHalfOpenState == other.breakerPermittedCallsInHalfOpenState;
+  }
+
+  private static boolean isPositive(Duration duration) {
+    return duration != null && !duration.isNegative() && !duration.isZero();
+  }
+
+  private static void check(List<String> errors, boolean valid, String error) {
+    if (!valid) {
+      errors.add(error);
+    }
+  }
+}
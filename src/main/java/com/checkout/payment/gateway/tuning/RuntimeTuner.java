@@ -0,0 +1,191 @@
+package com.checkout.payment.gateway.tuning;
+
+import com.checkout.payment.gateway.audit.AuditTrailWriter;
+import com.checkout.payment.gateway.client.BankCircuitBreakers;
+import com.checkout.payment.gateway.client.BankRequestFactory;
+import com.checkout.payment.gateway.exception.InvalidSettingsException;
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.sweeper.SweeperProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and changes the {@link RuntimeSettings} while the gateway runs. Changes are serialized
+ * and all-or-nothing: a new snapshot is validated as a whole before anything is touched, then
+ * pushed to the components that own each control, and rolled back to the previous snapshot if
+ * one of them fails. Readers always see one complete snapshot. Each component takes its new
+ * value without stopping work in flight:
+ * <ul>
+ *   <li>lanes resize their pools, keeping queued and running tasks;</li>
+ *   <li>bank timeouts apply from the next bank call on;</li>
+ *   <li>circuit breakers are swapped, and a call keeps reporting to the breaker that admitted
+ *       it;</li>
+ *   <li>table bounds and the log sample rate are plain volatile writes.</li>
+ * </ul>
+ * Every applied change is written to the audit trail, and rolled back if it cannot be, then
+ * logged on {@code payment.settings} with who made it and each setting's old and new value. The
+ * last {@value #HISTORY} are kept for {@code /admin/settings/changes}. The settings the gateway
+ * starts with are validated the same way, and an invalid one fails startup.
+ */
+@Component
+public class RuntimeTuner {
+
+  static final int HISTORY = 100;
+
+  private static final Logger AUDIT = LoggerFactory.getLogger("payment.settings");
+
+  private final ExecutionLane readLane;
+  private final ExecutionLane writeLane;
+  private final BankRequestFactory bankRequestFactory;
+  private final BankCircuitBreakers bankCircuitBreakers;
+  private final MerchantRateLimiter merchantRateLimiter;
+  private final PaymentEventLogger paymentEventLogger;
+  private final AuditTrailWriter auditTrailWriter;
+  private final Duration sweeperDeadline;
+  private final LongSupplier clock;
+  private final Deque<SettingsChange> changes = new ArrayDeque<>();
+  private volatile RuntimeSettings current;
+  private long sequence;
+
+  @Autowired
+  public RuntimeTuner(@Qualifier("readLane") ExecutionLane readLane,
+      @Qualifier("writeLane") ExecutionLane writeLane, BankRequestFactory bankRequestFactory,
+      BankCircuitBreakers bankCircuitBreakers, MerchantRateLimiter merchantRateLimiter,
+      PaymentEventLogger paymentEventLogger, AuditTrailWriter auditTrailWriter,
+      SweeperProperties sweeperProperties) {
+    this(readLane, writeLane, bankRequestFactory, bankCircuitBreakers, merchantRateLimiter,
+        paymentEventLogger, auditTrailWriter, sweeperProperties, System::currentTimeMillis);
+  }
+
+  RuntimeTuner(ExecutionLane readLane, ExecutionLane writeLane,
+      BankRequestFactory bankRequestFactory, BankCircuitBreakers bankCircuitBreakers,
+      MerchantRateLimiter merchantRateLimiter, PaymentEventLogger paymentEventLogger,
+      AuditTrailWriter auditTrailWriter, SweeperProperties sweeperProperties,
+      LongSupplier clock) {
+    this.readLane = readLane;
+    this.writeLane = writeLane;
+    this.bankRequestFactory = bankRequestFactory;
+    this.bankCircuitBreakers = bankCircuitBreakers;
+    this.merchantRateLimiter = merchantRateLimiter;
+    this.paymentEventLogger = paymentEventLogger;
+    this.auditTrailWriter = auditTrailWriter;
+    this.sweeperDeadline = sweeperProperties.deadline();
+    this.clock = clock;
+    this.current = read();
+    List<String> errors = current.validate(sweeperDeadline);
+    if (!errors.isEmpty()) {
+      throw new InvalidSettingsException(errors);
+    }
+  }
+
+  public RuntimeSettings get() {
+    return current;
+  }
+
+  /**
+   * Validates {@code next} and makes it the current settings. Throws
+   * {@link InvalidSettingsException}, changing nothing, if any setting is out of range.
+   */
+  public synchronized RuntimeSettings apply(RuntimeSettings next, String actor) {
+    List<String> errors = next.validate(sweeperDeadline);
+    if (!errors.isEmpty()) {
+      throw new InvalidSettingsException(errors);
+    }
+    RuntimeSettings before = current;
+    Map<String, List<Object>> changed = next.diff(before);
+    if (changed.isEmpty()) {
+      return before;
+    }
+    try {
+      push(next, before);
+    } catch (RuntimeException e) {
+      push(before, next);
+      throw e;
+    }
+    SettingsChange change = new SettingsChange(sequence + 1, clock.getAsLong(), actor, changed);
+    try {
+      auditTrailWriter.recordSettingsChange(change.atMillis(), change.sequence(), actor,
+          changed.toString());
+    } catch (IOException e) {
+      push(before, next);
+      throw new UncheckedIOException("Settings change could not be audited", e);
+    }
+    current = next;
+    sequence = change.sequence();
+    changes.addLast(change);
+    if (changes.size() > HISTORY) {
+      changes.removeFirst();
+    }
+    AUDIT.info("event=settings_changed sequence={} actor={} changed={}", change.sequence(),
+        actor, changed);
+    return next;
+  }
+
+  /**
+   * Applies {@code change} to the current settings, then applies the result like the method
+   * above. Both happen under the same lock, so concurrent partial changes never undo each other.
+   */
+  public synchronized RuntimeSettings apply(UnaryOperator<RuntimeSettings> change, String actor) {
+    return apply(change.apply(current), actor);
+  }
+
+  /** The last {@value #HISTORY} applied changes, oldest first. */
+  public synchronized List<SettingsChange> getChanges() {
+    return List.copyOf(changes);
+  }
+
+  // Only what differs is touched, so re-applying a breaker setting does not reset the breakers.
+  private void push(RuntimeSettings to, RuntimeSettings from) {
+    if (to.readLaneThreads() != from.readLaneThreads()) {
+      readLane.setThreads(to.readLaneThreads());
+    }
+    if (to.writeLaneThreads() != from.writeLaneThreads()) {
+      writeLane.setThreads(to.writeLaneThreads());
+    }
+    bankRequestFactory.setTimeouts(to.bankConnectTimeout(), to.bankReadTimeout());
+    if (!to.sameBreakerConfig(from)) {
+      bankCircuitBreakers.reconfigure(CircuitBreakerConfig.from(bankCircuitBreakers.getConfig())
+          .failureRateThreshold(to.breakerFailureRateThreshold())
+          .minimumNumberOfCalls(to.breakerMinimumNumberOfCalls())
+          .slidingWindowSize(to.breakerSlidingWindowSize())
+          .waitDurationInOpenState(to.breakerWaitDurationInOpenState())
+          .permittedNumberOfCallsInHalfOpenState(to.breakerPermittedCallsInHalfOpenState())
+          .build());
+    }
+    bankCircuitBreakers.setMaxPartitions(to.breakerMaxPartitions());
+    merchantRateLimiter.setMaxMerchants(to.rateLimitMaxMerchants());
+    paymentEventLogger.setSampleRate(to.logSampleRate());
+  }
+
+  private RuntimeSettings read() {
+    CircuitBreakerConfig breaker = bankCircuitBreakers.getConfig();
+    return new RuntimeSettings(
+        readLane.getThreads(),
+        writeLane.getThreads(),
+        bankRequestFactory.getConnectTimeout(),
+        bankRequestFactory.getReadTimeout(),
+        breaker.getFailureRateThreshold(),
+        breaker.getMinimumNumberOfCalls(),
+        breaker.getSlidingWindowSize(),
+        Duration.ofMillis(breaker.getWaitIntervalFunctionInOpenState().apply(1)),
+        breaker.getPermittedNumberOfCallsInHalfOpenState(),
+        merchantRateLimiter.getMaxMerchants(),
+        bankCircuitBreakers.getMaxPartitions(),
+        paymentEventLogger.getSampleRate());
+  }
+}
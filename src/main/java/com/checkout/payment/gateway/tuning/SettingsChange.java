@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.tuning;
+
+import java.util.List;
+import java.util.Map;
+
+/** One applied change to the {@link RuntimeSettings}: who made it, when, and what it changed. */
+public record SettingsChange(
+    long sequence,
+    long atMillis,
+    String actor,
+    Map<String, List<Object>> changed) {
+}
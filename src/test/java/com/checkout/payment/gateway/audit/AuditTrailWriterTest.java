@@ -0,0 +1,196 @@
+package com.checkout.payment.gateway.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.events.FullPolicy;
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.events.WaitStrategy;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class AuditTrailWriterTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void whenSegmentsRotateThenClosedOnesAreCompressedAndTheDayVerifies() throws Exception {
+    List<PaymentRecord> payments = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      payments.add(payment(i));
+    }
+    AuditTrailWriter writer = writer(DataSize.ofKilobytes(4));
+    publish(writer, payments);
+
+    List<AuditRecord> records = new ArrayList<>();
+    AuditTrailReader.Verification verification = AuditTrailReader.verify(directory, today(),
+        records::add);
+
+    assertTrue(verification.ok(), verification.problems().toString());
+    assertTrue(verification.segments() > 2);
+    assertEquals(200, verification.records());
+    assertEquals(0, verification.firstSequence());
+    assertEquals(199, verification.lastSequence());
+    assertEquals(200, writer.getRecordsWritten());
+    // Only the segment that was open at shutdown is left uncompressed.
+    assertEquals(1, AuditFormat.uncompressedSegments(directory).size());
+    for (int i = 0; i < records.size(); i++) {
+      AuditRecord record = records.get(i);
+      assertEquals(i, record.sequence());
+      assertEquals(payments.get(i).getId(), record.paymentId());
+      assertEquals(PaymentEventType.CREATED, record.type());
+      assertEquals(Currency.GBP, record.currency());
+      assertEquals(i, record.amount());
+      assertEquals(8877, record.cardNumberLastFour());
+      assertEquals("key-" + i, record.idempotencyKey());
+      assertNull(record.reason());
+    }
+  }
+
+  @Test
+  void whenWriterRestartsThenTheChainContinuesAcrossRunsAndLeftoversAreCompressed()
+      throws Exception {
+    publish(writer(DataSize.ofMegabytes(1)), List.of(payment(1), payment(2), payment(3)));
+    AuditTrailWriter restarted = writer(DataSize.ofMegabytes(1));
+    publish(restarted, List.of(payment(4), payment(5)));
+
+    AuditTrailReader.Verification verification = AuditTrailReader.verify(directory, today(),
+        null);
+
+    assertTrue(verification.ok(), verification.problems().toString());
+    assertEquals(2, verification.segments());
+    assertEquals(5, verification.records());
+    assertEquals(4, verification.lastSequence());
+    assertEquals(1, AuditFormat.uncompressedSegments(directory).size());
+  }
+
+  @Test
+  void whenARecordIsAlteredThenVerificationReportsIt() throws Exception {
+    publish(writer(DataSize.ofMegabytes(1)), List.of(payment(1), payment(2), payment(3)));
+    Path segment = AuditFormat.uncompressedSegments(directory).get(0);
+    // Second record's amount: header, first record (u16 length, 48 + 5 payload bytes, hash), then
+    // the second record's length and the fixed fields before the amount.
+    long amountOffset = AuditFormat.HEADER_BYTES + (2 + 53 + 32) + 2 + 38;
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      file.seek(amountOffset + 3);
+      assertEquals(2, file.read());
+      file.seek(amountOffset + 3);
+      file.write(200);
+    }
+
+    AuditTrailReader.Verification verification = AuditTrailReader.verify(directory, today(),
+        null);
+
+    assertFalse(verification.ok());
+    assertEquals(List.of(segment.getFileName() + ": hash mismatch at sequence 1"),
+        verification.problems());
+    assertEquals(3, verification.records());
+  }
+
+  @Test
+  void whenAnotherWriterHoldsTheDirectoryThenStartupFailsUntilItIsReleased() throws Exception {
+    AuditTrailWriter first = writer(DataSize.ofMegabytes(1));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> writer(DataSize.ofMegabytes(1)));
+    assertTrue(e.getMessage().endsWith("is in use by another writer"));
+
+    publish(first, List.of(payment(1)));
+    publish(writer(DataSize.ofMegabytes(1)), List.of(payment(2)));
+    AuditTrailReader.Verification verification = AuditTrailReader.verify(directory, today(),
+        null);
+    assertTrue(verification.ok(), verification.problems().toString());
+    assertEquals(2, verification.records());
+  }
+
+  @Test
+  void whenTheBusDropsEventsThenTheGapIsChainedIntoTheTrail() throws Exception {
+    AuditTrailWriter writer = writer(DataSize.ofMegabytes(1));
+    CountDownLatch release = new CountDownLatch(1);
+    PaymentEventSubscriber stalled = new PaymentEventSubscriber() {
+      @Override
+      public String name() {
+        return "stalled";
+      }
+
+      @Override
+      public void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception {
+        release.await();
+      }
+    };
+    PaymentEventBus bus = new PaymentEventBus(new PaymentEventBusProperties(4, FullPolicy.DROP,
+        WaitStrategy.YIELDING, Map.of()), List.of(writer, stalled));
+    for (int i = 0; i < 10; i++) {
+      bus.publish(PaymentEventType.CREATED, payment(i), "key-" + i, null);
+    }
+    long dropped = bus.getDropped();
+    assertTrue(dropped > 0);
+    release.countDown();
+    while (bus.getLag("stalled") > 0 || bus.getLag("audit") > 0) {
+      Thread.sleep(1);
+    }
+    assertTrue(bus.publish(PaymentEventType.CREATED, payment(10), "key-10", null));
+    bus.shutdown();
+    writer.shutdown();
+
+    List<AuditRecord> records = new ArrayList<>();
+    AuditTrailReader.Verification verification = AuditTrailReader.verify(directory, today(),
+        records::add);
+    assertTrue(verification.ok(), verification.problems().toString());
+    List<AuditRecord> gaps = records.stream()
+        .filter(record -> record.type() == PaymentEventType.EVENTS_DROPPED)
+        .toList();
+    assertEquals(1, gaps.size());
+    assertEquals(dropped, gaps.get(0).amount());
+    assertEquals(new UUID(0, 0), gaps.get(0).paymentId());
+    assertNull(gaps.get(0).currency());
+    assertEquals(11 - dropped, records.size() - 1);
+    assertEquals("key-10", records.get(records.size() - 1).idempotencyKey());
+    assertEquals(PaymentEventType.EVENTS_DROPPED, records.get(records.size() - 2).type());
+  }
+
+  private AuditTrailWriter writer(DataSize segmentSize) throws Exception {
+    return new AuditTrailWriter(new AuditProperties(true, directory, segmentSize,
+        DataSize.ofKilobytes(64), DataSize.ofMegabytes(1), Duration.ofSeconds(1)));
+  }
+
+  private static void publish(AuditTrailWriter writer, List<PaymentRecord> payments)
+      throws Exception {
+    PaymentEventBus bus = new PaymentEventBus(new PaymentEventBusProperties(64, FullPolicy.BLOCK,
+        WaitStrategy.YIELDING, Map.of()), List.of(writer));
+    for (PaymentRecord payment : payments) {
+      bus.publish(PaymentEventType.CREATED, payment, "key-" + payment.getAmount(), null);
+    }
+    bus.shutdown();
+    writer.shutdown();
+  }
+
+  private static LocalDate today() {
+    return LocalDate.now(ZoneOffset.UTC);
+  }
+
+  private static PaymentRecord payment(int amount) {
+    return PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, amount, 8877, 4, 2030, null);
+  }
+}
@@ -0,0 +1,95 @@
+package com.checkout.payment.gateway.bin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.FundingType;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class BinIndexTest {
+
+  private static final BinInfo VISA_US = new BinInfo(CardScheme.VISA, "US", FundingType.CREDIT);
+  private static final BinInfo VISA_GB = new BinInfo(CardScheme.VISA, "GB", FundingType.DEBIT);
+  private static final BinInfo VISA_GB_PREPAID =
+      new BinInfo(CardScheme.VISA, "GB", FundingType.PREPAID);
+
+  @Test
+  void whenRangesNestThenTheNarrowestRangeWins() throws IOException {
+    BinTable table = read("""
+        4,4,VISA,US,CREDIT
+        400000,400099,VISA,GB,DEBIT
+        40005012,40005012,VISA,GB,PREPAID
+        """);
+
+    assertEquals(VISA_US, table.lookup("4500000000000000"));
+    assertEquals(VISA_US, table.lookup("4001000000000000"));
+    assertEquals(VISA_GB, table.lookup("4000000000000000"));
+    assertEquals(VISA_GB, table.lookup("4000501100000000"));
+    assertEquals(VISA_GB_PREPAID, table.lookup("4000501299999999"));
+    assertEquals(VISA_GB, table.lookup("4000501300000000"));
+    assertEquals(VISA_US, table.lookup("4999999999999999"));
+    assertEquals(4, table.size());
+    assertSame(table.lookup("4100000000000000"), table.lookup("4900000000000000"));
+  }
+
+  @Test
+  void whenNoRangeCoversTheCardThenLookupIsNull() throws IOException {
+    BinTable table = read("""
+        # comment
+        51,55,MASTERCARD,US,CREDIT
+
+        6011,6011,DISCOVER,US,CREDIT
+        """);
+
+    assertNull(table.lookup("4111111111111111"));
+    assertNull(table.lookup("5611111111111111"));
+    assertNull(table.lookup("6012000000000000"));
+    assertNull(table.lookup("51a1111111111111"));
+    assertEquals(CardScheme.MASTERCARD, table.lookup("5500000000000004").scheme());
+    assertEquals(CardScheme.DISCOVER, table.lookup("6011").scheme());
+  }
+
+  @Test
+  void whenRangesPartiallyOverlapOrLinesAreInvalidThenTheTableIsRejected() {
+    assertThrows(BinTableException.class, () -> read("""
+        400000,400099,VISA,GB,DEBIT
+        400050,400150,VISA,US,CREDIT
+        """));
+    assertThrows(BinTableException.class, () -> read("400000,400099,VISA,GB"));
+    assertThrows(BinTableException.class, () -> read("400000,400099,VISA,GB,CHARGE"));
+    assertThrows(BinTableException.class, () -> read("4000x0,400099,VISA,GB,DEBIT"));
+    assertThrows(BinTableException.class, () -> read("400099,400000,VISA,GB,DEBIT"));
+  }
+
+  @Test
+  void whenTableIsReloadedThenNewRangesApplyAndABrokenFileKeepsTheLiveTable(@TempDir Path dir)
+      throws IOException {
+    Path file = dir.resolve("bins.csv");
+    Files.writeString(file, "4,4,VISA,US,CREDIT\n");
+    BinIndex binIndex = new BinIndex(new FileSystemResource(file));
+    assertEquals(VISA_US, binIndex.lookup("4000000000000000"));
+
+    Files.writeString(file, "4,4,VISA,US,CREDIT\n400000,400099,VISA,GB,DEBIT\n");
+    assertEquals(2, binIndex.reload());
+    assertEquals(VISA_GB, binIndex.lookup("4000000000000000"));
+
+    Files.writeString(file, "4,4,VISA,US\n");
+    assertThrows(BinTableException.class, binIndex::reload);
+    assertEquals(VISA_GB, binIndex.lookup("4000000000000000"));
+    assertEquals(2, binIndex.size());
+  }
+
+  private static BinTable read(String csv) throws IOException {
+    return BinTable.read(new BufferedReader(new StringReader(csv)));
+  }
+}
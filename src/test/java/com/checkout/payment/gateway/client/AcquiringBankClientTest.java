@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -15,6 +16,13 @@ import com.checkout.payment.gateway.model.AcquiringBankResponse;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +46,7 @@ class AcquiringBankClientTest {
 
   @BeforeEach
   void setUp() {
-    circuitBreakerRegistry.circuitBreaker("bank").reset();
+    circuitBreakerRegistry.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
   }
 
   @Test
@@ -85,7 +93,7 @@ class AcquiringBankClientTest {
       assertThrows(HttpServerErrorException.class, () -> acquiringBankClient.requestPayment(buildRequest()));
     }
 
-    CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("bank");
+    CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("bank:GBP");
     assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
 
     // Further calls should not reach RestTemplate (circuit is open, throws CallNotPermittedException)
@@ -93,11 +101,81 @@ class AcquiringBankClientTest {
     verify(restTemplate, times(5)).postForObject(any(String.class), any(), eq(AcquiringBankResponse.class));
   }
 
+  @Test
+  void whenOneCurrencyRouteFailsThenOnlyThatRouteIsShed() {
+    AcquiringBankResponse authorized = new AcquiringBankResponse();
+    authorized.setAuthorized(true);
+    when(restTemplate.postForObject(any(String.class), argThat(
+        (AcquiringBankRequest request) -> request != null && "GBP".equals(request.getCurrency())),
+        eq(AcquiringBankResponse.class)))
+        .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+    when(restTemplate.postForObject(any(String.class), argThat(
+        (AcquiringBankRequest request) -> request != null && "USD".equals(request.getCurrency())),
+        eq(AcquiringBankResponse.class)))
+        .thenReturn(authorized);
+
+    for (int i = 0; i < 5; i++) {
+      assertThrows(HttpServerErrorException.class,
+          () -> acquiringBankClient.requestPayment(buildRequest("GBP")));
+    }
+
+    assertThrows(CallNotPermittedException.class,
+        () -> acquiringBankClient.requestPayment(buildRequest("GBP")));
+    for (int i = 0; i < 20; i++) {
+      assertTrue(acquiringBankClient.requestPayment(buildRequest("USD")).isAuthorized());
+    }
+    assertEquals(CircuitBreaker.State.CLOSED,
+        circuitBreakerRegistry.circuitBreaker("bank:USD").getState());
+  }
+
+  @Test
+  void whenPartitionLimitIsReachedThenNewRoutesShareTheOverflowBreaker() {
+    BankCircuitBreakers breakers = new BankCircuitBreakers(CircuitBreakerRegistry.ofDefaults(),
+        BankPartitioning.CURRENCY_AND_BIN_PREFIX, 4, 2);
+
+    AcquiringBankRequest first = buildRequest("GBP");
+    assertEquals("bank:GBP:2222", breakers.forRequest(first).getName());
+    assertEquals("bank:USD:2222", breakers.forRequest(buildRequest("USD")).getName());
+    assertEquals("bank:overflow", breakers.forRequest(buildRequest("EUR")).getName());
+    assertEquals("bank:GBP:2222", breakers.forRequest(first).getName());
+    assertEquals(3, breakers.all().size());
+  }
+
+  @Test
+  void whenManyNewRoutesArriveAtOnceThenThePartitionLimitHolds() throws Exception {
+    BankCircuitBreakers breakers = new BankCircuitBreakers(CircuitBreakerRegistry.ofDefaults(),
+        BankPartitioning.BIN_PREFIX, 6, 8);
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<CircuitBreaker>> calls = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      AcquiringBankRequest request = buildRequest();
+      request.setCardNumber(String.valueOf(400_000 + i) + "5343248877");
+      calls.add(executor.submit(() -> {
+        start.await();
+        return breakers.forRequest(request);
+      }));
+    }
+    start.countDown();
+    for (Future<CircuitBreaker> call : calls) {
+      call.get(5, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertEquals(9, breakers.all().size());
+    assertEquals(1, breakers.all().stream()
+        .filter(breaker -> breaker.getName().equals("bank:overflow")).count());
+  }
+
   private AcquiringBankRequest buildRequest() {
+    return buildRequest("GBP");
+  }
+
+  private AcquiringBankRequest buildRequest(String currency) {
     AcquiringBankRequest request = new AcquiringBankRequest();
     request.setCardNumber("2222405343248877");
     request.setExpiryDate("01/2030");
-    request.setCurrency("GBP");
+    request.setCurrency(currency);
     request.setAmount(100);
     request.setCvv("123");
     return request;
@@ -0,0 +1,166 @@
+package com.checkout.payment.gateway.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+// Three gateway instances on localhost, each with its own simulated bank, forming one ring.
+class ClusterForwardingTest {
+
+  private static final String[] NODES = {"node-a", "node-b", "node-c"};
+  private static final String PAYMENT = """
+      {"card_number": "2222405343248877", "expiry_month": 4, "expiry_year": 2030,
+       "currency": "GBP", "amount": 100, "cvv": "123"}""";
+
+  private static final Map<String, ConfigurableApplicationContext> instances =
+      new LinkedHashMap<>();
+  private static final Map<String, Integer> ports = new LinkedHashMap<>();
+  private static final HttpClient client = HttpClient.newHttpClient();
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @BeforeAll
+  static void startCluster() throws Exception {
+    for (String node : NODES) {
+      try (ServerSocket socket = new ServerSocket(0)) {
+        ports.put(node, socket.getLocalPort());
+      }
+    }
+    for (String node : NODES) {
+      List<String> args = new ArrayList<>(List.of("--server.port=" + ports.get(node),
+          "--cluster.enabled=true", "--cluster.self=" + node, "--warm-up.enabled=false",
+          "--bank-simulator.latency-mean=1ms"));
+      ports.forEach((peer, port) ->
+          args.add("--cluster.nodes." + peer + "=http://localhost:" + port));
+      instances.put(node, new SpringApplicationBuilder(PaymentGatewayApplication.class)
+          .profiles("bank-simulator")
+          .run(args.toArray(String[]::new)));
+    }
+  }
+
+  @AfterAll
+  static void stopCluster() {
+    instances.values().forEach(ConfigurableApplicationContext::close);
+  }
+
+  @Test
+  void whenRequestsLandOnAnyInstanceThenTheOwnerServesThem() throws Exception {
+    String key = UUID.randomUUID().toString();
+    String owner = router("node-a").ownerOfKey(key);
+
+    String id = null;
+    for (String node : NODES) {
+      HttpResponse<String> created = post(node, key);
+      assertEquals(200, created.statusCode(), created.body());
+      String createdId = objectMapper.readTree(created.body()).get("id").asText();
+      if (id != null) {
+        assertEquals(id, createdId);
+      }
+      id = createdId;
+    }
+
+    assertEquals(owner, router("node-b").ownerOfPayment(UUID.fromString(id)));
+    for (String node : NODES) {
+      PaymentsRepository repository = instances.get(node).getBean(PaymentsRepository.class);
+      assertEquals(node.equals(owner), repository.get(UUID.fromString(id)).isPresent());
+      HttpResponse<String> fetched = get(node, "/payment/" + id);
+      assertEquals(200, fetched.statusCode(), fetched.body());
+      JsonNode payment = objectMapper.readTree(fetched.body());
+      assertEquals(id, payment.get("id").asText());
+      assertEquals(8877, payment.get("cardNumberLastFour").asInt());
+      if (!node.equals(owner)) {
+        assertEquals(2, router(node).getForwarded(owner));
+      }
+    }
+    assertEquals(404, get("node-a", "/payment/" + UUID.randomUUID()).statusCode());
+  }
+
+  @Test
+  void whenABatchLookupSpansInstancesThenEachOwnerAnswersForItsOwnPayments() throws Exception {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      HttpResponse<String> created = post(NODES[i % NODES.length], UUID.randomUUID().toString());
+      assertEquals(200, created.statusCode(), created.body());
+      ids.add(objectMapper.readTree(created.body()).get("id").asText());
+    }
+    String unknown = UUID.randomUUID().toString();
+    ids.add(unknown);
+
+    HttpResponse<String> found = client.send(HttpRequest.newBuilder(uri("node-c",
+            "/payment/lookup"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(
+            objectMapper.writeValueAsString(Map.of("ids", ids))))
+        .build(), HttpResponse.BodyHandlers.ofString());
+
+    assertEquals(200, found.statusCode(), found.body());
+    JsonNode lookup = objectMapper.readTree(found.body());
+    assertEquals(12, lookup.get("payments").size());
+    for (int i = 0; i < 12; i++) {
+      assertEquals(ids.get(i), lookup.get("payments").get(i).get("id").asText());
+    }
+    assertEquals(1, lookup.get("missing").size());
+    assertEquals(unknown, lookup.get("missing").get(0).asText());
+  }
+
+  @Test
+  void whenAClientSetsTheForwardingHeaderThenItIsNotTakenForAPeer() {
+    ClusterRouter router = router("node-a");
+    assertTrue(router.isForwardedByPeer(forwarded("node-b", "127.0.0.1")));
+    assertFalse(router.isForwardedByPeer(forwarded("node-b", "203.0.113.7")));
+    assertFalse(router.isForwardedByPeer(forwarded("mallory", "127.0.0.1")));
+    assertFalse(router.isForwardedByPeer(forwarded("node-a", "127.0.0.1")));
+    assertFalse(router.isForwardedByPeer(forwarded(null, "127.0.0.1")));
+  }
+
+  private static MockHttpServletRequest forwarded(String node, String remoteAddress) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payment/lookup");
+    if (node != null) {
+      request.addHeader(ClusterRouter.FORWARDED_HEADER, node);
+    }
+    request.setRemoteAddr(remoteAddress);
+    return request;
+  }
+
+  private static HttpResponse<String> post(String node, String idempotencyKey)
+      throws Exception {
+    return client.send(HttpRequest.newBuilder(uri(node, "/payment"))
+        .header("Content-Type", "application/json")
+        .header("Idempotency-Key", idempotencyKey)
+        .POST(HttpRequest.BodyPublishers.ofString(PAYMENT))
+        .build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpResponse<String> get(String node, String path) throws Exception {
+    return client.send(HttpRequest.newBuilder(uri(node, path)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static URI uri(String node, String path) {
+    return URI.create("http://localhost:" + ports.get(node) + path);
+  }
+
+  private static ClusterRouter router(String node) {
+    return instances.get(node).getBean(ClusterRouter.class);
+  }
+}
@@ -0,0 +1,60 @@
+package com.checkout.payment.gateway.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class HashRingTest {
+
+  private static final int KEYS = 30_000;
+
+  @Test
+  void whenIdsAreTimeOrderedThenTheyStillSpreadEvenlyAcrossNodes() {
+    HashRing ring = new HashRing(List.of("a", "b", "c"), 128);
+    PaymentIdGenerator generator = new PaymentIdGenerator();
+    Map<String, Integer> owned = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      owned.merge(ring.owner(generator.next()), 1, Integer::sum);
+      owned.merge(ring.owner("key-" + i), 1, Integer::sum);
+    }
+
+    for (String node : ring.nodes()) {
+      int share = owned.get(node);
+      assertTrue(Math.abs(share - 2 * KEYS / 3) < 2 * KEYS / 3 * 0.15, node + " owns " + share);
+    }
+  }
+
+  @Test
+  void whenANodeJoinsThenOnlyKeysMovingToItChangeOwner() {
+    HashRing before = new HashRing(List.of("a", "b", "c"), 128);
+    HashRing after = new HashRing(List.of("d", "c", "b", "a"), 128);
+    int moved = 0;
+    for (int i = 0; i < KEYS; i++) {
+      UUID id = UUID.randomUUID();
+      String owner = after.owner(id);
+      if (!owner.equals(before.owner(id))) {
+        assertEquals("d", owner);
+        moved++;
+      }
+    }
+
+    assertTrue(Math.abs(moved - KEYS / 4) < KEYS / 4 * 0.15, moved + " keys moved");
+  }
+
+  @Test
+  void whenNodesAreListedInAnotherOrderThenOwnersAreTheSame() {
+    HashRing ring = new HashRing(List.of("a", "b", "c"), 16);
+    HashRing reordered = new HashRing(List.of("c", "a", "b"), 16);
+
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals(ring.owner("key-" + i), reordered.owner("key-" + i));
+    }
+    assertEquals("a", new HashRing(List.of("a"), 1).owner(UUID.randomUUID()));
+  }
+}
@@ -0,0 +1,94 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.CreatePaymentRequest;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@SpringBootTest(properties = {
+    "lanes.write.threads=2",
+    "lanes.write.queue-capacity=2"})
+@AutoConfigureMockMvc
+class ExecutionLaneIsolationTest {
+
+  @Autowired
+  private MockMvc mvc;
+  @Autowired
+  private PaymentsRepository paymentsRepository;
+  @MockBean
+  private AcquiringBankClient acquiringBankClient;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final CountDownLatch bankRelease = new CountDownLatch(1);
+
+  @AfterEach
+  void releaseBank() {
+    bankRelease.countDown();
+  }
+
+  @Test
+  void whenWriteLaneIsStuckOnTheBankThenReadsStillCompleteQuickly() throws Exception {
+    when(acquiringBankClient.requestPayment(any())).thenAnswer(invocation -> {
+      bankRelease.await(10, TimeUnit.SECONDS);
+      return null;
+    });
+    for (int i = 0; i < 4; i++) {
+      postPayment().andExpect(request().asyncStarted());
+    }
+    postPayment()
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.message").value("Service temporarily overloaded"));
+
+    PaymentRecord payment = new PaymentRecord(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        Currency.GBP, 10, 8877, 4, 2030, null, "auth-code", 1);
+    paymentsRepository.add(payment);
+
+    long start = System.nanoTime();
+    MvcResult read = mvc.perform(MockMvcRequestBuilders.get("/payment/" + payment.getId()))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mvc.perform(asyncDispatch(read)).andExpect(status().isOk());
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertTrue(elapsedMillis < 1_000, "read took " + elapsedMillis + " ms");
+  }
+
+  private ResultActions postPayment() throws Exception {
+    CreatePaymentRequest request = new CreatePaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2030);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+    return mvc.perform(MockMvcRequestBuilders.post("/payment")
+        .header("Idempotency-Key", UUID.randomUUID().toString())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(request)));
+  }
+}
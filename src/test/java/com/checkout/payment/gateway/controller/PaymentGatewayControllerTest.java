@@ -1,15 +1,30 @@
 package com.checkout.payment.gateway.controller;
 
 
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import com.checkout.payment.gateway.api.PaymentResponseDto;
+import com.checkout.payment.gateway.enums.Currency;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
 import com.checkout.payment.gateway.model.CreatePaymentRequest;
-import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.model.PaymentLookupRequest;
+import com.checkout.payment.gateway.model.PaymentRecord;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -19,10 +34,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+    "ratelimit.merchants.noisy-merchant.permits-per-second=0.01",
+    "ratelimit.merchants.noisy-merchant.burst=1",
+    "ratelimit.merchants.lookup-merchant.permits-per-second=0.01",
+    "ratelimit.merchants.lookup-merchant.burst=5",
+    "admin.operators.ops=ops-token"})
 @AutoConfigureMockMvc
 class PaymentGatewayControllerTest {
 
@@ -31,45 +54,37 @@ class PaymentGatewayControllerTest {
   @Autowired
   private PaymentsRepository paymentsRepository;
 
+  private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
   private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+  private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
 
   @Test
   void whenPaymentWithIdExistThenCorrectPaymentIsReturned() throws Exception {
-    PaymentResponse payment = new PaymentResponse();
-    payment.setId(UUID.randomUUID());
-    payment.setAmount(10);
-    payment.setCurrency("USD");
-    payment.setStatus(PaymentStatus.AUTHORIZED);
-    payment.setExpiryMonth(12);
-    payment.setExpiryYear(2024);
-    payment.setCardNumberLastFour(4321);
+    PaymentRecord payment = new PaymentRecord(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        Currency.USD, 10, 4321, 12, 2024, null, "auth-code", 1);
 
     paymentsRepository.add(payment);
 
-    mvc.perform(MockMvcRequestBuilders.get("/payment/" + payment.getId()))
+    performAsync(MockMvcRequestBuilders.get("/payment/" + payment.getId()))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.status").value(payment.getStatus().getName()))
         .andExpect(jsonPath("$.cardNumberLastFour").value(payment.getCardNumberLastFour()))
         .andExpect(jsonPath("$.expiryMonth").value(payment.getExpiryMonth()))
         .andExpect(jsonPath("$.expiryYear").value(payment.getExpiryYear()))
-        .andExpect(jsonPath("$.currency").value(payment.getCurrency()))
+        .andExpect(jsonPath("$.currency").value(payment.getCurrency().name()))
         .andExpect(jsonPath("$.amount").value(payment.getAmount()));
   }
 
   @Test
   void whenDeclinedPaymentWithIdExistThenCorrectPaymentIsReturned() throws Exception {
-    PaymentResponse payment = new PaymentResponse();
-    payment.setId(UUID.randomUUID());
-    payment.setAmount(50);
-    payment.setCurrency("GBP");
-    payment.setStatus(PaymentStatus.DECLINED);
-    payment.setExpiryMonth(6);
-    payment.setExpiryYear(2026);
-    payment.setCardNumberLastFour(1234);
+    PaymentRecord payment = new PaymentRecord(UUID.randomUUID(), PaymentStatus.DECLINED,
+        Currency.GBP, 50, 1234, 6, 2026, null, null, 1);
 
     paymentsRepository.add(payment);
 
-    mvc.perform(MockMvcRequestBuilders.get("/payment/" + payment.getId()))
+    performAsync(MockMvcRequestBuilders.get("/payment/" + payment.getId()))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.status").value("Declined"))
         .andExpect(jsonPath("$.cardNumberLastFour").value(1234))
@@ -81,7 +96,7 @@ class PaymentGatewayControllerTest {
 
   @Test
   void whenPaymentWithIdDoesNotExistThen404IsReturned() throws Exception {
-    mvc.perform(MockMvcRequestBuilders.get("/payment/" + UUID.randomUUID()))
+    performAsync(MockMvcRequestBuilders.get("/payment/" + UUID.randomUUID()))
         .andExpect(status().isNotFound())
         .andExpect(jsonPath("$.message").value("Page not found"));
   }
@@ -93,11 +108,45 @@ class PaymentGatewayControllerTest {
         .andExpect(jsonPath("$.message").value("Invalid request parameter"));
   }
 
+  @Test
+  void whenPaymentsAreLookedUpTogetherThenFoundOnesAndMissingIdsAreReturned() throws Exception {
+    PaymentRecord authorized = new PaymentRecord(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        Currency.USD, 10, 4321, 12, 2024, null, "auth-code", 1);
+    PaymentRecord declined = new PaymentRecord(UUID.randomUUID(), PaymentStatus.DECLINED,
+        Currency.GBP, 20, 8765, 1, 2030, null, null, 1);
+    paymentsRepository.add(authorized);
+    paymentsRepository.add(declined);
+    UUID unknown = UUID.randomUUID();
+    PaymentLookupRequest request = new PaymentLookupRequest(
+        List.of(declined.getId(), unknown, authorized.getId(), declined.getId()));
+
+    performAsync(MockMvcRequestBuilders.post("/payment/lookup")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.payments.length()").value(2))
+        .andExpect(jsonPath("$.payments[0].id").value(declined.getId().toString()))
+        .andExpect(jsonPath("$.payments[0].status").value("Declined"))
+        .andExpect(jsonPath("$.payments[1].id").value(authorized.getId().toString()))
+        .andExpect(jsonPath("$.payments[1].amount").value(10))
+        .andExpect(jsonPath("$.missing.length()").value(1))
+        .andExpect(jsonPath("$.missing[0]").value(unknown.toString()));
+  }
+
+  @Test
+  void whenLookupHasNoIdsThen400IsReturned() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.post("/payment/lookup")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\": []}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("At least one payment id is required"));
+  }
+
   @Test
   void whenValidPaymentRequestThen200IsReturned() throws Exception {
     CreatePaymentRequest request = buildValidRequest();
 
-    mvc.perform(MockMvcRequestBuilders.post("/payment")
+    performAsync(MockMvcRequestBuilders.post("/payment")
             .header("Idempotency-Key", UUID.randomUUID().toString())
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(request)))
@@ -228,14 +277,14 @@ class PaymentGatewayControllerTest {
     CreatePaymentRequest request = buildValidRequest();
     String idempotencyKey = UUID.randomUUID().toString();
 
-    String firstResponse = mvc.perform(MockMvcRequestBuilders.post("/payment")
+    String firstResponse = performAsync(MockMvcRequestBuilders.post("/payment")
             .header("Idempotency-Key", idempotencyKey)
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(request)))
         .andExpect(status().isOk())
         .andReturn().getResponse().getContentAsString();
 
-    String secondResponse = mvc.perform(MockMvcRequestBuilders.post("/payment")
+    String secondResponse = performAsync(MockMvcRequestBuilders.post("/payment")
             .header("Idempotency-Key", idempotencyKey)
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(request)))
@@ -255,6 +304,225 @@ class PaymentGatewayControllerTest {
         .andExpect(status().isBadRequest());
   }
 
+  @Test
+  void whenMerchantExceedsRateLimitThen429WithRetryAfterIsReturned() throws Exception {
+    CreatePaymentRequest request = buildValidRequest();
+
+    performAsync(MockMvcRequestBuilders.post("/payment")
+            .header("Idempotency-Key", UUID.randomUUID().toString())
+            .header("Merchant-Id", "noisy-merchant")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk());
+
+    mvc.perform(MockMvcRequestBuilders.post("/payment")
+            .header("Idempotency-Key", UUID.randomUUID().toString())
+            .header("Merchant-Id", "noisy-merchant")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"))
+        .andExpect(jsonPath("$.message").value("Too many requests"));
+
+    mvc.perform(MockMvcRequestBuilders.get("/admin/rate-limits"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.merchantId == 'noisy-merchant')].admitted").value(1))
+        .andExpect(jsonPath("$[?(@.merchantId == 'noisy-merchant')].rejected").value(1));
+  }
+
+  @Test
+  void whenMerchantLooksUpPaymentsThenEachIdCostsARateLimitToken() throws Exception {
+    String threeIds = objectMapper.writeValueAsString(new PaymentLookupRequest(
+        List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())));
+
+    performAsync(MockMvcRequestBuilders.post("/payment/lookup")
+            .header("Merchant-Id", "lookup-merchant")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(threeIds))
+        .andExpect(status().isOk());
+    // The forwarding header only counts from a cluster peer, so setting it changes nothing.
+    mvc.perform(MockMvcRequestBuilders.post("/payment/lookup")
+            .header("Merchant-Id", "lookup-merchant")
+            .header("Gateway-Forwarded-By", "node-b")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(threeIds))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"));
+    performAsync(MockMvcRequestBuilders.post("/payment/lookup")
+            .header("Merchant-Id", "lookup-merchant")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new PaymentLookupRequest(
+                List.of(UUID.randomUUID(), UUID.randomUUID())))))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void whenPaymentIsPostedInSmileThenTheAnswerIsSmileWithTheSameFieldsAsJson() throws Exception {
+    CreatePaymentRequest request = buildValidRequest();
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    byte[] smile = performAsync(MockMvcRequestBuilders.post("/payment")
+            .header("Idempotency-Key", idempotencyKey)
+            .contentType(SMILE)
+            .accept(SMILE)
+            .content(smileMapper.writeValueAsBytes(request)))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(SMILE))
+        .andReturn().getResponse().getContentAsByteArray();
+    String json = performAsync(MockMvcRequestBuilders.post("/payment")
+            .header("Idempotency-Key", idempotencyKey)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andReturn().getResponse().getContentAsString();
+
+    // Binary encodings write the UUID as 16 raw bytes, so compare after reading it as a UUID.
+    CreatePaymentResponseDto fromSmile = smileMapper.readValue(smile,
+        CreatePaymentResponseDto.class);
+    assertEquals(objectMapper.readValue(json, Map.class),
+        objectMapper.convertValue(fromSmile, Map.class));
+
+    PaymentRecord stored = new PaymentRecord(UUID.randomUUID(), PaymentStatus.AUTHORIZED,
+        Currency.EUR, 75, 4321, 12, 2030, null, "auth-code", 1);
+    paymentsRepository.add(stored);
+    byte[] cbor = performAsync(MockMvcRequestBuilders.get("/payment/" + stored.getId())
+            .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+    PaymentResponseDto fromCbor = cborMapper.readValue(cbor, PaymentResponseDto.class);
+    assertEquals(stored.getId(), fromCbor.getId());
+    assertEquals(75, fromCbor.getAmount());
+  }
+
+  @Test
+  void whenInvalidRequestsAreSentInCborOrSmileThenErrorsMatchTheJsonOnes() throws Exception {
+    CreatePaymentRequest request = buildValidRequest();
+    request.setCardNumber("1234567890123");
+
+    byte[] rejected = mvc.perform(MockMvcRequestBuilders.post("/payment")
+            .header("Idempotency-Key", UUID.randomUUID().toString())
+            .contentType(MediaType.APPLICATION_CBOR)
+            .accept(MediaType.APPLICATION_CBOR)
+            .content(cborMapper.writeValueAsBytes(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+    String rejectedJson = mvc.perform(MockMvcRequestBuilders.post("/payment")
+            .header("Idempotency-Key", UUID.randomUUID().toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andReturn().getResponse().getContentAsString();
+    assertEquals(objectMapper.readValue(rejectedJson, Map.class),
+        cborMapper.readValue(rejected, Map.class));
+
+    byte[] noIds = mvc.perform(MockMvcRequestBuilders.post("/payment/lookup")
+            .contentType(SMILE)
+            .accept(SMILE)
+            .content(smileMapper.writeValueAsBytes(Map.of("ids", List.of()))))
+        .andExpect(status().isBadRequest())
+        .andReturn().getResponse().getContentAsByteArray();
+    assertEquals(Map.of("message", "At least one payment id is required"),
+        smileMapper.readValue(noIds, Map.class));
+
+    byte[] notFound = performAsync(MockMvcRequestBuilders.get("/payment/" + UUID.randomUUID())
+            .accept(SMILE))
+        .andExpect(status().isNotFound())
+        .andReturn().getResponse().getContentAsByteArray();
+    assertEquals(Map.of("message", "Page not found"), smileMapper.readValue(notFound, Map.class));
+  }
+
+  @Test
+  void whenStatsAreRequestedThenEveryCurrencyAndStatusHasARowWithinTheWindowCap()
+      throws Exception {
+    mvc.perform(MockMvcRequestBuilders.get("/admin/stats").param("minutes", "240"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(
+            Currency.values().length * PaymentStatus.values().length))
+        .andExpect(jsonPath("$[0].currency").value(Currency.values()[0].name()))
+        .andExpect(jsonPath("$[0].status").value(PaymentStatus.values()[0].getName()))
+        .andExpect(jsonPath("$[0].windowMinutes").value(60));
+  }
+
+  @Test
+  void whenPaymentsAreListedByStatusThenUnknownOnesAreReturnedForReview() throws Exception {
+    PaymentIdGenerator paymentIdGenerator = new PaymentIdGenerator();
+    // Older than anything the other tests create, so these two are the oldest UNKNOWN payments.
+    long longAgo = System.currentTimeMillis() - Duration.ofHours(23).toMillis();
+    PaymentRecord unknown = new PaymentRecord(PaymentIdGenerator.lowerBound(longAgo),
+        PaymentStatus.UNKNOWN, Currency.EUR, 75, 4321, 12, 2031, null, null, 2);
+    PaymentRecord authorized = new PaymentRecord(paymentIdGenerator.next(),
+        PaymentStatus.AUTHORIZED, Currency.EUR, 80, 4321, 12, 2031, null, "auth-code", 2);
+    PaymentRecord newer = new PaymentRecord(PaymentIdGenerator.lowerBound(longAgo + 1),
+        PaymentStatus.UNKNOWN, Currency.EUR, 90, 4321, 12, 2031, null, null, 2);
+    paymentsRepository.add(newer);
+    paymentsRepository.add(authorized);
+    paymentsRepository.add(unknown);
+
+    mvc.perform(MockMvcRequestBuilders.get("/admin/payments").param("status", "UNKNOWN"))
+        .andExpect(status().isUnauthorized());
+    mvc.perform(MockMvcRequestBuilders.get("/admin/payments").param("status", "UNKNOWN")
+            .header("Authorization", "Bearer ops-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.paymentId == '" + unknown.getId() + "')].status")
+            .value("Unknown"))
+        .andExpect(jsonPath("$[?(@.paymentId == '" + unknown.getId() + "')].amount").value(75))
+        .andExpect(jsonPath("$[?(@.paymentId == '" + authorized.getId() + "')]").isEmpty());
+    mvc.perform(MockMvcRequestBuilders.get("/admin/payments").param("status", "UNKNOWN")
+            .param("limit", "2").header("Authorization", "Bearer ops-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].paymentId").value(unknown.getId().toString()))
+        .andExpect(jsonPath("$[1].paymentId").value(newer.getId().toString()));
+    mvc.perform(MockMvcRequestBuilders.get("/admin/payments").param("status", "LOST")
+            .header("Authorization", "Bearer ops-token"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(MockMvcRequestBuilders.get("/admin/slow-payments"))
+        .andExpect(status().isUnauthorized());
+    mvc.perform(MockMvcRequestBuilders.get("/admin/slow-payments")
+            .header("Authorization", "Bearer ops-token"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void whenSettingsAreChangedThenOnlyAnAuthenticatedOperatorCanAndIsRecordedAsTheActor()
+      throws Exception {
+    String patch = "{\"rateLimitMaxMerchants\": 12345}";
+
+    mvc.perform(MockMvcRequestBuilders.patch("/admin/settings")
+            .contentType(MediaType.APPLICATION_JSON).content(patch)
+            .header("Admin-User", "ops"))
+        .andExpect(status().isUnauthorized())
+        .andExpect(header().string("WWW-Authenticate", "Bearer realm=\"admin\""));
+    mvc.perform(MockMvcRequestBuilders.patch("/admin/settings")
+            .contentType(MediaType.APPLICATION_JSON).content(patch)
+            .header("Authorization", "Bearer wrong-token"))
+        .andExpect(status().isUnauthorized());
+    mvc.perform(MockMvcRequestBuilders.post("/admin/bins/reload"))
+        .andExpect(status().isUnauthorized());
+    mvc.perform(MockMvcRequestBuilders.get("/admin/settings"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rateLimitMaxMerchants").value(not(12345)));
+
+    mvc.perform(MockMvcRequestBuilders.patch("/admin/settings")
+            .contentType(MediaType.APPLICATION_JSON).content(patch)
+            .header("Authorization", "Bearer ops-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rateLimitMaxMerchants").value(12345));
+    mvc.perform(MockMvcRequestBuilders.get("/admin/settings/changes"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[-1].actor").value("ops"))
+        .andExpect(jsonPath("$[-1].changed.rateLimitMaxMerchants[1]").value(12345));
+  }
+
+  private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+    MvcResult result = mvc.perform(requestBuilder)
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return mvc.perform(asyncDispatch(result));
+  }
+
   private CreatePaymentRequest buildValidRequest() {
     CreatePaymentRequest request = new CreatePaymentRequest();
     request.setCardNumber("12345678901234");
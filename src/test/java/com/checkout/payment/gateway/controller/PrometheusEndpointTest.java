@@ -0,0 +1,36 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Test
+  void whenPrometheusIsScrapedThenGatewayMetersAreExposed() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("payment_step_duration_seconds_bucket")))
+        .andExpect(content().string(containsString("payment_bank_duration_seconds_count")))
+        .andExpect(content().string(containsString("payment_idempotency_lookups_total")))
+        .andExpect(content().string(containsString("payment_repository_size")))
+        .andExpect(content().string(containsString("payment_repository_memory_estimate_bytes")))
+        .andExpect(content().string(containsString("payment_lane_queued")))
+        .andExpect(content().string(containsString("payment_log_dropped_total")))
+        .andExpect(content().string(containsString("resilience4j_circuitbreaker_state")));
+  }
+}
@@ -0,0 +1,164 @@
+package com.checkout.payment.gateway.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PaymentEventBusTest {
+
+  @Test
+  void whenManyThreadsPublishThenEverySubscriberSeesEveryEventInSequenceOrder() throws Exception {
+    RecordingSubscriber audit = new RecordingSubscriber("audit");
+    RecordingSubscriber volume = new RecordingSubscriber("volume");
+    PaymentEventBus bus = new PaymentEventBus(properties(16, FullPolicy.BLOCK),
+        List.of(audit, volume));
+    int producers = 4;
+    int perProducer = 1_000;
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        int producer = p;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < perProducer; i++) {
+            assertTrue(bus.publish(PaymentEventType.CREATED, payment(producer * perProducer + i),
+                "producer-" + producer, null));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    bus.shutdown();
+
+    for (RecordingSubscriber subscriber : List.of(audit, volume)) {
+      assertEquals(producers * perProducer, subscriber.sequences.size());
+      for (int i = 0; i < subscriber.sequences.size(); i++) {
+        assertEquals(i, subscriber.sequences.get(i));
+      }
+      // Each producer's own events stay in the order it published them.
+      for (int p = 0; p < producers; p++) {
+        String key = "producer-" + p;
+        List<Integer> amounts = subscriber.amountsByKey(key);
+        assertEquals(perProducer, amounts.size());
+        for (int i = 0; i < perProducer; i++) {
+          assertEquals(p * perProducer + i, amounts.get(i));
+        }
+      }
+      assertEquals(0, bus.getLag(subscriber.name()));
+    }
+    assertEquals(producers * perProducer, bus.getPublished());
+    assertEquals(0, bus.getDropped());
+  }
+
+  @Test
+  void whenSlowestSubscriberIsAWholeRingBehindThenDropPolicyDropsAndCounts() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingSubscriber blocked = new RecordingSubscriber("blocked") {
+      @Override
+      public void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception {
+        release.await();
+        super.onEvent(event, endOfBatch);
+      }
+    };
+    PaymentEventBus bus = new PaymentEventBus(properties(4, FullPolicy.DROP), List.of(blocked));
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(bus.publish(PaymentEventType.CREATED, payment(i), "key", null));
+    }
+    assertFalse(bus.publish(PaymentEventType.CREATED, payment(4), "key", null));
+    assertEquals(1, bus.getDropped());
+
+    release.countDown();
+    bus.shutdown();
+    assertEquals(List.of(0L, 1L, 2L, 3L), blocked.sequences);
+    assertFalse(bus.publish(PaymentEventType.CREATED, payment(5), "key", null));
+    assertEquals(2, bus.getDropped());
+  }
+
+  @Test
+  void whenSubscriberThrowsThenTheFailureIsCountedAndLaterEventsStillArrive() throws Exception {
+    RecordingSubscriber failing = new RecordingSubscriber("failing") {
+      @Override
+      public void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception {
+        if (event.getType() == PaymentEventType.COMPENSATED) {
+          throw new IllegalStateException("boom");
+        }
+        super.onEvent(event, endOfBatch);
+      }
+    };
+    PaymentEventBus bus = new PaymentEventBus(properties(8, FullPolicy.BLOCK), List.of(failing));
+
+    PaymentRecord pending = payment(100);
+    bus.publish(PaymentEventType.CREATED, pending, "key", null);
+    bus.publish(PaymentEventType.COMPENSATED, pending, "key", "HttpServerErrorException");
+    bus.publish(PaymentEventType.CREATED, payment(200), "key", null);
+    bus.shutdown();
+
+    assertEquals(List.of(0L, 2L), failing.sequences);
+    assertEquals(1, bus.getFailures("failing"));
+    assertTrue(failing.endOfBatchSeen);
+  }
+
+  private static PaymentEventBusProperties properties(int bufferSize, FullPolicy fullPolicy) {
+    return new PaymentEventBusProperties(bufferSize, fullPolicy, WaitStrategy.YIELDING,
+        Map.of());
+  }
+
+  private static PaymentRecord payment(int amount) {
+    return PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, amount, 8877, 4, 2030, null);
+  }
+
+  private static class RecordingSubscriber implements PaymentEventSubscriber {
+
+    private final String name;
+    private final List<Long> sequences = new CopyOnWriteArrayList<>();
+    private final List<String> keys = new CopyOnWriteArrayList<>();
+    private final List<Integer> amounts = new CopyOnWriteArrayList<>();
+    private volatile boolean endOfBatchSeen;
+
+    private RecordingSubscriber(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception {
+      sequences.add(event.getSequence());
+      keys.add(event.getIdempotencyKey());
+      amounts.add(event.getAmount());
+      endOfBatchSeen |= endOfBatch;
+    }
+
+    private List<Integer> amountsByKey(String key) {
+      List<Integer> selected = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++) {
+        if (keys.get(i).equals(key)) {
+          selected.add(amounts.get(i));
+        }
+      }
+      return selected;
+    }
+  }
+}
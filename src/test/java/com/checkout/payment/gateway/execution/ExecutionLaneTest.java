@@ -0,0 +1,68 @@
+package com.checkout.payment.gateway.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ExecutionLaneTest {
+
+  @Test
+  void whenLaneIsSaturatedWithRejectPolicyThenSubmissionFails() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    try (ExecutionLane lane = new ExecutionLane("write", 1, 1, SaturationPolicy.REJECT)) {
+      CompletableFuture<String> running = lane.supply(() -> await(release));
+      CompletableFuture<String> queued = lane.supply(() -> await(release));
+
+      assertThrows(LaneSaturatedException.class, () -> lane.supply(() -> "rejected"));
+      assertEquals(1, lane.getRejected());
+
+      release.countDown();
+      assertEquals("done", running.get(5, TimeUnit.SECONDS));
+      assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void whenLaneIsSaturatedWithCallerRunsPolicyThenTaskRunsOnCaller() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    try (ExecutionLane lane = new ExecutionLane("read", 1, 1, SaturationPolicy.CALLER_RUNS)) {
+      lane.supply(() -> await(release));
+      lane.supply(() -> await(release));
+
+      CompletableFuture<String> inline = lane.supply(() -> Thread.currentThread().getName());
+
+      assertTrue(inline.isDone());
+      assertEquals(Thread.currentThread().getName(), inline.get());
+      assertEquals(1, lane.getCallerRuns());
+      release.countDown();
+    }
+  }
+
+  @Test
+  void whenTaskThrowsThenFutureCompletesExceptionally() throws Exception {
+    try (ExecutionLane lane = new ExecutionLane("read", 1, 1, SaturationPolicy.REJECT)) {
+      CompletableFuture<String> future = lane.supply(() -> {
+        throw new IllegalStateException("boom");
+      });
+
+      ExecutionException ex = assertThrows(ExecutionException.class,
+          () -> future.get(5, TimeUnit.SECONDS));
+      assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  private static String await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "done";
+  }
+}
@@ -0,0 +1,87 @@
+package com.checkout.payment.gateway.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class PaymentIdGeneratorTest {
+
+  private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+  @Test
+  void whenIdIsGeneratedThenItIsVersion7WithTheCurrentTimestamp() {
+    UUID id = new PaymentIdGenerator(clock::get).next();
+
+    assertEquals(7, id.version());
+    assertEquals(2, id.variant());
+    assertEquals(clock.get(), PaymentIdGenerator.timestampMillis(id));
+    assertTrue(PaymentIdGenerator.lowerBound(clock.get()).compareTo(id) <= 0);
+    assertTrue(PaymentIdGenerator.lowerBound(clock.get() + 1).compareTo(id) > 0);
+  }
+
+  @Test
+  void whenManyIdsShareAMillisecondOrTheClockStepsBackThenOrderIsKept() {
+    PaymentIdGenerator generator = new PaymentIdGenerator(clock::get);
+    UUID previous = generator.next();
+    // Far more ids than the 12-bit counter holds, so the timestamp has to be carried forward.
+    for (int i = 0; i < 10_000; i++) {
+      if (i == 5_000) {
+        clock.addAndGet(-10);
+      }
+      UUID next = generator.next();
+      assertTrue(previous.compareTo(next) < 0, previous + " should sort before " + next);
+      previous = next;
+    }
+    assertTrue(PaymentIdGenerator.timestampMillis(previous) > clock.get());
+  }
+
+  @Test
+  void whenThreadsGenerateConcurrentlyThenIdsAreUniqueAndOrderedPerThread() throws Exception {
+    PaymentIdGenerator generator = new PaymentIdGenerator();
+    int threads = 8;
+    int perThread = 20_000;
+    Set<UUID> all = ConcurrentHashMap.newKeySet();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> ordered = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        ordered.add(executor.submit(() -> {
+          start.await();
+          Set<UUID> mine = new HashSet<>();
+          UUID previous = generator.next();
+          mine.add(previous);
+          boolean increasing = true;
+          for (int i = 1; i < perThread; i++) {
+            UUID next = generator.next();
+            increasing &= previous.compareTo(next) < 0;
+            mine.add(next);
+            previous = next;
+          }
+          all.addAll(mine);
+          return increasing;
+        }));
+      }
+      start.countDown();
+      for (Future<Boolean> future : ordered) {
+        assertTrue(future.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(threads * perThread, all.size());
+  }
+}
@@ -0,0 +1,100 @@
+package com.checkout.payment.gateway.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LogRingBufferTest {
+
+  @Test
+  void whenRingIsFullThenEventsAreDroppedAndCounted() {
+    LogRingBuffer ring = new LogRingBuffer(4);
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(offer(ring, i));
+    }
+    assertFalse(offer(ring, 4));
+    assertFalse(offer(ring, 5));
+
+    assertEquals(2, ring.droppedCount());
+  }
+
+  @Test
+  void whenEventsAreDrainedThenTheyArriveInOrderAndSlotsAreReused() {
+    LogRingBuffer ring = new LogRingBuffer(4);
+    List<Integer> amounts = new ArrayList<>();
+
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 4; i++) {
+        assertTrue(offer(ring, round * 4 + i));
+      }
+      assertEquals(4, ring.drain(event -> amounts.add(event.getAmount()), 100));
+    }
+
+    assertEquals(12, amounts.size());
+    for (int i = 0; i < 12; i++) {
+      assertEquals(i, amounts.get(i));
+    }
+    assertEquals(0, ring.droppedCount());
+  }
+
+  @Test
+  void whenManyThreadsPublishThenEveryAcceptedEventIsDrainedOnce() throws Exception {
+    LogRingBuffer ring = new LogRingBuffer(1 << 16);
+    int threads = 8;
+    int perThread = 5_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int t = 0; t < threads; t++) {
+      int base = t * perThread;
+      executor.execute(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < perThread; i++) {
+          offer(ring, base + i);
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    Set<Integer> seen = new HashSet<>();
+    ring.drain(event -> assertTrue(seen.add(event.getAmount())), Integer.MAX_VALUE);
+
+    assertEquals(threads * perThread, seen.size() + ring.droppedCount());
+  }
+
+  @Test
+  void whenEventIsFormattedThenOnlyPresentFieldsAreWritten() {
+    UUID paymentId = UUID.randomUUID();
+    StringBuilder line = new StringBuilder();
+
+    PaymentEventLogger.format(line, PaymentLogEventType.PROCESSED, paymentId,
+        PaymentStatus.AUTHORIZED, 100, "GBP", "key-1", null);
+
+    assertEquals("event=payment_processed paymentId=" + paymentId
+        + " status=Authorized amount=100 currency=GBP idempotencyKey=key-1", line.toString());
+  }
+
+  private static boolean offer(LogRingBuffer ring, int amount) {
+    return ring.offer(PaymentLogEventType.PROCESSED, 0L, null, PaymentStatus.AUTHORIZED, amount,
+        "GBP", null, null);
+  }
+}
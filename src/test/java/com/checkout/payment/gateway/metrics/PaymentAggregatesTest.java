@@ -0,0 +1,102 @@
+package com.checkout.payment.gateway.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class PaymentAggregatesTest {
+
+  private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+  private final PaymentAggregates aggregates = new PaymentAggregates(clock::get);
+
+  @Test
+  void whenManyThreadsMovePaymentsAtOnceThenTotalsAddUpExactly() throws Exception {
+    int threads = 8;
+    int perThread = 10_000;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < perThread; i++) {
+            PaymentRecord pending = PaymentRecord.pending(UUID.randomUUID(),
+                i % 2 == 0 ? Currency.USD : Currency.EUR, 10, 8877, 4, 2030, null);
+            aggregates.created(pending);
+            switch (i % 4) {
+              case 0 -> aggregates.transitioned(pending, PaymentStatus.AUTHORIZED);
+              case 1 -> aggregates.transitioned(pending, PaymentStatus.DECLINED);
+              case 2 -> aggregates.removed(pending);
+              default -> {
+                aggregates.transitioned(pending, PaymentStatus.UNKNOWN);
+                aggregates.transitioned(pending.transitionTo(PaymentStatus.UNKNOWN, null),
+                    PaymentStatus.AUTHORIZED);
+              }
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long quarter = threads * perThread / 4;
+    assertEquals(quarter, aggregates.getCount(Currency.USD, PaymentStatus.AUTHORIZED));
+    assertEquals(quarter, aggregates.getCount(Currency.EUR, PaymentStatus.AUTHORIZED));
+    assertEquals(quarter, aggregates.getCount(Currency.EUR, PaymentStatus.DECLINED));
+    assertEquals(0, aggregates.getCount(Currency.USD, PaymentStatus.DECLINED));
+    assertEquals(quarter * 10, aggregates.getAmount(Currency.USD, PaymentStatus.AUTHORIZED));
+    for (Currency currency : Currency.values()) {
+      assertEquals(0, aggregates.getCount(currency, PaymentStatus.PENDING));
+      assertEquals(0, aggregates.getAmount(currency, PaymentStatus.PENDING));
+      assertEquals(0, aggregates.getCount(currency, PaymentStatus.UNKNOWN));
+    }
+    assertEquals(quarter * 2,
+        aggregates.getRecent(Currency.USD, PaymentStatus.PENDING, 1).count());
+    assertEquals(quarter,
+        aggregates.getRecent(Currency.EUR, PaymentStatus.UNKNOWN, 1).count());
+  }
+
+  @Test
+  void whenMinutesPassThenOnlyTheRequestedWindowIsSummedAndOldSlotsAreReused() {
+    for (int minute = 0; minute < 90; minute++) {
+      for (int i = 0; i <= minute % 3; i++) {
+        PaymentRecord pending = PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100,
+            8877, 4, 2030, null);
+        aggregates.created(pending);
+        aggregates.transitioned(pending, PaymentStatus.AUTHORIZED);
+      }
+      clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+    }
+    // The clock is now one minute past the last payments. Minute m held m % 3 + 1 of them.
+    PaymentAggregates.Totals lastFive = aggregates.getRecent(Currency.GBP,
+        PaymentStatus.AUTHORIZED, 5);
+
+    assertEquals(3 + 1 + 2 + 3, lastFive.count());
+    assertEquals(900, lastFive.amount());
+    assertEquals(0, aggregates.getRecent(Currency.GBP, PaymentStatus.AUTHORIZED, 1).count());
+    // Capped at the last 60 minutes, minutes 31 to 89; earlier slots have been reused.
+    assertEquals(119,
+        aggregates.getRecent(Currency.GBP, PaymentStatus.AUTHORIZED, 1_000).count());
+    assertEquals(180, aggregates.getCount(Currency.GBP, PaymentStatus.AUTHORIZED));
+    assertEquals(0, aggregates.getCount(Currency.GBP, PaymentStatus.PENDING));
+  }
+}
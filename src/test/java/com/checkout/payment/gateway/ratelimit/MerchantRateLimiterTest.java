@@ -0,0 +1,149 @@
+package com.checkout.payment.gateway.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.exception.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class MerchantRateLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+  @Test
+  void whenBurstIsExhaustedThenRequestsAreRejectedUntilTokensRefill() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(properties(10, 3, 100, Map.of()),
+        clock::get);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0L, limiter.tryAcquire("merchant-a"));
+    }
+    long waitNanos = limiter.tryAcquire("merchant-a");
+    assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.MILLISECONDS.toNanos(100));
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    assertEquals(0L, limiter.tryAcquire("merchant-a"));
+
+    TokenBucket bucket = limiter.snapshot().get("merchant-a");
+    assertEquals(4, bucket.getAdmitted());
+    assertEquals(1, bucket.getRejected());
+  }
+
+  @Test
+  void whenARequestCostsSeveralTokensThenTheyAreTakenTogetherUpToTheBurst() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(properties(10, 5, 100, Map.of()),
+        clock::get);
+
+    assertEquals(0L, limiter.tryAcquire("merchant-a", 3));
+    long waitNanos = limiter.tryAcquire("merchant-a", 3);
+    assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.MILLISECONDS.toNanos(100));
+    assertEquals(0L, limiter.tryAcquire("merchant-a", 2));
+
+    // A batch larger than the burst costs the whole burst, so a full bucket still admits it.
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    assertEquals(0L, limiter.tryAcquire("merchant-a", 1_000));
+    assertTrue(limiter.tryAcquire("merchant-a", 1) > 0);
+    assertThrows(RateLimitExceededException.class, () -> limiter.admit("merchant-a", 1));
+  }
+
+  @Test
+  void whenOneMerchantIsThrottledThenOthersAreUnaffected() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(properties(10, 1, 100, Map.of()),
+        clock::get);
+
+    assertEquals(0L, limiter.tryAcquire("noisy"));
+    assertTrue(limiter.tryAcquire("noisy") > 0);
+
+    assertEquals(0L, limiter.tryAcquire("quiet"));
+  }
+
+  @Test
+  void whenMerchantHasOverrideThenItsOwnLimitApplies() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(properties(10, 1, 100,
+        Map.of("big", new RateLimitProperties.Limit(1000, 50))), clock::get);
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals(0L, limiter.tryAcquire("big"));
+    }
+    assertEquals(50, limiter.snapshot().get("big").getLimit().burst());
+  }
+
+  @Test
+  void whenMapIsFullThenIdleMerchantsAreEvictedAndNewOnesOverflow() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(properties(10, 5, 2, Map.of()),
+        clock::get);
+    limiter.tryAcquire("a");
+    limiter.tryAcquire("b");
+
+    limiter.tryAcquire("c");
+    assertTrue(limiter.snapshot().containsKey(MerchantRateLimiter.OVERFLOW_KEY));
+    assertEquals(2, limiter.snapshot().size() - 1);
+
+    clock.addAndGet(Duration.ofMinutes(2).toNanos());
+    limiter.tryAcquire("c");
+    assertTrue(limiter.snapshot().containsKey("c"));
+    // The swept buckets' counts stay in the totals the metrics report.
+    assertEquals(4, limiter.getAdmitted());
+    assertEquals(0, limiter.getRejected());
+  }
+
+  @Test
+  void whenManyThreadsCompeteThenAdmissionsNeverExceedTheBurst() throws Exception {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(properties(0.001, 100, 100, Map.of()),
+        clock::get);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8_000; i++) {
+      executor.execute(() -> limiter.tryAcquire("shared"));
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    TokenBucket bucket = limiter.snapshot().get("shared");
+    assertEquals(100, bucket.getAdmitted());
+    assertEquals(7_900, bucket.getRejected());
+  }
+
+  @Test
+  void whenRequestsHaveNoMerchantHeaderThenTheyShareTheAnonymousBucket() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(new RateLimitProperties(true,
+        "Merchant-Id", 10, 1, 100, Duration.ofMinutes(1), 10, 3, Map.of()), clock::get);
+    RateLimitInterceptor interceptor = new RateLimitInterceptor(limiter);
+    MockHttpServletRequest anonymous = new MockHttpServletRequest("POST", "/payment");
+    MockHttpServletRequest blank = new MockHttpServletRequest("POST", "/payment");
+    blank.addHeader("Merchant-Id", " ");
+    MockHttpServletRequest merchant = new MockHttpServletRequest("POST", "/payment");
+    merchant.addHeader("Merchant-Id", "merchant-a");
+
+    for (int i = 0; i < 2; i++) {
+      assertTrue(interceptor.preHandle(anonymous, new MockHttpServletResponse(), null));
+    }
+    assertTrue(interceptor.preHandle(blank, new MockHttpServletResponse(), null));
+    RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+        () -> interceptor.preHandle(anonymous, new MockHttpServletResponse(), null));
+    assertEquals(MerchantRateLimiter.ANONYMOUS_KEY, rejected.getMerchantId());
+    assertThrows(RateLimitExceededException.class,
+        () -> limiter.admit(null, 1_000));
+
+    assertTrue(interceptor.preHandle(merchant, new MockHttpServletResponse(), null));
+    TokenBucket bucket = limiter.snapshot().get(MerchantRateLimiter.ANONYMOUS_KEY);
+    assertEquals(3, bucket.getAdmitted());
+    assertEquals(2, bucket.getRejected());
+    assertEquals(2, limiter.snapshot().size());
+  }
+
+  private static RateLimitProperties properties(double permitsPerSecond, int burst,
+      int maxMerchants, Map<String, RateLimitProperties.Limit> merchants) {
+    return new RateLimitProperties(true, "Merchant-Id", permitsPerSecond, burst, maxMerchants,
+        Duration.ofMinutes(1), permitsPerSecond, burst, merchants);
+  }
+}
@@ -0,0 +1,214 @@
+package com.checkout.payment.gateway.reconciliation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.events.FullPolicy;
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.events.WaitStrategy;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
+import com.checkout.payment.gateway.model.AcquiringBankResponse;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+class BankReconcilerTest {
+
+  private final PaymentsRepository paymentsRepository = new InMemoryPaymentsRepository();
+  private final AcquiringBankClient acquiringBankClient = mock(AcquiringBankClient.class);
+  private final List<PaymentEventType> events = new CopyOnWriteArrayList<>();
+  private final PaymentEventBus paymentEventBus = new PaymentEventBus(
+      new PaymentEventBusProperties(64, FullPolicy.BLOCK, WaitStrategy.YIELDING, Map.of()),
+      List.of(new PaymentEventSubscriber() {
+        @Override
+        public String name() {
+          return "recorder";
+        }
+
+        @Override
+        public void onEvent(PaymentEvent event, boolean endOfBatch) {
+          events.add(event.getType());
+        }
+      }));
+  private final PaymentEventLogger paymentEventLogger = new PaymentEventLogger("async", 64, 1.0);
+  private final PaymentAggregates paymentAggregates = new PaymentAggregates();
+  private BankReconciler reconciler;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    reconciler.shutdown();
+    paymentEventBus.shutdown();
+    paymentEventLogger.shutdown();
+  }
+
+  @Test
+  void whenReplayTimesOutThenTheBatchBacksOffAndIsResolvedByALaterReplay() throws Exception {
+    reconciler = reconciler(16, 5);
+    PaymentRecord authorized = unknown();
+    PaymentRecord declined = unknown();
+    AtomicInteger calls = new AtomicInteger();
+    when(acquiringBankClient.requestPayment(any())).thenAnswer(invocation -> {
+      if (calls.getAndIncrement() == 0) {
+        throw new ResourceAccessException("Read timed out", new SocketTimeoutException());
+      }
+      AcquiringBankRequest sent = invocation.getArgument(0);
+      AcquiringBankResponse response = new AcquiringBankResponse();
+      response.setAuthorized(sent.getPaymentId().equals(authorized.getId()));
+      response.setAuthorizationCode(response.isAuthorized() ? "auth-code" : "");
+      return response;
+    });
+
+    assertTrue(reconciler.submit(authorized, sent(authorized), "first"));
+    assertTrue(reconciler.submit(declined, sent(declined), "second"));
+    awaitResolved(2);
+
+    PaymentRecord stored = paymentsRepository.get(authorized.getId()).orElseThrow();
+    assertEquals(PaymentStatus.AUTHORIZED, stored.getStatus());
+    assertEquals("auth-code", stored.getAuthorizationCode());
+    assertEquals(PaymentStatus.DECLINED,
+        paymentsRepository.get(declined.getId()).orElseThrow().getStatus());
+    // One replay timed out, then each payment was answered once.
+    assertEquals(3, reconciler.getReplays());
+    assertEquals(0, reconciler.getOutstanding());
+    assertEquals(0, paymentAggregates.getCount(Currency.GBP, PaymentStatus.UNKNOWN));
+    assertEquals(1, paymentAggregates.getCount(Currency.GBP, PaymentStatus.AUTHORIZED));
+    paymentEventBus.shutdown();
+    assertEquals(Set.of(PaymentEventType.AUTHORIZED, PaymentEventType.DECLINED),
+        Set.copyOf(events));
+  }
+
+  @Test
+  void whenBankNeverAnswersThenPaymentIsLeftUnknownAndTheQueueStaysBounded() throws Exception {
+    reconciler = reconciler(1, 2);
+    when(acquiringBankClient.requestPayment(any())).thenThrow(
+        new ResourceAccessException("Read timed out", new SocketTimeoutException()));
+    PaymentRecord stuck = unknown();
+    PaymentRecord overflow = unknown();
+
+    assertTrue(reconciler.submit(stuck, sent(stuck), "first"));
+    assertFalse(reconciler.submit(overflow, sent(overflow), "second"));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (reconciler.getAbandoned() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(1, reconciler.getAbandoned());
+    assertEquals(2, reconciler.getReplays());
+    assertEquals(0, reconciler.getOutstanding());
+    assertEquals(PaymentStatus.UNKNOWN,
+        paymentsRepository.get(stuck.getId()).orElseThrow().getStatus());
+    assertEquals(1, reconciler.getSkipped());
+    paymentEventBus.shutdown();
+    assertEquals(2, events.stream().filter(PaymentEventType.UNRECONCILED::equals).count());
+    assertTrue(reconciler.submit(overflow, sent(overflow), "second"));
+  }
+
+  @Test
+  void whenBankIsNotKnownToBeIdempotentThenNothingIsReplayed() throws Exception {
+    reconciler = reconciler(true, false, 16, 5, Duration.ofMinutes(1));
+    PaymentRecord unknown = unknown();
+
+    assertFalse(reconciler.submit(unknown, sent(unknown), "first"));
+
+    assertEquals(0, reconciler.getOutstanding());
+    assertEquals(1, reconciler.getSkipped());
+    assertEquals(PaymentStatus.UNKNOWN,
+        paymentsRepository.get(unknown.getId()).orElseThrow().getStatus());
+    verify(acquiringBankClient, never()).requestPayment(any());
+    paymentEventBus.shutdown();
+    assertEquals(List.of(PaymentEventType.UNRECONCILED), events);
+  }
+
+  @Test
+  void whenIntentOutlivesItsAgeThenItIsDroppedWithoutAnotherReplay() throws Exception {
+    reconciler = reconciler(true, true, 16, 100, Duration.ofMillis(150));
+    when(acquiringBankClient.requestPayment(any())).thenThrow(
+        new ResourceAccessException("Read timed out", new SocketTimeoutException()));
+    PaymentRecord stuck = unknown();
+
+    assertTrue(reconciler.submit(stuck, sent(stuck), "first"));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (reconciler.getAbandoned() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    // Backoffs of up to 100ms within 150ms leave room for only a few replays, not 100.
+    assertEquals(1, reconciler.getAbandoned());
+    assertTrue(reconciler.getReplays() < 100);
+    assertEquals(0, reconciler.getOutstanding());
+    assertEquals(PaymentStatus.UNKNOWN,
+        paymentsRepository.get(stuck.getId()).orElseThrow().getStatus());
+    paymentEventBus.shutdown();
+  }
+
+  private BankReconciler reconciler(int queueCapacity, int maxAttempts) {
+    return reconciler(true, true, queueCapacity, maxAttempts, Duration.ofMinutes(1));
+  }
+
+  private BankReconciler reconciler(boolean enabled, boolean bankIdempotent, int queueCapacity,
+      int maxAttempts, Duration maxIntentAge) {
+    return new BankReconciler(
+        new ReconciliationProperties(enabled, bankIdempotent, queueCapacity, 8,
+            Duration.ofMillis(20), Duration.ofMillis(100), maxAttempts, maxIntentAge,
+            Duration.ofMillis(10), 64),
+        paymentsRepository, acquiringBankClient, paymentEventBus, paymentEventLogger,
+        paymentAggregates, new PaymentMetrics(new SimpleMeterRegistry()));
+  }
+
+  private void awaitResolved(long count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while ((reconciler.getResolved() < count || reconciler.getOutstanding() > 0)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, reconciler.getResolved());
+  }
+
+  private PaymentRecord unknown() {
+    PaymentRecord pending = PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4,
+        2030, null);
+    paymentsRepository.add(pending);
+    paymentAggregates.created(pending);
+    PaymentRecord unknown = paymentsRepository.transition(pending, PaymentStatus.UNKNOWN, null);
+    paymentAggregates.transitioned(pending, PaymentStatus.UNKNOWN);
+    return unknown;
+  }
+
+  private static AcquiringBankRequest sent(PaymentRecord payment) {
+    AcquiringBankRequest request = new AcquiringBankRequest();
+    request.setPaymentId(payment.getId());
+    request.setCardNumber("2222405343248877");
+    request.setCurrency(payment.getCurrency().name());
+    request.setAmount(payment.getAmount());
+    return request;
+  }
+}
@@ -0,0 +1,138 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.IllegalPaymentTransitionException;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.execution.SaturationPolicy;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InMemoryPaymentsRepositoryTest {
+
+  private final PaymentsRepository paymentsRepository = new InMemoryPaymentsRepository();
+
+  @Test
+  void whenPendingPaymentIsAuthorizedThenNewVersionIsStoredAndOldSnapshotIsUnchanged() {
+    PaymentRecord pending = pending();
+    paymentsRepository.add(pending);
+
+    PaymentRecord authorized = paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED,
+        "auth-code");
+
+    assertEquals(1, authorized.getVersion());
+    assertEquals("auth-code", authorized.getAuthorizationCode());
+    assertSame(authorized, paymentsRepository.get(pending.getId()).orElseThrow());
+    assertEquals(PaymentStatus.PENDING, pending.getStatus());
+    assertEquals(0, pending.getVersion());
+  }
+
+  @Test
+  void whenWriterHoldsAnOlderVersionThenItIsRejected() {
+    PaymentRecord pending = pending();
+    paymentsRepository.add(pending);
+    paymentsRepository.transition(pending, PaymentStatus.DECLINED, null);
+
+    assertThrows(StalePaymentException.class,
+        () -> paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-code"));
+    assertFalse(paymentsRepository.remove(pending));
+    assertEquals(PaymentStatus.DECLINED,
+        paymentsRepository.get(pending.getId()).orElseThrow().getStatus());
+  }
+
+  @Test
+  void whenPaymentIsFinalThenFurtherTransitionsAreIllegal() {
+    PaymentRecord pending = pending();
+    paymentsRepository.add(pending);
+    PaymentRecord authorized = paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED,
+        "auth-code");
+
+    assertThrows(IllegalPaymentTransitionException.class,
+        () -> paymentsRepository.transition(authorized, PaymentStatus.DECLINED, null));
+    assertThrows(IllegalPaymentTransitionException.class,
+        () -> pending.transitionTo(PaymentStatus.PENDING, null));
+    assertSame(authorized, paymentsRepository.get(pending.getId()).orElseThrow());
+  }
+
+  @Test
+  void whenWritersRaceFromTheSameVersionThenExactlyOneWins() throws Exception {
+    PaymentRecord pending = pending();
+    paymentsRepository.add(pending);
+    int writers = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger stale = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      Future<?>[] futures = new Future<?>[writers];
+      for (int i = 0; i < writers; i++) {
+        PaymentStatus next = i % 2 == 0 ? PaymentStatus.AUTHORIZED : PaymentStatus.DECLINED;
+        futures[i] = executor.submit(() -> {
+          start.await();
+          try {
+            paymentsRepository.transition(pending, next, null);
+          } catch (StalePaymentException e) {
+            stale.incrementAndGet();
+          }
+          return null;
+        });
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(5, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(writers - 1, stale.get());
+    PaymentRecord stored = paymentsRepository.get(pending.getId()).orElseThrow();
+    assertEquals(1, stored.getVersion());
+    assertTrue(stored.getStatus() != PaymentStatus.PENDING);
+  }
+
+  // The write lane runs every POST /payment on its own pool, so the store takes concurrent adds
+  // and transitions from all of its threads.
+  @Test
+  void whenTheWriteLaneStoresAndSettlesConcurrentlyThenNoPaymentIsLost() throws Exception {
+    int payments = 20_000;
+    List<CompletableFuture<UUID>> futures = new ArrayList<>(payments);
+    try (ExecutionLane writeLane =
+        new ExecutionLane("write", 64, payments, SaturationPolicy.REJECT)) {
+      for (int i = 0; i < payments; i++) {
+        futures.add(writeLane.supply(() -> {
+          PaymentRecord pending = pending();
+          paymentsRepository.add(pending);
+          paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-code");
+          return pending.getId();
+        }));
+      }
+      for (CompletableFuture<UUID> future : futures) {
+        UUID id = future.get(30, TimeUnit.SECONDS);
+        assertEquals(PaymentStatus.AUTHORIZED,
+            paymentsRepository.get(id).orElseThrow().getStatus());
+      }
+    }
+    assertEquals(payments, paymentsRepository.size());
+  }
+
+  private static PaymentRecord pending() {
+    return PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4, 2030, null);
+  }
+}
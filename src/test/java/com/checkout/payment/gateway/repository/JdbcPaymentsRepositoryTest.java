@@ -0,0 +1,247 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.checkout.payment.gateway.bin.BinInfo;
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.FundingType;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.PaymentStoreException;
+import com.checkout.payment.gateway.exception.StalePaymentException;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JdbcPaymentsRepositoryTest {
+
+  private static final BinInfo BIN = new BinInfo(CardScheme.MASTERCARD, "GB", FundingType.DEBIT);
+
+  @TempDir
+  Path directory;
+
+  private final List<JdbcPaymentsRepository> opened = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() throws Exception {
+    for (JdbcPaymentsRepository repository : opened) {
+      repository.close();
+    }
+  }
+
+  @Test
+  void whenPaymentIsStoredAndAuthorizedThenEveryFieldReadsBack() {
+    PaymentsRepository paymentsRepository = open("roundtrip");
+    PaymentRecord pending = PaymentRecord.pending(UUID.randomUUID(), Currency.USD, 1050, 8877,
+        4, 2030, BIN);
+    paymentsRepository.add(pending);
+
+    PaymentRecord authorized = paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED,
+        "auth-code");
+    PaymentRecord stored = paymentsRepository.get(pending.getId()).orElseThrow();
+
+    assertEquals(PaymentStatus.AUTHORIZED, stored.getStatus());
+    assertEquals(1, stored.getVersion());
+    assertEquals(authorized.getVersion(), stored.getVersion());
+    assertEquals("auth-code", stored.getAuthorizationCode());
+    assertEquals(Currency.USD, stored.getCurrency());
+    assertEquals(1050, stored.getAmount());
+    assertEquals(8877, stored.getCardNumberLastFour());
+    assertEquals(4, stored.getExpiryMonth());
+    assertEquals(2030, stored.getExpiryYear());
+    assertEquals(BIN, stored.getBin());
+    assertEquals(1, paymentsRepository.size());
+    assertTrue(paymentsRepository.get(UUID.randomUUID()).isEmpty());
+  }
+
+  @Test
+  void whenWriterHoldsAnOlderVersionThenItIsRejected() {
+    PaymentsRepository paymentsRepository = open("stale");
+    PaymentRecord pending = pending();
+    paymentsRepository.add(pending);
+    paymentsRepository.transition(pending, PaymentStatus.DECLINED, null);
+
+    assertThrows(StalePaymentException.class,
+        () -> paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-code"));
+    assertFalse(paymentsRepository.remove(pending));
+    PaymentRecord stored = paymentsRepository.get(pending.getId()).orElseThrow();
+    assertEquals(PaymentStatus.DECLINED, stored.getStatus());
+    assertNull(stored.getBin());
+
+    PaymentRecord other = pending();
+    paymentsRepository.add(other);
+    assertTrue(paymentsRepository.remove(other));
+    assertTrue(paymentsRepository.get(other.getId()).isEmpty());
+  }
+
+  @Test
+  void whenIdsAreLookedUpTogetherThenStoredOnesComeBackInOneQuery() {
+    PaymentsRepository paymentsRepository = open("lookup");
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      PaymentRecord pending = pending();
+      paymentsRepository.add(pending);
+      if (i % 2 == 0) {
+        paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-" + i);
+      }
+      ids.add(pending.getId());
+      ids.add(UUID.randomUUID());
+    }
+
+    Map<UUID, PaymentRecord> found = paymentsRepository.getAll(ids);
+
+    assertEquals(20, found.size());
+    for (int i = 0; i < 20; i++) {
+      PaymentRecord stored = found.get(ids.get(2 * i));
+      assertEquals(i % 2 == 0 ? "auth-" + i : null, stored.getAuthorizationCode());
+      assertFalse(found.containsKey(ids.get(2 * i + 1)));
+    }
+    assertTrue(paymentsRepository.getAll(List.of()).isEmpty());
+  }
+
+  @Test
+  void whenARangeIsScannedInPartsThenEachPartReadsItsOwnIds() {
+    PaymentsRepository paymentsRepository = open("scan");
+    PaymentIdGenerator paymentIdGenerator = new PaymentIdGenerator();
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      PaymentRecord pending = PaymentRecord.pending(paymentIdGenerator.next(), Currency.GBP, i,
+          8877, 4, 2030, null);
+      paymentsRepository.add(pending);
+      ids.add(pending.getId());
+    }
+    paymentsRepository.add(pending());
+
+    List<PaymentRecord> scanned = new ArrayList<>();
+    TieredPaymentsRepositoryTest.drain(paymentsRepository.scan(ids.get(5), ids.get(45)), scanned);
+
+    assertEquals(ids.subList(5, 45),
+        scanned.stream().map(PaymentRecord::getId).sorted(ColdSegment.ID_ORDER).toList());
+  }
+
+  @Test
+  void whenManyThreadsWriteAtOnceThenWritesAreBatchedAndRacesFromOneVersionHaveOneWinner()
+      throws Exception {
+    JdbcPaymentsRepository paymentsRepository = open("batched");
+    PaymentRecord contended = pending();
+    paymentsRepository.add(contended);
+    int writers = 32;
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger stale = new AtomicInteger();
+    List<PaymentRecord> created = new ArrayList<>();
+    for (int i = 0; i < writers; i++) {
+      created.add(pending());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < writers; i++) {
+        PaymentRecord payment = created.get(i);
+        PaymentStatus next = i % 2 == 0 ? PaymentStatus.AUTHORIZED : PaymentStatus.DECLINED;
+        futures.add(executor.submit(() -> {
+          start.await();
+          paymentsRepository.add(payment);
+          paymentsRepository.transition(payment, PaymentStatus.AUTHORIZED, "auth-code");
+          try {
+            paymentsRepository.transition(contended, next, null);
+          } catch (StalePaymentException e) {
+            stale.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(writers - 1, stale.get());
+    assertEquals(1, paymentsRepository.get(contended.getId()).orElseThrow().getVersion());
+    for (PaymentRecord payment : created) {
+      assertEquals(PaymentStatus.AUTHORIZED,
+          paymentsRepository.get(payment.getId()).orElseThrow().getStatus());
+    }
+    assertEquals(writers + 1, paymentsRepository.size());
+    assertEquals(1 + 3 * writers, paymentsRepository.getWrites());
+    assertTrue(paymentsRepository.getWriteBatches() < paymentsRepository.getWrites());
+  }
+
+  @Test
+  void whenAWriteFailsThenOnlyItsCallerSeesTheError() {
+    PaymentsRepository paymentsRepository = open("duplicate");
+    PaymentRecord pending = pending();
+    paymentsRepository.add(pending);
+
+    assertThrows(PaymentStoreException.class, () -> paymentsRepository.add(pending));
+    PaymentRecord other = pending();
+    paymentsRepository.add(other);
+    assertEquals(2, paymentsRepository.size());
+  }
+
+  @Test
+  void whenAWriteThrowsARuntimeExceptionThenOnlyItsCallerFailsAndTheWriterCarriesOn() {
+    JdbcPaymentsRepository paymentsRepository = open("runtime-failure");
+    PaymentRecord unbindable = mock(PaymentRecord.class);
+    when(unbindable.getId()).thenReturn(UUID.randomUUID());
+
+    PaymentStoreException e = assertThrows(PaymentStoreException.class,
+        () -> paymentsRepository.add(unbindable));
+    assertTrue(e.getCause() instanceof NullPointerException);
+    paymentsRepository.add(pending());
+    assertEquals(1, paymentsRepository.size());
+  }
+
+  @Test
+  void whenRepositoryIsReopenedThenStoredPaymentsAreStillThere() throws Exception {
+    String url = "jdbc:h2:file:" + directory.resolve("payments").toAbsolutePath();
+    JdbcPaymentsRepository first = new JdbcPaymentsRepository(jdbc(url));
+    PaymentRecord pending = pending();
+    first.add(pending);
+    first.transition(pending, PaymentStatus.AUTHORIZED, "auth-code");
+    first.close();
+
+    JdbcPaymentsRepository reopened = new JdbcPaymentsRepository(jdbc(url));
+    opened.add(reopened);
+
+    PaymentRecord stored = reopened.get(pending.getId()).orElseThrow();
+    assertEquals(PaymentStatus.AUTHORIZED, stored.getStatus());
+    assertEquals("auth-code", stored.getAuthorizationCode());
+  }
+
+  private JdbcPaymentsRepository open(String name) {
+    JdbcPaymentsRepository repository = new JdbcPaymentsRepository(
+        jdbc("jdbc:h2:mem:" + name + "-" + UUID.randomUUID()));
+    opened.add(repository);
+    return repository;
+  }
+
+  private static RepositoryProperties.Jdbc jdbc(String url) {
+    return new RepositoryProperties.Jdbc(url, "sa", "", 4, 256, 1024);
+  }
+
+  private static PaymentRecord pending() {
+    return PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4, 2030, null);
+  }
+}
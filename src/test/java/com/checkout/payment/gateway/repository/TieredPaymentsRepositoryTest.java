@@ -0,0 +1,339 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.bin.BinInfo;
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.FundingType;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.IllegalPaymentTransitionException;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TieredPaymentsRepositoryTest {
+
+  private static final BinInfo BIN = new BinInfo(CardScheme.VISA, "GB", FundingType.CREDIT);
+
+  @TempDir
+  Path directory;
+
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+  private final PaymentIdGenerator paymentIdGenerator = new PaymentIdGenerator();
+
+  @Test
+  void whenSettledPaymentsAgePastRetentionThenTheyAreReadFromColdSegments() throws Exception {
+    TieredPaymentsRepository repository = open(100);
+    List<PaymentRecord> settled = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      PaymentRecord pending = pending(i);
+      repository.add(pending);
+      settled.add(i % 3 == 0
+          ? repository.transition(pending, PaymentStatus.DECLINED, null)
+          : repository.transition(pending, PaymentStatus.AUTHORIZED, "auth-" + i));
+    }
+    PaymentRecord stillPending = pending(5);
+    repository.add(stillPending);
+    clock.addAndGet(Duration.ofMinutes(5).toMillis());
+    PaymentRecord recent = repository.transition(addPending(repository),
+        PaymentStatus.AUTHORIZED, "recent");
+
+    assertEquals(1_000, repository.migrate());
+
+    assertEquals(10, repository.getColdSegments());
+    assertEquals(2, repository.getHotSize());
+    assertEquals(1_002, repository.size());
+    for (PaymentRecord expected : settled) {
+      PaymentRecord stored = repository.get(expected.getId()).orElseThrow();
+      assertEquals(expected.getStatus(), stored.getStatus());
+      assertEquals(expected.getAuthorizationCode(), stored.getAuthorizationCode());
+      assertEquals(expected.getVersion(), stored.getVersion());
+      assertEquals(expected.getAmount(), stored.getAmount());
+      assertEquals(Currency.EUR, stored.getCurrency());
+      assertEquals(4321, stored.getCardNumberLastFour());
+      assertEquals(12, stored.getExpiryMonth());
+      assertEquals(2031, stored.getExpiryYear());
+      assertEquals(expected.getAmount() % 2 == 0 ? BIN : null, stored.getBin());
+    }
+    assertTrue(repository.get(stillPending.getId()).isPresent());
+    assertTrue(repository.get(recent.getId()).isPresent());
+    for (int i = 0; i < 1_000; i++) {
+      assertTrue(repository.get(paymentIdGenerator.next()).isEmpty());
+      assertTrue(repository.get(UUID.randomUUID()).isEmpty());
+    }
+    assertEquals(0, repository.migrate());
+  }
+
+  @Test
+  void whenIdsAreLookedUpTogetherThenHotAndColdPaymentsAreFoundAndRemovedOnesAreNot()
+      throws Exception {
+    TieredPaymentsRepository repository = open(50);
+    List<PaymentRecord> cold = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      cold.add(repository.transition(addPending(repository), PaymentStatus.AUTHORIZED, "a" + i));
+    }
+    clock.addAndGet(Duration.ofMinutes(5).toMillis());
+    repository.migrate();
+    PaymentRecord hot = addPending(repository);
+    assertTrue(repository.remove(cold.get(8)));
+    List<UUID> ids = new ArrayList<>();
+    for (int i = cold.size() - 1; i >= 0; i -= 3) {
+      ids.add(cold.get(i).getId());
+    }
+    ids.add(cold.get(8).getId());
+    ids.add(hot.getId());
+    ids.add(UUID.randomUUID());
+    ids.add(paymentIdGenerator.next());
+
+    Map<UUID, PaymentRecord> found = repository.getAll(ids);
+
+    assertEquals(4, repository.getColdSegments());
+    assertEquals(ids.size() - 3, found.size());
+    for (UUID id : ids.subList(0, ids.size() - 4)) {
+      assertEquals(repository.get(id).orElseThrow().getAuthorizationCode(),
+          found.get(id).getAuthorizationCode());
+    }
+    assertFalse(found.containsKey(cold.get(8).getId()));
+    assertEquals(PaymentStatus.PENDING, found.get(hot.getId()).getStatus());
+  }
+
+  @Test
+  void whenARangeIsScannedInPartsThenEveryPaymentInItIsReadOnceFromEitherTier() throws Exception {
+    TieredPaymentsRepository repository = open(50);
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      PaymentRecord pending = PaymentRecord.pending(paymentIdGenerator.next(), Currency.EUR, i,
+          4321, 12, 2031, null);
+      repository.add(pending);
+      repository.transition(pending, PaymentStatus.AUTHORIZED, "a" + i);
+      ids.add(pending.getId());
+    }
+    clock.addAndGet(Duration.ofMinutes(5).toMillis());
+    repository.migrate();
+    for (int i = 0; i < 20; i++) {
+      PaymentRecord hot = PaymentRecord.pending(paymentIdGenerator.next(), Currency.EUR, i, 4321,
+          12, 2031, null);
+      repository.add(hot);
+      ids.add(hot.getId());
+    }
+    assertTrue(repository.remove(repository.get(ids.get(50)).orElseThrow()));
+
+    List<PaymentRecord> scanned = new ArrayList<>();
+    drain(repository.scan(ids.get(10), PaymentIdGenerator.lowerBound(Long.MAX_VALUE >>> 16)),
+        scanned);
+
+    Set<UUID> expected = new HashSet<>(ids.subList(10, ids.size()));
+    expected.remove(ids.get(50));
+    assertEquals(4, repository.getColdSegments());
+    assertEquals(expected.size(), scanned.size());
+    assertEquals(expected, new HashSet<>(scanned.stream().map(PaymentRecord::getId).toList()));
+  }
+
+  @Test
+  void whenThereAreManySegmentsThenAScanSplitsAcrossThemAndReadsEachPaymentOnce()
+      throws Exception {
+    TieredPaymentsRepository repository = open(3);
+    Set<UUID> ids = new HashSet<>();
+    for (int i = 0; i < 300; i++) {
+      ids.add(repository.transition(addPending(repository), PaymentStatus.AUTHORIZED, "a" + i)
+          .getId());
+    }
+    clock.addAndGet(Duration.ofMinutes(5).toMillis());
+    repository.migrate();
+    ids.add(addPending(repository).getId());
+
+    List<PaymentRecord> scanned = new ArrayList<>();
+    drain(repository.scan(new UUID(0, 0), new UUID(-1, -1)), scanned);
+
+    assertEquals(100, repository.getColdSegments());
+    assertEquals(ids.size(), scanned.size());
+    assertEquals(ids, new HashSet<>(scanned.stream().map(PaymentRecord::getId).toList()));
+  }
+
+  @Test
+  void whenSegmentIsScannedThenItsPartsCoverTheRangeInIdOrder() throws Exception {
+    List<PaymentRecord> payments = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      payments.add(pending(i).transitionTo(PaymentStatus.AUTHORIZED, "a" + i));
+    }
+    payments.sort((a, b) -> ColdSegment.ID_ORDER.compare(a.getId(), b.getId()));
+    ColdSegment segment = ColdSegment.write(directory.resolve("cold-000000.seg"), payments, 16,
+        10);
+
+    Spliterator<PaymentRecord> scan = segment.scan(payments.get(37).getId(),
+        payments.get(400).getId());
+    Spliterator<PaymentRecord> first = scan.trySplit();
+    // Records 37 to 399; the split lands on the index entry of record 208.
+    assertEquals(171, first.getExactSizeIfKnown());
+    assertEquals(192, scan.getExactSizeIfKnown());
+    List<PaymentRecord> scanned = new ArrayList<>();
+    first.forEachRemaining(scanned::add);
+    scan.forEachRemaining(scanned::add);
+
+    assertEquals(363, scanned.size());
+    for (int i = 0; i < scanned.size(); i++) {
+      assertEquals(payments.get(37 + i).getId(), scanned.get(i).getId());
+    }
+    assertEquals(500, segment.scan(new UUID(0, 0), new UUID(-1, -1)).getExactSizeIfKnown());
+    assertEquals(0, segment.scan(payments.get(9).getId(), payments.get(9).getId())
+        .getExactSizeIfKnown());
+  }
+
+  @Test
+  void whenRepositoryIsReopenedThenColdPaymentsAreStillThereAndStayFrozen() throws Exception {
+    TieredPaymentsRepository repository = open(1_000);
+    PaymentRecord pending = addPending(repository);
+    PaymentRecord authorized = repository.transition(pending, PaymentStatus.AUTHORIZED,
+        "auth-code");
+    PaymentRecord removed = repository.transition(addPending(repository),
+        PaymentStatus.DECLINED, null);
+    clock.addAndGet(Duration.ofMinutes(5).toMillis());
+    repository.migrate();
+
+    assertFalse(repository.remove(pending));
+    assertTrue(repository.remove(removed));
+    assertTrue(repository.get(removed.getId()).isEmpty());
+    assertEquals(1, repository.size());
+
+    TieredPaymentsRepository reopened = open(1_000);
+
+    assertEquals(1, reopened.getColdSegments());
+    PaymentRecord cold = reopened.get(authorized.getId()).orElseThrow();
+    assertEquals("auth-code", cold.getAuthorizationCode());
+    assertThrows(IllegalPaymentTransitionException.class,
+        () -> reopened.transition(cold, PaymentStatus.DECLINED, null));
+  }
+
+  @Test
+  void whenSegmentsPileUpThenCompactionMergesThemAndDropsRemovedPayments() throws Exception {
+    TieredPaymentsRepository repository = open(100);
+    List<PaymentRecord> cold = new ArrayList<>();
+    for (int run = 0; run < 6; run++) {
+      for (int i = 0; i < 20; i++) {
+        cold.add(repository.transition(addPending(repository), PaymentStatus.AUTHORIZED,
+            "a" + run + "-" + i));
+      }
+      clock.addAndGet(Duration.ofMinutes(5).toMillis());
+      repository.migrate();
+    }
+    assertTrue(repository.remove(cold.get(3)));
+    repository.remove(cold.get(70).getId());
+    assertEquals(6, repository.getColdSegments());
+
+    assertEquals(6, repository.compact());
+
+    // 100 records fit in one segment, so the oldest 20 stay in a second one.
+    assertEquals(2, repository.getColdSegments());
+    assertEquals(118, repository.size());
+    assertTrue(repository.get(cold.get(3).getId()).isEmpty());
+    assertTrue(repository.get(cold.get(70).getId()).isEmpty());
+    for (PaymentRecord payment : cold) {
+      if (payment != cold.get(3) && payment != cold.get(70)) {
+        assertEquals(payment.getAuthorizationCode(),
+            repository.get(payment.getId()).orElseThrow().getAuthorizationCode());
+      }
+    }
+    assertEquals(0, repository.compact());
+
+    TieredPaymentsRepository reopened = open(100);
+    assertEquals(2, reopened.getColdSegments());
+    assertEquals(118, reopened.size());
+    assertTrue(reopened.get(cold.get(70).getId()).isEmpty());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  @Test
+  void whenCompactionWasInterruptedThenTheReplacedSegmentsAreDeletedOnStart() throws Exception {
+    TieredPaymentsRepository repository = open(1_000);
+    List<PaymentRecord> cold = new ArrayList<>();
+    for (int run = 0; run < 2; run++) {
+      cold.add(repository.transition(addPending(repository), PaymentStatus.AUTHORIZED, "a"));
+      clock.addAndGet(Duration.ofMinutes(5).toMillis());
+      repository.migrate();
+    }
+    List<PaymentRecord> merged = new ArrayList<>(cold);
+    merged.sort((a, b) -> ColdSegment.ID_ORDER.compare(a.getId(), b.getId()));
+    // What compaction writes before it deletes cold-000000.seg and cold-000001.seg.
+    ColdSegment.write(directory.resolve("cold-000000-000001.seg"), merged, 8, 10);
+
+    TieredPaymentsRepository reopened = open(1_000);
+
+    assertEquals(1, reopened.getColdSegments());
+    assertEquals(2, reopened.size());
+    assertTrue(Files.exists(directory.resolve("cold-000000-000001.seg")));
+    assertFalse(Files.exists(directory.resolve("cold-000000.seg")));
+    assertFalse(Files.exists(directory.resolve("cold-000001.seg")));
+    for (PaymentRecord payment : cold) {
+      assertTrue(reopened.get(payment.getId()).isPresent());
+    }
+  }
+
+  @Test
+  void whenSegmentIsWrittenThenEveryIdIsFoundWhateverItsPositionInTheIndex() throws Exception {
+    List<PaymentRecord> payments = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      payments.add(pending(i).transitionTo(PaymentStatus.AUTHORIZED, i % 7 == 0 ? null : "é" + i));
+    }
+    payments.sort((a, b) -> ColdSegment.ID_ORDER.compare(a.getId(), b.getId()));
+
+    ColdSegment segment = ColdSegment.write(directory.resolve("cold-000000.seg"), payments, 16,
+        10);
+
+    assertEquals(500, segment.records());
+    for (PaymentRecord payment : payments) {
+      assertEquals(payment.getAuthorizationCode(),
+          segment.get(payment.getId()).getAuthorizationCode());
+    }
+    assertNull(segment.get(new UUID(0, 0)));
+    assertNull(segment.get(new UUID(-1, -1)));
+  }
+
+  // Splits as far as the spliterator allows before reading, as a parallel scan would.
+  static void drain(Spliterator<PaymentRecord> payments, List<PaymentRecord> into) {
+    Spliterator<PaymentRecord> split = payments.trySplit();
+    if (split != null) {
+      drain(split, into);
+      drain(payments, into);
+      return;
+    }
+    payments.forEachRemaining(into::add);
+  }
+
+  private TieredPaymentsRepository open(int maxSegmentRecords) {
+    return new TieredPaymentsRepository(new RepositoryProperties.Tiered(directory,
+        Duration.ofMinutes(5), Duration.ofSeconds(30), maxSegmentRecords, 3, 8, 10), clock::get,
+        false);
+  }
+
+  private PaymentRecord addPending(PaymentsRepository repository) {
+    PaymentRecord pending = pending(0);
+    repository.add(pending);
+    return pending;
+  }
+
+  private PaymentRecord pending(int amount) {
+    UUID id = amount % 5 == 0 ? UUID.randomUUID() : paymentIdGenerator.next();
+    return PaymentRecord.pending(id, Currency.EUR, amount, 4321, 12, 2031,
+        amount % 2 == 0 ? BIN : null);
+  }
+}
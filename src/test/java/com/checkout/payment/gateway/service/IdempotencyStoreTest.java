@@ -0,0 +1,68 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyStoreTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  void whenAKeyOutlivesItsTtlThenItIsNoLongerAnsweredAndIsEvictedByTheNextPut() {
+    IdempotencyStore store = store(Duration.ofMinutes(1), 100);
+    CreatePaymentResponseDto answer = new CreatePaymentResponseDto();
+    store.put("old", answer);
+
+    clock.addAndGet(Duration.ofSeconds(59).toNanos());
+    assertSame(answer, store.get("old"));
+    clock.addAndGet(Duration.ofSeconds(2).toNanos());
+    assertNull(store.get("old"));
+
+    store.put("new", new CreatePaymentResponseDto());
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  void whenThereAreMoreKeysThanTheBoundThenTheOldestAreEvicted() {
+    IdempotencyStore store = store(Duration.ofHours(24), 3);
+    for (int i = 0; i < 5; i++) {
+      clock.incrementAndGet();
+      store.put("key-" + i, new CreatePaymentResponseDto());
+    }
+
+    assertEquals(3, store.size());
+    assertNull(store.get("key-0"));
+    assertNull(store.get("key-1"));
+    assertTrue(store.get("key-4") != null);
+  }
+
+  @Test
+  void whenAnAnswerIsReplacedThenOnlyTheExpectedOneIsAndTheKeyKeepsItsAge() {
+    IdempotencyStore store = store(Duration.ofMinutes(1), 100);
+    CreatePaymentResponseDto pending = new CreatePaymentResponseDto();
+    CreatePaymentResponseDto settled = new CreatePaymentResponseDto();
+    store.put("key", pending);
+
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+    assertFalse(store.replace("key", settled, new CreatePaymentResponseDto()));
+    assertTrue(store.replace("key", pending, settled));
+    assertSame(settled, store.get("key"));
+
+    clock.addAndGet(Duration.ofSeconds(31).toNanos());
+    store.put("other", new CreatePaymentResponseDto());
+    assertNull(store.get("key"));
+    assertEquals(1, store.size());
+  }
+
+  private IdempotencyStore store(Duration ttl, int maxKeys) {
+    return new IdempotencyStore(new IdempotencyProperties(ttl, maxKeys), clock::get);
+  }
+}
@@ -2,29 +2,64 @@ package com.checkout.payment.gateway.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.checkout.payment.gateway.api.CreatePaymentResponseDto;
 import com.checkout.payment.gateway.api.PaymentStatusDto;
+import com.checkout.payment.gateway.bin.BinIndex;
+import com.checkout.payment.gateway.bin.BinInfo;
 import com.checkout.payment.gateway.client.AcquiringBankClient;
+import com.checkout.payment.gateway.cluster.ClusterProperties;
+import com.checkout.payment.gateway.cluster.ClusterRouter;
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.FundingType;
+import com.checkout.payment.gateway.enums.Currency;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
 import com.checkout.payment.gateway.model.AcquiringBankResponse;
 import com.checkout.payment.gateway.model.CreatePaymentRequest;
-import com.checkout.payment.gateway.model.PaymentResponse;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.reconciliation.BankReconciler;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.sweeper.PendingPaymentSweeper;
+import com.checkout.payment.gateway.sweeper.SweeperProperties;
+import com.checkout.payment.gateway.tracing.PaymentTracer;
+import com.checkout.payment.gateway.tracing.SlowPaymentRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.SocketTimeoutException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.http.HttpStatus;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +71,47 @@ class PaymentGatewayServiceTest {
   @Mock
   private AcquiringBankClient acquiringBankClient;
 
+  @Mock
+  private PaymentEventLogger paymentEventLogger;
+
+  @Mock
+  private PaymentEventBus paymentEventBus;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy
+  private PaymentMetrics paymentMetrics = new PaymentMetrics(meterRegistry);
+
+  @Spy
+  private PaymentTracer paymentTracer =
+      new PaymentTracer(paymentMetrics, new SlowPaymentRecorder(10, 15, 250));
+
+  @Spy
+  private PaymentIdGenerator paymentIdGenerator = new PaymentIdGenerator();
+
+  @Spy
+  private BinIndex binIndex = new BinIndex(new ClassPathResource("bins.csv"));
+
+  @Spy
+  private ClusterRouter clusterRouter = new ClusterRouter(
+      new ClusterProperties(false, "local", null, 128, Duration.ofSeconds(1),
+          Duration.ofSeconds(10)), new ObjectMapper());
+
+  @Spy
+  private PendingPaymentSweeper pendingPaymentSweeper = new PendingPaymentSweeper(
+      new SweeperProperties(false, Duration.ofSeconds(30), Duration.ofMillis(100), 512, 16, 16),
+      null, null, null, null);
+
+  @Spy
+  private PaymentAggregates paymentAggregates = new PaymentAggregates();
+
+  @Mock
+  private BankReconciler bankReconciler;
+
+  @Spy
+  private IdempotencyStore idempotencyStore = new IdempotencyStore(
+      new IdempotencyProperties(Duration.ofHours(24), 1_000));
+
   @InjectMocks
   private PaymentGatewayService paymentGatewayService;
 
@@ -70,12 +146,11 @@ class PaymentGatewayServiceTest {
 
     assertEquals(PaymentStatusDto.DECLINED, response.getStatus());
 
-    // Payment should be saved twice: once as PENDING, once updated to DECLINED
-    ArgumentCaptor<PaymentResponse> captor = ArgumentCaptor.forClass(PaymentResponse.class);
+    // Payment should be saved as PENDING, then moved from that exact version to DECLINED
+    ArgumentCaptor<PaymentRecord> captor = ArgumentCaptor.forClass(PaymentRecord.class);
     verify(paymentsRepository, times(1)).add(captor.capture());
-    verify(paymentsRepository, times(1)).update(captor.capture());
-    PaymentResponse finalStored = captor.getAllValues().get(1);
-    assertEquals(PaymentStatus.DECLINED, finalStored.getStatus());
+    verify(paymentsRepository, times(1))
+        .transition(eq(captor.getValue()), eq(PaymentStatus.DECLINED), isNull());
   }
 
   @Test
@@ -94,6 +169,23 @@ class PaymentGatewayServiceTest {
     assertEquals(100, response.getAmount());
   }
 
+  @Test
+  void whenCardBinIsInTheTableThenStoredPaymentAndBankRequestCarryIt() {
+    when(acquiringBankClient.requestPayment(any())).thenReturn(new AcquiringBankResponse());
+
+    paymentGatewayService.processPayment(java.util.UUID.randomUUID().toString(), buildRequest());
+
+    BinInfo expected = new BinInfo(CardScheme.MASTERCARD, "GB", FundingType.DEBIT);
+    ArgumentCaptor<PaymentRecord> stored = ArgumentCaptor.forClass(PaymentRecord.class);
+    verify(paymentsRepository).add(stored.capture());
+    assertEquals(expected, stored.getValue().getBin());
+    ArgumentCaptor<AcquiringBankRequest> sent = ArgumentCaptor.forClass(AcquiringBankRequest.class);
+    verify(acquiringBankClient).requestPayment(sent.capture());
+    assertEquals(CardScheme.MASTERCARD, sent.getValue().getCardScheme());
+    assertEquals("GB", sent.getValue().getIssuerCountry());
+    assertEquals(FundingType.DEBIT, sent.getValue().getFundingType());
+  }
+
   @Test
   void whenPaymentProcessedThenPaymentIsSavedAsPendingThenUpdated() {
     AcquiringBankResponse acquiringBankResponse = new AcquiringBankResponse();
@@ -102,20 +194,19 @@ class PaymentGatewayServiceTest {
 
     List<PaymentStatus> statusesAtSave = new ArrayList<>();
     doAnswer(invocation -> {
-      PaymentResponse p = invocation.getArgument(0);
+      PaymentRecord p = invocation.getArgument(0);
       statusesAtSave.add(p.getStatus());
       return null;
-    }).when(paymentsRepository).add(any(PaymentResponse.class));
+    }).when(paymentsRepository).add(any(PaymentRecord.class));
     doAnswer(invocation -> {
-      PaymentResponse p = invocation.getArgument(0);
-      statusesAtSave.add(p.getStatus());
+      statusesAtSave.add(invocation.getArgument(1));
       return null;
-    }).when(paymentsRepository).update(any(PaymentResponse.class));
+    }).when(paymentsRepository).transition(any(PaymentRecord.class), any(), any());
 
     CreatePaymentResponseDto response = paymentGatewayService.processPayment(java.util.UUID.randomUUID().toString(), buildRequest());
 
-    verify(paymentsRepository, times(1)).add(any(PaymentResponse.class));
-    verify(paymentsRepository, times(1)).update(any(PaymentResponse.class));
+    verify(paymentsRepository, times(1)).add(any(PaymentRecord.class));
+    verify(paymentsRepository, times(1)).transition(any(PaymentRecord.class), any(), any());
 
     // First save should be PENDING, second should be AUTHORIZED
     assertEquals(PaymentStatus.PENDING, statusesAtSave.get(0));
@@ -130,6 +221,39 @@ class PaymentGatewayServiceTest {
     assertEquals(100, response.getAmount());
   }
 
+  @Test
+  void whenPaymentMovesThroughTheSagaThenEachStepIsPublished() {
+    AcquiringBankResponse authorized = new AcquiringBankResponse();
+    authorized.setAuthorized(true);
+    when(acquiringBankClient.requestPayment(any())).thenReturn(authorized)
+        .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+    when(paymentsRepository.transition(any(PaymentRecord.class), any(), any()))
+        .thenAnswer(invocation -> ((PaymentRecord) invocation.getArgument(0))
+            .transitionTo(invocation.getArgument(1), invocation.getArgument(2)));
+    when(paymentsRepository.remove(any(PaymentRecord.class))).thenReturn(true);
+
+    paymentGatewayService.processPayment("first", buildRequest());
+    paymentGatewayService.processPayment("second", buildRequest());
+
+    ArgumentCaptor<PaymentRecord> payments = ArgumentCaptor.forClass(PaymentRecord.class);
+    verify(paymentEventBus).publish(eq(PaymentEventType.CREATED), payments.capture(),
+        eq("first"), isNull());
+    verify(paymentEventBus).publish(eq(PaymentEventType.AUTHORIZED), payments.capture(),
+        eq("first"), isNull());
+    verify(paymentEventBus).publish(eq(PaymentEventType.CREATED), payments.capture(),
+        eq("second"), isNull());
+    verify(paymentEventBus).publish(eq(PaymentEventType.COMPENSATED), payments.capture(),
+        eq("second"), eq("HttpServerErrorException"));
+    assertEquals(0, payments.getAllValues().get(0).getVersion());
+    assertEquals(1, payments.getAllValues().get(1).getVersion());
+    assertEquals(PaymentStatus.PENDING, payments.getAllValues().get(3).getStatus());
+    assertEquals(1, paymentAggregates.getCount(Currency.GBP, PaymentStatus.AUTHORIZED));
+    assertEquals(100, paymentAggregates.getAmount(Currency.GBP, PaymentStatus.AUTHORIZED));
+    assertEquals(0, paymentAggregates.getCount(Currency.GBP, PaymentStatus.PENDING));
+    assertEquals(0, paymentAggregates.getAmount(Currency.GBP, PaymentStatus.PENDING));
+    assertEquals(2, paymentAggregates.getRecent(Currency.GBP, PaymentStatus.PENDING, 1).count());
+  }
+
   @Test
   void whenBankThrowsExceptionThenPaymentIsRemovedFromRepository() {
     when(acquiringBankClient.requestPayment(any()))
@@ -140,13 +264,51 @@ class PaymentGatewayServiceTest {
     assertEquals(PaymentStatusDto.DECLINED, response.getStatus());
 
     // Payment was saved as PENDING
-    ArgumentCaptor<PaymentResponse> captor = ArgumentCaptor.forClass(PaymentResponse.class);
+    ArgumentCaptor<PaymentRecord> captor = ArgumentCaptor.forClass(PaymentRecord.class);
     verify(paymentsRepository).add(captor.capture());
-    PaymentResponse pendingSave = captor.getValue();
+    PaymentRecord pendingSave = captor.getValue();
     assertEquals(PaymentStatus.PENDING, pendingSave.getStatus());
 
-    // Then removed as compensation
-    verify(paymentsRepository).remove(pendingSave.getId());
+    // Then removed as compensation, only if still at that version
+    verify(paymentsRepository).remove(pendingSave);
+  }
+
+  @Test
+  void whenBankCallTimesOutThenPaymentIsKeptUnknownAndASameKeyRetryReadsItsOutcome() {
+    when(acquiringBankClient.requestPayment(any())).thenThrow(
+        new ResourceAccessException("Read timed out", new SocketTimeoutException()));
+    when(paymentsRepository.transition(any(PaymentRecord.class), any(), any()))
+        .thenAnswer(invocation -> ((PaymentRecord) invocation.getArgument(0))
+            .transitionTo(invocation.getArgument(1), invocation.getArgument(2)));
+    when(bankReconciler.submit(any(), any(), any())).thenReturn(true);
+
+    CreatePaymentResponseDto first = paymentGatewayService.processPayment("timed-out",
+        buildRequest());
+
+    assertEquals(PaymentStatusDto.PENDING, first.getStatus());
+    verify(paymentsRepository, never()).remove(any(PaymentRecord.class));
+    verify(bankReconciler).submit(
+        argThat(payment -> payment.getStatus() == PaymentStatus.UNKNOWN),
+        argThat(sent -> first.getId().equals(sent.getPaymentId())
+            && "2222405343248877".equals(sent.getCardNumber())),
+        eq("timed-out"));
+    verify(paymentEventBus).publish(eq(PaymentEventType.EXPIRED), any(), eq("timed-out"),
+        eq("ResourceAccessException"));
+    assertEquals(1, paymentAggregates.getCount(Currency.GBP, PaymentStatus.UNKNOWN));
+
+    // The reconciler settles it; the retry reads that from the store.
+    when(paymentsRepository.get(first.getId())).thenReturn(Optional.of(new PaymentRecord(
+        first.getId(), PaymentStatus.AUTHORIZED, Currency.GBP, 100, 8877, 4, 2027, null,
+        "auth-code", 2)));
+    CreatePaymentResponseDto retried = paymentGatewayService.processPayment("timed-out",
+        buildRequest());
+
+    assertEquals(first.getId(), retried.getId());
+    assertEquals(PaymentStatusDto.AUTHORIZED, retried.getStatus());
+    assertEquals(PaymentStatusDto.PENDING, first.getStatus());
+    assertEquals(PaymentStatusDto.AUTHORIZED,
+        paymentGatewayService.processPayment("timed-out", buildRequest()).getStatus());
+    verify(acquiringBankClient, times(1)).requestPayment(any());
   }
 
   @Test
@@ -165,6 +327,44 @@ class PaymentGatewayServiceTest {
     verify(acquiringBankClient, times(1)).requestPayment(any());
   }
 
+  @Test
+  void whenPaymentsAreProcessedThenStepTimersAndCountersAreRecorded() {
+    AcquiringBankResponse acquiringBankResponse = new AcquiringBankResponse();
+    acquiringBankResponse.setAuthorized(true);
+    when(acquiringBankClient.requestPayment(any())).thenReturn(acquiringBankResponse);
+    String idempotencyKey = java.util.UUID.randomUUID().toString();
+
+    paymentGatewayService.processPayment(idempotencyKey, buildRequest());
+    paymentGatewayService.processPayment(idempotencyKey, buildRequest());
+
+    assertEquals(1, meterRegistry.get("payment.step.duration").tag("step", "bank_call").timer().count());
+    assertEquals(1, meterRegistry.get("payment.step.duration").tag("step", "pending_persist").timer().count());
+    assertEquals(1, meterRegistry.get("payment.step.duration").tag("step", "final_update").timer().count());
+    assertEquals(2, meterRegistry.get("payment.step.duration").tag("step", "idempotency_lookup").timer().count());
+    assertEquals(1, meterRegistry.get("payment.bank.duration").tag("outcome", "authorized").timer().count());
+    assertEquals(1, meterRegistry.get("payment.idempotency.lookups").tag("result", "hit").counter().count());
+    assertEquals(1, meterRegistry.get("payment.idempotency.lookups").tag("result", "miss").counter().count());
+    assertEquals(1, meterRegistry.get("payment.completed")
+        .tag("status", "authorized").tag("currency", "GBP").counter().count());
+    assertTrue(meterRegistry.get("payment.startup.first.authorized").timeGauge()
+        .value(TimeUnit.MILLISECONDS) > 0);
+  }
+
+  @Test
+  void whenCircuitIsOpenThenBankCallIsRecordedAsCircuitOpen() {
+    when(acquiringBankClient.requestPayment(any())).thenThrow(
+        CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("bank")));
+
+    paymentGatewayService.processPayment(java.util.UUID.randomUUID().toString(), buildRequest());
+
+    assertEquals(1, meterRegistry.get("payment.bank.duration").tag("outcome", "circuit_open").timer().count());
+    assertEquals(1, meterRegistry.get("payment.step.duration").tag("step", "compensation").timer().count());
+    assertEquals(1, meterRegistry.get("payment.completed")
+        .tag("status", "declined").tag("currency", "GBP").counter().count());
+    assertEquals(-1, meterRegistry.get("payment.startup.first.authorized").timeGauge()
+        .value(TimeUnit.MILLISECONDS));
+  }
+
   private CreatePaymentRequest buildRequest() {
     CreatePaymentRequest request = new CreatePaymentRequest();
     request.setCardNumber("2222405343248877");
@@ -0,0 +1,143 @@
+package com.checkout.payment.gateway.settlement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class SettlementReportJobTest {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+  private static final long DAY_START = TimeUnit.DAYS.toMillis(DAY.toEpochDay());
+
+  @TempDir
+  Path directory;
+
+  private final PaymentsRepository paymentsRepository = new InMemoryPaymentsRepository();
+  private SettlementReportJob job;
+
+  @AfterEach
+  void tearDown() {
+    job.shutdown();
+  }
+
+  @Test
+  void whenTheDayIsReportedThenItsAuthorizedPaymentsAndPerCurrencyTotalsAreWritten()
+      throws Exception {
+    Set<String> expected = new HashSet<>();
+    long[] counts = new long[Currency.values().length];
+    long[] amounts = new long[Currency.values().length];
+    for (int i = 0; i < 3_000; i++) {
+      UUID id = id(DAY_START + i * 20_000L, i);
+      Currency currency = Currency.values()[i % Currency.values().length];
+      PaymentRecord pending = PaymentRecord.pending(id, currency, i, 1234, 1, 2030, null);
+      paymentsRepository.add(pending);
+      if (i % 4 == 3) {
+        paymentsRepository.transition(pending, PaymentStatus.DECLINED, null);
+      } else if (i % 4 != 2) {
+        paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "auth-" + i);
+        expected.add("P," + currency + "," + id + "," + i + ",auth-" + i);
+        counts[currency.ordinal()]++;
+        amounts[currency.ordinal()] += i;
+      }
+    }
+    authorized(id(DAY_START - 1, 0));
+    authorized(id(DAY_START + TimeUnit.DAYS.toMillis(1), 1));
+    job = new SettlementReportJob(paymentsRepository, properties(4, 64), () -> DAY_START);
+
+    SettlementRun run = job.start(DAY).orElseThrow();
+    Path file = run.getReport().get(10, TimeUnit.SECONDS);
+
+    assertEquals(directory.resolve("settlement-20260314.csv"), file);
+    List<String> lines = Files.readAllLines(file);
+    assertEquals("# settlement 2026-03-14 UTC", lines.get(0));
+    int payments = lines.size() - 1 - Currency.values().length;
+    assertEquals(expected, new HashSet<>(lines.subList(1, 1 + payments)));
+    assertEquals(expected.size(), payments);
+    for (Currency currency : Currency.values()) {
+      assertEquals("T," + currency + "," + counts[currency.ordinal()] + ","
+          + amounts[currency.ordinal()], lines.get(1 + payments + currency.ordinal()));
+    }
+    assertEquals(SettlementRun.State.COMPLETED, run.getState());
+    assertEquals(3_000, run.getScanned());
+    assertEquals(1_500, run.getAuthorized());
+    assertTrue(run.getPartitions() > 1);
+    assertEquals(run.getPartitions(), run.getPartitionsDone());
+    assertFalse(Files.exists(directory.resolve("settlement-20260314.csv.tmp")));
+  }
+
+  @Test
+  void whenADayHasNoPaymentsThenItsReportHasZeroTotals() throws Exception {
+    authorized(id(DAY_START + 1, 0));
+    job = new SettlementReportJob(paymentsRepository, properties(1, 8192), () -> DAY_START);
+
+    Path file = job.start(DAY.plusDays(1)).orElseThrow().getReport().get(10, TimeUnit.SECONDS);
+
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(1 + Currency.values().length, lines.size());
+    assertEquals("T," + Currency.values()[0] + ",0,0", lines.get(1));
+    assertEquals(SettlementRun.State.COMPLETED, job.getLatest().orElseThrow().getState());
+  }
+
+  @Test
+  void whenAnAuthorizationCodeHasSeparatorsOrIsTooLongThenItIsQuotedAndCut() throws Exception {
+    List<String> codes = List.of("a,b", "say \"hi\"", "line\nbreak", "é".repeat(500),
+        "x".repeat(63) + "\uD83D\uDE00");
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < codes.size(); i++) {
+      UUID id = id(DAY_START + i, i);
+      PaymentRecord pending = PaymentRecord.pending(id, Currency.GBP, i, 1234, 1, 2030, null);
+      paymentsRepository.add(pending);
+      paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, codes.get(i));
+      ids.add(id);
+    }
+    job = new SettlementReportJob(paymentsRepository, properties(1, 8192), () -> DAY_START);
+
+    Path file = job.start(DAY).orElseThrow().getReport().get(10, TimeUnit.SECONDS);
+
+    String report = Files.readString(file);
+    assertTrue(report.contains("P,GBP," + ids.get(0) + ",0,\"a,b\"\n"));
+    assertTrue(report.contains("P,GBP," + ids.get(1) + ",1,\"say \"\"hi\"\"\"\n"));
+    assertTrue(report.contains("P,GBP," + ids.get(2) + ",2,\"line\nbreak\"\n"));
+    assertTrue(report.contains("P,GBP," + ids.get(3) + ",3," + "é".repeat(64) + "\n"));
+    assertTrue(report.contains("P,GBP," + ids.get(4) + ",4," + "x".repeat(63) + "\n"));
+    assertTrue(report.endsWith("T," + Currency.values()[Currency.values().length - 1] + ",0,0\n"));
+  }
+
+  private void authorized(UUID id) {
+    PaymentRecord pending = PaymentRecord.pending(id, Currency.GBP, 1, 1234, 1, 2030, null);
+    paymentsRepository.add(pending);
+    paymentsRepository.transition(pending, PaymentStatus.AUTHORIZED, "outside");
+  }
+
+  private static UUID id(long millis, int sequence) {
+    UUID lowest = PaymentIdGenerator.lowerBound(millis);
+    return new UUID(lowest.getMostSignificantBits() | (sequence & 0xFFF),
+        lowest.getLeastSignificantBits() | sequence);
+  }
+
+  private SettlementProperties properties(int parallelism, int partitionSize) {
+    return new SettlementProperties(false, Duration.ofMinutes(30), directory, parallelism,
+        partitionSize, DataSize.ofKilobytes(1));
+  }
+}
@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BankSimulatorTest {
+
+  private final BankSimulator bankSimulator = new BankSimulator(properties(
+      LatencyDistribution.NONE, 0, 0));
+
+  @ParameterizedTest
+  @ValueSource(strings = {"2222405343248871", "2222405343248873", "2222405343248879"})
+  void whenCardEndsInOddDigitThenAuthorized(String cardNumber) {
+    SimulatedBankResponse response = bankSimulator.respond(body(cardNumber));
+
+    assertEquals(200, response.statusCode());
+    assertEquals(true, response.body().get("authorized"));
+    assertFalse(((String) response.body().get("authorization_code")).isEmpty());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"2222405343248872", "2222405343248878"})
+  void whenCardEndsInEvenDigitThenDeclined(String cardNumber) {
+    SimulatedBankResponse response = bankSimulator.respond(body(cardNumber));
+
+    assertEquals(200, response.statusCode());
+    assertEquals(false, response.body().get("authorized"));
+    assertEquals("", response.body().get("authorization_code"));
+  }
+
+  @Test
+  void whenCardEndsInZeroThenServiceUnavailable() {
+    assertEquals(503, bankSimulator.respond(body("2222405343248870")).statusCode());
+  }
+
+  @Test
+  void whenFieldIsMissingThenBadRequest() {
+    Map<String, Object> body = body("2222405343248877");
+    body.remove("cvv");
+
+    SimulatedBankResponse response = bankSimulator.respond(body);
+
+    assertEquals(400, response.statusCode());
+    assertEquals("Not all required properties were sent in the request",
+        response.body().get("error_message"));
+  }
+
+  @Test
+  void whenRequestIsReplayedWithTheSameKeyThenTheFirstAnswerComesBack() {
+    SimulatedBankResponse first = bankSimulator.respond("payment-1", body("2222405343248877"));
+    SimulatedBankResponse replayed = bankSimulator.respond("payment-1", body("2222405343248877"));
+    SimulatedBankResponse other = bankSimulator.respond("payment-2", body("2222405343248877"));
+
+    assertEquals(first.body().get("authorization_code"),
+        replayed.body().get("authorization_code"));
+    assertNotEquals(first.body().get("authorization_code"),
+        other.body().get("authorization_code"));
+    assertNotEquals(first.body().get("authorization_code"),
+        bankSimulator.respond(body("2222405343248877")).body().get("authorization_code"));
+  }
+
+  @Test
+  void whenErrorRateIsOneThenEveryRequestFails() {
+    BankSimulator failing = new BankSimulator(properties(LatencyDistribution.NONE, 1, 0));
+
+    assertEquals(503, failing.respond(body("2222405343248877")).statusCode());
+  }
+
+  @Test
+  void whenStallProbabilityIsOneThenStallIsAddedToLatency() {
+    BankSimulator stalling = new BankSimulator(properties(LatencyDistribution.NONE, 0, 1));
+
+    assertEquals(Duration.ofSeconds(10).toNanos(),
+        stalling.respond(body("2222405343248877")).delayNanos());
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = LatencyDistribution.class, names = {"UNIFORM", "EXPONENTIAL", "LOG_NORMAL"})
+  void whenLatencyIsSampledThenMeanIsCloseToConfiguredAndCappedAtMax(
+      LatencyDistribution distribution) {
+    BankSimulator simulator = new BankSimulator(properties(distribution, 0, 0));
+    long max = Duration.ofSeconds(2).toNanos();
+    double total = 0;
+    int samples = 200_000;
+    for (int i = 0; i < samples; i++) {
+      long latency = simulator.sampleLatencyNanos(ThreadLocalRandom.current());
+      assertTrue(latency >= 0 && latency <= max);
+      total += latency;
+    }
+
+    double meanMillis = total / samples / 1_000_000;
+    assertEquals(50, meanMillis, 2.5);
+  }
+
+  private static BankSimulatorProperties properties(LatencyDistribution distribution,
+      double errorRate, double stallProbability) {
+    return new BankSimulatorProperties(distribution, Duration.ofMillis(50), 0.5,
+        Duration.ofSeconds(2), errorRate, stallProbability, Duration.ofSeconds(10));
+  }
+
+  private static Map<String, Object> body(String cardNumber) {
+    Map<String, Object> body = new HashMap<>();
+    body.put("card_number", cardNumber);
+    body.put("expiry_date", "04/2030");
+    body.put("currency", "GBP");
+    body.put("amount", 100);
+    body.put("cvv", "123");
+    return body;
+  }
+}
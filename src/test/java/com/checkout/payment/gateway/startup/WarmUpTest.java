@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.startup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.reconciliation.BankReconciler;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.sweeper.PendingPaymentSweeper;
+import com.checkout.payment.gateway.tracing.SlowPaymentRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+// The real bank URL points at a closed port: only the warm-up stub can authorize anything.
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "bank.url=http://localhost:1/payments",
+    "warm-up.iterations=300",
+    "warm-up.bank-connections=2",
+    "payment.slow-payments.threshold-millis=0"
+})
+class WarmUpTest {
+
+  @Autowired
+  private WarmUp warmUp;
+
+  @Autowired
+  private ApplicationAvailability applicationAvailability;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private PaymentsRepository paymentsRepository;
+
+  @Autowired
+  private PaymentAggregates paymentAggregates;
+
+  @Autowired
+  private MerchantRateLimiter merchantRateLimiter;
+
+  @Autowired
+  private SlowPaymentRecorder slowPaymentRecorder;
+
+  @Autowired
+  private PendingPaymentSweeper pendingPaymentSweeper;
+
+  @Autowired
+  private BankReconciler bankReconciler;
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Test
+  void whenStartupCompletesThenWarmUpHasRunAgainstTheStubAndLeftNoTrace() {
+    assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+    assertTrue(warmUp.getCompleted() > 0);
+
+    assertEquals(0, meterRegistry.get("payment.step.duration").tag("step", "bank_call")
+        .timer().count());
+    assertEquals(0, meterRegistry.get("payment.bank.duration").tag("outcome", "authorized")
+        .timer().count());
+    assertTrue(meterRegistry.find("payment.completed").counters().isEmpty());
+    assertEquals(0, paymentsRepository.size());
+    assertEquals(0, paymentAggregates.getCount(Currency.GBP, PaymentStatus.AUTHORIZED));
+    assertEquals(0, paymentAggregates.getCount(Currency.GBP, PaymentStatus.DECLINED));
+    assertTrue(merchantRateLimiter.snapshot().isEmpty());
+    assertTrue(slowPaymentRecorder.slowest(15).isEmpty());
+
+    assertEquals(HttpStatus.NOT_FOUND, restTemplate.postForEntity("/internal/warm-up/bank",
+        Map.of("card_number", "2222405343248877"), String.class).getStatusCode());
+  }
+
+  // Every warm-up payment was valid and accepted, so none was rejected and logged as an error.
+  // Once the warm-up is over its endpoint is gone, even for a valid payment with a token.
+  @Test
+  void whenWarmUpHasRunThenEveryPaymentWasAcceptedAndItsEndpointIsGone() {
+    assertEquals(300, warmUp.getCompleted());
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.set("Idempotency-Key", "after-warm-up");
+    headers.set(WarmUpEndpoint.TOKEN_HEADER, "guessed");
+    Map<String, Object> payment = Map.of("card_number", "2222405343248877", "expiry_month", 4,
+        "expiry_year", 2030, "currency", "GBP", "amount", 100, "cvv", "123");
+
+    assertEquals(HttpStatus.NOT_FOUND, restTemplate.postForEntity("/internal/warm-up/payment",
+        new HttpEntity<>(payment, headers), String.class).getStatusCode());
+    assertEquals(0, paymentsRepository.size());
+  }
+
+  // The live sweeper and reconciler move aggregates without checking where a payment came from.
+  // Warm-up payments never reach them, so no cell can be decremented below zero by one.
+  @Test
+  void whenWarmUpHasRunThenTheLiveSweeperReconcilerAndAggregatesNeverSawItsPayments() {
+    assertTrue(warmUp.getCompleted() > 0);
+
+    assertEquals(0, pendingPaymentSweeper.getOutstanding());
+    assertEquals(0, pendingPaymentSweeper.getMarked());
+    assertEquals(0, bankReconciler.getOutstanding());
+    assertEquals(0, bankReconciler.getReplays());
+    assertEquals(0, bankReconciler.getResolved());
+    for (Currency currency : Currency.values()) {
+      for (PaymentStatus status : PaymentStatus.values()) {
+        assertEquals(0, paymentAggregates.getCount(currency, status), currency + " " + status);
+        assertEquals(0, paymentAggregates.getAmount(currency, status), currency + " " + status);
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.checkout.payment.gateway.sweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+  private static final Duration TICK = Duration.ofMillis(100);
+
+  private final List<String> fired = new ArrayList<>();
+
+  @Test
+  void whenTicksPassThenTimeoutsFireOnTheirTickEvenBeyondOneTurnOfTheWheel() {
+    HashedTimingWheel<String> wheel = new HashedTimingWheel<>("test", TICK, 8, fired::add, false);
+    wheel.schedule("rounded-up", Duration.ofMillis(250));
+    wheel.schedule("next-turn", Duration.ofMillis(1_100));
+    wheel.schedule("two-turns-later", Duration.ofMillis(1_900));
+
+    advance(wheel, 2);
+    assertTrue(fired.isEmpty());
+    advance(wheel, 1);
+    assertEquals(List.of("rounded-up"), fired);
+    advance(wheel, 7);
+    assertEquals(List.of("rounded-up"), fired);
+    advance(wheel, 1);
+    assertEquals(List.of("rounded-up", "next-turn"), fired);
+    assertEquals(1, wheel.size());
+    advance(wheel, 8);
+    assertEquals(List.of("rounded-up", "next-turn", "two-turns-later"), fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void whenTimeoutIsCancelledThenItNeverFiresAndCancelsOnlyOnce() {
+    HashedTimingWheel<String> wheel = new HashedTimingWheel<>("test", TICK, 8, fired::add, false);
+    HashedTimingWheel.Timeout cancelled = wheel.schedule("cancelled", TICK);
+    HashedTimingWheel.Timeout kept = wheel.schedule("kept", TICK);
+    wheel.schedule("also-kept", TICK);
+
+    assertTrue(cancelled.cancel());
+    assertFalse(cancelled.cancel());
+    advance(wheel, 1);
+
+    assertEquals(Set.of("kept", "also-kept"), Set.copyOf(fired));
+    assertFalse(kept.cancel());
+    assertFalse(HashedTimingWheel.Timeout.NONE.cancel());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void whenManyThreadsScheduleAndCancelWhileTheWheelTurnsThenEachTimeoutEndsExactlyOnce()
+      throws Exception {
+    Set<Integer> expired = ConcurrentHashMap.newKeySet();
+    HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>("test", Duration.ofMillis(1), 64,
+        expired::add);
+    int threads = 8;
+    int perThread = 20_000;
+    Set<Integer> cancelled = ConcurrentHashMap.newKeySet();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int first = t * perThread;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = first; i < first + perThread; i++) {
+            HashedTimingWheel.Timeout timeout = wheel.schedule(i, Duration.ofMillis(i % 50));
+            if (i % 2 == 0 && timeout.cancel()) {
+              cancelled.add(i);
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (wheel.size() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+    } finally {
+      executor.shutdownNow();
+      wheel.close();
+    }
+
+    assertEquals(0, wheel.size());
+    assertEquals(threads * perThread, expired.size() + cancelled.size());
+    for (Integer id : cancelled) {
+      assertFalse(expired.contains(id));
+    }
+  }
+
+  private static void advance(HashedTimingWheel<?> wheel, int ticks) {
+    for (int i = 0; i < ticks; i++) {
+      wheel.tick();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.checkout.payment.gateway.sweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.Currency;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.events.FullPolicy;
+import com.checkout.payment.gateway.events.PaymentEvent;
+import com.checkout.payment.gateway.events.PaymentEventBus;
+import com.checkout.payment.gateway.events.PaymentEventBusProperties;
+import com.checkout.payment.gateway.events.PaymentEventSubscriber;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.events.WaitStrategy;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.metrics.PaymentAggregates;
+import com.checkout.payment.gateway.model.PaymentRecord;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PendingPaymentSweeperTest {
+
+  private final PaymentsRepository paymentsRepository = new InMemoryPaymentsRepository();
+  private final List<PaymentEventType> events = new CopyOnWriteArrayList<>();
+  private final PaymentEventBus paymentEventBus = new PaymentEventBus(
+      new PaymentEventBusProperties(64, FullPolicy.BLOCK, WaitStrategy.YIELDING, Map.of()),
+      List.of(new PaymentEventSubscriber() {
+        @Override
+        public String name() {
+          return "recorder";
+        }
+
+        @Override
+        public void onEvent(PaymentEvent event, boolean endOfBatch) {
+          events.add(event.getType());
+        }
+      }));
+  private final PaymentEventLogger paymentEventLogger = new PaymentEventLogger("async", 64, 1.0);
+  private final PaymentAggregates paymentAggregates = new PaymentAggregates();
+  private final PendingPaymentSweeper sweeper = new PendingPaymentSweeper(
+      new SweeperProperties(true, Duration.ofMillis(200), Duration.ofMillis(10), 64, 16, 8),
+      paymentsRepository, paymentEventBus, paymentEventLogger, paymentAggregates);
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    sweeper.shutdown();
+    paymentEventBus.shutdown();
+    paymentEventLogger.shutdown();
+  }
+
+  @Test
+  void whenPaymentIsStillPendingAtItsDeadlineThenItIsMarkedUnknown() throws Exception {
+    PaymentRecord stuck = pending();
+    PaymentRecord settledInTime = pending();
+    PaymentRecord settledLate = pending();
+    sweeper.track(stuck.getId());
+    HashedTimingWheel.Timeout timeout = sweeper.track(settledInTime.getId());
+    sweeper.track(settledLate.getId());
+    assertEquals(3, sweeper.getOutstanding());
+
+    paymentsRepository.transition(settledInTime, PaymentStatus.AUTHORIZED, "auth-code");
+    timeout.cancel();
+    awaitMarked(2);
+    assertEquals(2, paymentAggregates.getCount(Currency.GBP, PaymentStatus.UNKNOWN));
+    assertEquals(200, paymentAggregates.getAmount(Currency.GBP, PaymentStatus.UNKNOWN));
+    PaymentRecord unknown = paymentsRepository.get(settledLate.getId()).orElseThrow();
+    paymentsRepository.transition(unknown, PaymentStatus.DECLINED, null);
+    paymentEventBus.shutdown();
+
+    assertEquals(PaymentStatus.UNKNOWN,
+        paymentsRepository.get(stuck.getId()).orElseThrow().getStatus());
+    assertEquals(PaymentStatus.AUTHORIZED,
+        paymentsRepository.get(settledInTime.getId()).orElseThrow().getStatus());
+    assertEquals(PaymentStatus.DECLINED,
+        paymentsRepository.get(settledLate.getId()).orElseThrow().getStatus());
+    assertEquals(List.of(PaymentEventType.EXPIRED, PaymentEventType.EXPIRED), events);
+    assertEquals(0, sweeper.getOutstanding());
+  }
+
+  @Test
+  void whenPaymentWasRemovedOrSettledThenSweepingItChangesNothing() throws Exception {
+    PaymentRecord settled = pending();
+    paymentsRepository.transition(settled, PaymentStatus.DECLINED, null);
+
+    sweeper.sweep(settled.getId());
+    sweeper.sweep(UUID.randomUUID());
+
+    assertEquals(PaymentStatus.DECLINED,
+        paymentsRepository.get(settled.getId()).orElseThrow().getStatus());
+    assertEquals(0, sweeper.getMarked());
+    paymentEventBus.shutdown();
+  }
+
+  private void awaitMarked(long count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (sweeper.getMarked() < count && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(sweeper.getMarked() >= count, "marked " + sweeper.getMarked());
+  }
+
+  private PaymentRecord pending() {
+    PaymentRecord pending = PaymentRecord.pending(UUID.randomUUID(), Currency.GBP, 100, 8877, 4,
+        2030, null);
+    paymentsRepository.add(pending);
+    return pending;
+  }
+}
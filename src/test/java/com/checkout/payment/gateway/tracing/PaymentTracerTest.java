@@ -0,0 +1,120 @@
+package com.checkout.payment.gateway.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.PaymentStep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class PaymentTracerTest {
+
+  private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toMillis(1));
+
+  @Test
+  void whenMinuteIsFullThenOnlySlowerPaymentsReplaceTheFastestKept() {
+    SlowPaymentRecorder recorder = new SlowPaymentRecorder(2, 5, 0, clock::get);
+
+    recorder.offer(trace("a"), millis(30));
+    recorder.offer(trace("b"), millis(10));
+    recorder.offer(trace("c"), millis(5));
+    recorder.offer(trace("d"), millis(20));
+
+    List<SlowPayment> slowest = recorder.slowest(1);
+    assertEquals(List.of("a", "d"),
+        slowest.stream().map(SlowPayment::idempotencyKey).collect(Collectors.toList()));
+  }
+
+  @Test
+  void whenPaymentIsUnderThresholdOrMinuteHasExpiredThenItIsNotReported() {
+    SlowPaymentRecorder recorder = new SlowPaymentRecorder(10, 2, millis(100), clock::get);
+
+    recorder.offer(trace("fast"), millis(99));
+    recorder.offer(trace("slow"), millis(150));
+    assertEquals(1, recorder.slowest(2).size());
+
+    clock.addAndGet(TimeUnit.MINUTES.toMillis(2));
+    assertTrue(recorder.slowest(2).isEmpty());
+  }
+
+  @Test
+  void whenWorkRunsTracedThenPhaseBreakdownReachesRecorderAndJfr() throws Exception {
+    SlowPaymentRecorder recorder = new SlowPaymentRecorder(10, 5, 0, clock::get);
+    PaymentTracer tracer = new PaymentTracer(new PaymentMetrics(new SimpleMeterRegistry()),
+        recorder);
+    UUID paymentId = UUID.randomUUID();
+    Path dump = Files.createTempFile("payment-trace", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("com.checkout.payment.Phase");
+      recording.enable("com.checkout.payment.Request");
+      recording.start();
+      PaymentTrace trace = tracer.start("POST /payment");
+      tracer.traced(trace, () -> {
+        tracer.annotate(paymentId, "key-1", null);
+        PaymentPhaseEvent phase = tracer.begin(PaymentStep.BANK_CALL);
+        tracer.end(phase, paymentId, "authorized");
+        tracer.annotate(null, null, "authorized");
+        return null;
+      }).get();
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    SlowPayment payment = recorder.slowest(1).get(0);
+    assertEquals(paymentId, payment.paymentId());
+    assertEquals("authorized", payment.outcome());
+    assertEquals(List.of("request_binding", "lane_queue", "bank_call"),
+        List.copyOf(payment.phaseNanos().keySet()));
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    Files.delete(dump);
+    RecordedEvent bankCall = events.stream()
+        .filter(event -> "bank_call".equals(event.getString("phase")))
+        .findFirst().orElseThrow();
+    assertEquals(paymentId.toString(), bankCall.getString("paymentId"));
+    assertEquals("authorized", bankCall.getString("outcome"));
+    assertTrue(events.stream().anyMatch(event ->
+        event.getEventType().getName().equals("com.checkout.payment.Request")
+            && "authorized".equals(event.getString("outcome"))));
+  }
+
+  @Test
+  void whenLaneRefusesTheWorkThenTheQueuePhaseAndRequestAreEndedOnce() {
+    SlowPaymentRecorder recorder = new SlowPaymentRecorder(10, 5, 0, clock::get);
+    PaymentTracer tracer = new PaymentTracer(new PaymentMetrics(new SimpleMeterRegistry()),
+        recorder);
+    PaymentTrace trace = tracer.start("POST /payment");
+    tracer.traced(trace, () -> null);
+
+    tracer.abandon(trace, "LaneSaturatedException");
+    tracer.abandon(trace, "LaneSaturatedException");
+
+    List<SlowPayment> payments = recorder.slowest(1);
+    assertEquals(1, payments.size());
+    assertEquals("LaneSaturatedException", payments.get(0).outcome());
+    assertEquals(List.of("request_binding", "lane_queue"),
+        List.copyOf(payments.get(0).phaseNanos().keySet()));
+  }
+
+  private static PaymentTrace trace(String idempotencyKey) {
+    PaymentTrace trace = new PaymentTrace("POST /payment", new PaymentRequestEvent(), null);
+    trace.setIdempotencyKey(idempotencyKey);
+    return trace;
+  }
+
+  private static long millis(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
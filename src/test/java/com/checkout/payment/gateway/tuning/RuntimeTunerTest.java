@@ -0,0 +1,222 @@
+package com.checkout.payment.gateway.tuning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.audit.AuditProperties;
+import com.checkout.payment.gateway.audit.AuditRecord;
+import com.checkout.payment.gateway.audit.AuditTrailReader;
+import com.checkout.payment.gateway.audit.AuditTrailWriter;
+import com.checkout.payment.gateway.client.BankCircuitBreakers;
+import com.checkout.payment.gateway.client.BankPartitioning;
+import com.checkout.payment.gateway.client.BankRequestFactory;
+import com.checkout.payment.gateway.exception.InvalidSettingsException;
+import com.checkout.payment.gateway.execution.ExecutionLane;
+import com.checkout.payment.gateway.events.PaymentEventType;
+import com.checkout.payment.gateway.execution.SaturationPolicy;
+import com.checkout.payment.gateway.logging.PaymentEventLogger;
+import com.checkout.payment.gateway.model.AcquiringBankRequest;
+import com.checkout.payment.gateway.ratelimit.MerchantRateLimiter;
+import com.checkout.payment.gateway.ratelimit.RateLimitProperties;
+import com.checkout.payment.gateway.sweeper.SweeperProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class RuntimeTunerTest {
+
+  private final ExecutionLane readLane = new ExecutionLane("read", 4, 16, SaturationPolicy.REJECT);
+  private final ExecutionLane writeLane =
+      new ExecutionLane("write", 4, 16, SaturationPolicy.REJECT);
+  private final BankRequestFactory bankRequestFactory =
+      new BankRequestFactory(Duration.ofSeconds(5), Duration.ofSeconds(5));
+  private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+  private final BankCircuitBreakers bankCircuitBreakers = new BankCircuitBreakers(
+      circuitBreakerRegistry, BankPartitioning.CURRENCY, 6, 256);
+  private final MerchantRateLimiter merchantRateLimiter = new MerchantRateLimiter(
+      new RateLimitProperties(true, "Merchant-Id", 100, 200, 10_000, Duration.ofMinutes(1),
+          100, 200, Map.of()));
+  private final PaymentEventLogger paymentEventLogger = new PaymentEventLogger("sync", 64, 1.0);
+  @TempDir
+  private Path auditDirectory;
+  private AuditTrailWriter auditTrailWriter;
+  private RuntimeTuner tuner;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    auditTrailWriter = new AuditTrailWriter(new AuditProperties(true, auditDirectory,
+        DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), DataSize.ofMegabytes(1),
+        Duration.ofSeconds(1)));
+    tuner = tuner(paymentEventLogger);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    readLane.close();
+    writeLane.close();
+    auditTrailWriter.shutdown();
+  }
+
+  @Test
+  void whenSettingsChangeThenEveryControlTakesThemWithoutDroppingQueuedWork() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<CompletableFuture<String>> inFlight = List.of(
+        writeLane.supply(() -> await(release)), writeLane.supply(() -> await(release)),
+        writeLane.supply(() -> await(release)), writeLane.supply(() -> await(release)),
+        writeLane.supply(() -> await(release)));
+    RuntimeSettings before = tuner.get();
+
+    RuntimeSettings next = new RuntimeSettings(8, 1, Duration.ofSeconds(1),
+        Duration.ofSeconds(2), 25, 10, 20, Duration.ofSeconds(3), 2, 50, 8, 0.5);
+    assertSame(next, tuner.apply(next, "ops"));
+
+    assertEquals(8, readLane.getThreads());
+    assertEquals(1, writeLane.getThreads());
+    assertEquals(Duration.ofSeconds(1), bankRequestFactory.getConnectTimeout());
+    assertEquals(Duration.ofSeconds(2), bankRequestFactory.getReadTimeout());
+    assertEquals(25, bankCircuitBreakers.getConfig().getFailureRateThreshold());
+    assertEquals(20, bankCircuitBreakers.getConfig().getSlidingWindowSize());
+    assertEquals(8, bankCircuitBreakers.getMaxPartitions());
+    assertEquals(50, merchantRateLimiter.getMaxMerchants());
+    assertEquals(0.5, paymentEventLogger.getSampleRate());
+    assertSame(next, tuner.get());
+
+    release.countDown();
+    for (CompletableFuture<String> task : inFlight) {
+      assertEquals("done", task.get(5, TimeUnit.SECONDS));
+    }
+    List<SettingsChange> changes = tuner.getChanges();
+    assertEquals(1, changes.size());
+    assertEquals("ops", changes.get(0).actor());
+    assertEquals(1_000L, changes.get(0).atMillis());
+    assertEquals(List.of(before.readLaneThreads(), 8),
+        changes.get(0).changed().get("readLaneThreads"));
+    assertEquals(12, changes.get(0).changed().size());
+
+    tuner.apply(next, "ops");
+    assertEquals(1, tuner.getChanges().size());
+
+    auditTrailWriter.shutdown();
+    List<AuditRecord> audited = new ArrayList<>();
+    // Stamped by the tuner's clock, at 1 second past the epoch.
+    assertTrue(AuditTrailReader.verify(auditDirectory, LocalDate.EPOCH, audited::add).ok());
+    assertEquals(1, audited.size());
+    assertEquals(PaymentEventType.SETTINGS_CHANGED, audited.get(0).type());
+    assertEquals(1, audited.get(0).version());
+    assertNull(audited.get(0).currency());
+    assertEquals("ops", audited.get(0).idempotencyKey());
+    assertTrue(audited.get(0).reason().contains("readLaneThreads=[" + before.readLaneThreads()
+        + ", 8]"));
+  }
+
+  @Test
+  void whenAnySettingIsInvalidThenNothingChanges() {
+    RuntimeSettings before = tuner.get();
+    RuntimeSettings next = new RuntimeSettings(0, 8, Duration.ofSeconds(20),
+        Duration.ofSeconds(20), 25, 10, 20, Duration.ofSeconds(3), 2, 50, 8, 0.5);
+
+    InvalidSettingsException e =
+        assertThrows(InvalidSettingsException.class, () -> tuner.apply(next, "ops"));
+
+    assertEquals(2, e.getErrors().size());
+    assertTrue(e.getErrors().get(0).startsWith("readLaneThreads"));
+    assertTrue(e.getErrors().get(1).contains("sweeper deadline"));
+    assertSame(before, tuner.get());
+    assertEquals(4, writeLane.getThreads());
+    assertEquals(Duration.ofSeconds(5), bankRequestFactory.getReadTimeout());
+    assertEquals(10_000, merchantRateLimiter.getMaxMerchants());
+    assertTrue(tuner.getChanges().isEmpty());
+  }
+
+  @Test
+  void whenStartupSampleRateIsOutOfRangeThenStartupFails() {
+    PaymentEventLogger oversampled = new PaymentEventLogger("sync", 64, 1.5);
+
+    InvalidSettingsException e =
+        assertThrows(InvalidSettingsException.class, () -> tuner(oversampled));
+
+    assertEquals(List.of("logSampleRate must be between 0 and 1"), e.getErrors());
+  }
+
+  @Test
+  void whenBreakerThresholdsChangeThenAnOpenRouteStaysOpen() {
+    CircuitBreaker gbp = bankCircuitBreakers.forRequest(request("GBP"));
+    gbp.transitionToOpenState();
+    CircuitBreaker usd = bankCircuitBreakers.forRequest(request("USD"));
+    RuntimeSettings before = tuner.get();
+
+    tuner.apply(new RuntimeSettings(before.readLaneThreads(), before.writeLaneThreads(),
+        before.bankConnectTimeout(), before.bankReadTimeout(), 10, 5, 10,
+        Duration.ofSeconds(1), 1, before.rateLimitMaxMerchants(), before.breakerMaxPartitions(),
+        before.logSampleRate()), "ops");
+
+    CircuitBreaker newGbp = bankCircuitBreakers.forRequest(request("GBP"));
+    CircuitBreaker newUsd = bankCircuitBreakers.forRequest(request("USD"));
+    assertEquals(CircuitBreaker.State.OPEN, newGbp.getState());
+    assertEquals(CircuitBreaker.State.CLOSED, newUsd.getState());
+    assertEquals(10, newUsd.getCircuitBreakerConfig().getFailureRateThreshold());
+    assertSame(newGbp, circuitBreakerRegistry.circuitBreaker(gbp.getName()));
+    assertEquals(usd.getName(), newUsd.getName());
+  }
+
+  @Test
+  void whenPartialChangesRaceThenNoneIsLost() throws Exception {
+    int start = tuner.get().rateLimitMaxMerchants();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 100; i++) {
+      executor.execute(() -> tuner.apply(s -> new RuntimeSettings(s.readLaneThreads(),
+          s.writeLaneThreads(), s.bankConnectTimeout(), s.bankReadTimeout(),
+          s.breakerFailureRateThreshold(), s.breakerMinimumNumberOfCalls(),
+          s.breakerSlidingWindowSize(), s.breakerWaitDurationInOpenState(),
+          s.breakerPermittedCallsInHalfOpenState(), s.rateLimitMaxMerchants() + 1,
+          s.breakerMaxPartitions(), s.logSampleRate()), "ops"));
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    assertEquals(start + 100, tuner.get().rateLimitMaxMerchants());
+    assertEquals(start + 100, merchantRateLimiter.getMaxMerchants());
+    assertEquals(100, tuner.getChanges().get(RuntimeTuner.HISTORY - 1).sequence());
+  }
+
+  private RuntimeTuner tuner(PaymentEventLogger logger) {
+    return new RuntimeTuner(readLane, writeLane, bankRequestFactory, bankCircuitBreakers,
+        merchantRateLimiter, logger, auditTrailWriter,
+        new SweeperProperties(false, Duration.ofSeconds(30), Duration.ofMillis(100), 512, 16, 16),
+        () -> 1_000L);
+  }
+
+  private static AcquiringBankRequest request(String currency) {
+    AcquiringBankRequest request = new AcquiringBankRequest();
+    request.setCurrency(currency);
+    request.setCardNumber("2222405343248877");
+    return request;
+  }
+
+  private static String await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "done";
+  }
+}